@@ -15,6 +15,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
 
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.spi.DocumentationType;
@@ -29,6 +30,7 @@ import java.util.List;
 
 @EnableFeignClients
 @EnableEurekaClient
+@EnableScheduling
 @SpringBootApplication
 public class SearchServiceApplication implements CommandLineRunner {
 
@@ -0,0 +1,50 @@
+package com.revature.rms.search.aspects;
+
+import com.revature.rms.search.services.HydrationContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens a HydrationContext around every controller call so that all of the
+ * lookups made while building one response share the same context. The number
+ * of auth service calls that the context saved is added to the
+ * search.hydration.appuser.saved counter and the number of bulk requests
+ * to search.hydration.appuser.bulk-calls, both of which can be read from
+ * /actuator/metrics.
+ */
+@Aspect
+@Component
+public class HydrationContextAspect {
+
+  private Counter userLookups;
+  private Counter savedUserCalls;
+  private Counter bulkUserCalls;
+
+  @Autowired
+  public HydrationContextAspect(MeterRegistry registry) {
+    this.userLookups = registry.counter("search.hydration.appuser.lookups");
+    this.savedUserCalls = registry.counter("search.hydration.appuser.saved");
+    this.bulkUserCalls = registry.counter("search.hydration.appuser.bulk-calls");
+  }
+
+  @Around("within(com.revature.rms.search.controllers..*)")
+  public Object withHydrationContext(ProceedingJoinPoint pjp) throws Throwable {
+    if (HydrationContext.current() != null) {
+      return pjp.proceed();
+    }
+    HydrationContext context = HydrationContext.open();
+    try {
+      return pjp.proceed();
+    } finally {
+      HydrationContext.close();
+      userLookups.increment(context.getUserLookups());
+      savedUserCalls.increment(context.getSavedUserCalls());
+      bulkUserCalls.increment(context.getUserBulkCalls());
+    }
+  }
+}
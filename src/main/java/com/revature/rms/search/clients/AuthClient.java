@@ -7,6 +7,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import java.util.List;
+
 @RequestMapping("/users")
 @FeignClient(name = "auth-service")
 public interface AuthClient {
@@ -14,4 +16,7 @@ public interface AuthClient {
     @GetMapping(value = "/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     public AppUser getUserById(@PathVariable int id);
 
+    @GetMapping(value = "/ids/{ids}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<AppUser> getUsersByIds(@PathVariable List<Integer> ids);
+
 }
@@ -19,8 +19,8 @@ public interface EmployeeClient {
     @GetMapping(value = "/id/{id}" , produces = MediaType.APPLICATION_JSON_VALUE)
     public Employee getEmployeeById(@PathVariable int id);
 
-    @GetMapping(value = "/ids/{ids}", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-    public List<Employee> getEmployeesByIds(@PathVariable List<Integer> ids);
+    @PostMapping(value = "/ids", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<Employee> getEmployeesByIds(@RequestBody List<Integer> ids);
 
     @GetMapping(value = "/owners/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
     public List<Employee> getAllEmployeeByOwner(@PathVariable("id") int id);
@@ -0,0 +1,65 @@
+package com.revature.rms.search.config;
+
+import com.revature.rms.search.services.HydrationContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * The hydration executor is the thread pool that the ETLService uses to hydrate
+ * sibling buildings, rooms and room statuses at the same time. It has no queue:
+ * when all of its threads are busy the task runs on the calling thread instead.
+ * That keeps the pool bounded and means that a building waiting on its rooms can
+ * never be stuck behind rooms that are waiting for a free thread.
+ *
+ * Spring Boot only creates its applicationTaskExecutor when there is no other
+ * Executor bean, so it is declared here as well, the same way Boot declares it
+ * and still configured by spring.task.execution.*. Async MVC requests and
+ * anything @Async keep running on it instead of on the hydration pool.
+ */
+@Configuration
+public class HydrationExecutorConfig {
+
+  private HydrationProperties hydrationProps;
+
+  @Autowired
+  public HydrationExecutorConfig(HydrationProperties hydrationProperties) {
+    this.hydrationProps = hydrationProperties;
+  }
+
+  @Lazy
+  @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+  public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+    return builder.build();
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor hydrationExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    int parallelism = Math.max(1, hydrationProps.getParallelism());
+    executor.setCorePoolSize(parallelism);
+    executor.setMaxPoolSize(parallelism);
+    executor.setQueueCapacity(0);
+    executor.setAllowCoreThreadTimeOut(true);
+    executor.setThreadNamePrefix("hydration-");
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setTaskDecorator(task -> {
+      HydrationContext context = HydrationContext.current();
+      return () -> {
+        HydrationContext previous = HydrationContext.current();
+        HydrationContext.bind(context);
+        try {
+          task.run();
+        } finally {
+          HydrationContext.bind(previous);
+        }
+      };
+    });
+    return executor;
+  }
+}
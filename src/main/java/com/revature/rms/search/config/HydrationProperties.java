@@ -0,0 +1,232 @@
+package com.revature.rms.search.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings used by the ETLService while it hydrates DTOs. Every value has a
+ * default so nothing has to be added to the config server, but each of them
+ * can be overridden with a search.hydration.* property.
+ */
+@Component
+@ConfigurationProperties(prefix = "search.hydration")
+public class HydrationProperties {
+
+  /**
+   * The most AppUser ids that are sent to the auth service in a single bulk request.
+   */
+  private int userBatchSize = 50;
+
+  /**
+   * The most employee ids that are sent to the employee service in a single bulk request.
+   */
+  private int employeeBatchSize = 50;
+
+  /**
+   * How long single employee lookups from all threads are collected before they are sent to the
+   * employee service as one bulk request. A batch is sent sooner if it reaches employeeBatchSize ids.
+   */
+  private Duration employeeBatchWindow = Duration.ofMillis(2);
+
+  /**
+   * The most batches whose window ran out that may wait for a free thread to send them. When that
+   * many are waiting, the next one is sent by the timer thread itself.
+   */
+  private int employeeBatchQueueSize = 1000;
+
+  /**
+   * The most threads used to hydrate sibling buildings, rooms and room statuses at the same time.
+   * When every thread is busy the caller hydrates the next sibling itself.
+   */
+  private int parallelism = 16;
+
+  /**
+   * The most calls that may be waiting on the employee service at the same time.
+   */
+  private int employeeServiceConcurrency = 8;
+
+  /**
+   * The most calls that may be waiting on the auth service at the same time.
+   */
+  private int authServiceConcurrency = 8;
+
+  /**
+   * How often, in milliseconds, the trainer to room index is rebuilt in the background.
+   */
+  private long trainerIndexRefreshMs = 300000;
+
+  /**
+   * The shortest time, in milliseconds, between two rebuilds of the trainer to room index that were
+   * asked for by a lookup that found it out of date.
+   */
+  private long trainerIndexMinRebuildMs = 30000;
+
+  /**
+   * The most fully hydrated employees kept in the employee cache. The least recently used ones are
+   * dropped first once it is full.
+   */
+  private long employeeCacheMaxSize = 10000;
+
+  /**
+   * How long a cached employee is served before it has to be fetched and hydrated again.
+   */
+  private Duration employeeCacheTtl = Duration.ofMinutes(10);
+
+  /**
+   * How old a cached employee can get before the next lookup refreshes it in the background. The
+   * stale copy keeps being served until the refresh finishes. Must be shorter than the TTL to have
+   * any effect.
+   */
+  private Duration employeeCacheRefreshAfter = Duration.ofMinutes(5);
+
+  /**
+   * The most AppUsers kept in the AppUser cache, counting the ones that were not found.
+   */
+  private long userCacheMaxSize = 10000;
+
+  /**
+   * How long a cached AppUser is served before it has to be fetched again.
+   */
+  private Duration userCacheTtl = Duration.ofMinutes(30);
+
+  /**
+   * How old a cached AppUser can get before the next lookup refreshes it in the background. Must be
+   * shorter than the TTL to have any effect.
+   */
+  private Duration userCacheRefreshAfter = Duration.ofMinutes(10);
+
+  /**
+   * How long the auth service's answer that an AppUser does not exist is remembered.
+   */
+  private Duration userCacheNegativeTtl = Duration.ofSeconds(30);
+
+  public int getUserBatchSize() {
+    return userBatchSize;
+  }
+
+  public void setUserBatchSize(int userBatchSize) {
+    this.userBatchSize = userBatchSize;
+  }
+
+  public int getEmployeeBatchSize() {
+    return employeeBatchSize;
+  }
+
+  public void setEmployeeBatchSize(int employeeBatchSize) {
+    this.employeeBatchSize = employeeBatchSize;
+  }
+
+  public Duration getEmployeeBatchWindow() {
+    return employeeBatchWindow;
+  }
+
+  public void setEmployeeBatchWindow(Duration employeeBatchWindow) {
+    this.employeeBatchWindow = employeeBatchWindow;
+  }
+
+  public int getEmployeeBatchQueueSize() {
+    return employeeBatchQueueSize;
+  }
+
+  public void setEmployeeBatchQueueSize(int employeeBatchQueueSize) {
+    this.employeeBatchQueueSize = employeeBatchQueueSize;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  public int getEmployeeServiceConcurrency() {
+    return employeeServiceConcurrency;
+  }
+
+  public void setEmployeeServiceConcurrency(int employeeServiceConcurrency) {
+    this.employeeServiceConcurrency = employeeServiceConcurrency;
+  }
+
+  public int getAuthServiceConcurrency() {
+    return authServiceConcurrency;
+  }
+
+  public void setAuthServiceConcurrency(int authServiceConcurrency) {
+    this.authServiceConcurrency = authServiceConcurrency;
+  }
+
+  public long getTrainerIndexRefreshMs() {
+    return trainerIndexRefreshMs;
+  }
+
+  public void setTrainerIndexRefreshMs(long trainerIndexRefreshMs) {
+    this.trainerIndexRefreshMs = trainerIndexRefreshMs;
+  }
+
+  public long getTrainerIndexMinRebuildMs() {
+    return trainerIndexMinRebuildMs;
+  }
+
+  public void setTrainerIndexMinRebuildMs(long trainerIndexMinRebuildMs) {
+    this.trainerIndexMinRebuildMs = trainerIndexMinRebuildMs;
+  }
+
+  public long getEmployeeCacheMaxSize() {
+    return employeeCacheMaxSize;
+  }
+
+  public void setEmployeeCacheMaxSize(long employeeCacheMaxSize) {
+    this.employeeCacheMaxSize = employeeCacheMaxSize;
+  }
+
+  public Duration getEmployeeCacheTtl() {
+    return employeeCacheTtl;
+  }
+
+  public void setEmployeeCacheTtl(Duration employeeCacheTtl) {
+    this.employeeCacheTtl = employeeCacheTtl;
+  }
+
+  public Duration getEmployeeCacheRefreshAfter() {
+    return employeeCacheRefreshAfter;
+  }
+
+  public void setEmployeeCacheRefreshAfter(Duration employeeCacheRefreshAfter) {
+    this.employeeCacheRefreshAfter = employeeCacheRefreshAfter;
+  }
+
+  public long getUserCacheMaxSize() {
+    return userCacheMaxSize;
+  }
+
+  public void setUserCacheMaxSize(long userCacheMaxSize) {
+    this.userCacheMaxSize = userCacheMaxSize;
+  }
+
+  public Duration getUserCacheTtl() {
+    return userCacheTtl;
+  }
+
+  public void setUserCacheTtl(Duration userCacheTtl) {
+    this.userCacheTtl = userCacheTtl;
+  }
+
+  public Duration getUserCacheRefreshAfter() {
+    return userCacheRefreshAfter;
+  }
+
+  public void setUserCacheRefreshAfter(Duration userCacheRefreshAfter) {
+    this.userCacheRefreshAfter = userCacheRefreshAfter;
+  }
+
+  public Duration getUserCacheNegativeTtl() {
+    return userCacheNegativeTtl;
+  }
+
+  public void setUserCacheNegativeTtl(Duration userCacheNegativeTtl) {
+    this.userCacheNegativeTtl = userCacheNegativeTtl;
+  }
+}
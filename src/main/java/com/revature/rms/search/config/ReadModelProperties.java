@@ -0,0 +1,97 @@
+package com.revature.rms.search.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the search read model and the ETL job that fills it. Every value
+ * has a default, and each of them can be overridden with a search.read-model.*
+ * property.
+ */
+@Component
+@ConfigurationProperties(prefix = "search.read-model")
+public class ReadModelProperties {
+
+  /**
+   * Whether the ETL job runs at all. While it is off, or before its first load has finished, every
+   * endpoint is answered by hydrating on the request path as before.
+   */
+  private boolean enabled = true;
+
+  /**
+   * How long, in milliseconds, to wait after one full load has finished before starting the next. Changes are
+   * normally picked up by the incremental sync, so full loads only need to catch what it cannot see.
+   */
+  private long refreshMs = 3600000;
+
+  /**
+   * How long, in milliseconds, to wait after one incremental sync has finished before starting the next.
+   */
+  private long syncMs = 30000;
+
+  /**
+   * How long, in milliseconds, to wait after startup before the first full load.
+   */
+  private long initialDelayMs = 0;
+
+  /**
+   * Where the snapshot of the read model is written, and read back from on startup. Empty by default, which never
+   * writes or reads a snapshot. The snapshot holds every document as plain JSON, employee names and emails
+   * included, so only point it at a directory no one but this service can read.
+   */
+  private String snapshotPath = "";
+
+  /**
+   * How long, in milliseconds, to wait after one snapshot has been written before writing the next. A snapshot is
+   * only written when the read model has changed since the last one.
+   */
+  private long snapshotMs = 300000;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getRefreshMs() {
+    return refreshMs;
+  }
+
+  public void setRefreshMs(long refreshMs) {
+    this.refreshMs = refreshMs;
+  }
+
+  public long getSyncMs() {
+    return syncMs;
+  }
+
+  public void setSyncMs(long syncMs) {
+    this.syncMs = syncMs;
+  }
+
+  public long getInitialDelayMs() {
+    return initialDelayMs;
+  }
+
+  public void setInitialDelayMs(long initialDelayMs) {
+    this.initialDelayMs = initialDelayMs;
+  }
+
+  public String getSnapshotPath() {
+    return snapshotPath;
+  }
+
+  public void setSnapshotPath(String snapshotPath) {
+    this.snapshotPath = snapshotPath;
+  }
+
+  public long getSnapshotMs() {
+    return snapshotMs;
+  }
+
+  public void setSnapshotMs(long snapshotMs) {
+    this.snapshotMs = snapshotMs;
+  }
+}
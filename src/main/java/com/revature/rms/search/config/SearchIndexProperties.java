@@ -0,0 +1,94 @@
+package com.revature.rms.search.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the in-memory search indexes. Every value has a default, and
+ * each of them can be overridden with a search.index.* property.
+ */
+@Component
+@ConfigurationProperties(prefix = "search.index")
+public class SearchIndexProperties {
+
+  /**
+   * How long, in milliseconds, to wait between rebuilds of the indexes straight from the other services. The
+   * indexes are also kept up to date by every read model load and sync, so this only matters when the read model
+   * is switched off.
+   */
+  private long refreshMs = 3600000;
+
+  /**
+   * How many hits a search returns when the request does not say.
+   */
+  private int defaultLimit = 20;
+
+  /**
+   * The most hits a single search may ask for.
+   */
+  private int maxLimit = 200;
+
+  /**
+   * How many suggestions each node of the autocomplete tries keeps, which is also the most a suggest request can
+   * ask for.
+   */
+  private int suggestTopK = 10;
+
+  /**
+   * BM25 term frequency saturation. Higher values let repeated words count for more.
+   */
+  private double bm25K1 = 1.2;
+
+  /**
+   * BM25 length normalization, from 0 for none to 1 for full.
+   */
+  private double bm25B = 0.75;
+
+  public long getRefreshMs() {
+    return refreshMs;
+  }
+
+  public void setRefreshMs(long refreshMs) {
+    this.refreshMs = refreshMs;
+  }
+
+  public int getDefaultLimit() {
+    return defaultLimit;
+  }
+
+  public void setDefaultLimit(int defaultLimit) {
+    this.defaultLimit = defaultLimit;
+  }
+
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  public void setMaxLimit(int maxLimit) {
+    this.maxLimit = maxLimit;
+  }
+
+  public int getSuggestTopK() {
+    return suggestTopK;
+  }
+
+  public void setSuggestTopK(int suggestTopK) {
+    this.suggestTopK = suggestTopK;
+  }
+
+  public double getBm25K1() {
+    return bm25K1;
+  }
+
+  public void setBm25K1(double bm25K1) {
+    this.bm25K1 = bm25K1;
+  }
+
+  public double getBm25B() {
+    return bm25B;
+  }
+
+  public void setBm25B(double bm25B) {
+    this.bm25B = bm25B;
+  }
+}
@@ -0,0 +1,42 @@
+package com.revature.rms.search.config;
+
+import com.revature.rms.search.services.ETLService;
+import com.revature.rms.search.services.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Reports how well the ETLService's single-flight groups are coalescing lookups.
+ * search.singleflight.calls counts every lookup and search.singleflight.coalesced
+ * the ones that waited on a lookup another request had already started, each
+ * tagged with the group name. Both can be read from /actuator/metrics.
+ */
+@Component
+public class SingleFlightMetrics implements MeterBinder {
+
+  private ETLService etlService;
+
+  @Autowired
+  public SingleFlightMetrics(ETLService etlService) {
+    this.etlService = etlService;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (Map.Entry<String, SingleFlight<?, ?>> flight : etlService.getSingleFlights().entrySet()) {
+      FunctionCounter.builder("search.singleflight.calls", flight.getValue(), SingleFlight::getCalls)
+          .tag("group", flight.getKey())
+          .description("Lookups made through the single-flight group")
+          .register(registry);
+      FunctionCounter.builder("search.singleflight.coalesced", flight.getValue(), SingleFlight::getCoalesced)
+          .tag("group", flight.getKey())
+          .description("Lookups that shared a lookup another caller had already started")
+          .register(registry);
+    }
+  }
+}
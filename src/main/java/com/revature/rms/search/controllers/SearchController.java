@@ -4,30 +4,62 @@ import com.revature.rms.search.dtos.*;
 import com.revature.rms.search.entites.batch.Batch;
 import com.revature.rms.search.entites.workorder.WorkOrder;
 import com.revature.rms.core.exceptions.*;
+import com.revature.rms.search.services.DateRangeService;
 import com.revature.rms.search.services.ETLService;
+import com.revature.rms.search.services.EmployeeSearchService;
+import com.revature.rms.search.services.FacetService;
+import com.revature.rms.search.services.FilterService;
+import com.revature.rms.search.services.OccupancyService;
+import com.revature.rms.search.services.QueryService;
+import com.revature.rms.search.services.SearchReadModel;
+import com.revature.rms.search.services.SuggestService;
 import io.swagger.annotations.ApiOperation;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Some extra endpoints will be needed so that you can make calls by user type
  * so that it will be easier for the front-end team to work with what they need.
  * The batch and work order endpoints were to test the repos to ensure that they
  * were properly fetching the data we needed for the dummy objects we created.
+ *
+ * Once the SearchReadModel has finished its first load, every endpoint is
+ * answered from it, including the lookups by owner. Until then they are
+ * hydrated by the ETLService on the request path.
  */
 @RestController
 @RequestMapping("/search")
 public class SearchController {
 
   private ETLService etlService;
+  private SearchReadModel readModel;
+  private EmployeeSearchService employeeSearch;
+  private SuggestService suggestService;
+  private FacetService facetService;
+  private FilterService filterService;
+  private DateRangeService dateRangeService;
+  private QueryService queryService;
+  private OccupancyService occupancyService;
 
   @Autowired
-  public SearchController(ETLService service) {
+  public SearchController(ETLService service, SearchReadModel searchReadModel, EmployeeSearchService employeeSearchService,
+      SuggestService suggestService, FacetService facetService, FilterService filterService,
+      DateRangeService dateRangeService, QueryService queryService, OccupancyService occupancyService) {
     this.etlService = service;
+    this.readModel = searchReadModel;
+    this.employeeSearch = employeeSearchService;
+    this.suggestService = suggestService;
+    this.facetService = facetService;
+    this.filterService = filterService;
+    this.dateRangeService = dateRangeService;
+    this.queryService = queryService;
+    this.occupancyService = occupancyService;
   }
 
   /**
@@ -37,7 +69,7 @@ public class SearchController {
   @ApiOperation(value = "Returns a list of all campuses including all nested objects")
   @GetMapping(value = "/campuses", produces = MediaType.APPLICATION_JSON_VALUE)
   public List<CampusDto> getAllCampuses() {
-    return etlService.getAllCampuses();
+    return readModel.isReady() ? readModel.getAllCampuses() : etlService.getAllCampuses();
   }
 
   /**
@@ -47,7 +79,7 @@ public class SearchController {
   @ApiOperation(value = "Returns a list of all campuses including all nested objects by the respective training manager ID")
   @GetMapping(value = "/campuses/training-managers/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public List<CampusDto> getAllCampusesByTrainingManagerId(@PathVariable int id) {
-    return etlService.getAllCampusesByTrainingManagerId(id);
+    return readModel.isReady() ? readModel.getAllCampusesByTrainingManagerId(id) : etlService.getAllCampusesByTrainingManagerId(id);
   }
 
   /**
@@ -58,7 +90,7 @@ public class SearchController {
   @ApiOperation(value = "Returns a campus by id including all nested object")
   @GetMapping(value = "/campuses/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public CampusDto getCampusDtoById(@PathVariable("id") int id) {
-    return etlService.getCampusDtoById(id);
+    return readModel.isReady() ? readModel.getCampusDtoById(id) : etlService.getCampusDtoById(id);
   }
 
   /**
@@ -69,7 +101,7 @@ public class SearchController {
   @ApiOperation(value = "Returns a list of campuses owned by a specified app user")
   @GetMapping(value = "/campuses/owners/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public List<CampusDto> getAllCampusesByOwnerId(@PathVariable("id") int id){
-    return etlService.getAllCampusesByOwnerId(id);
+    return readModel.isReady() ? readModel.getAllCampusesByOwnerId(id) : etlService.getAllCampusesByOwnerId(id);
   }
 
   /**
@@ -79,7 +111,7 @@ public class SearchController {
   @ApiOperation(value = "Returns a list of all buildings")
   @GetMapping(value = "/buildings", produces = MediaType.APPLICATION_JSON_VALUE)
   public  List<BuildingDto> getAllBuildings(){
-    return etlService.getAllBuildings();
+    return readModel.isReady() ? readModel.getAllBuildings() : etlService.getAllBuildings();
   }
 
   /**
@@ -90,7 +122,7 @@ public class SearchController {
   @ApiOperation(value = "Returns a building by id including all nested objects")
   @GetMapping(value = "/buildings/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public BuildingDto getBuildingDtoById(@PathVariable("id") int id) {
-    return etlService.getBuildingDtoById(id);
+    return readModel.isReady() ? readModel.getBuildingDtoById(id) : etlService.getBuildingDtoById(id);
   }
 
   /**
@@ -101,7 +133,7 @@ public class SearchController {
   @ApiOperation(value = "Returns a building by the Training Lead/Building Manager ID, including all nested objects")
   @GetMapping(value = "/buildings/training-managers/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public BuildingDto getBuildingDtoByTrainingLeadId(@PathVariable int id) {
-    return etlService.getBuildingDtoByTrainingLeadId(id);
+    return readModel.isReady() ? readModel.getBuildingDtoByTrainingLeadId(id) : etlService.getBuildingDtoByTrainingLeadId(id);
   }
 
   /**
@@ -112,7 +144,7 @@ public class SearchController {
   @ApiOperation(value = "Returns a list of buildings base on an app user id")
   @GetMapping(value = "/buildings/owners/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public List<BuildingDto> getAllBuildingsByOwner(@PathVariable("id") int id) {
-    return etlService.getAllBuildingsByOwner(id);
+    return readModel.isReady() ? readModel.getAllBuildingsByOwner(id) : etlService.getAllBuildingsByOwner(id);
   }
 
   /**
@@ -122,7 +154,7 @@ public class SearchController {
   @ApiOperation(value = "Returns a list of all RoomDto objects")
   @GetMapping(value = "/rooms")
   public List<RoomDto> getAllRooms() {
-    return etlService.getAllRooms();
+    return readModel.isReady() ? readModel.getAllRooms() : etlService.getAllRooms();
   }
 
   /**
@@ -133,7 +165,7 @@ public class SearchController {
   @ApiOperation(value = "Returns a room by id including all nested objects")
   @GetMapping(value = "/rooms/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public RoomDto getRoomDtoById(@PathVariable("id") int id) {
-    return etlService.getRoomDtoById(id);
+    return readModel.isReady() ? readModel.getRoomDtoById(id) : etlService.getRoomDtoById(id);
   }
 
   /**
@@ -144,7 +176,18 @@ public class SearchController {
   @ApiOperation(value = "Returns a room by Trainer id including all nested objects")
   @GetMapping(value = "/rooms/training-managers/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public RoomDto getRoomDtoByTrainerId(@PathVariable("id") int id) {
-    return etlService.getRoomDtoByTrainerId(id);
+    return readModel.isReady() ? readModel.getRoomDtoByTrainerId(id) : etlService.getRoomDtoByTrainerId(id);
+  }
+
+  /**
+   * getRoomDtoByCoTrainerId method: Takes in a co-trainer's id and returns the room their batch is held in
+   * @param id
+   * @return the RoomDto whose batch has the given co-trainer
+   */
+  @ApiOperation(value = "Returns a room by co-trainer id including all nested objects")
+  @GetMapping(value = "/rooms/co-trainers/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public RoomDto getRoomDtoByCoTrainerId(@PathVariable("id") int id) {
+    return readModel.isReady() ? readModel.getRoomDtoByCoTrainerId(id) : etlService.getRoomDtoByCoTrainerId(id);
   }
 
   /**
@@ -155,7 +198,19 @@ public class SearchController {
   @ApiOperation(value = "Returns a list of rooms base on an app user id")
   @GetMapping(value = "/rooms/owners/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public List<RoomDto> getAllRoomByOwner(@PathVariable("id") int id) {
-    return etlService.getAllRoomByOwner(id);
+    return readModel.isReady() ? readModel.getAllRoomByOwner(id) : etlService.getAllRoomByOwner(id);
+  }
+
+  /**
+   * filterRooms method: Takes in any of active, owner, campus, building, curriculum and category, each with one or
+   * more values, and returns the rooms that have one of the values of every field
+   * @param filters the fields and values to keep; a field with not. in front leaves its values out instead
+   * @return a list of RoomDto objects
+   */
+  @ApiOperation(value = "Returns the rooms that match every filter, such as campus=2&curriculum=JAVA_MSA&not.category=DOORS")
+  @GetMapping(value = "/rooms/filter", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<RoomDto> filterRooms(@RequestParam MultiValueMap<String, String> filters) {
+    return filterService.filterRooms(filters);
   }
 
   /**
@@ -165,7 +220,21 @@ public class SearchController {
   @ApiOperation(value = "Returns a list of all employees including all nested objects")
   @GetMapping(value = "/employees", produces = MediaType.APPLICATION_JSON_VALUE)
   public List<EmployeeDto> getAllEmployees() {
-    return etlService.getAllEmployees();
+    return readModel.isReady() ? readModel.getAllEmployees() : etlService.getAllEmployees();
+  }
+
+  /**
+   * searchEmployees method: Takes in a query and returns the employees whose name, email, title or department
+   * match it, best matches first
+   * @param q words that must all match, optionally grouped with OR
+   * @param limit the most employees to return
+   * @return the total number of matches and the best matching EmployeeDtos with their scores
+   */
+  @ApiOperation(value = "Searches employees by name, email, title and department, best matches first")
+  @GetMapping(value = "/employees", params = "q", produces = MediaType.APPLICATION_JSON_VALUE)
+  public SearchResponse<EmployeeDto> searchEmployees(@RequestParam("q") String q,
+      @RequestParam(value = "limit", required = false) Integer limit) {
+    return employeeSearch.searchEmployees(q, limit);
   }
 
   /**
@@ -176,7 +245,7 @@ public class SearchController {
   @ApiOperation(value = "Returns an employee by id including all nested obljects")
   @GetMapping(value = "/employees/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public EmployeeDto getEmployeeById(@PathVariable("id") int id) {
-    return etlService.getEmployeeById(id);
+    return readModel.isReady() ? readModel.getEmployeeById(id) : etlService.getEmployeeById(id);
   }
 
   /**
@@ -187,7 +256,120 @@ public class SearchController {
   @ApiOperation(value = "Returns a list of Employees resources owned by a provided app user")
   @GetMapping(value = "/employees/owners/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public  List<EmployeeDto> getAllEmployeeByOwner(@PathVariable("id") int id) {
-    return  etlService.getAllEmployeeByOwner(id);
+    return readModel.isReady() ? readModel.getAllEmployeeByOwner(id) : etlService.getAllEmployeeByOwner(id);
+  }
+
+  /**
+   * filterEmployees method: Takes in any of active, department, owner and campus, each with one or more values, and
+   * returns the employees that have one of the values of every field
+   * @param filters the fields and values to keep; a field with not. in front leaves its values out instead
+   * @return a list of EmployeeDto objects
+   */
+  @ApiOperation(value = "Returns the employees that match every filter, such as active=true&department=TRAINING,STAGING&campus=2")
+  @GetMapping(value = "/employees/filter", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<EmployeeDto> filterEmployees(@RequestParam MultiValueMap<String, String> filters) {
+    return filterService.filterEmployees(filters);
+  }
+
+  /**
+   * suggest method: Takes in what has been typed into a picker so far and returns the best matching names
+   * @param prefix the start of a name, abbreviation or email
+   * @param type employee, campus or building, or leave it out for all three
+   * @param limit the most suggestions to return
+   * @return the ids and labels of the suggestions, best first
+   */
+  @ApiOperation(value = "Returns the ids and labels of employees, campuses or buildings whose names start with the prefix")
+  @GetMapping(value = "/suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<Suggestion> suggest(@RequestParam("prefix") String prefix,
+      @RequestParam(value = "type", required = false) String type,
+      @RequestParam(value = "limit", required = false) Integer limit) {
+    return suggestService.suggest(prefix, type, limit);
+  }
+
+  /**
+   * getFacets method: Takes in the facets to count and returns how many resources have each value
+   * @param dimensions any of employee.department, batch.curriculum, workorder.category, amenity.type and
+   *                   amenity.status, or leave it out for all of them
+   * @return each facet mapped to its counts, highest count first
+   */
+  @ApiOperation(value = "Returns the counts of employees per department, batches per curriculum, open work orders per category and amenities per type and status")
+  @GetMapping(value = "/facets", produces = MediaType.APPLICATION_JSON_VALUE)
+  public Map<String, Map<String, Long>> getFacets(@RequestParam(value = "dimension", required = false) List<String> dimensions) {
+    return facetService.getFacets(dimensions);
+  }
+
+  /**
+   * query method: Takes in a query of one entity and returns a page of the documents that match it
+   * @param request the entity, filters, sort, page, size, expand paths and facets, and whether to explain the plan
+   * @return the total, one page of documents, the facet counts and the plan when it was asked for
+   */
+  @ApiOperation(value = "Runs a query of employees, rooms, batches, work orders, campuses or buildings over the indexes the planner picks")
+  @PostMapping(value = "/query", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public QueryResponse query(@RequestBody QueryRequest request) {
+    return queryService.query(request);
+  }
+
+  /**
+   * getRoomOccupancy method: Takes in a room id and returns how full the room is
+   * @param id the room id
+   * @return the capacity, the people in the room and the share of the capacity they take
+   */
+  @ApiOperation(value = "Returns the occupancy of a room against its max occupancy")
+  @GetMapping(value = "/occupancy/rooms/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public OccupancyDto getRoomOccupancy(@PathVariable("id") int id) {
+    return occupancyService.getRoomOccupancy(id);
+  }
+
+  /**
+   * getOverCapacityRooms method: No input params, returns the rooms holding more people than they fit
+   * @return a list of OccupancyDto objects in order of room id
+   */
+  @ApiOperation(value = "Returns the rooms whose batch has more associates than the room fits")
+  @GetMapping(value = "/occupancy/rooms/over-capacity", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<OccupancyDto> getOverCapacityRooms() {
+    return occupancyService.getOverCapacityRooms();
+  }
+
+  /**
+   * getBuildingsOccupancy method: No input params, returns how full the rooms of each building are
+   * @return a list of OccupancyDto objects in order of building id
+   */
+  @ApiOperation(value = "Returns the occupancy of every building, summed over its rooms")
+  @GetMapping(value = "/occupancy/buildings", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<OccupancyDto> getBuildingsOccupancy() {
+    return occupancyService.getBuildingsOccupancy();
+  }
+
+  /**
+   * getBuildingOccupancy method: Takes in a building id and returns how full its rooms are
+   * @param id the building id
+   * @return the occupancy summed over the rooms of the building
+   */
+  @ApiOperation(value = "Returns the occupancy of a building, summed over its rooms")
+  @GetMapping(value = "/occupancy/buildings/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public OccupancyDto getBuildingOccupancy(@PathVariable("id") int id) {
+    return occupancyService.getBuildingOccupancy(id);
+  }
+
+  /**
+   * getCampusesOccupancy method: No input params, returns how full the rooms of each campus are
+   * @return a list of OccupancyDto objects in order of campus id
+   */
+  @ApiOperation(value = "Returns the occupancy of every campus, summed over the rooms of its buildings")
+  @GetMapping(value = "/occupancy/campuses", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<OccupancyDto> getCampusesOccupancy() {
+    return occupancyService.getCampusesOccupancy();
+  }
+
+  /**
+   * getCampusOccupancy method: Takes in a campus id and returns how full its rooms are
+   * @param id the campus id
+   * @return the occupancy summed over the rooms of the buildings on the campus
+   */
+  @ApiOperation(value = "Returns the occupancy of a campus, summed over the rooms of its buildings")
+  @GetMapping(value = "/occupancy/campuses/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public OccupancyDto getCampusOccupancy(@PathVariable("id") int id) {
+    return occupancyService.getCampusOccupancy(id);
   }
 
   //Get batch by id - will be implemented once rms-batch-service is complete
@@ -199,7 +381,33 @@ public class SearchController {
   @ApiOperation(value = "Returns a batch by id including all nested obljects")
   @GetMapping(value = "/batches/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public Batch getBatchById(@PathVariable("id") int id){
-    return etlService.getBatchById(id);
+    return readModel.isReady() ? readModel.getBatchById(id) : etlService.getBatchById(id);
+  }
+
+  /**
+   * getBatchesActiveOn method: Takes in a day and returns the batches running on it
+   * @param date the day, such as 2020-02-12 or 2/12/2020
+   * @return a list of Batch objects
+   */
+  @ApiOperation(value = "Returns the batches that have started and not yet ended on a day")
+  @GetMapping(value = "/batches/active", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<Batch> getBatchesActiveOn(@RequestParam("date") String date) {
+    return dateRangeService.getBatchesActiveOn(date);
+  }
+
+  /**
+   * getBatchesBetween method: Takes in a date field and a range of days and returns the batches in it
+   * @param field start or end, start when left out
+   * @param from the first day, or leave it out for no lower bound
+   * @param to the last day, or leave it out for no upper bound
+   * @return a list of Batch objects in order of the date
+   */
+  @ApiOperation(value = "Returns the batches whose start or end date falls between two days")
+  @GetMapping(value = "/batches/dates", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<Batch> getBatchesBetween(@RequestParam(value = "field", defaultValue = DateRangeService.START) String field,
+      @RequestParam(value = "from", required = false) String from,
+      @RequestParam(value = "to", required = false) String to) {
+    return dateRangeService.getBatchesBetween(field, from, to);
   }
 
   //Get work order by id - will be implemented once rms-work-order-service is complete
@@ -211,7 +419,23 @@ public class SearchController {
   @ApiOperation(value = "Returns a workorder including all nested obljects")
   @GetMapping(value = "/workorders/id/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
   public WorkOrder getWorkOrderById(@PathVariable("id") int id)  {
-    return etlService.getWorkOrderById(id);
+    return readModel.isReady() ? readModel.getWorkOrderById(id) : etlService.getWorkOrderById(id);
+  }
+
+  /**
+   * getWorkOrdersBetween method: Takes in a date field and a range of days and returns the work orders in it
+   * @param field created or resolved, created when left out
+   * @param from the first day, or leave it out for no lower bound
+   * @param to the last day, or leave it out for no upper bound
+   * @return a list of WorkOrder objects in order of the date
+   */
+  @ApiOperation(value = "Returns the work orders created or resolved between two days")
+  @GetMapping(value = "/workorders/dates", produces = MediaType.APPLICATION_JSON_VALUE)
+  public List<WorkOrder> getWorkOrdersBetween(
+      @RequestParam(value = "field", defaultValue = DateRangeService.CREATED) String field,
+      @RequestParam(value = "from", required = false) String from,
+      @RequestParam(value = "to", required = false) String to) {
+    return dateRangeService.getWorkOrdersBetween(field, from, to);
   }
 
   /**
@@ -0,0 +1,122 @@
+package com.revature.rms.search.dtos;
+
+import java.util.Objects;
+
+public class OccupancyDto {
+
+  private String type;
+  private int id;
+  private int rooms;
+  private long capacity;
+  private long occupants;
+  private Double ratio;
+  private int overCapacityRooms;
+
+  public OccupancyDto() {}
+
+  public OccupancyDto(String type, int id, int rooms, long capacity, long occupants, Double ratio, int overCapacityRooms) {
+    this.type = type;
+    this.id = id;
+    this.rooms = rooms;
+    this.capacity = capacity;
+    this.occupants = occupants;
+    this.ratio = ratio;
+    this.overCapacityRooms = overCapacityRooms;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public void setId(int id) {
+    this.id = id;
+  }
+
+  public int getRooms() {
+    return rooms;
+  }
+
+  public void setRooms(int rooms) {
+    this.rooms = rooms;
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  public void setCapacity(long capacity) {
+    this.capacity = capacity;
+  }
+
+  public long getOccupants() {
+    return occupants;
+  }
+
+  public void setOccupants(long occupants) {
+    this.occupants = occupants;
+  }
+
+  public Double getRatio() {
+    return ratio;
+  }
+
+  public void setRatio(Double ratio) {
+    this.ratio = ratio;
+  }
+
+  public int getOverCapacityRooms() {
+    return overCapacityRooms;
+  }
+
+  public void setOverCapacityRooms(int overCapacityRooms) {
+    this.overCapacityRooms = overCapacityRooms;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    OccupancyDto that = (OccupancyDto) o;
+    return id == that.id
+        && rooms == that.rooms
+        && capacity == that.capacity
+        && occupants == that.occupants
+        && overCapacityRooms == that.overCapacityRooms
+        && Objects.equals(type, that.type)
+        && Objects.equals(ratio, that.ratio);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(type, id, rooms, capacity, occupants, ratio, overCapacityRooms);
+  }
+
+  @Override
+  public String toString() {
+    return "OccupancyDto{"
+        + "type='"
+        + type
+        + '\''
+        + ", id="
+        + id
+        + ", rooms="
+        + rooms
+        + ", capacity="
+        + capacity
+        + ", occupants="
+        + occupants
+        + ", ratio="
+        + ratio
+        + ", overCapacityRooms="
+        + overCapacityRooms
+        + '}';
+  }
+}
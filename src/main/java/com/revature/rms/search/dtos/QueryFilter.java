@@ -0,0 +1,126 @@
+package com.revature.rms.search.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class QueryFilter {
+
+  private String field;
+  private String op = "in";
+  private List<String> values = new ArrayList<>();
+  private String from;
+  private String to;
+  private String join;
+  private List<QueryFilter> filters = new ArrayList<>();
+
+  public QueryFilter() {}
+
+  public QueryFilter(String field, String op, List<String> values, String from, String to) {
+    this.field = field;
+    this.op = op;
+    this.values = values;
+    this.from = from;
+    this.to = to;
+  }
+
+  public String getField() {
+    return field;
+  }
+
+  public void setField(String field) {
+    this.field = field;
+  }
+
+  public String getOp() {
+    return op;
+  }
+
+  public void setOp(String op) {
+    this.op = op;
+  }
+
+  public List<String> getValues() {
+    return values;
+  }
+
+  public void setValues(List<String> values) {
+    this.values = values;
+  }
+
+  public String getFrom() {
+    return from;
+  }
+
+  public void setFrom(String from) {
+    this.from = from;
+  }
+
+  public String getTo() {
+    return to;
+  }
+
+  public void setTo(String to) {
+    this.to = to;
+  }
+
+  public String getJoin() {
+    return join;
+  }
+
+  public void setJoin(String join) {
+    this.join = join;
+  }
+
+  public List<QueryFilter> getFilters() {
+    return filters;
+  }
+
+  public void setFilters(List<QueryFilter> filters) {
+    this.filters = filters;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    QueryFilter that = (QueryFilter) o;
+    return Objects.equals(field, that.field)
+        && Objects.equals(op, that.op)
+        && Objects.equals(values, that.values)
+        && Objects.equals(from, that.from)
+        && Objects.equals(to, that.to)
+        && Objects.equals(join, that.join)
+        && Objects.equals(filters, that.filters);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(field, op, values, from, to, join, filters);
+  }
+
+  @Override
+  public String toString() {
+    return "QueryFilter{"
+        + "field='"
+        + field
+        + '\''
+        + ", op='"
+        + op
+        + '\''
+        + ", values="
+        + values
+        + ", from='"
+        + from
+        + '\''
+        + ", to='"
+        + to
+        + '\''
+        + ", join='"
+        + join
+        + '\''
+        + ", filters="
+        + filters
+        + '}';
+  }
+}
@@ -0,0 +1,91 @@
+package com.revature.rms.search.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class QueryPlan {
+
+  private String path;
+  private String field;
+  private List<QueryPlanStep> considered = new ArrayList<>();
+  private List<QueryPlanStep> steps = new ArrayList<>();
+  private List<QueryPlan> joins = new ArrayList<>();
+
+  public QueryPlan() {}
+
+  public String getPath() {
+    return path;
+  }
+
+  public void setPath(String path) {
+    this.path = path;
+  }
+
+  public String getField() {
+    return field;
+  }
+
+  public void setField(String field) {
+    this.field = field;
+  }
+
+  public List<QueryPlanStep> getConsidered() {
+    return considered;
+  }
+
+  public void setConsidered(List<QueryPlanStep> considered) {
+    this.considered = considered;
+  }
+
+  public List<QueryPlanStep> getSteps() {
+    return steps;
+  }
+
+  public void setSteps(List<QueryPlanStep> steps) {
+    this.steps = steps;
+  }
+
+  public List<QueryPlan> getJoins() {
+    return joins;
+  }
+
+  public void setJoins(List<QueryPlan> joins) {
+    this.joins = joins;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    QueryPlan that = (QueryPlan) o;
+    return Objects.equals(path, that.path)
+        && Objects.equals(field, that.field)
+        && Objects.equals(considered, that.considered)
+        && Objects.equals(steps, that.steps)
+        && Objects.equals(joins, that.joins);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(path, field, considered, steps, joins);
+  }
+
+  @Override
+  public String toString() {
+    return "QueryPlan{"
+        + "path='"
+        + path
+        + '\''
+        + ", field='"
+        + field
+        + '\''
+        + ", considered="
+        + considered
+        + ", steps="
+        + steps
+        + ", joins="
+        + joins
+        + '}';
+  }
+}
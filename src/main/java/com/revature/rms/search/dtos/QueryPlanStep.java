@@ -0,0 +1,98 @@
+package com.revature.rms.search.dtos;
+
+import java.util.Objects;
+
+public class QueryPlanStep {
+
+  private String path;
+  private String field;
+  private String op;
+  private long estimatedRows;
+  private Long actualRows;
+
+  public QueryPlanStep() {}
+
+  public QueryPlanStep(String path, String field, String op, long estimatedRows, Long actualRows) {
+    this.path = path;
+    this.field = field;
+    this.op = op;
+    this.estimatedRows = estimatedRows;
+    this.actualRows = actualRows;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public void setPath(String path) {
+    this.path = path;
+  }
+
+  public String getField() {
+    return field;
+  }
+
+  public void setField(String field) {
+    this.field = field;
+  }
+
+  public String getOp() {
+    return op;
+  }
+
+  public void setOp(String op) {
+    this.op = op;
+  }
+
+  public long getEstimatedRows() {
+    return estimatedRows;
+  }
+
+  public void setEstimatedRows(long estimatedRows) {
+    this.estimatedRows = estimatedRows;
+  }
+
+  public Long getActualRows() {
+    return actualRows;
+  }
+
+  public void setActualRows(Long actualRows) {
+    this.actualRows = actualRows;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    QueryPlanStep that = (QueryPlanStep) o;
+    return estimatedRows == that.estimatedRows
+        && Objects.equals(path, that.path)
+        && Objects.equals(field, that.field)
+        && Objects.equals(op, that.op)
+        && Objects.equals(actualRows, that.actualRows);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(path, field, op, estimatedRows, actualRows);
+  }
+
+  @Override
+  public String toString() {
+    return "QueryPlanStep{"
+        + "path='"
+        + path
+        + '\''
+        + ", field='"
+        + field
+        + '\''
+        + ", op='"
+        + op
+        + '\''
+        + ", estimatedRows="
+        + estimatedRows
+        + ", actualRows="
+        + actualRows
+        + '}';
+  }
+}
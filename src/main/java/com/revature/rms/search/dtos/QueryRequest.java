@@ -0,0 +1,126 @@
+package com.revature.rms.search.dtos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class QueryRequest {
+
+  private String entity;
+  private List<QueryFilter> filters = new ArrayList<>();
+  private List<QuerySort> sort = new ArrayList<>();
+  private Integer page;
+  private Integer size;
+  private List<String> expand = new ArrayList<>();
+  private List<String> facets = new ArrayList<>();
+  private boolean explain;
+
+  public QueryRequest() {}
+
+  public String getEntity() {
+    return entity;
+  }
+
+  public void setEntity(String entity) {
+    this.entity = entity;
+  }
+
+  public List<QueryFilter> getFilters() {
+    return filters;
+  }
+
+  public void setFilters(List<QueryFilter> filters) {
+    this.filters = filters;
+  }
+
+  public List<QuerySort> getSort() {
+    return sort;
+  }
+
+  public void setSort(List<QuerySort> sort) {
+    this.sort = sort;
+  }
+
+  public Integer getPage() {
+    return page;
+  }
+
+  public void setPage(Integer page) {
+    this.page = page;
+  }
+
+  public Integer getSize() {
+    return size;
+  }
+
+  public void setSize(Integer size) {
+    this.size = size;
+  }
+
+  public List<String> getExpand() {
+    return expand;
+  }
+
+  public void setExpand(List<String> expand) {
+    this.expand = expand;
+  }
+
+  public List<String> getFacets() {
+    return facets;
+  }
+
+  public void setFacets(List<String> facets) {
+    this.facets = facets;
+  }
+
+  public boolean isExplain() {
+    return explain;
+  }
+
+  public void setExplain(boolean explain) {
+    this.explain = explain;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    QueryRequest that = (QueryRequest) o;
+    return explain == that.explain
+        && Objects.equals(entity, that.entity)
+        && Objects.equals(filters, that.filters)
+        && Objects.equals(sort, that.sort)
+        && Objects.equals(page, that.page)
+        && Objects.equals(size, that.size)
+        && Objects.equals(expand, that.expand)
+        && Objects.equals(facets, that.facets);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(entity, filters, sort, page, size, expand, facets, explain);
+  }
+
+  @Override
+  public String toString() {
+    return "QueryRequest{"
+        + "entity='"
+        + entity
+        + '\''
+        + ", filters="
+        + filters
+        + ", sort="
+        + sort
+        + ", page="
+        + page
+        + ", size="
+        + size
+        + ", expand="
+        + expand
+        + ", facets="
+        + facets
+        + ", explain="
+        + explain
+        + '}';
+  }
+}
@@ -0,0 +1,116 @@
+package com.revature.rms.search.dtos;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class QueryResponse {
+
+  private String entity;
+  private int total;
+  private int page;
+  private int size;
+  private List<Object> results = new ArrayList<>();
+  private Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+  private QueryPlan plan;
+
+  public QueryResponse() {}
+
+  public String getEntity() {
+    return entity;
+  }
+
+  public void setEntity(String entity) {
+    this.entity = entity;
+  }
+
+  public int getTotal() {
+    return total;
+  }
+
+  public void setTotal(int total) {
+    this.total = total;
+  }
+
+  public int getPage() {
+    return page;
+  }
+
+  public void setPage(int page) {
+    this.page = page;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+  }
+
+  public List<Object> getResults() {
+    return results;
+  }
+
+  public void setResults(List<Object> results) {
+    this.results = results;
+  }
+
+  public Map<String, Map<String, Long>> getFacets() {
+    return facets;
+  }
+
+  public void setFacets(Map<String, Map<String, Long>> facets) {
+    this.facets = facets;
+  }
+
+  public QueryPlan getPlan() {
+    return plan;
+  }
+
+  public void setPlan(QueryPlan plan) {
+    this.plan = plan;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    QueryResponse that = (QueryResponse) o;
+    return total == that.total
+        && page == that.page
+        && size == that.size
+        && Objects.equals(entity, that.entity)
+        && Objects.equals(results, that.results)
+        && Objects.equals(facets, that.facets)
+        && Objects.equals(plan, that.plan);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(entity, total, page, size, results, facets, plan);
+  }
+
+  @Override
+  public String toString() {
+    return "QueryResponse{"
+        + "entity='"
+        + entity
+        + '\''
+        + ", total="
+        + total
+        + ", page="
+        + page
+        + ", size="
+        + size
+        + ", results="
+        + results
+        + ", facets="
+        + facets
+        + ", plan="
+        + plan
+        + '}';
+  }
+}
@@ -0,0 +1,58 @@
+package com.revature.rms.search.dtos;
+
+import java.util.Objects;
+
+public class QuerySort {
+
+  private String field;
+  private String direction = "asc";
+
+  public QuerySort() {}
+
+  public QuerySort(String field, String direction) {
+    this.field = field;
+    this.direction = direction;
+  }
+
+  public String getField() {
+    return field;
+  }
+
+  public void setField(String field) {
+    this.field = field;
+  }
+
+  public String getDirection() {
+    return direction;
+  }
+
+  public void setDirection(String direction) {
+    this.direction = direction;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    QuerySort that = (QuerySort) o;
+    return Objects.equals(field, that.field)
+        && Objects.equals(direction, that.direction);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(field, direction);
+  }
+
+  @Override
+  public String toString() {
+    return "QuerySort{"
+        + "field='"
+        + field
+        + '\''
+        + ", direction='"
+        + direction
+        + '\''
+        + '}';
+  }
+}
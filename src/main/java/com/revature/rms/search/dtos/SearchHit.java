@@ -0,0 +1,56 @@
+package com.revature.rms.search.dtos;
+
+import java.util.Objects;
+
+public class SearchHit<T> {
+
+  private double score;
+  private T document;
+
+  public SearchHit() {}
+
+  public SearchHit(double score, T document) {
+    this.score = score;
+    this.document = document;
+  }
+
+  public double getScore() {
+    return score;
+  }
+
+  public void setScore(double score) {
+    this.score = score;
+  }
+
+  public T getDocument() {
+    return document;
+  }
+
+  public void setDocument(T document) {
+    this.document = document;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    SearchHit<?> searchHit = (SearchHit<?>) o;
+    return Double.compare(searchHit.score, score) == 0
+        && Objects.equals(document, searchHit.document);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(score, document);
+  }
+
+  @Override
+  public String toString() {
+    return "SearchHit{"
+        + "score="
+        + score
+        + ", document="
+        + document
+        + '}';
+  }
+}
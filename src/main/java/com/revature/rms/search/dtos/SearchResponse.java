@@ -0,0 +1,86 @@
+package com.revature.rms.search.dtos;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class SearchResponse<T> {
+
+  private String query;
+  private int total;
+  private List<SearchHit<T>> hits = new ArrayList<>();
+  private Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+
+  public SearchResponse() {}
+
+  public SearchResponse(String query, int total, List<SearchHit<T>> hits) {
+    this.query = query;
+    this.total = total;
+    this.hits = hits;
+  }
+
+  public String getQuery() {
+    return query;
+  }
+
+  public void setQuery(String query) {
+    this.query = query;
+  }
+
+  public int getTotal() {
+    return total;
+  }
+
+  public void setTotal(int total) {
+    this.total = total;
+  }
+
+  public List<SearchHit<T>> getHits() {
+    return hits;
+  }
+
+  public void setHits(List<SearchHit<T>> hits) {
+    this.hits = hits;
+  }
+
+  public Map<String, Map<String, Long>> getFacets() {
+    return facets;
+  }
+
+  public void setFacets(Map<String, Map<String, Long>> facets) {
+    this.facets = facets;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    SearchResponse<?> that = (SearchResponse<?>) o;
+    return total == that.total
+        && Objects.equals(query, that.query)
+        && Objects.equals(hits, that.hits)
+        && Objects.equals(facets, that.facets);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(query, total, hits, facets);
+  }
+
+  @Override
+  public String toString() {
+    return "SearchResponse{"
+        + "query='"
+        + query
+        + '\''
+        + ", total="
+        + total
+        + ", hits="
+        + hits
+        + ", facets="
+        + facets
+        + '}';
+  }
+}
@@ -0,0 +1,71 @@
+package com.revature.rms.search.dtos;
+
+import java.util.Objects;
+
+public class Suggestion {
+
+  private String type;
+  private int id;
+  private String label;
+
+  public Suggestion() {}
+
+  public Suggestion(String type, int id, String label) {
+    this.type = type;
+    this.id = id;
+    this.label = label;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public void setId(int id) {
+    this.id = id;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  public void setLabel(String label) {
+    this.label = label;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    Suggestion that = (Suggestion) o;
+    return id == that.id
+        && Objects.equals(type, that.type)
+        && Objects.equals(label, that.label);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(type, id, label);
+  }
+
+  @Override
+  public String toString() {
+    return "Suggestion{"
+        + "type='"
+        + type
+        + '\''
+        + ", id="
+        + id
+        + ", label='"
+        + label
+        + '\''
+        + '}';
+  }
+}
@@ -0,0 +1,170 @@
+package com.revature.rms.search.services;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.revature.rms.search.clients.AuthClient;
+import com.revature.rms.search.config.HydrationProperties;
+import com.revature.rms.search.entites.employee.AppUser;
+import feign.FeignException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps the AppUsers fetched from the auth service between requests. App users
+ * hardly ever change, but every piece of resource metadata points at three of
+ * them, so without this each response asked the auth service for the same few
+ * users again.
+ *
+ * Users that the auth service does not know are cached too, as an empty
+ * Optional, for the much shorter search.hydration.user-cache-negative-ttl, so a
+ * bad id in some metadata is not looked up over and over. The auth service
+ * answers an unknown id with a 404, which is taken as the user not existing.
+ * Found users are kept
+ * for search.hydration.user-cache-ttl and reloaded in the background once they
+ * are older than search.hydration.user-cache-refresh-after, which keeps users
+ * that are read often from ever expiring while they are in use.
+ *
+ * A bulk request that fails only leaves out the users of its own chunk, which
+ * are not cached and are looked up one at a time when they are next asked for.
+ */
+@Component
+public class AppUserCache {
+
+  private AuthClient authClient;
+  private DownstreamLimits limits;
+  private HydrationProperties hydrationProps;
+  private LoadingCache<Integer, Optional<AppUser>> users;
+
+  @Autowired
+  public AppUserCache(AuthClient authClient, DownstreamLimits downstreamLimits, HydrationProperties hydrationProperties,
+      @Qualifier("hydrationExecutor") Executor hydrationExecutor) {
+    this.authClient = authClient;
+    this.limits = downstreamLimits;
+    this.hydrationProps = hydrationProperties;
+    Caffeine<Object, Object> builder = Caffeine.newBuilder()
+        .maximumSize(Math.max(0, hydrationProperties.getUserCacheMaxSize()))
+        .executor(hydrationExecutor)
+        .recordStats();
+    Duration refreshAfter = hydrationProperties.getUserCacheRefreshAfter();
+    if (refreshAfter != null && !refreshAfter.isZero() && refreshAfter.compareTo(hydrationProperties.getUserCacheTtl()) < 0) {
+      builder.refreshAfterWrite(refreshAfter);
+    }
+    this.users = builder
+        .expireAfter(new FoundOrMissingExpiry(hydrationProperties.getUserCacheTtl(), hydrationProperties.getUserCacheNegativeTtl()))
+        .build(new CacheLoader<Integer, Optional<AppUser>>() {
+          @Override
+          public Optional<AppUser> load(Integer id) {
+            return fetch(id);
+          }
+
+          @Override
+          public Map<Integer, Optional<AppUser>> loadAll(Iterable<? extends Integer> ids) {
+            return fetchAll(ids);
+          }
+        });
+  }
+
+  /**
+   * get method: Returns the AppUser with the given id, only going to the auth service when it is not cached.
+   * @param id the AppUser id
+   * @return the AppUser, or an empty Optional if the auth service does not know it
+   */
+  public Optional<AppUser> get(int id) {
+    return users.get(id);
+  }
+
+  /**
+   * getAll method: Returns the AppUsers with the given ids. The ones that are not cached are fetched with bulk
+   * requests of at most search.hydration.user-batch-size ids.
+   * @param ids AppUser ids
+   * @return every requested id mapped to its AppUser, or to an empty Optional if the auth service does not know it;
+   *         ids whose bulk request failed are left out
+   */
+  public Map<Integer, Optional<AppUser>> getAll(Collection<Integer> ids) {
+    return users.getAll(ids);
+  }
+
+  /**
+   * invalidate method: Drops one AppUser from the cache so that the next lookup goes to the auth service.
+   * @param id the AppUser id
+   */
+  public void invalidate(int id) {
+    users.invalidate(id);
+  }
+
+  private Optional<AppUser> fetch(int id) {
+    try {
+      return Optional.ofNullable(limits.callAuthService(() -> authClient.getUserById(id)));
+    } catch (FeignException fe) {
+      if (fe.status() == 404) {
+        return Optional.empty();
+      }
+      throw fe;
+    }
+  }
+
+  private Map<Integer, Optional<AppUser>> fetchAll(Iterable<? extends Integer> ids) {
+    List<Integer> all = new ArrayList<>();
+    ids.forEach(all::add);
+    Map<Integer, Optional<AppUser>> result = new HashMap<>();
+    int batchSize = Math.max(1, hydrationProps.getUserBatchSize());
+    for (int from = 0; from < all.size(); from += batchSize) {
+      List<Integer> chunk = new ArrayList<>(all.subList(from, Math.min(from + batchSize, all.size())));
+      List<AppUser> fetched;
+      try {
+        fetched = limits.callAuthService(() -> authClient.getUsersByIds(chunk));
+      } catch (RuntimeException e) {
+        e.printStackTrace();
+        continue;
+      }
+      Map<Integer, AppUser> found = new HashMap<>();
+      if (fetched != null) {
+        fetched.forEach(user -> found.put(user.getId(), user));
+      }
+      chunk.forEach(id -> result.put(id, Optional.ofNullable(found.get(id))));
+    }
+    return result;
+  }
+
+  /**
+   * Keeps found users for the full TTL and users the auth service does not know for the negative TTL.
+   * A refresh that changes one into the other picks up the other lifetime.
+   */
+  private static class FoundOrMissingExpiry implements Expiry<Integer, Optional<AppUser>> {
+
+    private final long foundNanos;
+    private final long missingNanos;
+
+    private FoundOrMissingExpiry(Duration found, Duration missing) {
+      this.foundNanos = found.toNanos();
+      this.missingNanos = missing.toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(Integer id, Optional<AppUser> user, long currentTime) {
+      return user.isPresent() ? foundNanos : missingNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(Integer id, Optional<AppUser> user, long currentTime, long currentDuration) {
+      return expireAfterCreate(id, user, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Integer id, Optional<AppUser> user, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.revature.rms.search.services;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Compressed bitmap posting lists over low-cardinality fields, such as the
+ * department of an employee or the campus a room is on. Every value of every
+ * field has a RoaringBitmap of the ids that have it, so a filter is answered
+ * with bitmap operations instead of a scan over the objects: the values given
+ * for one field are ORed, the fields are ANDed, and excluded values are taken
+ * away with ANDNOT.
+ *
+ * An index is filled once by add and then only read, so it can be shared
+ * between threads without locking once it has been handed over. To change it,
+ * build a new one.
+ */
+public class BitmapIndex {
+
+  private final Map<String, Map<String, RoaringBitmap>> postings = new HashMap<>();
+  private final RoaringBitmap all = new RoaringBitmap();
+  private final Set<String> fields;
+
+  /**
+   * @param fields every field the index can be filtered on, including ones no id has a value for yet
+   */
+  public BitmapIndex(Collection<String> fields) {
+    this.fields = Collections.unmodifiableSet(new TreeSet<>(fields));
+  }
+
+  /**
+   * add method: Adds an id to the index, without any field values.
+   * @param id the id
+   */
+  public void add(int id) {
+    all.add(id);
+  }
+
+  /**
+   * add method: Adds an id to the index with a value of one field. An id can have several values of the same field.
+   * @param field one of the fields of the index
+   * @param value the value, ignored when null
+   * @param id the id
+   */
+  public void add(String field, String value, int id) {
+    all.add(id);
+    if (value != null) {
+      postings.computeIfAbsent(field, key -> new HashMap<>()).computeIfAbsent(value, key -> new RoaringBitmap()).add(id);
+    }
+  }
+
+  /**
+   * optimize method: Compresses runs of consecutive ids once everything has been added.
+   */
+  public void optimize() {
+    all.runOptimize();
+    postings.values().forEach(values -> values.values().forEach(RoaringBitmap::runOptimize));
+  }
+
+  public Set<String> getFields() {
+    return fields;
+  }
+
+  /**
+   * size method: Returns how many ids the index holds.
+   * @return the number of ids
+   */
+  public int size() {
+    return all.getCardinality();
+  }
+
+  /**
+   * get method: Returns the ids that have a value of a field.
+   * @param field the field
+   * @param value the value
+   * @return a copy of the bitmap, empty when no id has the value
+   */
+  public RoaringBitmap get(String field, String value) {
+    RoaringBitmap ids = lookup(field, value);
+    return ids == null ? new RoaringBitmap() : ids.clone();
+  }
+
+  /**
+   * all method: Returns every id in the index.
+   * @return a copy of the bitmap
+   */
+  public RoaringBitmap all() {
+    return all.clone();
+  }
+
+  /**
+   * filter method: Returns the ids that have at least one of the included values of every included field, and
+   * none of the excluded values.
+   * @param include each field mapped to the values to keep, nothing to start from every id
+   * @param exclude each field mapped to the values to leave out, may be empty
+   * @return the matching ids
+   */
+  public RoaringBitmap filter(Map<String, ? extends Collection<String>> include,
+      Map<String, ? extends Collection<String>> exclude) {
+    List<RoaringBitmap> required = new ArrayList<>();
+    for (Map.Entry<String, ? extends Collection<String>> entry : include.entrySet()) {
+      required.add(union(entry.getKey(), entry.getValue()));
+    }
+    required.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+    RoaringBitmap result = required.isEmpty() ? all.clone() : required.get(0);
+    for (int i = 1; i < required.size() && !result.isEmpty(); i++) {
+      result.and(required.get(i));
+    }
+    for (Map.Entry<String, ? extends Collection<String>> entry : exclude.entrySet()) {
+      if (result.isEmpty()) {
+        break;
+      }
+      result.andNot(union(entry.getKey(), entry.getValue()));
+    }
+    return result;
+  }
+
+  private RoaringBitmap union(String field, Collection<String> values) {
+    RoaringBitmap union = new RoaringBitmap();
+    for (String value : values) {
+      RoaringBitmap ids = lookup(field, value);
+      if (ids != null) {
+        union.or(ids);
+      }
+    }
+    return union;
+  }
+
+  private RoaringBitmap lookup(String field, String value) {
+    Map<String, RoaringBitmap> values = postings.get(field);
+    return values == null ? null : values.get(value);
+  }
+}
@@ -0,0 +1,312 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.core.exceptions.ResourceNotFoundException;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Answers date range queries over batches and work orders with a RangeIndex
+ * per date field: batches by start and end date, and work orders by the day
+ * they were created and resolved. The date strings are parsed once when the
+ * indexes are built instead of on every query, so finding the batches that
+ * start in a month or the work orders opened last week takes two binary
+ * searches. The batches active on a day are the ones that started on or
+ * before it and end on or after it, which is an AND of two ranges.
+ *
+ * Like the FilterService, the indexes are built again from every read model
+ * load and sync and swapped in whole, and built from the extraction the
+ * ReadModelExtractor shares on search.index.refresh-ms, or on the first
+ * request if nothing has built them yet, so range queries work with the read
+ * model switched off. They remember the documents they were built from, so a
+ * caller holding documents can ask for the indexes of exactly those.
+ */
+@Service
+public class DateRangeService {
+
+  public static final String START = "start";
+  public static final String END = "end";
+  public static final String CREATED = "created";
+  public static final String RESOLVED = "resolved";
+
+  public static final List<String> BATCH_FIELDS = Collections.unmodifiableList(Arrays.asList(START, END));
+  public static final List<String> WORK_ORDER_FIELDS = Collections.unmodifiableList(Arrays.asList(CREATED, RESOLVED));
+
+  private ReadModelExtractor extractor;
+  private SearchReadModel readModel;
+  private ETLService etlService;
+  private volatile Indexes indexes;
+
+  @Autowired
+  public DateRangeService(ReadModelExtractor readModelExtractor, SearchReadModel searchReadModel, ETLService etlService) {
+    this.extractor = readModelExtractor;
+    this.readModel = searchReadModel;
+    this.etlService = etlService;
+  }
+
+  /**
+   * getBatchesActiveOn method: Returns the batches that have started and not yet ended on a day.
+   * @param date the day, such as 2020-02-12 or 2/12/2020
+   * @return the batches running that day, in id order
+   * @throws InvalidRequestException when the date is missing or not understood
+   * @throws ResourceNotFoundException when no batch is running that day
+   */
+  public List<Batch> getBatchesActiveOn(String date) {
+    long day = parse(date, "date");
+    Indexes current = indexes();
+    RoaringBitmap started = RoaringBitmap.bitmapOf(current.batchStart.between(Long.MIN_VALUE, day));
+    started.and(RoaringBitmap.bitmapOf(current.batchEnd.between(day, Long.MAX_VALUE)));
+    List<Batch> batches = ReadModelLookup.documents(readModel, started.toArray(), ReadModelDocuments::getRawBatches,
+        id -> etlService.getBatchById(id));
+    if (batches.isEmpty()) {
+      throw new ResourceNotFoundException("No batches are active on " + date);
+    }
+    return batches;
+  }
+
+  /**
+   * getBatchesBetween method: Returns the batches whose start or end date falls in a range.
+   * @param field start or end
+   * @param from the first day, or null for no lower bound
+   * @param to the last day, or null for no upper bound
+   * @return the batches in order of the date
+   * @throws InvalidRequestException when the field is not start or end, or a date is not understood or the range is
+   *                                 backwards
+   * @throws ResourceNotFoundException when no batch falls in the range
+   */
+  public List<Batch> getBatchesBetween(String field, String from, String to) {
+    Indexes current = indexes();
+    RangeIndex index = select(field, BATCH_FIELDS, current.batchStart, current.batchEnd);
+    int[] ids = between(index, from, to);
+    List<Batch> batches = ReadModelLookup.documents(readModel, ids, ReadModelDocuments::getRawBatches,
+        id -> etlService.getBatchById(id));
+    if (batches.isEmpty()) {
+      throw new ResourceNotFoundException("No batches found in that range");
+    }
+    return batches;
+  }
+
+  /**
+   * getWorkOrdersBetween method: Returns the work orders created or resolved in a range.
+   * @param field created or resolved
+   * @param from the first day, or null for no lower bound
+   * @param to the last day, or null for no upper bound
+   * @return the work orders in order of the date
+   * @throws InvalidRequestException when the field is not created or resolved, or a date is not understood or the
+   *                                 range is backwards
+   * @throws ResourceNotFoundException when no work order falls in the range
+   */
+  public List<WorkOrder> getWorkOrdersBetween(String field, String from, String to) {
+    Indexes current = indexes();
+    RangeIndex index = select(field, WORK_ORDER_FIELDS, current.workOrderCreated, current.workOrderResolved);
+    int[] ids = between(index, from, to);
+    List<WorkOrder> workOrders = ReadModelLookup.documents(readModel, ids, ReadModelDocuments::getRawWorkOrders,
+        id -> etlService.getWorkOrderById(id));
+    if (workOrders.isEmpty()) {
+      throw new ResourceNotFoundException("No work orders found in that range");
+    }
+    return workOrders;
+  }
+
+  /**
+   * getBatchIndex method: Returns the index of batches by start or end date.
+   * @param field start or end
+   * @return the index
+   * @throws InvalidRequestException when the field is not start or end
+   */
+  public RangeIndex getBatchIndex(String field) {
+    Indexes current = indexes();
+    return select(field, BATCH_FIELDS, current.batchStart, current.batchEnd);
+  }
+
+  /**
+   * getWorkOrderIndex method: Returns the index of work orders by created or resolved date.
+   * @param field created or resolved
+   * @return the index
+   * @throws InvalidRequestException when the field is not created or resolved
+   */
+  public RangeIndex getWorkOrderIndex(String field) {
+    Indexes current = indexes();
+    return select(field, WORK_ORDER_FIELDS, current.workOrderCreated, current.workOrderResolved);
+  }
+
+  /**
+   * getBatchIndex method: Returns the index of batches by start or end date built from the given documents.
+   * @param field start or end
+   * @param docs the documents the caller is reading
+   * @return the index of those documents, built first when the current indexes are of other documents
+   * @throws InvalidRequestException when the field is not start or end
+   */
+  public RangeIndex getBatchIndex(String field, ReadModelDocuments docs) {
+    Indexes current = indexes(docs);
+    return select(field, BATCH_FIELDS, current.batchStart, current.batchEnd);
+  }
+
+  /**
+   * getWorkOrderIndex method: Returns the index of work orders by created or resolved date built from the given
+   * documents.
+   * @param field created or resolved
+   * @param docs the documents the caller is reading
+   * @return the index of those documents, built first when the current indexes are of other documents
+   * @throws InvalidRequestException when the field is not created or resolved
+   */
+  public RangeIndex getWorkOrderIndex(String field, ReadModelDocuments docs) {
+    Indexes current = indexes(docs);
+    return select(field, WORK_ORDER_FIELDS, current.workOrderCreated, current.workOrderResolved);
+  }
+
+  /**
+   * refresh method: Rebuilds the indexes on a fixed delay.
+   */
+  @Scheduled(fixedDelayString = "${search.index.refresh-ms:3600000}",
+      initialDelayString = "${search.index.refresh-ms:3600000}")
+  public void refresh() {
+    try {
+      rebuild();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * rebuild method: Rebuilds the indexes from the read model when it is ready, or from the shared extraction.
+   */
+  public synchronized void rebuild() {
+    build(source());
+  }
+
+  /**
+   * onReadModelUpdated method: Rebuilds the indexes from the documents of a load or sync.
+   * @param event the load or sync that just finished
+   */
+  @EventListener
+  public synchronized void onReadModelUpdated(ReadModelUpdatedEvent event) {
+    build(event.getDocuments());
+  }
+
+  /**
+   * build method: Parses the dates of every batch and work order into new indexes and swaps them in.
+   * @param docs the raw objects
+   */
+  void build(ReadModelDocuments docs) {
+    indexes = index(docs);
+  }
+
+  private static Indexes index(ReadModelDocuments docs) {
+    Indexes built = new Indexes(docs, docs.getRawBatches().size(), docs.getRawWorkOrders().size());
+    docs.getRawBatches().forEachEntry((id, batch) -> {
+      built.batchStart.add(batch.getStartDate(), id);
+      built.batchEnd.add(batch.getEndDate(), id);
+    });
+    docs.getRawWorkOrders().forEachEntry((id, workOrder) -> {
+      built.workOrderCreated.add(workOrder.getCreatedDateTime(), id);
+      built.workOrderResolved.add(workOrder.getResolvedDateTime(), id);
+    });
+    built.freeze();
+    return built;
+  }
+
+  private static RangeIndex select(String field, List<String> fields, RangeIndex first, RangeIndex second) {
+    String name = field == null ? "" : field.trim().toLowerCase(Locale.ROOT);
+    if (name.equals(fields.get(0))) {
+      return first;
+    }
+    if (name.equals(fields.get(1))) {
+      return second;
+    }
+    throw new InvalidRequestException("Date field must be one of " + fields);
+  }
+
+  private static int[] between(RangeIndex index, String from, String to) {
+    long fromDay = from == null || from.trim().isEmpty() ? Long.MIN_VALUE : parse(from, "from");
+    long toDay = to == null || to.trim().isEmpty() ? Long.MAX_VALUE : parse(to, "to");
+    if (fromDay > toDay) {
+      throw new InvalidRequestException("The from date must not be after the to date");
+    }
+    return index.between(fromDay, toDay);
+  }
+
+  private static long parse(String date, String name) {
+    long day = ResourceDates.toEpochDay(date);
+    if (day == ResourceDates.UNKNOWN) {
+      throw new InvalidRequestException("The " + name + " date must be a date such as 2020-02-12 or 2/12/2020");
+    }
+    return day;
+  }
+
+  private Indexes indexes() {
+    if (indexes == null) {
+      rebuildIfEmpty();
+    }
+    return indexes;
+  }
+
+  private Indexes indexes(ReadModelDocuments docs) {
+    Indexes current = indexes;
+    return current != null && current.docs == docs ? current : indexFrom(docs);
+  }
+
+  /**
+   * indexFrom method: Builds the indexes of some documents, and swaps them in when those are the documents the
+   * indexes should follow, so a caller holding documents from before a load never swaps older indexes in.
+   */
+  private synchronized Indexes indexFrom(ReadModelDocuments docs) {
+    if (indexes != null && indexes.docs == docs) {
+      return indexes;
+    }
+    Indexes built = index(docs);
+    if (docs == source()) {
+      indexes = built;
+    }
+    return built;
+  }
+
+  private ReadModelDocuments source() {
+    ReadModelDocuments docs = readModel.read(current -> current);
+    return docs != null ? docs : extractor.latest();
+  }
+
+  private synchronized void rebuildIfEmpty() {
+    if (indexes == null) {
+      rebuild();
+    }
+  }
+
+  /**
+   * The four indexes of one build, swapped in together so a query never mixes builds, with the documents they
+   * were built from.
+   */
+  private static class Indexes {
+
+    final ReadModelDocuments docs;
+    final RangeIndex batchStart;
+    final RangeIndex batchEnd;
+    final RangeIndex workOrderCreated;
+    final RangeIndex workOrderResolved;
+
+    Indexes(ReadModelDocuments docs, int batches, int workOrders) {
+      this.docs = docs;
+      batchStart = new RangeIndex(batches);
+      batchEnd = new RangeIndex(batches);
+      workOrderCreated = new RangeIndex(workOrders);
+      workOrderResolved = new RangeIndex(workOrders);
+    }
+
+    void freeze() {
+      batchStart.freeze();
+      batchEnd.freeze();
+      workOrderCreated.freeze();
+      workOrderResolved.freeze();
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.config.HydrationProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many calls the search service has open against the employee service
+ * and the auth service at the same time. Hydrating siblings in parallel would
+ * otherwise let one large campus send every one of its lookups at once. A call
+ * that goes over the cap waits for a permit before it is sent.
+ */
+@Component
+public class DownstreamLimits {
+
+  private Semaphore employeeService;
+  private Semaphore authService;
+
+  @Autowired
+  public DownstreamLimits(HydrationProperties hydrationProperties) {
+    this.employeeService = new Semaphore(Math.max(1, hydrationProperties.getEmployeeServiceConcurrency()), true);
+    this.authService = new Semaphore(Math.max(1, hydrationProperties.getAuthServiceConcurrency()), true);
+  }
+
+  public <T> T callEmployeeService(Supplier<T> call) {
+    return call(employeeService, call);
+  }
+
+  public <T> T callAuthService(Supplier<T> call) {
+    return call(authService, call);
+  }
+
+  private static <T> T call(Semaphore permits, Supplier<T> call) {
+    permits.acquireUninterruptibly();
+    try {
+      return call.get();
+    } finally {
+      permits.release();
+    }
+  }
+}
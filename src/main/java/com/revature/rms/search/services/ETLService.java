@@ -1,8 +1,11 @@
 package com.revature.rms.search.services;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.revature.rms.search.clients.AuthClient;
 import com.revature.rms.search.clients.CampusClient;
 import com.revature.rms.search.clients.EmployeeClient;
+import com.revature.rms.search.config.HydrationProperties;
 import com.revature.rms.search.dtos.*;
 import com.revature.rms.search.entites.batch.Batch;
 import com.revature.rms.search.entites.campus.*;
@@ -14,13 +17,24 @@ import com.revature.rms.core.exceptions.*;
 import com.revature.rms.search.repositories.BatchRepository;
 import com.revature.rms.search.repositories.WorkOrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * In the first iteration of this service, we tried
@@ -45,6 +59,15 @@ public class ETLService {
   private CampusClient campClient;
   private WorkOrderRepository workRepo;
   private BatchRepository batchRepo;
+  private HydrationProperties hydrationProps;
+  private Executor hydrationExecutor;
+  private DownstreamLimits limits;
+  private TrainerRoomIndex trainerRoomIndex;
+  private AppUserCache appUserCache;
+  private EmployeeBatchLoader employeeLoader;
+  private LoadingCache<Integer, EmployeeDto> employeeCache;
+  private SingleFlight<String, List<CampusDto>> allCampusesFlight = new SingleFlight<>();
+  private SingleFlight<Integer, CampusDto> campusByIdFlight = new SingleFlight<>();
 
   /**
    * The repositories will need to be changed
@@ -56,26 +79,45 @@ public class ETLService {
       CampusClient campusClient,
       WorkOrderRepository workOrderRepository,
       BatchRepository batchRepository,
-      AuthClient authClient) {
+      AuthClient authClient,
+      HydrationProperties hydrationProperties,
+      @Qualifier("hydrationExecutor") Executor hydrationExecutor,
+      DownstreamLimits downstreamLimits,
+      TrainerRoomIndex trainerRoomIndex,
+      AppUserCache appUserCache,
+      EmployeeBatchLoader employeeBatchLoader) {
     super();
     this.empClient = employeeClient;
     this.campClient = campusClient;
     this.workRepo = workOrderRepository;
     this.batchRepo = batchRepository;
     this.authClient = authClient;
+    this.hydrationProps = hydrationProperties;
+    this.hydrationExecutor = hydrationExecutor;
+    this.limits = downstreamLimits;
+    this.trainerRoomIndex = trainerRoomIndex;
+    this.appUserCache = appUserCache;
+    this.employeeLoader = employeeBatchLoader;
+    this.employeeCache = buildEmployeeCache(hydrationProperties);
   }
 
   //****************************** Campus Services ********************************************
   /**
-   * getAllCampuses method: Returns all CampusDto object with all nested objects
+   * getAllCampuses method: Returns all CampusDto object with all nested objects. Callers that ask while another
+   * caller is already putting the list together wait for and share that result.
    * @param
    * @return a list of CampusDto objects
    * @throws InvalidRequestException when a bad request is made
    */
   public List<CampusDto> getAllCampuses() {
+    return allCampusesFlight.execute("all", this::loadAllCampuses);
+  }
+
+  private List<CampusDto> loadAllCampuses() {
     List<CampusDto> dtos = new ArrayList<>();
     try {
       List<Campus> campuses = campClient.getAllCampus();
+      prefetch(new HydrationPlan().addCampuses(campuses));
       campuses.forEach(c -> dtos.add(getCampusDto(c)));
       if (campuses.isEmpty()){
         throw new ResourceNotFoundException("No Campuses found");
@@ -105,6 +147,7 @@ public class ETLService {
       if (campuses.isEmpty()){
         throw new ResourceNotFoundException("No campuses found with id: " + id);
       }
+      prefetch(new HydrationPlan().addCampuses(campuses));
       campuses.forEach(c -> dtos.add(getCampusDto(c)));
     } catch(ResourceNotFoundException rnfe) {
       throw new ResourceNotFoundException("No campuses found with id: " + id);
@@ -130,6 +173,7 @@ public class ETLService {
     }
     try {
       List<Campus> campuses = campClient.getAllCampusByOwner(id);
+      prefetch(new HydrationPlan().addCampuses(campuses));
       campuses.forEach(c -> dtos.add(getCampusDto(c)));
       if (campuses.isEmpty()){
         throw new ResourceNotFoundException("No campuses found with id: " + id);
@@ -149,11 +193,12 @@ public class ETLService {
    * @throws ResourceNotFoundException building or meta data is not found
    */
   public CampusDto getCampusDto(Campus campus) {
+    prefetch(new HydrationPlan().addCampus(campus));
     CampusDto dto = getCampusObjects(campus);
     try{
       dto.setBuildings(getListOfBuildingsData(campus.getBuildings()));
       dto.setCorporateEmployees(
-              getEachEmployeeMeta(empClient.getEmployeesByIds(campus.getCorporateEmployees())));
+              getEachEmployeeMeta(fetchEmployeesByIds(campus.getCorporateEmployees())));
     }catch(Exception e){
       throw new ResourceNotFoundException("Resource not found!");
     }
@@ -161,7 +206,8 @@ public class ETLService {
   }
 
   /**
-   * getCampusDtoById method: Returns a CampusDto object with all nested objects
+   * getCampusDtoById method: Returns a CampusDto object with all nested objects. Callers that ask for a campus while
+   * another caller is already hydrating it wait for and share that result.
    * @param id
    * @return a CampusDto object
    * @throws ResourceNotFoundException when the campus, buildings or metadata cannot be found
@@ -170,16 +216,21 @@ public class ETLService {
     if (id < 1){
       throw new InvalidRequestException("Id can not be below 1");
     }
+    return campusByIdFlight.execute(id, () -> loadCampusDtoById(id));
+  }
+
+  private CampusDto loadCampusDtoById(int id) {
     CampusDto campusDto = new CampusDto();
     try {
       Campus campus = campClient.getCampusById(id);
       if (campus == null){
         throw new ResourceNotFoundException();
       }
+      prefetch(new HydrationPlan().addCampus(campus));
       campusDto = getCampusObjects(campus);
       campusDto.setBuildings(getListOfBuildingsData(campus.getBuildings()));
       campusDto.setCorporateEmployees(
-              getEachEmployeeMeta(empClient.getEmployeesByIds(campus.getCorporateEmployees())));
+              getEachEmployeeMeta(fetchEmployeesByIds(campus.getCorporateEmployees())));
     }catch(ResourceNotFoundException rnfe) {
       rnfe.printStackTrace();
       throw new ResourceNotFoundException("Resource not found!");
@@ -250,7 +301,8 @@ public class ETLService {
   }
 
   /**
-   * getListOfBuildingsData method: Returns all BuildingDto object with all nested objects
+   * getListOfBuildingsData method: Returns all BuildingDto object with all nested objects. The buildings are
+   * hydrated in parallel on the hydration executor and returned in the same order they were given in.
    * @param buildings
    * @return a list of BuildingDto objects
    * @throws ResourceNotFoundException if no building object is found
@@ -258,15 +310,16 @@ public class ETLService {
   public List<BuildingDto> getListOfBuildingsData(List<Building> buildings){
     List<BuildingDto> buildingDtos = new ArrayList<>();
     try {
-      buildings.forEach(b -> buildingDtos.add(b.extractBuilding()));
-      for (int i = 0; i < buildings.size(); i++) {
-        Building building = buildings.get(i);
-        buildingDtos.get(i).setTrainingLead(getEmployeeById(building.getTrainingLead()));
-        buildingDtos.get(i).setRooms(getEachRoomMeta(building.getRooms()));
+      prefetch(new HydrationPlan().addBuildings(buildings));
+      buildingDtos = hydrateInParallel(buildings, building -> {
+        BuildingDto dto = building.extractBuilding();
+        dto.setTrainingLead(getEmployeeById(building.getTrainingLead()));
+        dto.setRooms(getEachRoomMeta(building.getRooms()));
         if(building.getResourceMetadata() != null){
-          buildingDtos.get(i).setResourceMetadata(campusMetaData(building.getResourceMetadata()));
+          dto.setResourceMetadata(campusMetaData(building.getResourceMetadata()));
         }
-      }
+        return dto;
+      });
     }catch(Exception e) {
       e.printStackTrace();
       throw new ResourceNotFoundException("Resource not found!");
@@ -359,6 +412,7 @@ public class ETLService {
   public BuildingDto getBuildingData(Building building) {
     BuildingDto dto = building.extractBuilding();
     try {
+      prefetch(new HydrationPlan().addBuilding(building));
       dto.setTrainingLead(getEmployeeById(building.getTrainingLead()));
       dto.setRooms(getEachRoomMeta(building.getRooms()));
       // Campus object received from campus service returned null metadata for the building objects
@@ -411,14 +465,7 @@ public class ETLService {
       if (room == null|| room.equals(nullRoom)){
         throw new ResourceNotFoundException();
       }
-      roomDto = room.extractRoom();
-      List<RoomStatusDto> roomStatusList = getEmpsFromRoomStatus(room.getCurrentStatus());
-      roomDto.setCurrentStatus(roomStatusList);
-      BatchDto batch = getBatchInfo(getBatchById(room.getBatchId()));
-      roomDto.setBatch(batch);
-      List<WorkOrderDto> workOrderList= getEachWorkOrderInfo(room.getWorkOrders());
-      roomDto.setWorkOrders(workOrderList);
-      roomDto.setResourceMetadata(campusMetaData(room.getResourceMetadata()));
+      roomDto = hydrateRoom(room);
     }catch(ResourceNotFoundException rnfe) {
       rnfe.printStackTrace();
       throw new ResourceNotFoundException("No room was found with id: " + id);
@@ -429,51 +476,57 @@ public class ETLService {
   }
 
   /**
-   * getRoomDtoByTrainerId method: Grabs all rooms and populates all nested objects and then iterates
-   * to find the room with the given Trainer ID
+   * getRoomDtoByTrainerId method: Looks up the rooms held by the given trainer's batches in the
+   * TrainerRoomIndex and hydrates only the room that is returned
    * @param id
    * @return a RoomDto object
    * @throws ResourceNotFoundException when the RoomDto cannot be found
    */
-  //TODO: refactor to reduce memory footprint
   public RoomDto getRoomDtoByTrainerId(int id) {
     if (id < 1){
       throw new InvalidRequestException("Id must be 1 or above");
     }
-    RoomDto result = new RoomDto();
+    RoomDto result = null;
     try {
-      List<Room> rooms = campClient.getAllRooms();
-      List<RoomDto> roomDtos = rooms.stream().map(Room::extractRoom).collect(Collectors.toList());
-      for (int i = 0; i < rooms.size() ; i++){
-        List<RoomStatusDto> roomStatusDtos = getEmpsFromRoomStatus(rooms.get(i).getCurrentStatus());
-        roomDtos.get(i).setCurrentStatus(roomStatusDtos);
-        BatchDto batch = getBatchInfo(getBatchById(rooms.get(i).getBatchId()));
-        roomDtos.get(i).setBatch(batch);
-        List<WorkOrderDto> workOrderList= getEachWorkOrderInfo(rooms.get(i).getWorkOrders());
-        roomDtos.get(i).setWorkOrders(workOrderList);
-        roomDtos.get(i).setResourceMetadata(campusMetaData(rooms.get(i).getResourceMetadata()));
-      }
-      for (RoomDto rDto: roomDtos) {
-        if(rDto.getBatch().getTrainer().getId() == id) {
-          result = rDto;
-        }
-      }
-      if (roomDtos.isEmpty()){
-        throw new ResourceNotFoundException();
+      result = findIndexedRoom(id, false);
+      if (result == null && trainerRoomIndex.rebuildIfStale()) {
+        result = findIndexedRoom(id, false);
       }
-    }catch(ResourceNotFoundException rnfe) {
-      rnfe.printStackTrace();
-      throw new ResourceNotFoundException("No room found with trainer id: " + id);
     } catch (Exception e){
       e.printStackTrace();
     }
-
-    if(result.getId() == 0){
+    if (result == null){
       throw new ResourceNotFoundException("No room found with trainer id: " + id);
     }
     return result;
   }
 
+  /**
+   * getRoomDtoByCoTrainerId method: Looks up the rooms held by the batches the given employee co-trains in
+   * the TrainerRoomIndex and hydrates only the room that is returned
+   * @param id
+   * @return a RoomDto object
+   * @throws ResourceNotFoundException when the RoomDto cannot be found
+   */
+  public RoomDto getRoomDtoByCoTrainerId(int id) {
+    if (id < 1){
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    RoomDto result = null;
+    try {
+      result = findIndexedRoom(id, true);
+      if (result == null && trainerRoomIndex.rebuildIfStale()) {
+        result = findIndexedRoom(id, true);
+      }
+    } catch (Exception e){
+      e.printStackTrace();
+    }
+    if (result == null){
+      throw new ResourceNotFoundException("No room found with co-trainer id: " + id);
+    }
+    return result;
+  }
+
   /**
    *getAllRoomByOwner method: Returns a list of rooms associated with a give app user
    * @param id
@@ -500,7 +553,9 @@ public class ETLService {
   }
 
   /**
-   * campusMetaData method: Returns list of  RoomDto object with all nested objects after receiving a campus object without nested objects complete
+   * campusMetaData method: Returns list of  RoomDto object with all nested objects after receiving a campus object without nested objects complete.
+   * The rooms are hydrated in parallel on the hydration executor and returned in the same order they were given in.
+   * Batches are loaded in bulk first, so a batch shared by several rooms is only fetched and hydrated once.
    * @param rooms
    * @return a RoomDto object
    * @throws ResourceNotFoundException if metadata is not found
@@ -508,14 +563,18 @@ public class ETLService {
   public List<RoomDto> getEachRoomMeta(List<Room> rooms){
     List<RoomDto> roomDtos = new ArrayList<>();
     try {
-      rooms.forEach(r -> roomDtos.add(r.extractRoom()));
-      for (int i = 0; i < rooms.size(); i++) {
-        Room room = rooms.get(i);
-        roomDtos.get(i).setCurrentStatus(getEmpsFromRoomStatus(room.getCurrentStatus()));
-        roomDtos.get(i).setResourceMetadata(campusMetaData(room.getResourceMetadata()));
-        roomDtos.get(i).setBatch(getBatchInfo(getBatchById(room.getBatchId())));
-        roomDtos.get(i).setWorkOrders(getEachWorkOrderInfo(room.getWorkOrders()));
-      }
+      prefetch(new HydrationPlan().addRooms(rooms));
+      List<Integer> batchIds = new ArrayList<>(rooms.size());
+      rooms.forEach(r -> batchIds.add(r.getBatchId()));
+      Map<Integer, BatchDto> batches = getBatchDtosByIds(batchIds);
+      roomDtos = hydrateInParallel(rooms, room -> {
+        RoomDto dto = room.extractRoom();
+        dto.setCurrentStatus(getEmpsFromRoomStatus(room.getCurrentStatus()));
+        dto.setResourceMetadata(campusMetaData(room.getResourceMetadata()));
+        dto.setBatch(batches.get(room.getBatchId()));
+        dto.setWorkOrders(getEachWorkOrderInfo(room.getWorkOrders()));
+        return dto;
+      });
     }catch(Exception e) {
       e.printStackTrace();
       throw new ResourceNotFoundException("Resource not found!");
@@ -532,12 +591,11 @@ public class ETLService {
   public List<RoomStatusDto> getEmpsFromRoomStatus(List<RoomStatus> roomStatus) {
     List<RoomStatusDto> dtos = new ArrayList<>();
     try {
-      for (int i = 0; i < roomStatus.size(); i++) {
-        RoomStatus status = roomStatus.get(i);
+      dtos = hydrateInParallel(roomStatus, status -> {
         RoomStatusDto statusDto = status.extractRoomStatus();
         statusDto.setSubmitter(getEmployeeById(status.getSubmitterId()));
-        dtos.add(statusDto);
-      }
+        return statusDto;
+      });
     } catch (Exception e) {
       e.printStackTrace();
       throw new ResourceNotFoundException("Resource not found!");
@@ -552,7 +610,7 @@ public class ETLService {
    * @return a list of employee objects
    */
   public List<EmployeeDto> getAllEmployees() {
-    List<EmployeeDto> employees = getEachEmployeeMeta(empClient.getAllEmployee());
+    List<EmployeeDto> employees = getEachEmployeeMeta(limits.callEmployeeService(empClient::getAllEmployee));
     if (employees.isEmpty()){
       throw new ResourceNotFoundException("No Employees found");
     }
@@ -577,7 +635,8 @@ public class ETLService {
     }
     EmployeeDto employeeDto = new EmployeeDto();
     try {
-      Employee employee = empClient.getEmployeeById(id);
+      HydrationContext context = HydrationContext.current();
+      Employee employee = context != null ? context.resolveEmployee(id, this::fetchEmployee) : fetchEmployee(id);
       if (employee == null){
         throw new ResourceNotFoundException();
       }
@@ -592,7 +651,9 @@ public class ETLService {
   }
 
   /**
-   * getEmployeeDtoById method: Set an EmployeeDto ResourceMetadata
+   * getEmployeeById method: Returns a fully hydrated EmployeeDto from the employee cache, fetching and hydrating it
+   * with loadEmployeeDto when it is not cached. Concurrent callers for the same employee share the one load the
+   * cache runs for it. Cached employees are shared between responses, so the returned EmployeeDto must not be changed.
    * @param id
    * @return an EmployeeDto object
    * @throws ResourceNotFoundException if ResourceMetadata object is not found
@@ -601,9 +662,21 @@ public class ETLService {
     if (id < 1){
       throw new InvalidRequestException("Id must be 1 or above");
     }
+    return employeeCache.get(id, this::loadEmployeeDto);
+  }
+
+  /**
+   * loadEmployeeDto method: Set an EmployeeDto ResourceMetadata. When a HydrationContext is open, an
+   * employee that was already fetched for this request is reused.
+   * @param id
+   * @return an EmployeeDto object, or null if it could not be hydrated, which is not cached
+   * @throws ResourceNotFoundException if ResourceMetadata object is not found
+   */
+  public EmployeeDto loadEmployeeDto(int id) {
     EmployeeDto dto = null;
     try {
-      Employee emp = empClient.getEmployeeById(id);
+      HydrationContext context = HydrationContext.current();
+      Employee emp = context != null ? context.resolveEmployee(id, this::fetchEmployee) : fetchEmployee(id);
       if (emp == null){
         throw new ResourceNotFoundException();
       }
@@ -629,7 +702,7 @@ public class ETLService {
     }
     List<EmployeeDto> dtos = new ArrayList<>();
     try{
-      List<Employee> employees = empClient.getAllEmployeeByOwner(id);
+      List<Employee> employees = limits.callEmployeeService(() -> empClient.getAllEmployeeByOwner(id));
       if (employees.isEmpty()){
         throw new ResourceNotFoundException();
       }
@@ -644,7 +717,9 @@ public class ETLService {
   }
 
   /**
-   * getAppUserById Method: This method sends a request to the authClient to get an AppUser by its ID.
+   * getAppUserById Method: This method gets an AppUser by its ID from the AppUserCache, which only sends a request to
+   * the authClient when the user is not cached. When a HydrationContext is open, a user that was already fetched for
+   * this request is reused. Unknown users are expected in old metadata, so they are not logged.
    * @param id int value for the specific AppUser you need to find.
    * @return Returns an AppUser Object.
    */
@@ -654,12 +729,12 @@ public class ETLService {
     }
     AppUser user = null;
     try{
-      user = authClient.getUserById(id);
+      HydrationContext context = HydrationContext.current();
+      user = context != null ? context.resolveUser(id, this::fetchAppUser) : fetchAppUser(id);
       if (user == null){
         throw new ResourceNotFoundException();
       }
     }catch (ResourceNotFoundException rnfe) {
-      rnfe.printStackTrace();
       throw new ResourceNotFoundException("No user found with id: " + id);
     } catch (Exception e){
       e.printStackTrace();
@@ -667,6 +742,139 @@ public class ETLService {
     return user;
   }
 
+  /**
+   * prefetch Method: Fetches everything in the plan that has not been fetched yet for this request and stores it
+   * in the open HydrationContext, so that the DTOs can afterwards be put together without any more remote calls.
+   * Each kind of object is fetched in bulk, one phase at a time: batches and work orders first, then every
+   * employee they and the raw tree point at, then the AppUsers in all of their metadata. The number of round
+   * trips therefore depends on the depth of the tree and not on how many campuses, buildings or rooms are in it.
+   * If a bulk request fails, the objects it was meant to fetch are fetched one at a time when they are needed.
+   * Nothing is fetched when no HydrationContext is open.
+   * @param plan HydrationPlan built from the raw objects that are about to be hydrated.
+   */
+  public void prefetch(HydrationPlan plan) {
+    HydrationContext context = HydrationContext.current();
+    if (context == null) {
+      return;
+    }
+    List<Integer> batchIds = context.unresolvedBatchIds(plan.getBatchIds());
+    if (!batchIds.isEmpty()) {
+      try {
+        context.primeBatches(batchIds, batchRepo.findAllById(batchIds));
+      } catch (Exception e) {
+        e.printStackTrace();
+      }
+    }
+    List<Integer> workOrderIds = context.unresolvedWorkOrderIds(plan.getWorkOrderIds());
+    if (!workOrderIds.isEmpty()) {
+      try {
+        context.primeWorkOrders(workOrderIds, workRepo.findAllById(workOrderIds));
+      } catch (Exception e) {
+        e.printStackTrace();
+      }
+    }
+    plan.getBatchIds().forEach(id -> plan.addBatch(context.peekBatch(id)));
+    plan.getWorkOrderIds().forEach(id -> plan.addWorkOrder(context.peekWorkOrder(id)));
+    prefetchEmployees(plan.getEmployeeIds());
+    plan.getEmployeeIds().forEach(id -> plan.addEmployee(context.peekEmployee(id)));
+    prefetchAppUsers(plan.getUserIds());
+  }
+
+  /**
+   * prefetchEmployees Method: Fetches every employee in the given list that has not been fetched yet for this
+   * request, splitting them into bulk requests of at most search.hydration.employee-batch-size ids that are sent
+   * at the same time, and stores them in the open HydrationContext.
+   * @param ids Collection of employee ids.
+   */
+  public void prefetchEmployees(Collection<Integer> ids) {
+    HydrationContext context = HydrationContext.current();
+    if (context == null) {
+      return;
+    }
+    List<Integer> unresolved = context.unresolvedEmployeeIds(ids);
+    hydrateInParallel(chunk(unresolved, hydrationProps.getEmployeeBatchSize()), chunk -> {
+      try {
+        context.primeEmployees(chunk, limits.callEmployeeService(() -> empClient.getEmployeesByIds(chunk)));
+      } catch (Exception e) {
+        e.printStackTrace();
+      }
+      return chunk;
+    });
+  }
+
+  /**
+   * fetchEmployeesByIds Method: Returns the employees with the given ids. The ids are sent to the employee service in
+   * the request body, split into chunks of at most search.hydration.employee-batch-size ids that are sent at the same
+   * time. When a HydrationContext is open, the employees that were already fetched for this request are reused and
+   * only the rest are requested.
+   * @param ids List of employee ids.
+   * @return Returns a List of Employee Objects in the same order as the ids, each employee once.
+   */
+  public List<Employee> fetchEmployeesByIds(List<Integer> ids) {
+    List<Employee> employees = new ArrayList<>();
+    if (ids == null) {
+      return employees;
+    }
+    Set<Integer> distinct = new LinkedHashSet<>();
+    ids.forEach(id -> {
+      if (id != null && id > 0) {
+        distinct.add(id);
+      }
+    });
+    HydrationContext context = HydrationContext.current();
+    if (context != null) {
+      prefetchEmployees(distinct);
+      for (Integer id : distinct) {
+        Employee emp = context.resolveEmployee(id, this::fetchEmployee);
+        if (emp != null) {
+          employees.add(emp);
+        }
+      }
+      return employees;
+    }
+    Map<Integer, Employee> byId = new HashMap<>();
+    List<List<Employee>> chunks = hydrateInParallel(chunk(distinct, hydrationProps.getEmployeeBatchSize()),
+        chunk -> limits.callEmployeeService(() -> empClient.getEmployeesByIds(chunk)));
+    chunks.forEach(chunk -> {
+      if (chunk != null) {
+        chunk.forEach(emp -> byId.put(emp.getId(), emp));
+      }
+    });
+    for (Integer id : distinct) {
+      if (byId.containsKey(id)) {
+        employees.add(byId.get(id));
+      }
+    }
+    return employees;
+  }
+
+  /**
+   * prefetchAppUsers Method: Fetches every AppUser in the given list that has not been fetched yet for this
+   * request from the AppUserCache, which fetches the ones it does not have with bulk requests of at most
+   * search.hydration.user-batch-size ids. The users are stored in the open HydrationContext so that getAppUserById
+   * finds them without going to the cache again. If a bulk request fails, those users are left for getAppUserById to
+   * fetch one at a time. Nothing is fetched when no HydrationContext is open.
+   * @param ids Collection of AppUser ids collected from resource metadata.
+   */
+  public void prefetchAppUsers(Collection<Integer> ids) {
+    HydrationContext context = HydrationContext.current();
+    if (context == null) {
+      return;
+    }
+    List<Integer> unresolved = context.unresolvedUserIds(ids);
+    if (unresolved.isEmpty()) {
+      return;
+    }
+    try {
+      List<AppUser> found = new ArrayList<>();
+      Map<Integer, Optional<AppUser>> users = appUserCache.getAll(unresolved);
+      users.values().forEach(user -> user.ifPresent(found::add));
+      context.primeUsers(users.keySet(), found);
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
   /**
    * getEachEmployeeMeta Method: This method converts the parameter to a List of EmployeeDto and iterates thru them populate each
    * ResourceMetadata of the EmployeeDto Object with their appropriate Objects and then set the ResourceMetadata to its respective parent Object.
@@ -676,6 +884,7 @@ public class ETLService {
   public List<EmployeeDto> getEachEmployeeMeta(List<Employee> employees){
     List<EmployeeDto> empDtos = new ArrayList<>();
     try {
+      prefetch(new HydrationPlan().addEmployees(employees));
       employees.forEach(e -> empDtos.add(e.extractEmployee()));
       for (int i = 0; i < employees.size(); i++) {
         Employee emp = employees.get(i);
@@ -721,9 +930,12 @@ public class ETLService {
     }
     WorkOrder w = new WorkOrder();
     try {
-      Optional<WorkOrder> workOrder = workRepo.findById(id);
-      if (workOrder.isPresent()) {
-        w = workOrder.get();
+      HydrationContext context = HydrationContext.current();
+      WorkOrder workOrder = context != null
+          ? context.resolveWorkOrder(id, key -> workRepo.findById(key).orElse(null))
+          : workRepo.findById(id).orElse(null);
+      if (workOrder != null) {
+        w = workOrder;
       } else {
         throw new ResourceNotFoundException();
       }
@@ -737,9 +949,10 @@ public class ETLService {
   }
 
   /**
-   * getEachWorkOrderInfo Method: This method Iterates thru each id on the parameter List and grabs their respective workOrder Objects,
-   * extracts the information of the workOrder object to be replace with a workOrderDto and then grabs each employee that
-   * needs to be populated for that workOrder object.
+   * getEachWorkOrderInfo Method: This method grabs every workOrder Object on the parameter List with a single bulk query,
+   * extracts the information of each workOrder object to be replace with a workOrderDto and then grabs each employee that
+   * needs to be populated for those workOrder objects. An employee that is the creator or resolver of more than one of
+   * the work orders is only grabbed once, and the Dtos are returned in the same order as the ids.
    * @param ids List of Integers
    * @return Returns a List of complete WorkOrderDto Objects.
    */
@@ -751,12 +964,18 @@ public class ETLService {
     }
     List<WorkOrderDto> dtos = new ArrayList<>();
     try {
-      List<WorkOrder> workOrders = new ArrayList<>();
-      ids.forEach(i -> workOrders.add(getWorkOrderById(i)));
-      for (int j = 0; j < workOrders.size(); j++) {
-        WorkOrderDto dto = workOrders.get(j).extractWorkOrder();
-        dto.setCreator(getEmployeeById(workOrders.get(j).getCreatorId()));
-        dto.setResolver(getEmployeeById(workOrders.get(j).getResolverId()));
+      List<WorkOrder> workOrders = getWorkOrdersByIds(ids);
+      Set<Integer> employeeIds = new LinkedHashSet<>();
+      workOrders.forEach(w -> {
+        employeeIds.add(w.getCreatorId());
+        employeeIds.add(w.getResolverId());
+      });
+      prefetchEmployees(employeeIds);
+      Map<Integer, EmployeeDto> employees = new HashMap<>();
+      for (WorkOrder workOrder : workOrders) {
+        WorkOrderDto dto = workOrder.extractWorkOrder();
+        dto.setCreator(employees.computeIfAbsent(workOrder.getCreatorId(), this::getEmployeeById));
+        dto.setResolver(employees.computeIfAbsent(workOrder.getResolverId(), this::getEmployeeById));
         dtos.add(dto);
       }
     }catch(Exception e) {
@@ -766,10 +985,43 @@ public class ETLService {
     return dtos;
   }
 
+  /**
+   * getWorkOrdersByIds Method: Grabs the workOrder Objects for a list of ids with one findAllById query and puts them back
+   * in the order of the ids. When a HydrationContext is open, work orders already fetched for this request are reused.
+   * @param ids List of Integers, duplicates are allowed
+   * @return Returns a List of WorkOrder Objects lined up with the ids.
+   * @throws ResourceNotFoundException when one of the ids has no work order
+   */
+  public List<WorkOrder> getWorkOrdersByIds(List<Integer> ids) {
+    Map<Integer, WorkOrder> byId = new HashMap<>();
+    HydrationContext context = HydrationContext.current();
+    if (context != null) {
+      List<Integer> unresolved = context.unresolvedWorkOrderIds(ids);
+      if (!unresolved.isEmpty()) {
+        context.primeWorkOrders(unresolved, workRepo.findAllById(unresolved));
+      }
+      for (Integer id : new LinkedHashSet<>(ids)) {
+        byId.put(id, context.resolveWorkOrder(id, key -> workRepo.findById(key).orElse(null)));
+      }
+    } else if (!ids.isEmpty()) {
+      workRepo.findAllById(new ArrayList<>(new LinkedHashSet<>(ids))).forEach(w -> byId.put(w.getId(), w));
+    }
+    List<WorkOrder> workOrders = new ArrayList<>(ids.size());
+    for (Integer id : ids) {
+      WorkOrder workOrder = byId.get(id);
+      if (workOrder == null) {
+        throw new ResourceNotFoundException("No work order found with id: " + id);
+      }
+      workOrders.add(workOrder);
+    }
+    return workOrders;
+  }
+
   //****************************** Batch Services ********************************************
 
   /**
    * findBatchById Method: This method talks to the batchRepository to find a Batch Object by its ID.
+   * When a HydrationContext is open, a batch that was already fetched for this request is reused.
    * @param id int of the batch id
    * @return Returns a Batch Object.
    */
@@ -780,9 +1032,12 @@ public class ETLService {
     }
     Batch b = new Batch();
     try {
-      Optional<Batch> batch = batchRepo.findById(id);
-      if (batch.isPresent()) {
-        b = batch.get();
+      HydrationContext context = HydrationContext.current();
+      Batch batch = context != null
+          ? context.resolveBatch(id, key -> batchRepo.findById(key).orElse(null))
+          : batchRepo.findById(id).orElse(null);
+      if (batch != null) {
+        b = batch;
       } else {
         throw new ResourceNotFoundException();
       }
@@ -808,7 +1063,7 @@ public class ETLService {
       if (batch.getCoTrainerId() != 0) {
         dto.setCoTrainer(getEmployeeById(batch.getCoTrainerId()));
       }
-      dto.setAssociates(getEachEmployeeMeta(empClient.getEmployeesByIds(batch.getAssociates())));
+      dto.setAssociates(getEachEmployeeMeta(fetchEmployeesByIds(batch.getAssociates())));
       if (dto.getAssociates() == null){
         throw new ResourceNotFoundException();
       }
@@ -821,4 +1076,182 @@ public class ETLService {
     }
     return dto;
   }
+
+  /**
+   * getBatchDtosByIds Method: Loads every batch on the parameter List with a single findAllById query and hydrates each
+   * distinct batch once, no matter how many of the ids point at it. When a HydrationContext is open, batches that were
+   * already loaded or hydrated for this response are reused, so the same batch is hydrated once per response.
+   * @param ids Collection of batch ids, duplicates are allowed
+   * @return Returns a Map of each batch id to its complete BatchDto.
+   * @throws InvalidRequestException when one of the ids is below 1
+   * @throws ResourceNotFoundException when one of the ids has no batch
+   */
+  public Map<Integer, BatchDto> getBatchDtosByIds(Collection<Integer> ids) {
+    Set<Integer> distinct = new LinkedHashSet<>(ids);
+    for (Integer id : distinct) {
+      if (id < 1) {
+        throw new InvalidRequestException("Id must be 1 or above");
+      }
+    }
+    Map<Integer, Batch> batches = new HashMap<>();
+    HydrationContext context = HydrationContext.current();
+    if (context != null) {
+      List<Integer> unresolved = context.unresolvedBatchIds(distinct);
+      if (!unresolved.isEmpty()) {
+        context.primeBatches(unresolved, batchRepo.findAllById(unresolved));
+      }
+      for (Integer id : distinct) {
+        batches.put(id, context.resolveBatch(id, key -> batchRepo.findById(key).orElse(null)));
+      }
+    } else if (!distinct.isEmpty()) {
+      batchRepo.findAllById(new ArrayList<>(distinct)).forEach(b -> batches.put(b.getId(), b));
+    }
+    Map<Integer, BatchDto> dtos = new HashMap<>();
+    for (Integer id : distinct) {
+      Batch batch = batches.get(id);
+      if (batch == null) {
+        throw new ResourceNotFoundException("No batch found with id: " + id);
+      }
+      dtos.put(id, context != null ? context.resolveBatchDto(id, key -> getBatchInfo(batch)) : getBatchInfo(batch));
+    }
+    return dtos;
+  }
+
+  //****************************** Hydration Helpers ********************************************
+
+  /**
+   * getSingleFlights Method: Returns the single-flight groups that coalesce concurrent identical lookups, by the name
+   * they are reported under in the search.singleflight.* metrics.
+   * @return Returns a Map of group name to SingleFlight.
+   */
+  public Map<String, SingleFlight<?, ?>> getSingleFlights() {
+    Map<String, SingleFlight<?, ?>> flights = new LinkedHashMap<>();
+    flights.put("all-campuses", allCampusesFlight);
+    flights.put("campus-by-id", campusByIdFlight);
+    return flights;
+  }
+
+  /**
+   * hydrateInParallel Method: Hydrates each of the siblings in the list on the hydration executor and waits for
+   * all of them. The results come back in the same order as the list. If any sibling fails, its exception is
+   * rethrown once every sibling has finished, so the caller handles it the same way as before.
+   * @param siblings List of raw objects that do not depend on each other.
+   * @param hydrator Function that turns one raw object into its DTO.
+   * @return Returns a List of DTOs in the same order as the siblings.
+   */
+  <T, R> List<R> hydrateInParallel(List<T> siblings, Function<T, R> hydrator) {
+    List<R> results = new ArrayList<>(siblings.size());
+    if (siblings.size() < 2) {
+      siblings.forEach(s -> results.add(hydrator.apply(s)));
+      return results;
+    }
+    List<CompletableFuture<R>> futures = new ArrayList<>(siblings.size());
+    siblings.forEach(s -> futures.add(CompletableFuture.supplyAsync(() -> hydrator.apply(s), hydrationExecutor)));
+    try {
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException ce) {
+      if (ce.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ce.getCause();
+      }
+      throw ce;
+    }
+    futures.forEach(f -> results.add(f.join()));
+    return results;
+  }
+
+  /**
+   * chunk Method: Splits the ids into lists of at most size ids each, keeping their order.
+   * @param ids Collection of ids.
+   * @param size The most ids in one chunk, anything below 1 is treated as 1.
+   * @return Returns the chunks in order.
+   */
+  private static List<List<Integer>> chunk(Collection<Integer> ids, int size) {
+    List<Integer> all = new ArrayList<>(ids);
+    int chunkSize = Math.max(1, size);
+    List<List<Integer>> chunks = new ArrayList<>();
+    for (int from = 0; from < all.size(); from += chunkSize) {
+      chunks.add(new ArrayList<>(all.subList(from, Math.min(from + chunkSize, all.size()))));
+    }
+    return chunks;
+  }
+
+  /**
+   * buildEmployeeCache Method: Builds the size-bounded employee cache described by the search.hydration.employee-cache-*
+   * properties. Entries older than the refresh time are reloaded on the hydration executor the next time they are read.
+   * @param props HydrationProperties with the cache settings.
+   * @return Returns the empty cache.
+   */
+  private LoadingCache<Integer, EmployeeDto> buildEmployeeCache(HydrationProperties props) {
+    Caffeine<Object, Object> builder = Caffeine.newBuilder()
+        .maximumSize(Math.max(0, props.getEmployeeCacheMaxSize()))
+        .expireAfterWrite(props.getEmployeeCacheTtl())
+        .executor(hydrationExecutor)
+        .recordStats();
+    Duration refreshAfter = props.getEmployeeCacheRefreshAfter();
+    if (refreshAfter != null && !refreshAfter.isZero() && refreshAfter.compareTo(props.getEmployeeCacheTtl()) < 0) {
+      builder.refreshAfterWrite(refreshAfter);
+    }
+    return builder.build(this::loadEmployeeDto);
+  }
+
+  /**
+   * fetchEmployee Method: Fetches one employee through the EmployeeBatchLoader, which sends it to the employee
+   * service together with the other single lookups made by every thread in the same short window.
+   * @param id the employee id
+   * @return Returns the Employee, or null if the employee service does not know it.
+   */
+  private Employee fetchEmployee(int id) {
+    return employeeLoader.get(id);
+  }
+
+  private AppUser fetchAppUser(int id) {
+    return appUserCache.get(id).orElse(null);
+  }
+
+  /**
+   * hydrateRoom Method: Fetches everything a single room points at and returns it as a RoomDto.
+   * @param room Raw Room object
+   * @return Returns the RoomDto with every nested object filled in.
+   */
+  private RoomDto hydrateRoom(Room room) {
+    prefetch(new HydrationPlan().addRoom(room));
+    RoomDto roomDto = room.extractRoom();
+    List<RoomStatusDto> roomStatusList = getEmpsFromRoomStatus(room.getCurrentStatus());
+    roomDto.setCurrentStatus(roomStatusList);
+    BatchDto batch = getBatchInfo(getBatchById(room.getBatchId()));
+    roomDto.setBatch(batch);
+    List<WorkOrderDto> workOrderList= getEachWorkOrderInfo(room.getWorkOrders());
+    roomDto.setWorkOrders(workOrderList);
+    roomDto.setResourceMetadata(campusMetaData(room.getResourceMetadata()));
+    return roomDto;
+  }
+
+  /**
+   * findIndexedRoom Method: Walks the rooms the TrainerRoomIndex has for a trainer or co-trainer, starting
+   * with the last one so that the same room is picked as by the read model. Each candidate is checked against
+   * its current batch before it is hydrated, since the index may be out of date.
+   * @param id the trainer or co-trainer's employee id
+   * @param coTrainer true to look the id up as a co-trainer
+   * @return Returns the hydrated room, or null if none of the indexed rooms still belong to that trainer.
+   */
+  private RoomDto findIndexedRoom(int id, boolean coTrainer) {
+    int[] roomIds = coTrainer ? trainerRoomIndex.findRoomIdsByCoTrainerId(id)
+        : trainerRoomIndex.findRoomIdsByTrainerId(id);
+    for (int i = roomIds.length - 1; i >= 0; i--) {
+      Room room = campClient.getRoomById(roomIds[i]);
+      if (room == null || room.getBatchId() < 1) {
+        continue;
+      }
+      Batch batch;
+      try {
+        batch = getBatchById(room.getBatchId());
+      } catch (ResourceNotFoundException rnfe) {
+        continue;
+      }
+      if ((coTrainer ? batch.getCoTrainerId() : batch.getTrainerId()) == id) {
+        return hydrateRoom(room);
+      }
+    }
+    return null;
+  }
 }
@@ -0,0 +1,187 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.clients.EmployeeClient;
+import com.revature.rms.search.config.HydrationProperties;
+import com.revature.rms.search.entites.employee.Employee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns single employee lookups from every thread into bulk requests. A lookup
+ * joins the batch that is currently being collected and waits. The batch is
+ * sent as one getEmployeesByIds call once search.hydration.employee-batch-window
+ * has passed since its first id, or straight away once it holds
+ * search.hydration.employee-batch-size distinct ids, and every waiting lookup is
+ * then completed from the result. An id asked for twice in the same window is
+ * only sent once.
+ *
+ * A window of zero sends every lookup on its own, the same as calling
+ * getEmployeeById directly but through the bulk endpoint.
+ *
+ * A full batch is sent on the hydration executor, or on the thread that filled
+ * it when the executor is busy. A batch whose window ran out is sent on a pool
+ * of its own instead, at most search.hydration.parallelism at a time, so the
+ * single timer thread does not make the remote call and the windows after it
+ * are not held up. When every thread of that pool is busy, the batch waits in
+ * a queue of search.hydration.employee-batch-queue-size batches for the next
+ * free thread. Only once that queue is full does the timer thread send the
+ * batch itself, holding up the later windows rather than failing any lookup.
+ */
+@Component
+public class EmployeeBatchLoader {
+
+  private EmployeeClient empClient;
+  private DownstreamLimits limits;
+  private HydrationProperties hydrationProps;
+  private Executor dispatcher;
+  private ScheduledExecutorService timer;
+  private ThreadPoolExecutor flusher;
+
+  private final Object lock = new Object();
+  private Map<Integer, CompletableFuture<Employee>> pending = new LinkedHashMap<>();
+
+  @Autowired
+  public EmployeeBatchLoader(EmployeeClient employeeClient, DownstreamLimits downstreamLimits,
+      HydrationProperties hydrationProperties, @Qualifier("hydrationExecutor") Executor hydrationExecutor) {
+    this.empClient = employeeClient;
+    this.limits = downstreamLimits;
+    this.hydrationProps = hydrationProperties;
+    this.dispatcher = hydrationExecutor;
+    this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "employee-batch-loader");
+      thread.setDaemon(true);
+      return thread;
+    });
+    int threads = Math.max(1, hydrationProps.getParallelism());
+    this.flusher = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(Math.max(1, hydrationProps.getEmployeeBatchQueueSize())), runnable -> {
+          Thread thread = new Thread(runnable, "employee-batch-flush");
+          thread.setDaemon(true);
+          return thread;
+        }, (runnable, executor) -> runnable.run());
+    this.flusher.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * load method: Adds the id to the batch that is being collected.
+   * @param id the employee id
+   * @return a future that completes with the employee, or with null if the employee service does not know it
+   */
+  public CompletableFuture<Employee> load(int id) {
+    Map<Integer, CompletableFuture<Employee>> full = null;
+    CompletableFuture<Employee> future;
+    long windowNanos = hydrationProps.getEmployeeBatchWindow().toNanos();
+    synchronized (lock) {
+      future = pending.get(id);
+      if (future != null) {
+        return future;
+      }
+      future = new CompletableFuture<>();
+      pending.put(id, future);
+      if (windowNanos <= 0 || pending.size() >= Math.max(1, hydrationProps.getEmployeeBatchSize())) {
+        full = takePending();
+      } else if (pending.size() == 1) {
+        Map<Integer, CompletableFuture<Employee>> window = pending;
+        timer.schedule(() -> flushIfCurrent(window), windowNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+    if (full != null) {
+      dispatch(full);
+    }
+    return future;
+  }
+
+  /**
+   * get method: Looks the employee up through the current batch and waits for it.
+   * @param id the employee id
+   * @return the employee, or null if the employee service does not know it
+   */
+  public Employee get(int id) {
+    try {
+      return load(id).join();
+    } catch (CompletionException ce) {
+      if (ce.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ce.getCause();
+      }
+      throw ce;
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    timer.shutdownNow();
+    flusher.shutdown();
+    Map<Integer, CompletableFuture<Employee>> remaining;
+    synchronized (lock) {
+      remaining = takePending();
+    }
+    send(remaining);
+  }
+
+  private void flushIfCurrent(Map<Integer, CompletableFuture<Employee>> window) {
+    Map<Integer, CompletableFuture<Employee>> batch = null;
+    synchronized (lock) {
+      if (pending == window && !pending.isEmpty()) {
+        batch = takePending();
+      }
+    }
+    if (batch != null) {
+      flush(batch);
+    }
+  }
+
+  private Map<Integer, CompletableFuture<Employee>> takePending() {
+    Map<Integer, CompletableFuture<Employee>> batch = pending;
+    pending = new LinkedHashMap<>();
+    return batch;
+  }
+
+  private void dispatch(Map<Integer, CompletableFuture<Employee>> batch) {
+    try {
+      dispatcher.execute(() -> send(batch));
+    } catch (RuntimeException e) {
+      send(batch);
+    }
+  }
+
+  /**
+   * flush method: Sends a batch whose window ran out on the flush pool. When the pool and its queue are full, or the
+   * pool was shut down, the calling thread sends it.
+   */
+  private void flush(Map<Integer, CompletableFuture<Employee>> batch) {
+    flusher.execute(() -> send(batch));
+  }
+
+  private void send(Map<Integer, CompletableFuture<Employee>> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      List<Integer> ids = new ArrayList<>(batch.keySet());
+      List<Employee> fetched = limits.callEmployeeService(() -> empClient.getEmployeesByIds(ids));
+      Map<Integer, Employee> byId = new HashMap<>();
+      if (fetched != null) {
+        fetched.forEach(emp -> byId.put(emp.getId(), emp));
+      }
+      batch.forEach((id, future) -> future.complete(byId.get(id)));
+    } catch (RuntimeException | Error e) {
+      batch.values().forEach(future -> future.completeExceptionally(e));
+    }
+  }
+}
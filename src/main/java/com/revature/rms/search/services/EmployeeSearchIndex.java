@@ -0,0 +1,334 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.entites.employee.Employee;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the employees' first name, last name, email,
+ * title and department, ranked with BM25. Text is lower-cased and split on
+ * anything that is not a letter or a digit, so an email is indexed as its
+ * parts, and a department as both its name and its label (STAGING and Dev).
+ *
+ * A query is a list of words that must all match. Groups of words separated
+ * by OR match when any one group matches, so "bruce OR peter parker" finds
+ * every Bruce and every Peter Parker. AND between words is allowed and changes
+ * nothing. Every matching employee is scored against all the words of the
+ * query, so employees that match more of them rank higher.
+ *
+ * The index can be rebuilt from scratch or kept up to date one employee at a
+ * time. Reads and writes are guarded by a read/write lock.
+ */
+public class EmployeeSearchIndex {
+
+  private final double k1;
+  private final double b;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+  private IntObjectMap<String[]> documentTerms = new IntObjectMap<>();
+  private long totalLength;
+  private boolean built;
+
+  public EmployeeSearchIndex(double k1, double b) {
+    this.k1 = k1;
+    this.b = b;
+  }
+
+  /**
+   * rebuild method: Replaces everything in the index with the given employees.
+   * @param employees every employee
+   */
+  public void rebuild(Collection<Employee> employees) {
+    Map<String, Map<Integer, Integer>> newPostings = new HashMap<>();
+    IntObjectMap<String[]> newTerms = new IntObjectMap<>(employees.size());
+    long newLength = 0;
+    for (Employee employee : employees) {
+      if (newTerms.containsKey(employee.getId())) {
+        continue;
+      }
+      List<String> terms = terms(employee);
+      newTerms.put(employee.getId(), terms.toArray(new String[0]));
+      newLength += terms.size();
+      addPostings(newPostings, employee.getId(), terms);
+    }
+    lock.writeLock().lock();
+    try {
+      postings = newPostings;
+      documentTerms = newTerms;
+      totalLength = newLength;
+      built = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * put method: Adds an employee, or replaces what is indexed for it.
+   * @param employee the new or changed employee
+   */
+  public void put(Employee employee) {
+    List<String> terms = terms(employee);
+    lock.writeLock().lock();
+    try {
+      removeLocked(employee.getId());
+      documentTerms.put(employee.getId(), terms.toArray(new String[0]));
+      totalLength += terms.size();
+      addPostings(postings, employee.getId(), terms);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * remove method: Takes an employee out of the index.
+   * @param id the employee id
+   */
+  public void remove(int id) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean isBuilt() {
+    lock.readLock().lock();
+    try {
+      return built;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documentTerms.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * search method: Finds the employees that match the query, best first.
+   * @param query words, optionally grouped with OR
+   * @param limit the most hits to return
+   * @return the total number of matches and the best of them
+   */
+  public Result search(String query, int limit) {
+    List<List<String>> groups = parse(query);
+    Set<String> allTerms = new LinkedHashSet<>();
+    groups.forEach(allTerms::addAll);
+    lock.readLock().lock();
+    try {
+      Set<Integer> matches = new HashSet<>();
+      for (List<String> group : groups) {
+        matches.addAll(matchAll(group));
+      }
+      int size = Math.max(1, limit);
+      PriorityQueue<Hit> best = new PriorityQueue<>(size, Hit.BEST_FIRST.reversed());
+      for (Integer id : matches) {
+        best.offer(new Hit(id, score(id, allTerms)));
+        if (best.size() > size) {
+          best.poll();
+        }
+      }
+      List<Hit> hits = new ArrayList<>(best);
+      hits.sort(Hit.BEST_FIRST);
+      return new Result(matches, limit < 1 ? Collections.emptyList() : hits);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * tokenize method: Lower-cases the text and splits it into words on anything that is not a letter or a digit.
+   * @param text any text, may be null
+   * @return the words in order
+   */
+  public static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null) {
+      return tokens;
+    }
+    for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * terms method: Returns every word indexed for an employee, with repeats.
+   * @param employee the employee
+   * @return the words of the name, email, title and department
+   */
+  public static List<String> terms(Employee employee) {
+    List<String> terms = new ArrayList<>();
+    terms.addAll(tokenize(employee.getFirstName()));
+    terms.addAll(tokenize(employee.getLastName()));
+    terms.addAll(tokenize(employee.getEmail()));
+    terms.addAll(tokenize(employee.getTitle()));
+    if (employee.getDepartment() != null) {
+      Set<String> department = new LinkedHashSet<>(tokenize(employee.getDepartment().name()));
+      department.addAll(tokenize(employee.getDepartment().toString()));
+      terms.addAll(department);
+    }
+    return terms;
+  }
+
+  /**
+   * parse method: Splits a query into groups of words that must all match, one group per side of each OR.
+   * @param query the query text
+   * @return the groups, leaving out empty ones
+   */
+  static List<List<String>> parse(String query) {
+    List<List<String>> groups = new ArrayList<>();
+    List<String> group = new ArrayList<>();
+    if (query != null) {
+      for (String word : query.trim().split("\\s+")) {
+        if (word.equals("OR") || word.equals("||")) {
+          if (!group.isEmpty()) {
+            groups.add(group);
+          }
+          group = new ArrayList<>();
+        } else if (!word.equals("AND") && !word.equals("&&")) {
+          group.addAll(tokenize(word));
+        }
+      }
+    }
+    if (!group.isEmpty()) {
+      groups.add(group);
+    }
+    return groups;
+  }
+
+  private Set<Integer> matchAll(List<String> group) {
+    List<Map<Integer, Integer>> lists = new ArrayList<>();
+    for (String term : new LinkedHashSet<>(group)) {
+      Map<Integer, Integer> list = postings.get(term);
+      if (list == null) {
+        return Collections.emptySet();
+      }
+      lists.add(list);
+    }
+    lists.sort(Comparator.comparingInt(Map::size));
+    Set<Integer> matches = new HashSet<>();
+    for (Integer id : lists.get(0).keySet()) {
+      boolean inAll = true;
+      for (int i = 1; i < lists.size() && inAll; i++) {
+        inAll = lists.get(i).containsKey(id);
+      }
+      if (inAll) {
+        matches.add(id);
+      }
+    }
+    return matches;
+  }
+
+  private double score(int id, Set<String> terms) {
+    int documents = documentTerms.size();
+    double averageLength = documents == 0 ? 0 : (double) totalLength / documents;
+    String[] document = documentTerms.get(id);
+    double length = document == null ? 0 : document.length;
+    double score = 0;
+    for (String term : terms) {
+      Map<Integer, Integer> list = postings.get(term);
+      Integer frequency = list == null ? null : list.get(id);
+      if (frequency == null) {
+        continue;
+      }
+      double idf = Math.log(1 + (documents - list.size() + 0.5) / (list.size() + 0.5));
+      double norm = averageLength == 0 ? 1 : 1 - b + b * length / averageLength;
+      score += idf * frequency * (k1 + 1) / (frequency + k1 * norm);
+    }
+    return score;
+  }
+
+  private void removeLocked(int id) {
+    String[] terms = documentTerms.remove(id);
+    if (terms == null) {
+      return;
+    }
+    totalLength -= terms.length;
+    for (String term : new HashSet<>(Arrays.asList(terms))) {
+      Map<Integer, Integer> list = postings.get(term);
+      if (list != null) {
+        list.remove(id);
+        if (list.isEmpty()) {
+          postings.remove(term);
+        }
+      }
+    }
+  }
+
+  private static void addPostings(Map<String, Map<Integer, Integer>> postings, int id, List<String> terms) {
+    for (String term : terms) {
+      postings.computeIfAbsent(term, key -> new HashMap<>()).merge(id, 1, Integer::sum);
+    }
+  }
+
+  /**
+   * One matching employee and its BM25 score.
+   */
+  public static class Hit {
+
+    static final Comparator<Hit> BEST_FIRST = Comparator.comparingDouble(Hit::getScore).reversed()
+        .thenComparingInt(Hit::getId);
+
+    private final int id;
+    private final double score;
+
+    public Hit(int id, double score) {
+      this.id = id;
+      this.score = score;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public double getScore() {
+      return score;
+    }
+  }
+
+  /**
+   * The ids of every matching employee and the best hits among them.
+   */
+  public static class Result {
+
+    private final Set<Integer> matches;
+    private final List<Hit> hits;
+
+    public Result(Set<Integer> matches, List<Hit> hits) {
+      this.matches = matches;
+      this.hits = hits;
+    }
+
+    public Set<Integer> getMatches() {
+      return matches;
+    }
+
+    public List<Hit> getHits() {
+      return hits;
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.core.exceptions.ResourceNotFoundException;
+import com.revature.rms.search.clients.EmployeeClient;
+import com.revature.rms.search.config.SearchIndexProperties;
+import com.revature.rms.search.dtos.EmployeeDto;
+import com.revature.rms.search.dtos.SearchHit;
+import com.revature.rms.search.dtos.SearchResponse;
+import com.revature.rms.search.entites.employee.Employee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full-text search over employees. The EmployeeSearchIndex is built from the
+ * raw employees of every read model load and patched with the employees each
+ * incremental sync changed. It is also rebuilt on search.index.refresh-ms, or
+ * on the first search if nothing has built it yet: from the read model when it
+ * is ready, and otherwise straight from the employee service, so search works
+ * with the read model switched off. Rebuilds and sync patches are
+ * serialized, so a patch is never lost to a rebuild running over it.
+ *
+ * The hits are returned as the same EmployeeDtos the employee endpoints
+ * return, taken from the read model when it is ready, along with the
+ * department counts of every match. A hit whose employee was removed since
+ * it was indexed is left out.
+ */
+@Service
+public class EmployeeSearchService {
+
+  private EmployeeClient empClient;
+  private DownstreamLimits limits;
+  private SearchIndexProperties indexProps;
+  private SearchReadModel readModel;
+  private ETLService etlService;
+  private FacetService facetService;
+  private EmployeeSearchIndex index;
+
+  @Autowired
+  public EmployeeSearchService(EmployeeClient employeeClient, DownstreamLimits downstreamLimits,
+      SearchIndexProperties searchIndexProperties, SearchReadModel searchReadModel, ETLService etlService,
+      FacetService facetService) {
+    this.empClient = employeeClient;
+    this.limits = downstreamLimits;
+    this.indexProps = searchIndexProperties;
+    this.readModel = searchReadModel;
+    this.etlService = etlService;
+    this.facetService = facetService;
+    this.index = new EmployeeSearchIndex(searchIndexProperties.getBm25K1(), searchIndexProperties.getBm25B());
+  }
+
+  /**
+   * searchEmployees method: Returns the employees that best match the query.
+   * @param query words that must all match, optionally grouped with OR
+   * @param limit the most hits to return, or null for search.index.default-limit
+   * @return the total number of matches, the best hits, best first, and the departments of all the matches
+   * @throws InvalidRequestException when the query is empty or the limit is out of range
+   */
+  public SearchResponse<EmployeeDto> searchEmployees(String query, Integer limit) {
+    if (query == null || EmployeeSearchIndex.tokenize(query).isEmpty()) {
+      throw new InvalidRequestException("Query can not be empty");
+    }
+    int size = limit == null ? indexProps.getDefaultLimit() : limit;
+    if (size < 1 || size > indexProps.getMaxLimit()) {
+      throw new InvalidRequestException("Limit must be between 1 and " + indexProps.getMaxLimit());
+    }
+    if (!index.isBuilt()) {
+      rebuildIfEmpty();
+    }
+    EmployeeSearchIndex.Result result = index.search(query, size);
+    List<SearchHit<EmployeeDto>> hits = new ArrayList<>();
+    for (EmployeeSearchIndex.Hit hit : result.getHits()) {
+      EmployeeDto employee = document(hit.getId());
+      if (employee != null) {
+        hits.add(new SearchHit<>(hit.getScore(), employee));
+      }
+    }
+    SearchResponse<EmployeeDto> response = new SearchResponse<>(query, result.getMatches().size(), hits);
+    response.getFacets().put(FacetService.EMPLOYEE_DEPARTMENT,
+        facetService.count(FacetService.EMPLOYEE_DEPARTMENT, result.getMatches()));
+    return response;
+  }
+
+  /**
+   * refresh method: Rebuilds the index on a fixed delay.
+   */
+  @Scheduled(fixedDelayString = "${search.index.refresh-ms:3600000}",
+      initialDelayString = "${search.index.refresh-ms:3600000}")
+  public void refresh() {
+    try {
+      rebuild();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * rebuild method: Replaces the index with the raw employees of the read model when it is ready, so it stays the
+   * snapshot the syncs patch, or else with every employee the employee service returns.
+   */
+  public synchronized void rebuild() {
+    ReadModelDocuments docs = readModel.read(current -> current);
+    if (docs != null) {
+      index.rebuild(docs.getRawEmployees().values());
+      return;
+    }
+    List<Employee> employees = limits.callEmployeeService(empClient::getAllEmployee);
+    index.rebuild(employees != null ? employees : new ArrayList<>());
+  }
+
+  /**
+   * onReadModelUpdated method: Rebuilds the index after a full read model load, or re-indexes only the employees
+   * an incremental sync added, changed or removed.
+   * @param event the load or sync that just finished
+   */
+  @EventListener
+  public synchronized void onReadModelUpdated(ReadModelUpdatedEvent event) {
+    ReadModelDocuments docs = event.getDocuments();
+    if (event.isFullLoad()) {
+      index.rebuild(docs.getRawEmployees().values());
+      return;
+    }
+    for (Integer id : event.getChanges().getEmployees()) {
+      Employee employee = docs.getRawEmployees().get(id);
+      if (employee != null) {
+        index.put(employee);
+      } else {
+        index.remove(id);
+      }
+    }
+  }
+
+  public EmployeeSearchIndex getIndex() {
+    return index;
+  }
+
+  private synchronized void rebuildIfEmpty() {
+    if (!index.isBuilt()) {
+      rebuild();
+    }
+  }
+
+  /**
+   * document method: Returns the EmployeeDto of a hit from the read model, or from the ETLService when the read
+   * model is not ready or does not have the employee yet.
+   * @param id the employee id
+   * @return the employee, or null when it was removed since it was indexed, so the hit is skipped
+   */
+  private EmployeeDto document(int id) {
+    if (readModel.isReady()) {
+      try {
+        return readModel.getEmployeeById(id);
+      } catch (ResourceNotFoundException rnfe) {
+        // not in the read model yet, so it is asked for below
+      }
+    }
+    try {
+      return etlService.getEmployeeById(id);
+    } catch (ResourceNotFoundException rnfe) {
+      return null;
+    }
+  }
+}
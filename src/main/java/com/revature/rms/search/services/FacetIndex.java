@@ -0,0 +1,139 @@
+package com.revature.rms.search.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps facet counts up to date one resource at a time. For each dimension it
+ * holds the values every resource contributes, such as the department of an
+ * employee or the types of the amenities in a building, and a running total
+ * per value. Replacing or removing a resource adjusts the totals by the
+ * difference, so counts over everything are read straight from the totals and
+ * counts over a filtered set only look at the resources in that set.
+ *
+ * What a resource contributes is kept as one array of values, with a value
+ * repeated once per occurrence, in an IntObjectMap by resource id.
+ */
+public class FacetIndex {
+
+  private static final Comparator<Map.Entry<String, Long>> MOST_FIRST =
+      Comparator.comparing((Map.Entry<String, Long> e) -> e.getValue()).reversed().thenComparing(Map.Entry::getKey);
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<String, IntObjectMap<String[]>> contributions = new HashMap<>();
+  private final Map<String, Map<String, Long>> totals = new HashMap<>();
+
+  /**
+   * put method: Sets the values one resource contributes to a dimension, replacing what it contributed before.
+   * @param dimension the facet, such as employee.department
+   * @param id the resource id
+   * @param values each value mapped to how many times the resource has it, empty when it has none
+   */
+  public void put(String dimension, int id, Map<String, Integer> values) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(dimension, id);
+      if (values.isEmpty()) {
+        return;
+      }
+      List<String> occurrences = new ArrayList<>();
+      values.forEach((value, count) -> {
+        for (int i = 0; i < count; i++) {
+          occurrences.add(value);
+        }
+      });
+      contributions.computeIfAbsent(dimension, key -> new IntObjectMap<>()).put(id, occurrences.toArray(new String[0]));
+      Map<String, Long> total = totals.computeIfAbsent(dimension, key -> new HashMap<>());
+      occurrences.forEach(value -> total.merge(value, 1L, Long::sum));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * remove method: Takes one resource out of a dimension.
+   * @param dimension the facet
+   * @param id the resource id
+   */
+  public void remove(String dimension, int id) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(dimension, id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * counts method: Returns the counts of a dimension over every resource.
+   * @param dimension the facet
+   * @return each value mapped to its count, highest count first
+   */
+  public Map<String, Long> counts(String dimension) {
+    lock.readLock().lock();
+    try {
+      return sorted(totals.getOrDefault(dimension, new HashMap<>()));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * counts method: Returns the counts of a dimension over only the given resources, such as the result of a search.
+   * @param dimension the facet
+   * @param ids the resources to count
+   * @return each value mapped to its count, highest count first
+   */
+  public Map<String, Long> counts(String dimension, Collection<Integer> ids) {
+    Map<String, Long> counts = new HashMap<>();
+    lock.readLock().lock();
+    try {
+      IntObjectMap<String[]> byId = contributions.get(dimension);
+      if (byId != null) {
+        for (Integer id : ids) {
+          String[] values = byId.get(id.intValue());
+          if (values != null) {
+            for (String value : values) {
+              counts.merge(value, 1L, Long::sum);
+            }
+          }
+        }
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return sorted(counts);
+  }
+
+  private void removeLocked(String dimension, int id) {
+    IntObjectMap<String[]> byId = contributions.get(dimension);
+    String[] old = byId == null ? null : byId.remove(id);
+    if (old == null) {
+      return;
+    }
+    Map<String, Long> total = totals.get(dimension);
+    for (String value : old) {
+      long left = total.getOrDefault(value, 0L) - 1;
+      if (left > 0) {
+        total.put(value, left);
+      } else {
+        total.remove(value);
+      }
+    }
+  }
+
+  private static Map<String, Long> sorted(Map<String, Long> counts) {
+    List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+    entries.sort(MOST_FIRST);
+    Map<String, Long> result = new LinkedHashMap<>();
+    entries.forEach(e -> result.put(e.getKey(), e.getValue()));
+    return result;
+  }
+}
@@ -0,0 +1,192 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Amenity;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Facet counts over the read model: employees per Department, batches per
+ * Curriculum, open work orders per Category, and amenities per AmenityType and
+ * per AmenityStatus. A work order is open until it has a resolvedDateTime.
+ * Amenity counts are kept per building, so they can be narrowed down to any set
+ * of buildings.
+ *
+ * The counts are rebuilt from every full read model load and adjusted for just
+ * the resources each incremental sync changed. A rebuild fills a new
+ * FacetIndex and swaps it in whole, so counts are never read half rebuilt. They are also rebuilt on
+ * search.index.refresh-ms, or on the first request if nothing has built them
+ * yet, from the read model when it is ready and otherwise from the extraction
+ * the ReadModelExtractor shares, so the amenities are counted over the same
+ * buildings, including the ones only nested in a campus.
+ */
+@Service
+public class FacetService {
+
+  public static final String EMPLOYEE_DEPARTMENT = "employee.department";
+  public static final String BATCH_CURRICULUM = "batch.curriculum";
+  public static final String OPEN_WORK_ORDER_CATEGORY = "workorder.category";
+  public static final String AMENITY_TYPE = "amenity.type";
+  public static final String AMENITY_STATUS = "amenity.status";
+
+  public static final List<String> DIMENSIONS = Collections.unmodifiableList(Arrays.asList(
+      EMPLOYEE_DEPARTMENT, BATCH_CURRICULUM, OPEN_WORK_ORDER_CATEGORY, AMENITY_TYPE, AMENITY_STATUS));
+
+  private ReadModelExtractor extractor;
+  private SearchReadModel readModel;
+  private volatile FacetIndex index = new FacetIndex();
+  private volatile boolean built;
+
+  @Autowired
+  public FacetService(ReadModelExtractor readModelExtractor, SearchReadModel searchReadModel) {
+    this.extractor = readModelExtractor;
+    this.readModel = searchReadModel;
+  }
+
+  /**
+   * getFacets method: Returns the counts of the given dimensions over everything in the read model.
+   * @param dimensions the facets to count, or null or empty for all of them
+   * @return each dimension mapped to its counts, highest count first
+   * @throws InvalidRequestException when a dimension is unknown
+   */
+  public Map<String, Map<String, Long>> getFacets(List<String> dimensions) {
+    List<String> wanted = dimensions == null || dimensions.isEmpty() ? DIMENSIONS : dimensions;
+    for (String dimension : wanted) {
+      if (!DIMENSIONS.contains(dimension)) {
+        throw new InvalidRequestException("Facet must be one of " + DIMENSIONS);
+      }
+    }
+    FacetIndex current = index();
+    Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+    wanted.forEach(dimension -> facets.put(dimension, current.counts(dimension)));
+    return facets;
+  }
+
+  /**
+   * count method: Returns the counts of one dimension over a filtered set of resources, such as the result of a search.
+   * @param dimension the facet
+   * @param ids the ids of the resources the dimension is about
+   * @return each value mapped to its count, highest count first
+   */
+  public Map<String, Long> count(String dimension, Collection<Integer> ids) {
+    return index().counts(dimension, ids);
+  }
+
+  /**
+   * refresh method: Rebuilds the counts on a fixed delay.
+   */
+  @Scheduled(fixedDelayString = "${search.index.refresh-ms:3600000}",
+      initialDelayString = "${search.index.refresh-ms:3600000}")
+  public void refresh() {
+    try {
+      rebuild();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * rebuild method: Rebuilds every dimension from the read model when it is ready, or from the shared extraction.
+   */
+  public synchronized void rebuild() {
+    ReadModelDocuments docs = readModel.read(current -> current);
+    build(docs != null ? docs : extractor.latest());
+  }
+
+  /**
+   * onReadModelUpdated method: Rebuilds every dimension after a full read model load, or adjusts the counts for
+   * only the resources an incremental sync added, changed or removed.
+   * @param event the load or sync that just finished
+   */
+  @EventListener
+  public synchronized void onReadModelUpdated(ReadModelUpdatedEvent event) {
+    ReadModelDocuments docs = event.getDocuments();
+    if (event.isFullLoad()) {
+      build(docs);
+      return;
+    }
+    FacetIndex current = index;
+    ReadModelChanges changes = event.getChanges();
+    changes.getEmployees().forEach(id -> putEmployee(current, id, docs.getRawEmployees().get(id)));
+    changes.getBatches().forEach(id -> putBatch(current, id, docs.getRawBatches().get(id)));
+    changes.getWorkOrders().forEach(id -> putWorkOrder(current, id, docs.getRawWorkOrders().get(id)));
+    changes.getBuildings().forEach(id -> putBuilding(current, id, docs.getRawBuildings().get(id)));
+  }
+
+  /**
+   * build method: Counts every dimension into a new index and swaps it in.
+   * @param docs the raw objects
+   */
+  void build(ReadModelDocuments docs) {
+    FacetIndex filled = new FacetIndex();
+    docs.getRawEmployees().forEachEntry((id, emp) -> putEmployee(filled, id, emp));
+    docs.getRawBatches().forEachEntry((id, batch) -> putBatch(filled, id, batch));
+    docs.getRawWorkOrders().forEachEntry((id, workOrder) -> putWorkOrder(filled, id, workOrder));
+    docs.getRawBuildings().forEachEntry((id, building) -> putBuilding(filled, id, building));
+    index = filled;
+    built = true;
+  }
+
+  private FacetIndex index() {
+    if (!built) {
+      synchronized (this) {
+        if (!built) {
+          rebuild();
+        }
+      }
+    }
+    return index;
+  }
+
+  private static void putEmployee(FacetIndex index, int id, Employee employee) {
+    index.put(EMPLOYEE_DEPARTMENT, id, employee == null ? Collections.emptyMap() : one(employee.getDepartment()));
+  }
+
+  private static void putBatch(FacetIndex index, int id, Batch batch) {
+    index.put(BATCH_CURRICULUM, id, batch == null ? Collections.emptyMap() : one(batch.getCurriculum()));
+  }
+
+  private static void putWorkOrder(FacetIndex index, int id, WorkOrder workOrder) {
+    boolean open = workOrder != null
+        && (workOrder.getResolvedDateTime() == null || workOrder.getResolvedDateTime().trim().isEmpty());
+    index.put(OPEN_WORK_ORDER_CATEGORY, id, open ? one(workOrder.getCategory()) : Collections.emptyMap());
+  }
+
+  private static void putBuilding(FacetIndex index, int id, Building building) {
+    List<Amenity> amenities = building == null ? null : building.getAmenities();
+    index.put(AMENITY_TYPE, id, tally(amenities, Amenity::getType));
+    index.put(AMENITY_STATUS, id, tally(amenities, Amenity::getStatus));
+  }
+
+  private static Map<String, Integer> one(Enum<?> value) {
+    return value == null ? Collections.emptyMap() : Collections.singletonMap(value.name(), 1);
+  }
+
+  private static Map<String, Integer> tally(List<Amenity> amenities, Function<Amenity, Enum<?>> field) {
+    Map<String, Integer> counts = new HashMap<>();
+    if (amenities != null) {
+      for (Amenity amenity : amenities) {
+        Enum<?> value = field.apply(amenity);
+        if (value != null) {
+          counts.merge(value.name(), 1, Integer::sum);
+        }
+      }
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,347 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.core.exceptions.ResourceNotFoundException;
+import com.revature.rms.search.dtos.EmployeeDto;
+import com.revature.rms.search.dtos.RoomDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filters employees and rooms on their low-cardinality fields with the
+ * bitmap posting lists of a BitmapIndex.
+ *
+ * Employees can be filtered on active, department, owner and campus, where an
+ * employee is on a campus when they manage it, are its HR lead or one of its
+ * corporate employees, lead one of its buildings, or train a batch in one of
+ * its rooms. Rooms can be filtered on active, owner, campus, building, the
+ * curriculum of their batch and the category of their open work orders.
+ *
+ * Both indexes are built again from every read model load and sync, which only
+ * takes a pass over the raw objects, and swapped in whole. They are also built
+ * from the extraction the ReadModelExtractor shares on search.index.refresh-ms,
+ * or on the first request if nothing has built them yet, so filtering works
+ * with the read model switched off. The indexes remember the documents they
+ * were built from, so a caller holding documents can ask for the indexes of
+ * exactly those.
+ */
+@Service
+public class FilterService {
+
+  public static final String ACTIVE = "active";
+  public static final String DEPARTMENT = "department";
+  public static final String OWNER = "owner";
+  public static final String CAMPUS = "campus";
+  public static final String BUILDING = "building";
+  public static final String CURRICULUM = "curriculum";
+  public static final String CATEGORY = "category";
+
+  public static final List<String> EMPLOYEE_FIELDS = Collections.unmodifiableList(Arrays.asList(
+      ACTIVE, DEPARTMENT, OWNER, CAMPUS));
+  public static final List<String> ROOM_FIELDS = Collections.unmodifiableList(Arrays.asList(
+      ACTIVE, OWNER, CAMPUS, BUILDING, CURRICULUM, CATEGORY));
+
+  /**
+   * A parameter that starts with this leaves out the values it is given instead of keeping them.
+   */
+  public static final String EXCLUDE_PREFIX = "not.";
+
+  private ReadModelExtractor extractor;
+  private SearchReadModel readModel;
+  private ETLService etlService;
+  private volatile Indexes indexes;
+
+  @Autowired
+  public FilterService(ReadModelExtractor readModelExtractor, SearchReadModel searchReadModel, ETLService etlService) {
+    this.extractor = readModelExtractor;
+    this.readModel = searchReadModel;
+    this.etlService = etlService;
+  }
+
+  /**
+   * filterEmployees method: Returns the employees that match every filter.
+   * @param filters each field mapped to the values to keep, or with not. in front to the values to leave out;
+   *                a value may also be a comma separated list
+   * @return the EmployeeDtos of the matching employees, in id order
+   * @throws InvalidRequestException when a field can not be filtered on
+   * @throws ResourceNotFoundException when no employee matches
+   */
+  public List<EmployeeDto> filterEmployees(Map<String, List<String>> filters) {
+    RoaringBitmap ids = filter(indexes().employees, filters);
+    List<EmployeeDto> employees = ReadModelLookup.documents(readModel, ids.toArray(), ReadModelDocuments::getEmployees,
+        id -> etlService.getEmployeeById(id));
+    if (employees.isEmpty()) {
+      throw new ResourceNotFoundException("No employees match the filters");
+    }
+    return employees;
+  }
+
+  /**
+   * filterRooms method: Returns the rooms that match every filter.
+   * @param filters each field mapped to the values to keep, or with not. in front to the values to leave out;
+   *                a value may also be a comma separated list
+   * @return the RoomDtos of the matching rooms, in id order
+   * @throws InvalidRequestException when a field can not be filtered on
+   * @throws ResourceNotFoundException when no room matches
+   */
+  public List<RoomDto> filterRooms(Map<String, List<String>> filters) {
+    RoaringBitmap ids = filter(indexes().rooms, filters);
+    List<RoomDto> rooms = ReadModelLookup.documents(readModel, ids.toArray(), ReadModelDocuments::getRooms,
+        id -> etlService.getRoomDtoById(id));
+    if (rooms.isEmpty()) {
+      throw new ResourceNotFoundException("No rooms match the filters");
+    }
+    return rooms;
+  }
+
+  /**
+   * refresh method: Rebuilds both indexes on a fixed delay.
+   */
+  @Scheduled(fixedDelayString = "${search.index.refresh-ms:3600000}",
+      initialDelayString = "${search.index.refresh-ms:3600000}")
+  public void refresh() {
+    try {
+      rebuild();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * rebuild method: Rebuilds both indexes from the read model when it is ready, or from the shared extraction.
+   */
+  public synchronized void rebuild() {
+    build(source());
+  }
+
+  /**
+   * onReadModelUpdated method: Rebuilds both indexes from the documents of a load or sync.
+   * @param event the load or sync that just finished
+   */
+  @EventListener
+  public synchronized void onReadModelUpdated(ReadModelUpdatedEvent event) {
+    build(event.getDocuments());
+  }
+
+  public BitmapIndex getEmployeeIndex() {
+    return indexes().employees;
+  }
+
+  public BitmapIndex getRoomIndex() {
+    return indexes().rooms;
+  }
+
+  /**
+   * getEmployeeIndex method: Returns the employee index built from the given documents.
+   * @param docs the documents the caller is reading
+   * @return the index of those documents, built first when the current index is of other documents
+   */
+  public BitmapIndex getEmployeeIndex(ReadModelDocuments docs) {
+    return indexes(docs).employees;
+  }
+
+  /**
+   * getRoomIndex method: Returns the room index built from the given documents.
+   * @param docs the documents the caller is reading
+   * @return the index of those documents, built first when the current index is of other documents
+   */
+  public BitmapIndex getRoomIndex(ReadModelDocuments docs) {
+    return indexes(docs).rooms;
+  }
+
+  /**
+   * build method: Builds the employee and room indexes from the raw objects and swaps them in.
+   * @param docs the raw objects
+   */
+  void build(ReadModelDocuments docs) {
+    indexes = index(docs);
+  }
+
+  private static Indexes index(ReadModelDocuments docs) {
+    IntObjectMap<Integer> campusOfBuilding = new IntObjectMap<>();
+    IntObjectMap<Integer> buildingOfRoom = new IntObjectMap<>();
+    docs.getRawCampuses().forEachEntry((campusId, campus) -> {
+      if (campus.getBuildings() != null) {
+        campus.getBuildings().forEach(building -> campusOfBuilding.put(building.getId(), Integer.valueOf(campusId)));
+      }
+    });
+    docs.getRawBuildings().forEachEntry((buildingId, building) -> {
+      if (building.getRooms() != null) {
+        building.getRooms().forEach(room -> buildingOfRoom.put(room.getId(), Integer.valueOf(buildingId)));
+      }
+    });
+
+    BitmapIndex rooms = new BitmapIndex(ROOM_FIELDS);
+    BitmapIndex employees = new BitmapIndex(EMPLOYEE_FIELDS);
+    for (Room room : docs.getRawRooms().values()) {
+      int id = room.getId();
+      rooms.add(id);
+      addMetadata(rooms, id, room.getResourceMetadata());
+      Integer buildingId = buildingOfRoom.get(id);
+      Integer campusId = buildingId == null ? null : campusOfBuilding.get(buildingId.intValue());
+      rooms.add(BUILDING, buildingId == null ? null : buildingId.toString(), id);
+      rooms.add(CAMPUS, campusId == null ? null : campusId.toString(), id);
+      Batch batch = docs.getRawBatches().get(room.getBatchId());
+      if (batch != null) {
+        rooms.add(CURRICULUM, batch.getCurriculum() == null ? null : batch.getCurriculum().name(), id);
+        if (campusId != null) {
+          addCampus(employees, docs, batch.getTrainerId(), campusId);
+          addCampus(employees, docs, batch.getCoTrainerId(), campusId);
+        }
+      }
+      if (room.getWorkOrders() != null) {
+        for (Integer workOrderId : room.getWorkOrders()) {
+          WorkOrder workOrder = workOrderId == null ? null : docs.getRawWorkOrders().get(workOrderId.intValue());
+          if (workOrder != null && workOrder.getCategory() != null && isOpen(workOrder)) {
+            rooms.add(CATEGORY, workOrder.getCategory().name(), id);
+          }
+        }
+      }
+    }
+
+    for (Employee employee : docs.getRawEmployees().values()) {
+      int id = employee.getId();
+      employees.add(id);
+      employees.add(DEPARTMENT, employee.getDepartment() == null ? null : employee.getDepartment().name(), id);
+      com.revature.rms.search.entites.employee.ResourceMetadata metadata = employee.getResourceMetadata();
+      if (metadata != null) {
+        employees.add(ACTIVE, String.valueOf(metadata.isCurrentlyActive()), id);
+        employees.add(OWNER, String.valueOf(metadata.getResourceOwner()), id);
+      }
+    }
+    for (Campus campus : docs.getRawCampuses().values()) {
+      addCampus(employees, docs, campus.getTrainingManagerId(), campus.getId());
+      addCampus(employees, docs, campus.getStagingManagerId(), campus.getId());
+      addCampus(employees, docs, campus.getHrLead(), campus.getId());
+      if (campus.getCorporateEmployees() != null) {
+        campus.getCorporateEmployees().forEach(employeeId -> addCampus(employees, docs, employeeId, campus.getId()));
+      }
+    }
+    for (Building building : docs.getRawBuildings().values()) {
+      Integer campusId = campusOfBuilding.get(building.getId());
+      if (campusId != null) {
+        addCampus(employees, docs, building.getTrainingLead(), campusId);
+      }
+    }
+
+    employees.optimize();
+    rooms.optimize();
+    return new Indexes(docs, employees, rooms);
+  }
+
+  /**
+   * filter method: Splits the request parameters into included and excluded values and runs them against an index.
+   */
+  private static RoaringBitmap filter(BitmapIndex index, Map<String, List<String>> filters) {
+    Map<String, List<String>> include = new LinkedHashMap<>();
+    Map<String, List<String>> exclude = new LinkedHashMap<>();
+    if (filters != null) {
+      filters.forEach((name, values) -> {
+        boolean excluded = name.startsWith(EXCLUDE_PREFIX);
+        String field = excluded ? name.substring(EXCLUDE_PREFIX.length()) : name;
+        if (!index.getFields().contains(field)) {
+          throw new InvalidRequestException("Filter must be one of " + index.getFields());
+        }
+        List<String> split = (excluded ? exclude : include).computeIfAbsent(field, key -> new ArrayList<>());
+        if (values != null) {
+          for (String value : values) {
+            for (String part : value.split(",")) {
+              if (!part.trim().isEmpty()) {
+                split.add(part.trim());
+              }
+            }
+          }
+        }
+      });
+    }
+    return index.filter(include, exclude);
+  }
+
+  private Indexes indexes() {
+    if (indexes == null) {
+      rebuildIfEmpty();
+    }
+    return indexes;
+  }
+
+  private Indexes indexes(ReadModelDocuments docs) {
+    Indexes current = indexes;
+    return current != null && current.docs == docs ? current : indexFrom(docs);
+  }
+
+  /**
+   * indexFrom method: Builds the indexes of some documents, and swaps them in when those are the documents the
+   * indexes should follow, so a caller holding documents from before a load never swaps older indexes in.
+   */
+  private synchronized Indexes indexFrom(ReadModelDocuments docs) {
+    if (indexes != null && indexes.docs == docs) {
+      return indexes;
+    }
+    Indexes built = index(docs);
+    if (docs == source()) {
+      indexes = built;
+    }
+    return built;
+  }
+
+  private ReadModelDocuments source() {
+    ReadModelDocuments docs = readModel.read(current -> current);
+    return docs != null ? docs : extractor.latest();
+  }
+
+  private synchronized void rebuildIfEmpty() {
+    if (indexes == null) {
+      rebuild();
+    }
+  }
+
+  private static void addMetadata(BitmapIndex index, int id, ResourceMetadata metadata) {
+    if (metadata != null) {
+      index.add(ACTIVE, String.valueOf(metadata.isCurrentlyActive()), id);
+      index.add(OWNER, String.valueOf(metadata.getResourceOwner()), id);
+    }
+  }
+
+  private static void addCampus(BitmapIndex employees, ReadModelDocuments docs, Integer employeeId, int campusId) {
+    if (employeeId != null && docs.getRawEmployees().containsKey(employeeId.intValue())) {
+      employees.add(CAMPUS, String.valueOf(campusId), employeeId);
+    }
+  }
+
+  private static boolean isOpen(WorkOrder workOrder) {
+    return workOrder.getResolvedDateTime() == null || workOrder.getResolvedDateTime().trim().isEmpty();
+  }
+
+  /**
+   * The employee and room indexes of one build, with the documents they were built from.
+   */
+  private static class Indexes {
+
+    final ReadModelDocuments docs;
+    final BitmapIndex employees;
+    final BitmapIndex rooms;
+
+    Indexes(ReadModelDocuments docs, BitmapIndex employees, BitmapIndex rooms) {
+      this.docs = docs;
+      this.employees = employees;
+      this.rooms = rooms;
+    }
+  }
+}
@@ -0,0 +1,285 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.dtos.BatchDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.employee.AppUser;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * A HydrationContext lives for the length of one request and remembers every
+ * object that was fetched from another service while the response was being
+ * put together. The same handful of app users show up as the creator, last
+ * modifier and owner of nearly every campus, building, room, batch and employee,
+ * so once a user has been fetched for one of them it is handed back from here
+ * instead of calling the auth service again. Employees, batches and work orders
+ * are remembered the same way.
+ *
+ * The context is bound to the current thread by the HydrationContextAspect and
+ * is carried over to the hydration executor's threads by its task decorator.
+ * When no context is open the ETLService falls back to calling the clients
+ * directly, which is what the unit tests rely on.
+ */
+public class HydrationContext {
+
+  private static final ThreadLocal<HydrationContext> CURRENT = new ThreadLocal<>();
+
+  private final Memo<AppUser> users = new Memo<>(AppUser::getId);
+  private final Memo<Employee> employees = new Memo<>(Employee::getId);
+  private final Memo<Batch> batches = new Memo<>(Batch::getId);
+  private final Memo<WorkOrder> workOrders = new Memo<>(WorkOrder::getId);
+  private final Memo<BatchDto> batchDtos = new Memo<>(BatchDto::getId);
+
+  /**
+   * open method: Binds a new context to the current thread.
+   * @return the newly opened context
+   */
+  public static HydrationContext open() {
+    HydrationContext context = new HydrationContext();
+    CURRENT.set(context);
+    return context;
+  }
+
+  /**
+   * current method: Returns the context bound to the current thread.
+   * @return the open context, or null if there is none
+   */
+  public static HydrationContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * close method: Unbinds whatever context is bound to the current thread.
+   */
+  public static void close() {
+    CURRENT.remove();
+  }
+
+  /**
+   * bind method: Binds an existing context to the current thread. Used to carry the caller's context
+   * over to the threads that hydrate siblings in parallel.
+   * @param context the context to bind, or null to unbind
+   */
+  public static void bind(HydrationContext context) {
+    if (context == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(context);
+    }
+  }
+
+  /**
+   * resolveUser method: Returns the AppUser with the given id, only calling the loader the
+   * first time that id is asked for during this request.
+   * @param id the AppUser id
+   * @param loader the remote call used when the user has not been fetched yet
+   * @return the AppUser returned by the loader, or null if the loader returned null
+   */
+  public AppUser resolveUser(int id, IntFunction<AppUser> loader) {
+    return users.resolve(id, loader);
+  }
+
+  /**
+   * unresolvedUserIds method: Filters the given ids down to the ones that have not been fetched
+   * or asked for yet during this request.
+   * @param ids AppUser ids, duplicates and ids below 1 are dropped
+   * @return the ids that still need to be fetched
+   */
+  public List<Integer> unresolvedUserIds(Collection<Integer> ids) {
+    return users.unresolved(ids);
+  }
+
+  /**
+   * primeUsers method: Stores the result of one bulk request. Ids that were asked for but not
+   * returned are stored as null, the same as getUserById returning null for them.
+   * @param requested the ids sent in the bulk request
+   * @param fetched the users returned by the auth service
+   */
+  public void primeUsers(Collection<Integer> requested, Iterable<AppUser> fetched) {
+    users.prime(requested, fetched);
+  }
+
+  public Employee resolveEmployee(int id, IntFunction<Employee> loader) {
+    return employees.resolve(id, loader);
+  }
+
+  public List<Integer> unresolvedEmployeeIds(Collection<Integer> ids) {
+    return employees.unresolved(ids);
+  }
+
+  public void primeEmployees(Collection<Integer> requested, Iterable<Employee> fetched) {
+    employees.prime(requested, fetched);
+  }
+
+  /**
+   * peekEmployee method: Returns an employee that has already been fetched, without waiting on or
+   * starting a remote call.
+   * @param id the employee id
+   * @return the employee, or null if it has not been fetched or was not found
+   */
+  public Employee peekEmployee(int id) {
+    return employees.peek(id);
+  }
+
+  public Batch resolveBatch(int id, IntFunction<Batch> loader) {
+    return batches.resolve(id, loader);
+  }
+
+  public List<Integer> unresolvedBatchIds(Collection<Integer> ids) {
+    return batches.unresolved(ids);
+  }
+
+  public void primeBatches(Collection<Integer> requested, Iterable<Batch> fetched) {
+    batches.prime(requested, fetched);
+  }
+
+  public Batch peekBatch(int id) {
+    return batches.peek(id);
+  }
+
+  /**
+   * resolveBatchDto method: Returns the hydrated BatchDto for the given batch id, only hydrating it the first
+   * time that id is asked for during this request. Rooms that share a batch share the same BatchDto.
+   * @param id the batch id
+   * @param hydrator hydrates the batch when it has not been hydrated yet
+   * @return the hydrated BatchDto
+   */
+  public BatchDto resolveBatchDto(int id, IntFunction<BatchDto> hydrator) {
+    return batchDtos.resolve(id, hydrator);
+  }
+
+  public WorkOrder resolveWorkOrder(int id, IntFunction<WorkOrder> loader) {
+    return workOrders.resolve(id, loader);
+  }
+
+  public List<Integer> unresolvedWorkOrderIds(Collection<Integer> ids) {
+    return workOrders.unresolved(ids);
+  }
+
+  public void primeWorkOrders(Collection<Integer> requested, Iterable<WorkOrder> fetched) {
+    workOrders.prime(requested, fetched);
+  }
+
+  public WorkOrder peekWorkOrder(int id) {
+    return workOrders.peek(id);
+  }
+
+  public int getUserLookups() {
+    return users.lookups.get();
+  }
+
+  public int getUserRemoteCalls() {
+    return users.remoteCalls.get();
+  }
+
+  public int getUserBulkCalls() {
+    return users.bulkCalls.get();
+  }
+
+  /**
+   * getSavedUserCalls method: Returns how many auth service calls were answered from this context.
+   * @return the number of lookups that did not go remote
+   */
+  public int getSavedUserCalls() {
+    return users.lookups.get() - users.remoteCalls.get();
+  }
+
+  public int getEmployeeRemoteCalls() {
+    return employees.remoteCalls.get();
+  }
+
+  public int getEmployeeBulkCalls() {
+    return employees.bulkCalls.get();
+  }
+
+  /**
+   * Remembers the objects of one type by id, along with how many times they were asked for and
+   * how many of those requests had to go to another service.
+   */
+  private static class Memo<T> {
+
+    private final ConcurrentMap<Integer, CompletableFuture<T>> values = new ConcurrentHashMap<>();
+    private final ToIntFunction<T> idOf;
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicInteger remoteCalls = new AtomicInteger();
+    private final AtomicInteger bulkCalls = new AtomicInteger();
+
+    private Memo(ToIntFunction<T> idOf) {
+      this.idOf = idOf;
+    }
+
+    /**
+     * The first caller for an id runs the loader and every other caller, on any thread, waits for
+     * that same result. Failed loads are forgotten so that a later caller can try again, and the
+     * original exception is rethrown to everyone that was waiting on it.
+     */
+    private T resolve(int id, IntFunction<T> loader) {
+      lookups.incrementAndGet();
+      CompletableFuture<T> created = new CompletableFuture<>();
+      CompletableFuture<T> existing = values.putIfAbsent(id, created);
+      if (existing == null) {
+        remoteCalls.incrementAndGet();
+        try {
+          created.complete(loader.apply(id));
+        } catch (RuntimeException | Error e) {
+          values.remove(id, created);
+          created.completeExceptionally(e);
+          throw e;
+        }
+        return created.join();
+      }
+      try {
+        return existing.join();
+      } catch (CompletionException ce) {
+        if (ce.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) ce.getCause();
+        }
+        throw ce;
+      }
+    }
+
+    private List<Integer> unresolved(Collection<Integer> ids) {
+      Set<Integer> unresolved = new LinkedHashSet<>();
+      for (Integer id : ids) {
+        if (id != null && id > 0 && !values.containsKey(id)) {
+          unresolved.add(id);
+        }
+      }
+      return new ArrayList<>(unresolved);
+    }
+
+    private void prime(Collection<Integer> requested, Iterable<T> fetched) {
+      bulkCalls.incrementAndGet();
+      Map<Integer, T> byId = new HashMap<>();
+      if (fetched != null) {
+        fetched.forEach(v -> byId.put(idOf.applyAsInt(v), v));
+      }
+      for (Integer id : requested) {
+        values.putIfAbsent(id, CompletableFuture.completedFuture(byId.get(id)));
+      }
+    }
+
+    private T peek(int id) {
+      CompletableFuture<T> value = values.get(id);
+      if (value == null || !value.isDone() || value.isCompletedExceptionally()) {
+        return null;
+      }
+      return value.join();
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.campus.RoomStatus;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A HydrationPlan is the list of everything that has to be fetched from other
+ * services before a raw Campus, Building or Room tree can be turned into DTOs.
+ * It is filled in two passes: first the raw tree is walked for the employee,
+ * batch and work order ids it points at, then the batches and work orders that
+ * were fetched are added so that their trainers, associates, creators and
+ * resolvers are planned as well. The AppUser ids of every piece of resource
+ * metadata along the way are collected through MetadataUserIds.
+ */
+public class HydrationPlan {
+
+  private final Set<Integer> employeeIds = new LinkedHashSet<>();
+  private final Set<Integer> batchIds = new LinkedHashSet<>();
+  private final Set<Integer> workOrderIds = new LinkedHashSet<>();
+  private final MetadataUserIds userIds = new MetadataUserIds();
+
+  public Set<Integer> getEmployeeIds() {
+    return employeeIds;
+  }
+
+  public Set<Integer> getBatchIds() {
+    return batchIds;
+  }
+
+  public Set<Integer> getWorkOrderIds() {
+    return workOrderIds;
+  }
+
+  public Set<Integer> getUserIds() {
+    return userIds.getIds();
+  }
+
+  public HydrationPlan addCampuses(Collection<Campus> campuses) {
+    if (campuses != null) {
+      campuses.forEach(this::addCampus);
+    }
+    return this;
+  }
+
+  public HydrationPlan addCampus(Campus campus) {
+    if (campus != null) {
+      userIds.addCampus(campus);
+      addEmployeeId(campus.getTrainingManagerId());
+      addEmployeeId(campus.getStagingManagerId());
+      addEmployeeId(campus.getHrLead());
+      addIds(employeeIds, campus.getCorporateEmployees());
+      addBuildings(campus.getBuildings());
+    }
+    return this;
+  }
+
+  public HydrationPlan addBuildings(Collection<Building> buildings) {
+    if (buildings != null) {
+      buildings.forEach(this::addBuilding);
+    }
+    return this;
+  }
+
+  public HydrationPlan addBuilding(Building building) {
+    if (building != null) {
+      userIds.addBuilding(building);
+      addEmployeeId(building.getTrainingLead());
+      addRooms(building.getRooms());
+    }
+    return this;
+  }
+
+  public HydrationPlan addRooms(Collection<Room> rooms) {
+    if (rooms != null) {
+      rooms.forEach(this::addRoom);
+    }
+    return this;
+  }
+
+  public HydrationPlan addRoom(Room room) {
+    if (room != null) {
+      userIds.addRoom(room);
+      if (room.getCurrentStatus() != null) {
+        for (RoomStatus status : room.getCurrentStatus()) {
+          addEmployeeId(status.getSubmitterId());
+        }
+      }
+      if (room.getBatchId() > 0) {
+        batchIds.add(room.getBatchId());
+      }
+      addIds(workOrderIds, room.getWorkOrders());
+    }
+    return this;
+  }
+
+  public HydrationPlan addBatch(Batch batch) {
+    if (batch != null) {
+      userIds.addBatch(batch);
+      addEmployeeId(batch.getTrainerId());
+      addEmployeeId(batch.getCoTrainerId());
+      addIds(employeeIds, batch.getAssociates());
+    }
+    return this;
+  }
+
+  public HydrationPlan addWorkOrder(WorkOrder workOrder) {
+    if (workOrder != null) {
+      addEmployeeId(workOrder.getCreatorId());
+      addEmployeeId(workOrder.getResolverId());
+    }
+    return this;
+  }
+
+  public HydrationPlan addEmployees(Collection<Employee> employees) {
+    userIds.addEmployees(employees);
+    return this;
+  }
+
+  public HydrationPlan addEmployee(Employee employee) {
+    userIds.addEmployee(employee);
+    return this;
+  }
+
+  private void addEmployeeId(int id) {
+    if (id > 0) {
+      employeeIds.add(id);
+    }
+  }
+
+  private static void addIds(Set<Integer> target, Collection<Integer> ids) {
+    if (ids != null) {
+      for (Integer id : ids) {
+        if (id != null && id > 0) {
+          target.add(id);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.revature.rms.search.services;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of ints, for collecting ids without boxing them into a
+ * List of Integer. Used while an index is being built, before the ids are
+ * frozen into a plain int array.
+ *
+ * Not thread safe.
+ */
+public class IntArrayList {
+
+  private int[] elements;
+  private int size;
+
+  public IntArrayList() {
+    this(4);
+  }
+
+  public IntArrayList(int capacity) {
+    elements = new int[Math.max(1, capacity)];
+  }
+
+  /**
+   * add method: Appends an int to the end of the list.
+   * @param value the int to add
+   */
+  public void add(int value) {
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, size * 2);
+    }
+    elements[size++] = value;
+  }
+
+  /**
+   * get method: Returns the int at the given position.
+   * @param index the position, from 0
+   * @return the int at that position
+   * @throws IndexOutOfBoundsException when the position is not in the list
+   */
+  public int get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return elements[index];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * toArray method: Returns the ints in the order they were added.
+   * @return a new array exactly as long as the list
+   */
+  public int[] toArray() {
+    return Arrays.copyOf(elements, size);
+  }
+}
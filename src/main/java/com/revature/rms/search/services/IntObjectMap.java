@@ -0,0 +1,346 @@
+package com.revature.rms.search.services;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A map from int ids to objects that keeps its keys as primitives. Every id in
+ * this domain is an int, and a HashMap or LinkedHashMap keyed by Integer pays
+ * for a boxed key and an entry object per mapping on top of the value. Here the
+ * keys and values sit in two parallel arrays in the order they were first put,
+ * and an open addressing table of array positions finds them, which comes to
+ * a third or less of the heap per mapping and a handful of objects per map
+ * instead of two per mapping.
+ *
+ * Iteration follows insertion order like a LinkedHashMap, and putting an id
+ * that is already there keeps its place. Removed mappings leave a gap in the
+ * arrays that is closed up the next time they grow. The get, put, remove and
+ * containsKey overloads that take an int never box; the Map methods inherited
+ * for Integer keys still work, so the class can be used anywhere a Map is.
+ *
+ * Not thread safe. Null values are allowed.
+ */
+public class IntObjectMap<V> extends AbstractMap<Integer, V> {
+
+  private static final int EMPTY = 0;
+  private static final Object REMOVED = new Object();
+
+  private int[] keys;
+  private Object[] values;
+  private int[] slots;
+  private int used;
+  private int size;
+
+  public IntObjectMap() {
+    this(8);
+  }
+
+  public IntObjectMap(int expectedSize) {
+    allocate(Math.max(4, expectedSize));
+  }
+
+  /**
+   * get method: Returns the value mapped to the id.
+   * @param key the id
+   * @return the value, or null when the id is not mapped
+   */
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    int index = indexOf(key);
+    return index < 0 ? null : (V) values[index];
+  }
+
+  /**
+   * containsKey method: Returns whether the id is mapped.
+   * @param key the id
+   * @return true if the id has a value, even a null one
+   */
+  public boolean containsKey(int key) {
+    return indexOf(key) >= 0;
+  }
+
+  /**
+   * put method: Maps the id to the value, keeping the id's place if it was already mapped.
+   * @param key the id
+   * @param value the value
+   * @return the value the id was mapped to before, or null
+   */
+  @SuppressWarnings("unchecked")
+  public V put(int key, V value) {
+    int mask = slots.length - 1;
+    int slot = hash(key) & mask;
+    while (slots[slot] != EMPTY) {
+      int index = slots[slot] - 1;
+      if (keys[index] == key) {
+        V old = (V) values[index];
+        values[index] = value;
+        return old;
+      }
+      slot = (slot + 1) & mask;
+    }
+    if (used == keys.length) {
+      resize();
+      return put(key, value);
+    }
+    keys[used] = key;
+    values[used] = value;
+    slots[slot] = ++used;
+    size++;
+    return null;
+  }
+
+  /**
+   * remove method: Takes the id out of the map.
+   * @param key the id
+   * @return the value the id was mapped to, or null
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(int key) {
+    int mask = slots.length - 1;
+    int slot = hash(key) & mask;
+    while (slots[slot] != EMPTY) {
+      int index = slots[slot] - 1;
+      if (keys[index] == key) {
+        V old = (V) values[index];
+        values[index] = REMOVED;
+        size--;
+        deleteSlot(slot);
+        return old;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * keys method: Returns the mapped ids in insertion order.
+   * @return a new array of the ids
+   */
+  public int[] keys() {
+    int[] result = new int[size];
+    int next = 0;
+    for (int i = 0; i < used; i++) {
+      if (values[i] != REMOVED) {
+        result[next++] = keys[i];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * forEachEntry method: Hands every id and its value to the consumer in insertion order without boxing the ids.
+   * @param consumer what to do with each mapping
+   */
+  @SuppressWarnings("unchecked")
+  public void forEachEntry(EntryConsumer<? super V> consumer) {
+    for (int i = 0; i < used; i++) {
+      if (values[i] != REMOVED) {
+        consumer.accept(keys[i], (V) values[i]);
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public V get(Object key) {
+    return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof Integer && containsKey(((Integer) key).intValue());
+  }
+
+  @Override
+  public V put(Integer key, V value) {
+    return put(key.intValue(), value);
+  }
+
+  @Override
+  public V remove(Object key) {
+    return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, 0, used, null);
+    Arrays.fill(slots, EMPTY);
+    used = 0;
+    size = 0;
+  }
+
+  @Override
+  public Set<Map.Entry<Integer, V>> entrySet() {
+    return new AbstractSet<Map.Entry<Integer, V>>() {
+      @Override
+      public Iterator<Map.Entry<Integer, V>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private int indexOf(int key) {
+    int mask = slots.length - 1;
+    int slot = hash(key) & mask;
+    while (slots[slot] != EMPTY) {
+      int index = slots[slot] - 1;
+      if (keys[index] == key) {
+        return index;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * deleteSlot method: Empties a slot and moves back any later slot of the same probe run that can no longer be
+   * reached past the gap, so lookups never need tombstones in the table.
+   */
+  private void deleteSlot(int slot) {
+    int mask = slots.length - 1;
+    int gap = slot;
+    int next = (gap + 1) & mask;
+    while (slots[next] != EMPTY) {
+      int home = hash(keys[slots[next] - 1]) & mask;
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        slots[gap] = slots[next];
+        gap = next;
+      }
+      next = (next + 1) & mask;
+    }
+    slots[gap] = EMPTY;
+  }
+
+  /**
+   * resize method: Closes up the gaps left by removed mappings, and doubles the arrays unless more than a fifth of
+   * them were gaps.
+   */
+  private void resize() {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    int oldUsed = used;
+    allocate(size + (size >> 2) < oldKeys.length ? oldKeys.length : oldKeys.length * 2);
+    for (int i = 0; i < oldUsed; i++) {
+      if (oldValues[i] != REMOVED) {
+        keys[used] = oldKeys[i];
+        values[used] = oldValues[i];
+        int mask = slots.length - 1;
+        int slot = hash(oldKeys[i]) & mask;
+        while (slots[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+        slots[slot] = ++used;
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new Object[capacity];
+    slots = new int[Integer.highestOneBit(capacity - 1) << 2];
+    used = 0;
+  }
+
+  private static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Receives the mappings of an IntObjectMap one at a time.
+   */
+  public interface EntryConsumer<V> {
+    void accept(int key, V value);
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<Integer, V>> {
+
+    private int next = advance(0);
+    private int last = -1;
+
+    @Override
+    public boolean hasNext() {
+      return next < used;
+    }
+
+    @Override
+    public Map.Entry<Integer, V> next() {
+      if (next >= used) {
+        throw new NoSuchElementException();
+      }
+      last = next;
+      next = advance(next + 1);
+      return new IndexEntry(last);
+    }
+
+    @Override
+    public void remove() {
+      if (last < 0 || values[last] == REMOVED) {
+        throw new IllegalStateException();
+      }
+      IntObjectMap.this.remove(keys[last]);
+    }
+
+    private int advance(int from) {
+      while (from < used && values[from] == REMOVED) {
+        from++;
+      }
+      return from;
+    }
+  }
+
+  private class IndexEntry implements Map.Entry<Integer, V> {
+
+    private final int index;
+
+    IndexEntry(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public Integer getKey() {
+      return keys[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue() {
+      return (V) values[index];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V setValue(V value) {
+      V old = (V) values[index];
+      values[index] = value;
+      return old;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) return false;
+      Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+      return getKey().equals(that.getKey()) && Objects.equals(getValue(), that.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return keys[index] ^ (values[index] == null ? 0 : values[index].hashCode());
+    }
+  }
+}
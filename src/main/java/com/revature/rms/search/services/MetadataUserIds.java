@@ -0,0 +1,115 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import com.revature.rms.search.entites.employee.Employee;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Walks the raw objects received from the other services and collects the
+ * creator, last modifier and owner ids out of their resource metadata, so that
+ * all of those AppUsers can be fetched in bulk before the DTOs are hydrated.
+ * Null lists and null metadata are skipped, since the campus service does not
+ * always send them.
+ */
+public class MetadataUserIds {
+
+  private final Set<Integer> ids = new LinkedHashSet<>();
+
+  public Set<Integer> getIds() {
+    return ids;
+  }
+
+  public MetadataUserIds addCampuses(Collection<Campus> campuses) {
+    if (campuses != null) {
+      campuses.forEach(this::addCampus);
+    }
+    return this;
+  }
+
+  public MetadataUserIds addCampus(Campus campus) {
+    if (campus != null) {
+      add(campus.getResourceMetadata());
+      addBuildings(campus.getBuildings());
+    }
+    return this;
+  }
+
+  public MetadataUserIds addBuildings(Collection<Building> buildings) {
+    if (buildings != null) {
+      buildings.forEach(this::addBuilding);
+    }
+    return this;
+  }
+
+  public MetadataUserIds addBuilding(Building building) {
+    if (building != null) {
+      add(building.getResourceMetadata());
+      addRooms(building.getRooms());
+    }
+    return this;
+  }
+
+  public MetadataUserIds addRooms(Collection<Room> rooms) {
+    if (rooms != null) {
+      rooms.forEach(this::addRoom);
+    }
+    return this;
+  }
+
+  public MetadataUserIds addRoom(Room room) {
+    if (room != null) {
+      add(room.getResourceMetadata());
+    }
+    return this;
+  }
+
+  public MetadataUserIds addBatch(Batch batch) {
+    if (batch != null) {
+      add(batch.getResourceMetadata());
+    }
+    return this;
+  }
+
+  public MetadataUserIds addEmployees(Collection<Employee> employees) {
+    if (employees != null) {
+      employees.forEach(this::addEmployee);
+    }
+    return this;
+  }
+
+  public MetadataUserIds addEmployee(Employee employee) {
+    if (employee != null) {
+      add(employee.getResourceMetadata());
+    }
+    return this;
+  }
+
+  private void add(ResourceMetadata data) {
+    if (data != null) {
+      addId(data.getResourceCreator());
+      addId(data.getLastModifier());
+      addId(data.getResourceOwner());
+    }
+  }
+
+  private void add(com.revature.rms.search.entites.employee.ResourceMetadata data) {
+    if (data != null) {
+      addId(data.getResourceCreator());
+      addId(data.getLastModifier());
+      addId(data.getResourceOwner());
+    }
+  }
+
+  private void addId(int id) {
+    if (id > 0) {
+      ids.add(id);
+    }
+  }
+}
@@ -0,0 +1,313 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.dtos.OccupancyDto;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the occupancy of every room, building and campus up to date one room
+ * at a time. For each room it holds its capacity, how many people are in it,
+ * and the building and campus it belongs to, and for each building and campus
+ * a running total of the same. Replacing or removing a room adjusts the totals
+ * of its old and new building and campus by the difference, so the occupancy
+ * of a building or campus is read straight from its totals without looking at
+ * its rooms. The rooms holding more people than they fit are kept in a bitmap.
+ *
+ * A building or campus id of 0 means the room does not belong to one.
+ */
+public class OccupancyIndex {
+
+  public static final String ROOM = "room";
+  public static final String BUILDING = "building";
+  public static final String CAMPUS = "campus";
+
+  private static final int CAPACITY = 0;
+  private static final int OCCUPANTS = 1;
+  private static final int IN_BUILDING = 2;
+  private static final int IN_CAMPUS = 3;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final IntObjectMap<int[]> rooms = new IntObjectMap<>();
+  private final IntObjectMap<Totals> buildings = new IntObjectMap<>();
+  private final IntObjectMap<Totals> campuses = new IntObjectMap<>();
+  private final RoaringBitmap overCapacity = new RoaringBitmap();
+
+  /**
+   * put method: Sets the occupancy of one room, replacing what it contributed before.
+   * @param room the room id
+   * @param capacity the most people the room fits
+   * @param occupants the people in the room
+   * @param building the building the room is in, or 0
+   * @param campus the campus the building is on, or 0
+   */
+  public void put(int room, int capacity, int occupants, int building, int campus) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(room);
+      int[] entry = new int[] {capacity, occupants, building, campus};
+      rooms.put(room, entry);
+      if (occupants > capacity) {
+        overCapacity.add(room);
+      }
+      add(buildings, building, room, entry);
+      add(campuses, campus, room, entry);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * remove method: Takes one room out of the index and out of the totals of its building and campus.
+   * @param room the room id
+   */
+  public void remove(int room) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(room);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * getRoom method: Returns the occupancy of one room.
+   * @param room the room id
+   * @return the occupancy, or null when the room is not in the index
+   */
+  public OccupancyDto getRoom(int room) {
+    lock.readLock().lock();
+    try {
+      int[] entry = rooms.get(room);
+      return entry == null ? null : room(room, entry);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * getBuilding method: Returns the occupancy of one building, summed over its rooms.
+   * @param building the building id
+   * @return the occupancy, or null when no room is in the building
+   */
+  public OccupancyDto getBuilding(int building) {
+    lock.readLock().lock();
+    try {
+      Totals totals = buildings.get(building);
+      return totals == null ? null : totals.toDto(BUILDING, building);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * getCampus method: Returns the occupancy of one campus, summed over the rooms of its buildings.
+   * @param campus the campus id
+   * @return the occupancy, or null when no room is on the campus
+   */
+  public OccupancyDto getCampus(int campus) {
+    lock.readLock().lock();
+    try {
+      Totals totals = campuses.get(campus);
+      return totals == null ? null : totals.toDto(CAMPUS, campus);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * getBuildings method: Returns the occupancy of every building that has a room.
+   * @return the occupancies in order of building id
+   */
+  public List<OccupancyDto> getBuildings() {
+    return all(buildings, BUILDING);
+  }
+
+  /**
+   * getCampuses method: Returns the occupancy of every campus that has a room.
+   * @return the occupancies in order of campus id
+   */
+  public List<OccupancyDto> getCampuses() {
+    return all(campuses, CAMPUS);
+  }
+
+  /**
+   * getOverCapacity method: Returns the rooms holding more people than they fit.
+   * @return the occupancies in order of room id
+   */
+  public List<OccupancyDto> getOverCapacity() {
+    lock.readLock().lock();
+    try {
+      List<OccupancyDto> over = new ArrayList<>(overCapacity.getCardinality());
+      for (int room : overCapacity.toArray()) {
+        over.add(room(room, rooms.get(room)));
+      }
+      return over;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * getRoomsInBuilding method: Returns the rooms the index has in a building.
+   * @param building the building id
+   * @return the room ids in order
+   */
+  public int[] getRoomsInBuilding(int building) {
+    return members(buildings, building);
+  }
+
+  /**
+   * getRoomsOnCampus method: Returns the rooms the index has on a campus.
+   * @param campus the campus id
+   * @return the room ids in order
+   */
+  public int[] getRoomsOnCampus(int campus) {
+    return members(campuses, campus);
+  }
+
+  /**
+   * getBuildingOf method: Returns the building the index has a room in.
+   * @param room the room id
+   * @return the building id, or 0 when the room is in no building or not in the index
+   */
+  public int getBuildingOf(int room) {
+    return location(room, IN_BUILDING);
+  }
+
+  /**
+   * getCampusOf method: Returns the campus the index has a room on.
+   * @param room the room id
+   * @return the campus id, or 0 when the room is on no campus or not in the index
+   */
+  public int getCampusOf(int room) {
+    return location(room, IN_CAMPUS);
+  }
+
+  /**
+   * size method: Returns how many rooms the index holds.
+   * @return the number of rooms
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return rooms.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * ratio method: Returns the share of a capacity that is taken.
+   * @param occupants the people
+   * @param capacity the most people that fit
+   * @return occupants over capacity, or null when there is no capacity to take a share of
+   */
+  public static Double ratio(long occupants, long capacity) {
+    return capacity > 0 ? Double.valueOf((double) occupants / capacity) : null;
+  }
+
+  private List<OccupancyDto> all(IntObjectMap<Totals> byId, String type) {
+    lock.readLock().lock();
+    try {
+      int[] ids = byId.keys();
+      Arrays.sort(ids);
+      List<OccupancyDto> all = new ArrayList<>(ids.length);
+      for (int id : ids) {
+        all.add(byId.get(id).toDto(type, id));
+      }
+      return all;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private int location(int room, int field) {
+    lock.readLock().lock();
+    try {
+      int[] entry = rooms.get(room);
+      return entry == null ? 0 : entry[field];
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private int[] members(IntObjectMap<Totals> byId, int id) {
+    lock.readLock().lock();
+    try {
+      Totals totals = byId.get(id);
+      return totals == null ? new int[0] : totals.rooms.toArray();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void removeLocked(int room) {
+    int[] old = rooms.remove(room);
+    if (old == null) {
+      return;
+    }
+    overCapacity.remove(room);
+    subtract(buildings, old[IN_BUILDING], room, old);
+    subtract(campuses, old[IN_CAMPUS], room, old);
+  }
+
+  private static void add(IntObjectMap<Totals> byId, int id, int room, int[] entry) {
+    if (id == 0) {
+      return;
+    }
+    Totals totals = byId.get(id);
+    if (totals == null) {
+      totals = new Totals();
+      byId.put(id, totals);
+    }
+    totals.rooms.add(room);
+    totals.capacity += entry[CAPACITY];
+    totals.occupants += entry[OCCUPANTS];
+    if (entry[OCCUPANTS] > entry[CAPACITY]) {
+      totals.overCapacity++;
+    }
+  }
+
+  private static void subtract(IntObjectMap<Totals> byId, int id, int room, int[] entry) {
+    Totals totals = id == 0 ? null : byId.get(id);
+    if (totals == null) {
+      return;
+    }
+    totals.rooms.remove(room);
+    if (totals.rooms.isEmpty()) {
+      byId.remove(id);
+      return;
+    }
+    totals.capacity -= entry[CAPACITY];
+    totals.occupants -= entry[OCCUPANTS];
+    if (entry[OCCUPANTS] > entry[CAPACITY]) {
+      totals.overCapacity--;
+    }
+  }
+
+  private static OccupancyDto room(int room, int[] entry) {
+    return new OccupancyDto(ROOM, room, 1, entry[CAPACITY], entry[OCCUPANTS],
+        ratio(entry[OCCUPANTS], entry[CAPACITY]), entry[OCCUPANTS] > entry[CAPACITY] ? 1 : 0);
+  }
+
+  /**
+   * The running totals of the rooms in one building or on one campus.
+   */
+  private static class Totals {
+
+    final RoaringBitmap rooms = new RoaringBitmap();
+    long capacity;
+    long occupants;
+    int overCapacity;
+
+    OccupancyDto toDto(String type, int id) {
+      return new OccupancyDto(type, id, rooms.getCardinality(), capacity, occupants, ratio(occupants, capacity),
+          overCapacity);
+    }
+  }
+}
@@ -0,0 +1,285 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.ResourceNotFoundException;
+import com.revature.rms.search.dtos.OccupancyDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reports how full the rooms are: the people in each room against its
+ * maxOccupancy, summed up per building and per campus, and the rooms holding
+ * more people than they fit. The people in a room are the associates of the
+ * batch assigned to it.
+ *
+ * The occupancy is kept in an OccupancyIndex, so a request reads running
+ * totals instead of going through every room. The index is filled from every
+ * full read model load, and after an incremental sync only the rooms the sync
+ * touched are put again: the rooms that changed, which includes the rooms
+ * whose batch changed, and the rooms of the buildings and campuses that
+ * changed, since a room may have moved between them. A full fill builds a new
+ * index and swaps it in whole, so a request never sees one half filled. Like
+ * the FilterService, the index is also filled from the extraction the
+ * ReadModelExtractor shares on search.index.refresh-ms, or on the first
+ * request if nothing has filled it yet.
+ */
+@Service
+public class OccupancyService {
+
+  private ReadModelExtractor extractor;
+  private SearchReadModel readModel;
+  private volatile OccupancyIndex index = new OccupancyIndex();
+  private volatile boolean built;
+
+  @Autowired
+  public OccupancyService(ReadModelExtractor readModelExtractor, SearchReadModel searchReadModel) {
+    this.extractor = readModelExtractor;
+    this.readModel = searchReadModel;
+  }
+
+  /**
+   * getRoomOccupancy method: Returns how full one room is.
+   * @param id the room id
+   * @return the occupancy of the room
+   * @throws ResourceNotFoundException when there is no room with that id
+   */
+  public OccupancyDto getRoomOccupancy(int id) {
+    OccupancyDto occupancy = index().getRoom(id);
+    if (occupancy == null) {
+      throw new ResourceNotFoundException("No room found with id: " + id);
+    }
+    return occupancy;
+  }
+
+  /**
+   * getBuildingOccupancy method: Returns how full the rooms of one building are.
+   * @param id the building id
+   * @return the occupancy summed over the rooms of the building
+   * @throws ResourceNotFoundException when there is no building with that id, or it has no rooms
+   */
+  public OccupancyDto getBuildingOccupancy(int id) {
+    OccupancyDto occupancy = index().getBuilding(id);
+    if (occupancy == null) {
+      throw new ResourceNotFoundException("No building with rooms found with id: " + id);
+    }
+    return occupancy;
+  }
+
+  /**
+   * getCampusOccupancy method: Returns how full the rooms of one campus are.
+   * @param id the campus id
+   * @return the occupancy summed over the rooms of the buildings on the campus
+   * @throws ResourceNotFoundException when there is no campus with that id, or it has no rooms
+   */
+  public OccupancyDto getCampusOccupancy(int id) {
+    OccupancyDto occupancy = index().getCampus(id);
+    if (occupancy == null) {
+      throw new ResourceNotFoundException("No campus with rooms found with id: " + id);
+    }
+    return occupancy;
+  }
+
+  /**
+   * getBuildingsOccupancy method: Returns how full the rooms of every building are.
+   * @return the occupancy of each building that has rooms, in order of id
+   * @throws ResourceNotFoundException when no building has rooms
+   */
+  public List<OccupancyDto> getBuildingsOccupancy() {
+    List<OccupancyDto> buildings = index().getBuildings();
+    if (buildings.isEmpty()) {
+      throw new ResourceNotFoundException("No buildings with rooms were found");
+    }
+    return buildings;
+  }
+
+  /**
+   * getCampusesOccupancy method: Returns how full the rooms of every campus are.
+   * @return the occupancy of each campus that has rooms, in order of id
+   * @throws ResourceNotFoundException when no campus has rooms
+   */
+  public List<OccupancyDto> getCampusesOccupancy() {
+    List<OccupancyDto> campuses = index().getCampuses();
+    if (campuses.isEmpty()) {
+      throw new ResourceNotFoundException("No campuses with rooms were found");
+    }
+    return campuses;
+  }
+
+  /**
+   * getOverCapacityRooms method: Returns the rooms holding more people than their maxOccupancy.
+   * @return the occupancy of each of those rooms, in order of id
+   * @throws ResourceNotFoundException when no room is over capacity
+   */
+  public List<OccupancyDto> getOverCapacityRooms() {
+    List<OccupancyDto> rooms = index().getOverCapacity();
+    if (rooms.isEmpty()) {
+      throw new ResourceNotFoundException("No rooms are over capacity");
+    }
+    return rooms;
+  }
+
+  /**
+   * refresh method: Refills the index on a fixed delay.
+   */
+  @Scheduled(fixedDelayString = "${search.index.refresh-ms:3600000}",
+      initialDelayString = "${search.index.refresh-ms:3600000}")
+  public void refresh() {
+    try {
+      rebuild();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * rebuild method: Refills the index from the read model when it is ready, or from the shared extraction.
+   */
+  public synchronized void rebuild() {
+    ReadModelDocuments docs = readModel.read(current -> current);
+    build(docs != null ? docs : extractor.latest());
+  }
+
+  /**
+   * onReadModelUpdated method: Refills the index after a full read model load, or puts again only the rooms an
+   * incremental sync touched.
+   * @param event the load or sync that just finished
+   */
+  @EventListener
+  public synchronized void onReadModelUpdated(ReadModelUpdatedEvent event) {
+    if (event.isFullLoad()) {
+      build(event.getDocuments());
+    } else {
+      apply(event.getDocuments(), event.getChanges());
+    }
+  }
+
+  /**
+   * build method: Puts every room in a new index and swaps it in.
+   * @param docs the raw objects
+   */
+  void build(ReadModelDocuments docs) {
+    Map<Integer, Integer> buildingOfRoom = new HashMap<>();
+    Map<Integer, Integer> campusOfBuilding = new HashMap<>();
+    docs.getRawBuildings().forEachEntry((id, building) -> mapRooms(id, building, buildingOfRoom));
+    docs.getRawCampuses().forEachEntry((id, campus) -> mapBuildings(id, campus, campusOfBuilding));
+    OccupancyIndex filled = new OccupancyIndex();
+    docs.getRawRooms().forEachEntry((id, room) -> {
+      int building = buildingOfRoom.getOrDefault(id, 0);
+      put(filled, id, docs, building, campusOfBuilding.getOrDefault(building, 0));
+    });
+    index = filled;
+    built = true;
+  }
+
+  /**
+   * apply method: Puts again the rooms a sync changed, and every room that is or was in a building or on a campus
+   * it changed. A room is in the building a changed building that lists it, and in no building when the changed
+   * building it was in no longer lists it; otherwise it stays where it was, since a room only moves into or out of
+   * a building when that building changes too. Buildings and campuses are worked out the same way.
+   * @param docs the raw objects after the sync
+   * @param changes what the sync changed
+   */
+  void apply(ReadModelDocuments docs, ReadModelChanges changes) {
+    if (!built) {
+      build(docs);
+      return;
+    }
+    OccupancyIndex current = index;
+    Map<Integer, Integer> campusOfBuilding = new HashMap<>();
+    Set<Integer> buildings = new LinkedHashSet<>(changes.getBuildings());
+    Set<Integer> rooms = new LinkedHashSet<>(changes.getRooms());
+    for (Integer id : changes.getCampuses()) {
+      Campus campus = docs.getRawCampuses().get(id.intValue());
+      if (campus != null) {
+        mapBuildings(id, campus, campusOfBuilding);
+      }
+      for (int room : current.getRoomsOnCampus(id)) {
+        rooms.add(room);
+      }
+    }
+    buildings.addAll(campusOfBuilding.keySet());
+
+    Map<Integer, Integer> buildingOfRoom = new HashMap<>();
+    for (Integer id : buildings) {
+      Building building = docs.getRawBuildings().get(id.intValue());
+      if (building != null) {
+        mapRooms(id, building, buildingOfRoom);
+      }
+      for (int room : current.getRoomsInBuilding(id)) {
+        rooms.add(room);
+      }
+    }
+    rooms.addAll(buildingOfRoom.keySet());
+
+    for (Integer id : rooms) {
+      if (docs.getRawRooms().get(id.intValue()) == null) {
+        current.remove(id);
+        continue;
+      }
+      int previous = current.getBuildingOf(id);
+      int building = buildingOfRoom.getOrDefault(id, buildings.contains(previous) ? 0 : previous);
+      int previousCampus = current.getCampusOf(id);
+      int campus = campusOfBuilding.getOrDefault(building,
+          building == previous && !changes.getCampuses().contains(previousCampus) ? previousCampus : 0);
+      put(current, id, docs, building, campus);
+    }
+  }
+
+  private static void put(OccupancyIndex index, int id, ReadModelDocuments docs, int building, int campus) {
+    Room room = docs.getRawRooms().get(id);
+    Batch batch = room.getBatchId() == 0 ? null : docs.getRawBatches().get(room.getBatchId());
+    index.put(id, room.getMaxOccupancy(), occupants(batch), building, building == 0 ? 0 : campus);
+  }
+
+  /**
+   * occupants method: Returns the people in a room holding the batch, which are its associates.
+   * @param batch the batch, or null
+   * @return the associates that are set, or 0 without a batch
+   */
+  static int occupants(Batch batch) {
+    if (batch == null || batch.getAssociates() == null) {
+      return 0;
+    }
+    int occupants = 0;
+    for (Integer associate : batch.getAssociates()) {
+      if (associate != null) {
+        occupants++;
+      }
+    }
+    return occupants;
+  }
+
+  private static void mapRooms(int building, Building raw, Map<Integer, Integer> buildingOfRoom) {
+    if (raw.getRooms() != null) {
+      raw.getRooms().forEach(room -> buildingOfRoom.put(room.getId(), building));
+    }
+  }
+
+  private static void mapBuildings(int campus, Campus raw, Map<Integer, Integer> campusOfBuilding) {
+    if (raw.getBuildings() != null) {
+      raw.getBuildings().forEach(building -> campusOfBuilding.put(building.getId(), campus));
+    }
+  }
+
+  private OccupancyIndex index() {
+    if (!built) {
+      synchronized (this) {
+        if (!built) {
+          rebuild();
+        }
+      }
+    }
+    return index;
+  }
+}
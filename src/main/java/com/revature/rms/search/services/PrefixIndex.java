@@ -0,0 +1,186 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.dtos.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A read-only trie from lower-cased keys to the suggestions they lead to, for
+ * one type of resource. Every node keeps the best suggestions found anywhere
+ * under it, worked out once when the trie is built, so a lookup only walks the
+ * characters of the prefix and never the rest of the trie. Children are kept
+ * in sorted arrays instead of maps, and a node with a single child and no
+ * suggestions of its own shares its child's list, to keep the trie small.
+ *
+ * The best suggestions are the ones with the shortest label, then in label
+ * order, which puts an exact match or a short name ahead of longer ones that
+ * only start with the prefix. A suggestion is only listed once per node, even
+ * when several of its keys pass through it.
+ */
+public class PrefixIndex {
+
+  private static final Comparator<Suggestion> BEST_FIRST = Comparator
+      .comparingInt((Suggestion s) -> s.getLabel() == null ? 0 : s.getLabel().length())
+      .thenComparing(s -> s.getLabel() == null ? "" : s.getLabel())
+      .thenComparingInt(Suggestion::getId);
+
+  private final Node root;
+  private final int size;
+
+  private PrefixIndex(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * build method: Builds the trie.
+   * @param keys every suggestion mapped to the keys it should be found under
+   * @param topK how many suggestions each node keeps, the most a lookup can return
+   * @return the trie
+   */
+  public static PrefixIndex build(Map<Suggestion, ? extends Iterable<String>> keys, int topK) {
+    Builder root = new Builder();
+    keys.forEach((suggestion, words) -> {
+      for (String word : words) {
+        String key = normalize(word);
+        if (key.isEmpty()) {
+          continue;
+        }
+        Builder node = root;
+        for (int i = 0; i < key.length(); i++) {
+          node = node.children.computeIfAbsent(key.charAt(i), c -> new Builder());
+        }
+        node.terminal.add(suggestion);
+      }
+    });
+    return new PrefixIndex(root.freeze(Math.max(1, topK)), keys.size());
+  }
+
+  /**
+   * keysFor method: Returns the keys a label should be found under: the whole label and every tail of it that
+   * starts at a new word, so "University of South Florida" is found by "south" as well as by "univ".
+   * @param label a name, email or abbreviation
+   * @return the keys, lower-cased
+   */
+  public static List<String> keysFor(String label) {
+    List<String> keys = new ArrayList<>();
+    String text = normalize(label);
+    if (text.isEmpty()) {
+      return keys;
+    }
+    keys.add(text);
+    for (int i = 1; i < text.length(); i++) {
+      if (text.charAt(i - 1) == ' ') {
+        keys.add(text.substring(i));
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * normalize method: Lower-cases the text, trims it and collapses runs of whitespace into one space.
+   * @param text any text, may be null
+   * @return the normalized text
+   */
+  public static String normalize(String text) {
+    return text == null ? "" : text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+  }
+
+  /**
+   * suggest method: Returns the best suggestions whose keys start with the prefix.
+   * @param prefix what has been typed so far
+   * @param limit the most suggestions to return
+   * @return the suggestions, best first
+   */
+  public List<Suggestion> suggest(String prefix, int limit) {
+    String key = normalize(prefix);
+    Node node = root;
+    for (int i = 0; i < key.length() && node != null; i++) {
+      node = node.child(key.charAt(i));
+    }
+    if (node == null || limit < 1) {
+      return Collections.emptyList();
+    }
+    List<Suggestion> best = node.best;
+    return best.size() <= limit ? best : best.subList(0, limit);
+  }
+
+  /**
+   * size method: Returns how many suggestions the trie was built from.
+   * @return the number of suggestions
+   */
+  public int size() {
+    return size;
+  }
+
+  static List<Suggestion> merge(List<List<Suggestion>> lists, int limit) {
+    Set<Suggestion> merged = new LinkedHashSet<>();
+    lists.forEach(merged::addAll);
+    List<Suggestion> sorted = new ArrayList<>(merged);
+    sorted.sort(BEST_FIRST);
+    return sorted.size() <= limit ? sorted : new ArrayList<>(sorted.subList(0, limit));
+  }
+
+  private static class Node {
+
+    private final char[] keys;
+    private final Node[] children;
+    private final List<Suggestion> best;
+
+    private Node(char[] keys, Node[] children, List<Suggestion> best) {
+      this.keys = keys;
+      this.children = children;
+      this.best = best;
+    }
+
+    private Node child(char c) {
+      int low = 0;
+      int high = keys.length - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (keys[mid] < c) {
+          low = mid + 1;
+        } else if (keys[mid] > c) {
+          high = mid - 1;
+        } else {
+          return children[mid];
+        }
+      }
+      return null;
+    }
+  }
+
+  private static class Builder {
+
+    private final TreeMap<Character, Builder> children = new TreeMap<>();
+    private final Set<Suggestion> terminal = new LinkedHashSet<>();
+
+    private Node freeze(int topK) {
+      if (terminal.isEmpty() && children.size() == 1) {
+        Map.Entry<Character, Builder> only = children.firstEntry();
+        Node child = only.getValue().freeze(topK);
+        return new Node(new char[] {only.getKey()}, new Node[] {child}, child.best);
+      }
+      char[] keys = new char[children.size()];
+      Node[] nodes = new Node[children.size()];
+      List<List<Suggestion>> candidates = new ArrayList<>();
+      candidates.add(new ArrayList<>(terminal));
+      int i = 0;
+      for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+        keys[i] = entry.getKey();
+        nodes[i] = entry.getValue().freeze(topK);
+        candidates.add(nodes[i].best);
+        i++;
+      }
+      return new Node(keys, nodes, Collections.unmodifiableList(merge(candidates, topK)));
+    }
+  }
+}
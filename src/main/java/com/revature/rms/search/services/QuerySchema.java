@@ -0,0 +1,418 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The entities and fields the query DSL can filter and sort on, and which
+ * index can answer a filter on each field: the bitmap posting lists of the
+ * FilterService, the date indexes of the DateRangeService or the owner index
+ * of the SearchReadModel. A field with a getter can also be checked against
+ * the raw object itself, which is how the QueryService scans, and how it
+ * applies every filter after the first. A field without one, such as the
+ * campus of an employee, exists only in a bitmap index. A few fields are
+ * worked out from the raw object together with the objects it points at,
+ * such as the occupants of a room, which are the associates of its batch.
+ *
+ * An entity also has relations to other entities, which a query can join on:
+ * a room to its batch, its work orders and its building, a building to its
+ * rooms and its campus, a campus to its buildings, and a batch or work order
+ * back to its room. Each is one direction of a RelationIndex built from the
+ * raw objects by buildRelations.
+ */
+public final class QuerySchema {
+
+  public static final String WORK_ORDER = "workorder";
+
+  public static final String ROOM_BATCH = "room.batch";
+  public static final String ROOM_WORK_ORDERS = "room.workOrders";
+  public static final String BUILDING_ROOMS = "building.rooms";
+  public static final String CAMPUS_BUILDINGS = "campus.buildings";
+
+  public static final String OCCUPANTS = "occupants";
+  public static final String OCCUPANCY_PERCENT = "occupancyPercent";
+
+  /**
+   * How a field is compared. Keywords are matched exactly, numbers can also be compared by range, and dates can
+   * only be compared by range.
+   */
+  public enum Kind { KEYWORD, NUMBER, DATE }
+
+  private static final Map<String, Entity> ENTITIES = new LinkedHashMap<>();
+
+  static {
+    Entity employee = new Entity(ReadModelDocuments.EMPLOYEE, ReadModelDocuments::getRawEmployees,
+        ReadModelDocuments::getEmployees, FilterService.EMPLOYEE_FIELDS, null, ReadModelDocuments.EMPLOYEE);
+    employee.field("id", Kind.NUMBER, Employee.class, Employee::getId);
+    employee.field("firstName", Kind.KEYWORD, Employee.class, Employee::getFirstName);
+    employee.field("lastName", Kind.KEYWORD, Employee.class, Employee::getLastName);
+    employee.field("email", Kind.KEYWORD, Employee.class, Employee::getEmail);
+    employee.field("title", Kind.KEYWORD, Employee.class, Employee::getTitle);
+    employee.field(FilterService.DEPARTMENT, Kind.KEYWORD, Employee.class, Employee::getDepartment);
+    employee.field(FilterService.ACTIVE, Kind.KEYWORD, Employee.class,
+        emp -> emp.getResourceMetadata() == null ? null : emp.getResourceMetadata().isCurrentlyActive());
+    employee.field(FilterService.OWNER, Kind.NUMBER, Employee.class,
+        emp -> emp.getResourceMetadata() == null ? null : emp.getResourceMetadata().getResourceOwner());
+    employee.field(FilterService.CAMPUS, Kind.NUMBER, Employee.class, null);
+
+    Entity room = new Entity(ReadModelDocuments.ROOM, ReadModelDocuments::getRawRooms, ReadModelDocuments::getRooms,
+        FilterService.ROOM_FIELDS, null, ReadModelDocuments.ROOM);
+    room.field("id", Kind.NUMBER, Room.class, Room::getId);
+    room.field("roomNumber", Kind.KEYWORD, Room.class, Room::getRoomNumber);
+    room.field("maxOccupancy", Kind.NUMBER, Room.class, Room::getMaxOccupancy);
+    room.field("batch", Kind.NUMBER, Room.class, Room::getBatchId);
+    room.field("workOrders", Kind.NUMBER, Room.class, Room::getWorkOrders);
+    room.derived(OCCUPANTS, Kind.NUMBER, Room.class, QuerySchema::occupants);
+    room.derived(OCCUPANCY_PERCENT, Kind.NUMBER, Room.class, QuerySchema::occupancyPercent);
+    metadata(room, Room.class, Room::getResourceMetadata);
+    room.field(FilterService.CAMPUS, Kind.NUMBER, Room.class, null);
+    room.field(FilterService.BUILDING, Kind.NUMBER, Room.class, null);
+    room.field(FilterService.CURRICULUM, Kind.KEYWORD, Room.class, null);
+    room.field(FilterService.CATEGORY, Kind.KEYWORD, Room.class, null);
+    room.relation("batch", ReadModelDocuments.BATCH, ROOM_BATCH, false);
+    room.relation("workOrders", WORK_ORDER, ROOM_WORK_ORDERS, false);
+    room.relation("building", ReadModelDocuments.BUILDING, BUILDING_ROOMS, true);
+
+    Entity batch = new Entity(ReadModelDocuments.BATCH, ReadModelDocuments::getRawBatches,
+        ReadModelDocuments::getBatches, Collections.emptyList(), DateRangeService.BATCH_FIELDS,
+        ReadModelDocuments.BATCH);
+    batch.field("id", Kind.NUMBER, Batch.class, Batch::getId);
+    batch.field("name", Kind.KEYWORD, Batch.class, Batch::getName);
+    batch.field(FilterService.CURRICULUM, Kind.KEYWORD, Batch.class, Batch::getCurriculum);
+    batch.field("trainer", Kind.NUMBER, Batch.class, Batch::getTrainerId);
+    batch.field("coTrainer", Kind.NUMBER, Batch.class, Batch::getCoTrainerId);
+    batch.field("associates", Kind.NUMBER, Batch.class, Batch::getAssociates);
+    batch.field(DateRangeService.START, Kind.DATE, Batch.class, Batch::getStartDate);
+    batch.field(DateRangeService.END, Kind.DATE, Batch.class, Batch::getEndDate);
+    metadata(batch, Batch.class, Batch::getResourceMetadata);
+    batch.relation("room", ReadModelDocuments.ROOM, ROOM_BATCH, true);
+
+    Entity workOrder = new Entity(WORK_ORDER, ReadModelDocuments::getRawWorkOrders, ReadModelDocuments::getWorkOrders,
+        Collections.emptyList(), DateRangeService.WORK_ORDER_FIELDS, null);
+    workOrder.field("id", Kind.NUMBER, WorkOrder.class, WorkOrder::getId);
+    workOrder.field(FilterService.CATEGORY, Kind.KEYWORD, WorkOrder.class, WorkOrder::getCategory);
+    workOrder.field("contactEmail", Kind.KEYWORD, WorkOrder.class, WorkOrder::getContactEmail);
+    workOrder.field("creator", Kind.NUMBER, WorkOrder.class, WorkOrder::getCreatorId);
+    workOrder.field("resolver", Kind.NUMBER, WorkOrder.class, WorkOrder::getResolverId);
+    workOrder.field(DateRangeService.CREATED, Kind.DATE, WorkOrder.class, WorkOrder::getCreatedDateTime);
+    workOrder.field(DateRangeService.RESOLVED, Kind.DATE, WorkOrder.class, WorkOrder::getResolvedDateTime);
+    workOrder.relation("room", ReadModelDocuments.ROOM, ROOM_WORK_ORDERS, true);
+
+    Entity campus = new Entity(ReadModelDocuments.CAMPUS, ReadModelDocuments::getRawCampuses,
+        ReadModelDocuments::getCampuses, Collections.emptyList(), Collections.emptyList(), ReadModelDocuments.CAMPUS);
+    campus.field("id", Kind.NUMBER, Campus.class, Campus::getId);
+    campus.field("name", Kind.KEYWORD, Campus.class, Campus::getName);
+    campus.field("abbrName", Kind.KEYWORD, Campus.class, Campus::getAbbrName);
+    campus.field("trainingManager", Kind.NUMBER, Campus.class, Campus::getTrainingManagerId);
+    campus.field("stagingManager", Kind.NUMBER, Campus.class, Campus::getStagingManagerId);
+    campus.field("hrLead", Kind.NUMBER, Campus.class, Campus::getHrLead);
+    metadata(campus, Campus.class, Campus::getResourceMetadata);
+    campus.relation("buildings", ReadModelDocuments.BUILDING, CAMPUS_BUILDINGS, false);
+
+    Entity building = new Entity(ReadModelDocuments.BUILDING, ReadModelDocuments::getRawBuildings,
+        ReadModelDocuments::getBuildings, Collections.emptyList(), Collections.emptyList(),
+        ReadModelDocuments.BUILDING);
+    building.field("id", Kind.NUMBER, Building.class, Building::getId);
+    building.field("name", Kind.KEYWORD, Building.class, Building::getName);
+    building.field("abbrName", Kind.KEYWORD, Building.class, Building::getAbbrName);
+    building.field("trainingLead", Kind.NUMBER, Building.class, Building::getTrainingLead);
+    metadata(building, Building.class, Building::getResourceMetadata);
+    building.relation("rooms", ReadModelDocuments.ROOM, BUILDING_ROOMS, false);
+    building.relation("campus", ReadModelDocuments.CAMPUS, CAMPUS_BUILDINGS, true);
+
+    for (Entity entity : Arrays.asList(employee, room, batch, workOrder, campus, building)) {
+      ENTITIES.put(entity.getName(), entity);
+    }
+  }
+
+  private QuerySchema() {
+  }
+
+  /**
+   * getEntity method: Returns the schema of an entity.
+   * @param name the entity, in any case
+   * @return the entity, or null when there is no such entity
+   */
+  public static Entity getEntity(String name) {
+    return name == null ? null : ENTITIES.get(name.trim().toLowerCase(Locale.ROOT));
+  }
+
+  public static Collection<String> getEntityNames() {
+    return Collections.unmodifiableSet(ENTITIES.keySet());
+  }
+
+  /**
+   * buildRelations method: Builds the RelationIndex of every relation from the raw objects.
+   * @param docs the raw objects
+   * @return each relation mapped to its frozen index
+   */
+  public static Map<String, RelationIndex> buildRelations(ReadModelDocuments docs) {
+    RelationIndex roomBatch = new RelationIndex();
+    RelationIndex roomWorkOrders = new RelationIndex();
+    RelationIndex buildingRooms = new RelationIndex();
+    RelationIndex campusBuildings = new RelationIndex();
+    docs.getRawRooms().forEachEntry((id, room) -> {
+      roomBatch.add(id, room.getBatchId());
+      if (room.getWorkOrders() != null) {
+        room.getWorkOrders().forEach(workOrderId -> {
+          if (workOrderId != null) {
+            roomWorkOrders.add(id, workOrderId);
+          }
+        });
+      }
+    });
+    docs.getRawBuildings().forEachEntry((id, building) -> {
+      if (building.getRooms() != null) {
+        building.getRooms().forEach(room -> buildingRooms.add(id, room.getId()));
+      }
+    });
+    docs.getRawCampuses().forEachEntry((id, campus) -> {
+      if (campus.getBuildings() != null) {
+        campus.getBuildings().forEach(building -> campusBuildings.add(id, building.getId()));
+      }
+    });
+    Map<String, RelationIndex> relations = new LinkedHashMap<>();
+    relations.put(ROOM_BATCH, roomBatch);
+    relations.put(ROOM_WORK_ORDERS, roomWorkOrders);
+    relations.put(BUILDING_ROOMS, buildingRooms);
+    relations.put(CAMPUS_BUILDINGS, campusBuildings);
+    relations.values().forEach(RelationIndex::freeze);
+    return relations;
+  }
+
+  /**
+   * occupants method: Returns the people in a room, counted the way the OccupancyService counts them.
+   */
+  private static int occupants(Room room, ReadModelDocuments docs) {
+    return OccupancyService.occupants(room.getBatchId() == 0 ? null : docs.getRawBatches().get(room.getBatchId()));
+  }
+
+  /**
+   * occupancyPercent method: Returns the occupants of a room as a whole percentage of its maxOccupancy, rounded
+   * down, so that rooms below half full are the ones up to 49. A room without a capacity has none.
+   */
+  private static Long occupancyPercent(Room room, ReadModelDocuments docs) {
+    return room.getMaxOccupancy() > 0 ? Long.valueOf(occupants(room, docs) * 100L / room.getMaxOccupancy()) : null;
+  }
+
+  private static <T> void metadata(Entity entity, Class<T> type, Function<T, ResourceMetadata> metadata) {
+    entity.field(FilterService.ACTIVE, Kind.KEYWORD, type, raw -> {
+      ResourceMetadata found = metadata.apply(raw);
+      return found == null ? null : found.isCurrentlyActive();
+    });
+    entity.field(FilterService.OWNER, Kind.NUMBER, type, raw -> {
+      ResourceMetadata found = metadata.apply(raw);
+      return found == null ? null : found.getResourceOwner();
+    });
+  }
+
+  /**
+   * One kind of document, where to find it in the read model and the fields it can be queried on.
+   */
+  public static final class Entity {
+
+    private final String name;
+    private final Function<ReadModelDocuments, IntObjectMap<?>> raw;
+    private final Function<ReadModelDocuments, IntObjectMap<?>> documents;
+    private final Collection<String> bitmapFields;
+    private final Collection<String> rangeFields;
+    private final String ownerType;
+    private final Map<String, Field> fields = new LinkedHashMap<>();
+    private final Map<String, Relation> relations = new LinkedHashMap<>();
+
+    Entity(String name, Function<ReadModelDocuments, IntObjectMap<?>> raw,
+        Function<ReadModelDocuments, IntObjectMap<?>> documents, Collection<String> bitmapFields,
+        Collection<String> rangeFields, String ownerType) {
+      this.name = name;
+      this.raw = raw;
+      this.documents = documents;
+      this.bitmapFields = bitmapFields;
+      this.rangeFields = rangeFields == null ? Collections.emptyList() : rangeFields;
+      this.ownerType = ownerType;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * getRaw method: Returns the raw objects of this entity, which the fields are read from.
+     */
+    public IntObjectMap<?> getRaw(ReadModelDocuments docs) {
+      return raw.apply(docs);
+    }
+
+    /**
+     * getDocuments method: Returns the hydrated documents of this entity, which is what a query returns.
+     */
+    public IntObjectMap<?> getDocuments(ReadModelDocuments docs) {
+      return documents.apply(docs);
+    }
+
+    public Field getField(String field) {
+      return field == null ? null : fields.get(field.trim());
+    }
+
+    public Collection<String> getFieldNames() {
+      return Collections.unmodifiableSet(fields.keySet());
+    }
+
+    /**
+     * hasBitmap method: Returns whether the FilterService keeps a bitmap index of this field.
+     */
+    public boolean hasBitmap(String field) {
+      return bitmapFields.contains(field);
+    }
+
+    /**
+     * hasRange method: Returns whether the DateRangeService keeps a range index of this field.
+     */
+    public boolean hasRange(String field) {
+      return rangeFields.contains(field);
+    }
+
+    /**
+     * getOwnerType method: Returns the type the SearchReadModel keeps owner lookups under, or null when it keeps
+     * none for this entity.
+     */
+    public String getOwnerType() {
+      return ownerType;
+    }
+
+    public Relation getRelation(String relation) {
+      return relation == null ? null : relations.get(relation.trim());
+    }
+
+    public Collection<String> getRelationNames() {
+      return Collections.unmodifiableSet(relations.keySet());
+    }
+
+    private void relation(String relation, String target, String index, boolean reversed) {
+      relations.put(relation, new Relation(relation, target, index, reversed));
+    }
+
+    private <T> void field(String field, Kind kind, Class<T> type, Function<T, Object> getter) {
+      fields.put(field, new Field(field, kind,
+          getter == null ? null : (value, docs) -> getter.apply(type.cast(value))));
+    }
+
+    private <T> void derived(String field, Kind kind, Class<T> type, BiFunction<T, ReadModelDocuments, Object> getter) {
+      fields.put(field, new Field(field, kind, (value, docs) -> getter.apply(type.cast(value), docs)));
+    }
+  }
+
+  /**
+   * One relation of an entity to another, and which way round it follows its RelationIndex.
+   */
+  public static final class Relation {
+
+    private final String name;
+    private final String target;
+    private final String index;
+    private final boolean reversed;
+
+    Relation(String name, String target, String index, boolean reversed) {
+      this.name = name;
+      this.target = target;
+      this.index = index;
+      this.reversed = reversed;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Entity getTarget() {
+      return getEntity(target);
+    }
+
+    /**
+     * semiJoin method: Returns the ids of this entity that are related to at least one of the matched ids of the
+     * target entity.
+     * @param relations the indexes built by buildRelations
+     * @param matched the ids of the target entity that matched
+     * @return the ids of this entity
+     */
+    public RoaringBitmap semiJoin(Map<String, RelationIndex> relations, RoaringBitmap matched) {
+      RelationIndex links = relations.get(index);
+      return reversed ? links.targetsOf(matched) : links.sourcesOf(matched);
+    }
+  }
+
+  /**
+   * One field of an entity, and how to read its values off a raw object.
+   */
+  public static final class Field {
+
+    private final String name;
+    private final Kind kind;
+    private final BiFunction<Object, ReadModelDocuments, Object> getter;
+
+    Field(String name, Kind kind, BiFunction<Object, ReadModelDocuments, Object> getter) {
+      this.name = name;
+      this.kind = kind;
+      this.getter = getter;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Kind getKind() {
+      return kind;
+    }
+
+    /**
+     * isReadable method: Returns whether the field can be read off the raw object, rather than only looked up in
+     * an index.
+     */
+    public boolean isReadable() {
+      return getter != null;
+    }
+
+    /**
+     * values method: Reads the field off a raw object as strings, the way the indexes keep it: enums by name,
+     * numbers and booleans as they print, and every element of a list.
+     * @param raw the raw object
+     * @param docs the raw objects it belongs to, which a derived field looks the objects it points at up in
+     * @return the values, empty when the field is null or can not be read
+     */
+    public List<String> values(Object raw, ReadModelDocuments docs) {
+      Object value = getter == null || raw == null ? null : getter.apply(raw, docs);
+      if (value == null) {
+        return Collections.emptyList();
+      }
+      if (value instanceof Collection) {
+        List<String> values = new ArrayList<>();
+        for (Object element : (Collection<?>) value) {
+          if (element != null) {
+            values.add(asString(element));
+          }
+        }
+        return values;
+      }
+      return Collections.singletonList(asString(value));
+    }
+
+    private static String asString(Object value) {
+      return value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+    }
+  }
+}
@@ -0,0 +1,681 @@
+package com.revature.rms.search.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.search.config.SearchIndexProperties;
+import com.revature.rms.search.dtos.QueryFilter;
+import com.revature.rms.search.dtos.QueryPlan;
+import com.revature.rms.search.dtos.QueryPlanStep;
+import com.revature.rms.search.dtos.QueryRequest;
+import com.revature.rms.search.dtos.QueryResponse;
+import com.revature.rms.search.dtos.QuerySort;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Answers the query DSL of POST /search/query: one entity, any number of
+ * filters, a sort, a page, the nested objects to expand and the facets to
+ * count over the matches.
+ *
+ * Every filter that an index can answer offers an access path with an
+ * estimate of how many rows it would return: a bitmap of the FilterService,
+ * a date range of the DateRangeService or the owner lookups of the
+ * SearchReadModel, all of which are exact. A scan of every row of the entity
+ * is always on offer too. The planner drives the query from the path that
+ * touches the fewest rows, then applies the remaining filters to those rows
+ * one at a time, most selective first, checking a bitmap where there is one
+ * and the raw object where there is not. Filters that no index can estimate
+ * are assumed to keep a tenth of the rows per value, or a third for a range.
+ * With explain set, the response carries every path that was considered and
+ * the estimated and actual rows after each step.
+ *
+ * A filter can also join to a related entity, such as the batch or the work
+ * orders of a room, with filters of its own. The joined entity is queried the
+ * same way, and the ids that match are followed back through the
+ * RelationIndex of the relation to the ids of this entity that link to at
+ * least one of them, a semi-join, or to none of them with not_in. Those ids
+ * then act like a bitmap filter, which can drive the query or be applied to
+ * the rows of another path, so a query such as the rooms whose batch is
+ * JAVA_MSA and that have a LIGHTING work order never hydrates a room, batch or
+ * work order it does not return. The plans of the joined queries are included
+ * with explain.
+ *
+ * Which path is chosen never changes what matches, and the matches are sorted
+ * by id unless a sort is given. Documents are returned with every nested
+ * object that has an id cut down to that id, except on the expanded paths.
+ *
+ * Queries run against the read model. Before it has finished its first load,
+ * they run against the extraction the ReadModelExtractor shares, and return
+ * the raw objects since there are no documents yet. Either way the bitmap and
+ * range indexes a query uses are the ones built from the documents it reads.
+ */
+@Service
+public class QueryService {
+
+  public static final String IN = "in";
+  public static final String NOT_IN = "not_in";
+  public static final String BETWEEN = "between";
+  public static final List<String> OPS = Collections.unmodifiableList(Arrays.asList(IN, NOT_IN, BETWEEN));
+
+  public static final String BITMAP_PATH = "bitmap";
+  public static final String RANGE_PATH = "range";
+  public static final String OWNER_PATH = "owner";
+  public static final String JOIN_PATH = "join";
+  public static final String SCAN_PATH = "scan";
+  public static final String FILTER_STEP = "filter";
+
+  private static final double EQUALITY_SELECTIVITY = 0.1;
+  private static final double RANGE_SELECTIVITY = 1.0 / 3;
+
+  private ReadModelExtractor extractor;
+  private SearchReadModel readModel;
+  private FilterService filterService;
+  private DateRangeService dateRangeService;
+  private FacetService facetService;
+  private SearchIndexProperties indexProps;
+  private ObjectMapper mapper;
+  private volatile Relations relations;
+
+  @Autowired
+  public QueryService(ReadModelExtractor readModelExtractor, SearchReadModel searchReadModel,
+      FilterService filterService, DateRangeService dateRangeService, FacetService facetService,
+      SearchIndexProperties searchIndexProperties, ObjectMapper objectMapper) {
+    this.extractor = readModelExtractor;
+    this.readModel = searchReadModel;
+    this.filterService = filterService;
+    this.dateRangeService = dateRangeService;
+    this.facetService = facetService;
+    this.indexProps = searchIndexProperties;
+    this.mapper = objectMapper;
+  }
+
+  /**
+   * query method: Plans and runs a query.
+   * @param request the entity, filters, sort, page, expand paths and facets
+   * @return one page of the matching documents, the total, the facet counts and, when asked for, the plan
+   * @throws InvalidRequestException when the entity, a field, an operator, a value, the sort, the page or a facet
+   *                                 is not valid
+   */
+  public QueryResponse query(QueryRequest request) {
+    if (request == null) {
+      throw new InvalidRequestException("Query can not be empty");
+    }
+    QuerySchema.Entity entity = QuerySchema.getEntity(request.getEntity());
+    if (entity == null) {
+      throw new InvalidRequestException("Entity must be one of " + QuerySchema.getEntityNames());
+    }
+    int page = request.getPage() == null ? 0 : request.getPage();
+    if (page < 0) {
+      throw new InvalidRequestException("Page can not be negative");
+    }
+    int size = request.getSize() == null ? indexProps.getDefaultLimit() : request.getSize();
+    if (size < 1 || size > indexProps.getMaxLimit()) {
+      throw new InvalidRequestException("Size must be between 1 and " + indexProps.getMaxLimit());
+    }
+    List<SortKey> sort = sort(entity, request.getSort());
+    List<String> facets = facets(entity, request.getFacets());
+    Set<String> expand = new LinkedHashSet<>();
+    if (request.getExpand() != null) {
+      request.getExpand().forEach(path -> expand.add(path.trim()));
+    }
+
+    ReadModelDocuments docs = documents();
+    IntObjectMap<?> raw = entity.getRaw(docs);
+    QueryPlan plan = new QueryPlan();
+    List<Condition> conditions = conditions(entity, request.getFilters(), docs, plan);
+    int[] ids = execute(entity, conditions, raw, plan);
+    List<Integer> ordered = order(ids, raw, docs, sort);
+
+    QueryResponse response = new QueryResponse();
+    response.setEntity(entity.getName());
+    response.setTotal(ordered.size());
+    response.setPage(page);
+    response.setSize(size);
+    IntObjectMap<?> documents = entity.getDocuments(docs);
+    long first = (long) page * size;
+    for (long i = first; i < ordered.size() && i < first + size; i++) {
+      int id = ordered.get((int) i);
+      Object document = documents.get(id);
+      response.getResults().add(render(document != null ? document : raw.get(id), expand));
+    }
+    for (String facet : facets) {
+      response.getFacets().put(facet, facetService.count(facet, ordered));
+    }
+    if (request.isExplain()) {
+      response.setPlan(plan);
+    }
+    return response;
+  }
+
+  /**
+   * onReadModelUpdated method: Builds the relation indexes of the documents a load or sync just made.
+   * @param event the load or sync that just finished
+   */
+  @EventListener
+  public void onReadModelUpdated(ReadModelUpdatedEvent event) {
+    relations = new Relations(event.getDocuments());
+  }
+
+  /**
+   * execute method: Chooses the access path that touches the fewest rows, runs it, then applies the other
+   * conditions most selective first, recording each step in the plan.
+   */
+  private int[] execute(QuerySchema.Entity entity, List<Condition> conditions, IntObjectMap<?> raw, QueryPlan plan) {
+    int total = raw.size();
+    List<Path> paths = new ArrayList<>();
+    for (Condition condition : conditions) {
+      paths.addAll(condition.paths(entity));
+    }
+    paths.add(new Path(SCAN_PATH, null, total, raw::keys));
+    Path chosen = paths.get(0);
+    for (Path path : paths) {
+      plan.getConsidered().add(new QueryPlanStep(path.name, path.field(), path.op(), path.estimate, null));
+      if (path.estimate < chosen.estimate) {
+        chosen = path;
+      }
+    }
+    plan.setPath(chosen.name);
+    plan.setField(chosen.field());
+
+    int[] ids = keep(chosen.ids.get(), raw, null);
+    plan.getSteps().add(new QueryPlanStep(chosen.name, chosen.field(), chosen.op(), chosen.estimate, (long) ids.length));
+    List<Condition> residual = new ArrayList<>(conditions);
+    residual.remove(chosen.condition);
+    residual.sort(Comparator.comparingDouble(condition -> condition.selectivity(total)));
+    double estimate = chosen.estimate;
+    for (Condition condition : residual) {
+      estimate *= condition.selectivity(total);
+      ids = keep(ids, raw, condition);
+      plan.getSteps().add(new QueryPlanStep(FILTER_STEP, condition.label, condition.op,
+          Math.round(estimate), (long) ids.length));
+    }
+    return ids;
+  }
+
+  /**
+   * keep method: Returns the ids that have a raw object and, when a condition is given, that match it.
+   */
+  private static int[] keep(int[] ids, IntObjectMap<?> raw, Condition condition) {
+    IntArrayList kept = new IntArrayList();
+    for (int id : ids) {
+      Object object = raw.get(id);
+      if (object != null && (condition == null || condition.test(id, object))) {
+        kept.add(id);
+      }
+    }
+    return kept.toArray();
+  }
+
+  private List<Condition> conditions(QuerySchema.Entity entity, List<QueryFilter> filters, ReadModelDocuments docs,
+      QueryPlan plan) {
+    List<Condition> conditions = new ArrayList<>();
+    if (filters != null) {
+      for (QueryFilter filter : filters) {
+        if (filter == null) {
+          throw new InvalidRequestException("Filter can not be empty");
+        }
+        conditions.add(filter.getJoin() != null ? join(entity, filter, docs, plan) : condition(entity, filter, docs));
+      }
+    }
+    return conditions;
+  }
+
+  /**
+   * join method: Runs the filters of a join against the related entity, and turns the ids that match into the ids
+   * of this entity that link to them.
+   */
+  private Condition join(QuerySchema.Entity entity, QueryFilter filter, ReadModelDocuments docs, QueryPlan plan) {
+    QuerySchema.Relation relation = entity.getRelation(filter.getJoin());
+    if (relation == null) {
+      throw new InvalidRequestException("Join of " + entity.getName() + " must be one of " + entity.getRelationNames());
+    }
+    String op = filter.getOp() == null ? IN : filter.getOp().trim().toLowerCase(Locale.ROOT);
+    if (!op.equals(IN) && !op.equals(NOT_IN)) {
+      throw new InvalidRequestException("A join can only be filtered with " + IN + " or " + NOT_IN);
+    }
+    QuerySchema.Entity target = relation.getTarget();
+    QueryPlan joined = new QueryPlan();
+    List<Condition> conditions = conditions(target, filter.getFilters(), docs, joined);
+    int[] matched = execute(target, conditions, target.getRaw(docs), joined);
+    plan.getJoins().add(joined);
+
+    Condition condition = new Condition(relation.getName(), null, op, JOIN_PATH);
+    condition.bitmap = relation.semiJoin(relations(docs), RoaringBitmap.bitmapOf(matched));
+    condition.universe = RoaringBitmap.bitmapOf(entity.getRaw(docs).keys());
+    return condition;
+  }
+
+  private Condition condition(QuerySchema.Entity entity, QueryFilter filter, ReadModelDocuments docs) {
+    QuerySchema.Field field = entity.getField(filter.getField());
+    if (field == null) {
+      throw new InvalidRequestException("Field must be one of " + entity.getFieldNames());
+    }
+    String op = filter.getOp() == null ? IN : filter.getOp().trim().toLowerCase(Locale.ROOT);
+    if (!OPS.contains(op)) {
+      throw new InvalidRequestException("Op must be one of " + OPS);
+    }
+    Condition condition = new Condition(field.getName(), field, op, BITMAP_PATH);
+    condition.docs = docs;
+    if (op.equals(BETWEEN)) {
+      if (field.getKind() == QuerySchema.Kind.KEYWORD || !field.isReadable()) {
+        throw new InvalidRequestException(field.getName() + " can only be filtered with " + IN + " or " + NOT_IN);
+      }
+      condition.from = bound(field, filter.getFrom(), Long.MIN_VALUE);
+      condition.to = bound(field, filter.getTo(), Long.MAX_VALUE);
+      if (condition.from > condition.to) {
+        throw new InvalidRequestException("The from of " + field.getName() + " must not be after the to");
+      }
+    } else {
+      if (field.getKind() == QuerySchema.Kind.DATE) {
+        throw new InvalidRequestException(field.getName() + " can only be filtered with " + BETWEEN);
+      }
+      if (filter.getValues() != null) {
+        for (String value : filter.getValues()) {
+          for (String part : value == null ? new String[0] : value.split(",")) {
+            if (!part.trim().isEmpty()) {
+              condition.values.add(normalize(field, part.trim()));
+            }
+          }
+        }
+      }
+      if (condition.values.isEmpty()) {
+        throw new InvalidRequestException("The filter on " + field.getName() + " needs at least one value");
+      }
+    }
+    if (entity.hasBitmap(field.getName()) && !op.equals(BETWEEN)) {
+      BitmapIndex index = entity.getName().equals(ReadModelDocuments.EMPLOYEE)
+          ? filterService.getEmployeeIndex(docs) : filterService.getRoomIndex(docs);
+      condition.universe = index.all();
+      condition.bitmap = index.filter(Collections.singletonMap(field.getName(), condition.values),
+          Collections.emptyMap());
+    }
+    if (entity.hasRange(field.getName()) && op.equals(BETWEEN)) {
+      condition.range = entity.getName().equals(ReadModelDocuments.BATCH)
+          ? dateRangeService.getBatchIndex(field.getName(), docs)
+          : dateRangeService.getWorkOrderIndex(field.getName(), docs);
+    }
+    return condition;
+  }
+
+  private static String normalize(QuerySchema.Field field, String value) {
+    if (field.getKind() != QuerySchema.Kind.NUMBER) {
+      return value;
+    }
+    try {
+      return String.valueOf(Long.parseLong(value));
+    } catch (NumberFormatException nfe) {
+      throw new InvalidRequestException("Values of " + field.getName() + " must be numbers");
+    }
+  }
+
+  private static long bound(QuerySchema.Field field, String value, long open) {
+    if (value == null || value.trim().isEmpty()) {
+      return open;
+    }
+    if (field.getKind() == QuerySchema.Kind.DATE) {
+      long day = ResourceDates.toEpochDay(value);
+      if (day == ResourceDates.UNKNOWN) {
+        throw new InvalidRequestException("Dates of " + field.getName() + " must be dates such as 2020-02-12 or 2/12/2020");
+      }
+      return day;
+    }
+    return Long.parseLong(normalize(field, value.trim()));
+  }
+
+  private static List<SortKey> sort(QuerySchema.Entity entity, List<QuerySort> sorts) {
+    List<SortKey> keys = new ArrayList<>();
+    if (sorts == null) {
+      return keys;
+    }
+    for (QuerySort sort : sorts) {
+      QuerySchema.Field field = sort == null ? null : entity.getField(sort.getField());
+      if (field == null || !field.isReadable()) {
+        List<String> readable = new ArrayList<>();
+        entity.getFieldNames().forEach(name -> {
+          if (entity.getField(name).isReadable()) {
+            readable.add(name);
+          }
+        });
+        throw new InvalidRequestException("Sort field must be one of " + readable);
+      }
+      String direction = sort.getDirection() == null ? "asc" : sort.getDirection().trim().toLowerCase(Locale.ROOT);
+      if (!direction.equals("asc") && !direction.equals("desc")) {
+        throw new InvalidRequestException("Sort direction must be asc or desc");
+      }
+      keys.add(new SortKey(field, direction.equals("desc")));
+    }
+    return keys;
+  }
+
+  private static List<String> facets(QuerySchema.Entity entity, List<String> requested) {
+    List<String> facets = new ArrayList<>();
+    if (requested == null) {
+      return facets;
+    }
+    List<String> allowed = new ArrayList<>();
+    for (String dimension : FacetService.DIMENSIONS) {
+      if (dimension.startsWith(entity.getName() + ".")) {
+        allowed.add(dimension);
+      }
+    }
+    for (String facet : requested) {
+      if (!allowed.contains(facet)) {
+        throw new InvalidRequestException("Facets of " + entity.getName() + " must be one of " + allowed);
+      }
+      facets.add(facet);
+    }
+    return facets;
+  }
+
+  /**
+   * order method: Sorts the matches by the sort keys, then by id.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static List<Integer> order(int[] ids, IntObjectMap<?> raw, ReadModelDocuments docs, List<SortKey> sort) {
+    List<Integer> ordered = new ArrayList<>(ids.length);
+    for (int id : ids) {
+      ordered.add(id);
+    }
+    if (sort.isEmpty()) {
+      Collections.sort(ordered);
+      return ordered;
+    }
+    Map<Integer, Comparable[]> keys = new LinkedHashMap<>();
+    for (int id : ids) {
+      Comparable[] values = new Comparable[sort.size()];
+      for (int i = 0; i < sort.size(); i++) {
+        values[i] = sort.get(i).key(raw.get(id), docs);
+      }
+      keys.put(id, values);
+    }
+    ordered.sort((left, right) -> {
+      Comparable[] a = keys.get(left);
+      Comparable[] b = keys.get(right);
+      for (int i = 0; i < sort.size(); i++) {
+        if (a[i] == null || b[i] == null) {
+          if (a[i] != b[i]) {
+            return a[i] == null ? 1 : -1;
+          }
+          continue;
+        }
+        int compared = a[i].compareTo(b[i]);
+        if (compared != 0) {
+          return sort.get(i).descending ? -compared : compared;
+        }
+      }
+      return Integer.compare(left, right);
+    });
+    return ordered;
+  }
+
+  /**
+   * render method: Turns a document into JSON with every nested object that has an id cut down to that id,
+   * except on the expanded paths and on the way to them.
+   */
+  private Object render(Object document, Set<String> expand) {
+    JsonNode node = mapper.valueToTree(document);
+    collapse(node, "", expand);
+    return node;
+  }
+
+  private static void collapse(JsonNode node, String path, Set<String> expand) {
+    if (!node.isObject()) {
+      return;
+    }
+    ObjectNode object = (ObjectNode) node;
+    List<String> names = new ArrayList<>();
+    object.fieldNames().forEachRemaining(names::add);
+    for (String name : names) {
+      String child = path.isEmpty() ? name : path + "." + name;
+      JsonNode value = object.get(name);
+      if (value.isArray()) {
+        ArrayNode array = (ArrayNode) value;
+        for (int i = 0; i < array.size(); i++) {
+          array.set(i, collapseChild(array.get(i), child, expand));
+        }
+      } else {
+        object.set(name, collapseChild(value, child, expand));
+      }
+    }
+  }
+
+  private static JsonNode collapseChild(JsonNode value, String path, Set<String> expand) {
+    if (value.isObject() && value.has("id") && !isExpanded(path, expand)) {
+      return value.get("id");
+    }
+    collapse(value, path, expand);
+    return value;
+  }
+
+  private static boolean isExpanded(String path, Set<String> expand) {
+    for (String expanded : expand) {
+      if (expanded.equals(path) || expanded.startsWith(path + ".")) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private ReadModelDocuments documents() {
+    ReadModelDocuments docs = readModel.read(current -> current);
+    return docs != null ? docs : extractor.latest();
+  }
+
+  /**
+   * relations method: Returns the relation indexes of the documents, building them if the documents are not the
+   * ones they were last built from.
+   */
+  private Map<String, RelationIndex> relations(ReadModelDocuments docs) {
+    Relations current = relations;
+    if (current == null || current.docs != docs) {
+      current = new Relations(docs);
+      relations = current;
+    }
+    return current.indexes;
+  }
+
+  /**
+   * One filter of a query, with the ids of this entity that match its values when the FilterService keeps a bitmap
+   * of its field, or that link to the matches of its join, and the range index of its field when the
+   * DateRangeService keeps one.
+   */
+  private final class Condition {
+
+    final String label;
+    final QuerySchema.Field field;
+    final String op;
+    final String bitmapPath;
+    final Set<String> values = new LinkedHashSet<>();
+    long from;
+    long to;
+    RoaringBitmap bitmap;
+    RoaringBitmap universe;
+    RangeIndex range;
+    ReadModelDocuments docs;
+
+    Condition(String label, QuerySchema.Field field, String op, String bitmapPath) {
+      this.label = label;
+      this.field = field;
+      this.op = op;
+      this.bitmapPath = bitmapPath;
+    }
+
+    /**
+     * paths method: Returns the index paths that can produce the rows matching this condition by themselves.
+     */
+    List<Path> paths(QuerySchema.Entity entity) {
+      List<Path> paths = new ArrayList<>();
+      if (bitmap != null) {
+        RoaringBitmap matched = op.equals(NOT_IN) ? RoaringBitmap.andNot(universe, bitmap) : bitmap;
+        paths.add(new Path(bitmapPath, this, matched.getCardinality(), matched::toArray));
+      }
+      if (field == null) {
+        return paths;
+      }
+      if (range != null) {
+        paths.add(new Path(RANGE_PATH, this, range.count(from, to), () -> range.between(from, to)));
+      }
+      if (op.equals(IN) && field.getName().equals(FilterService.OWNER) && entity.getOwnerType() != null
+          && readModel.isReady()) {
+        IntArrayList owned = new IntArrayList();
+        for (String owner : values) {
+          long ownerId = Long.parseLong(owner);
+          if (ownerId < Integer.MIN_VALUE || ownerId > Integer.MAX_VALUE) {
+            continue;
+          }
+          for (int id : readModel.getOwnedIds(entity.getOwnerType(), (int) ownerId)) {
+            owned.add(id);
+          }
+        }
+        int[] ids = owned.toArray();
+        paths.add(new Path(OWNER_PATH, this, ids.length, () -> ids));
+      }
+      return paths;
+    }
+
+    /**
+     * selectivity method: Returns the share of the rows this condition is expected to keep, exact when there is a
+     * bitmap or range index to count from.
+     */
+    double selectivity(int total) {
+      if (total == 0) {
+        return 0;
+      }
+      if (bitmap != null) {
+        double matched = Math.min(1.0, (double) bitmap.getCardinality() / total);
+        return op.equals(NOT_IN) ? 1 - matched : matched;
+      }
+      if (op.equals(BETWEEN)) {
+        return RANGE_SELECTIVITY;
+      }
+      double matched = Math.min(1.0, values.size() * EQUALITY_SELECTIVITY);
+      return op.equals(NOT_IN) ? 1 - matched : matched;
+    }
+
+    /**
+     * test method: Checks one row against this condition, on the bitmap when there is one and on the raw object
+     * when there is not.
+     */
+    boolean test(int id, Object raw) {
+      if (bitmap != null) {
+        return bitmap.contains(id) != op.equals(NOT_IN);
+      }
+      List<String> found = field.values(raw, docs);
+      if (op.equals(BETWEEN)) {
+        for (String value : found) {
+          long number = field.getKind() == QuerySchema.Kind.DATE ? ResourceDates.toEpochDay(value) : parse(value);
+          if (number != ResourceDates.UNKNOWN && number >= from && number <= to) {
+            return true;
+          }
+        }
+        return false;
+      }
+      for (String value : found) {
+        if (values.contains(value)) {
+          return op.equals(IN);
+        }
+      }
+      return op.equals(NOT_IN);
+    }
+
+    private long parse(String value) {
+      try {
+        return Long.parseLong(value);
+      } catch (NumberFormatException nfe) {
+        return ResourceDates.UNKNOWN;
+      }
+    }
+  }
+
+  /**
+   * The relation indexes built from one set of documents.
+   */
+  private static final class Relations {
+
+    final ReadModelDocuments docs;
+    final Map<String, RelationIndex> indexes;
+
+    Relations(ReadModelDocuments docs) {
+      this.docs = docs;
+      this.indexes = QuerySchema.buildRelations(docs);
+    }
+  }
+
+  /**
+   * One way to produce the first set of rows, and how many rows it is expected to produce.
+   */
+  private static final class Path {
+
+    final String name;
+    final Condition condition;
+    final long estimate;
+    final Supplier<int[]> ids;
+
+    Path(String name, Condition condition, long estimate, Supplier<int[]> ids) {
+      this.name = name;
+      this.condition = condition;
+      this.estimate = estimate;
+      this.ids = ids;
+    }
+
+    String field() {
+      return condition == null ? null : condition.label;
+    }
+
+    String op() {
+      return condition == null ? null : condition.op;
+    }
+  }
+
+  /**
+   * One sort field, and how to turn its first value into something comparable.
+   */
+  private static final class SortKey {
+
+    final QuerySchema.Field field;
+    final boolean descending;
+
+    SortKey(QuerySchema.Field field, boolean descending) {
+      this.field = field;
+      this.descending = descending;
+    }
+
+    Comparable<?> key(Object raw, ReadModelDocuments docs) {
+      List<String> values = field.values(raw, docs);
+      if (values.isEmpty()) {
+        return null;
+      }
+      String value = values.get(0);
+      switch (field.getKind()) {
+        case NUMBER:
+          try {
+            return Long.parseLong(value);
+          } catch (NumberFormatException nfe) {
+            return null;
+          }
+        case DATE:
+          long day = ResourceDates.toEpochDay(value);
+          return day == ResourceDates.UNKNOWN ? null : day;
+        default:
+          return value.toLowerCase(Locale.ROOT);
+      }
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.revature.rms.search.services;
+
+import java.util.Arrays;
+
+/**
+ * A sorted index of ids by the day of a date field, such as the start date of
+ * a batch or the day a work order was opened. The dates arrive as strings and
+ * are parsed once when they are added, then kept as epoch days, so a range of
+ * days is found with two binary searches instead of parsing every string of
+ * every object again.
+ *
+ * Each entry is one long with the day in the high half and the id in the low
+ * half, which keeps the whole index in a single primitive array that sorts by
+ * day and then by id. Ids whose date is missing or not understood are left out.
+ *
+ * An index is filled by add and then frozen, after which it is only read and
+ * can be shared between threads without locking. To change it, build a new one.
+ */
+public class RangeIndex {
+
+  private long[] entries;
+  private int size;
+  private boolean frozen;
+
+  public RangeIndex() {
+    this(16);
+  }
+
+  public RangeIndex(int expectedSize) {
+    entries = new long[Math.max(4, expectedSize)];
+  }
+
+  /**
+   * add method: Adds an id under the day its date string falls on.
+   * @param date the date string as the service sent it
+   * @param id the id
+   * @return true if the date was understood and the id added
+   */
+  public boolean add(String date, int id) {
+    return add(ResourceDates.toEpochDay(date), id);
+  }
+
+  /**
+   * add method: Adds an id under a day.
+   * @param epochDay days since the epoch, or ResourceDates.UNKNOWN to leave the id out
+   * @param id the id
+   * @return true if the id was added
+   */
+  public boolean add(long epochDay, int id) {
+    if (frozen) {
+      throw new IllegalStateException("The index is frozen");
+    }
+    if (epochDay == ResourceDates.UNKNOWN || epochDay < Integer.MIN_VALUE || epochDay > Integer.MAX_VALUE) {
+      return false;
+    }
+    if (size == entries.length) {
+      entries = Arrays.copyOf(entries, size * 2);
+    }
+    entries[size++] = (epochDay << 32) | (id & 0xFFFFFFFFL);
+    return true;
+  }
+
+  /**
+   * freeze method: Sorts the entries once everything has been added. Nothing can be added afterwards.
+   */
+  public void freeze() {
+    if (!frozen) {
+      entries = Arrays.copyOf(entries, size);
+      Arrays.sort(entries);
+      frozen = true;
+    }
+  }
+
+  /**
+   * size method: Returns how many ids the index holds.
+   * @return the number of ids with a known date
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * between method: Returns the ids whose day falls in a range, both ends included.
+   * @param fromDay the first day, or Long.MIN_VALUE for no lower bound
+   * @param toDay the last day, or Long.MAX_VALUE for no upper bound
+   * @return the ids in order of their day, then of their id
+   */
+  public int[] between(long fromDay, long toDay) {
+    int from = lowerBound(fromDay);
+    int to = toDay >= Integer.MAX_VALUE ? size : lowerBound(toDay + 1);
+    if (to <= from) {
+      return new int[0];
+    }
+    int[] ids = new int[to - from];
+    for (int i = from; i < to; i++) {
+      ids[i - from] = (int) entries[i];
+    }
+    return ids;
+  }
+
+  /**
+   * count method: Returns how many ids have a day in a range, without copying them out.
+   * @param fromDay the first day, or Long.MIN_VALUE for no lower bound
+   * @param toDay the last day, or Long.MAX_VALUE for no upper bound
+   * @return the number of matching ids
+   */
+  public int count(long fromDay, long toDay) {
+    int from = lowerBound(fromDay);
+    int to = toDay >= Integer.MAX_VALUE ? size : lowerBound(toDay + 1);
+    return Math.max(0, to - from);
+  }
+
+  /**
+   * lowerBound method: Returns the position of the first entry on or after a day.
+   */
+  private int lowerBound(long day) {
+    if (!frozen) {
+      throw new IllegalStateException("The index must be frozen before it is read");
+    }
+    if (day <= Integer.MIN_VALUE) {
+      return 0;
+    }
+    if (day > Integer.MAX_VALUE) {
+      return size;
+    }
+    long key = day << 32;
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (entries[mid] < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
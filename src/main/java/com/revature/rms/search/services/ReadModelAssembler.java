@@ -0,0 +1,306 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.dtos.BatchDto;
+import com.revature.rms.search.dtos.BuildingDto;
+import com.revature.rms.search.dtos.CampusDto;
+import com.revature.rms.search.dtos.EmployeeDto;
+import com.revature.rms.search.dtos.RoomDto;
+import com.revature.rms.search.dtos.RoomStatusDto;
+import com.revature.rms.search.dtos.WorkOrderDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.campus.RoomStatus;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Turns the raw objects held in a ReadModelDocuments into the hydrated documents
+ * the read model serves. Documents are built from the bottom up: employees, then
+ * batches and work orders, then rooms, buildings and campuses. Each one embeds
+ * the documents that were already built for the objects it points at, so an
+ * employee that shows up in a hundred rooms is hydrated once. Anything that is
+ * not in the documents yet, such as an employee the bulk listing left out, is
+ * hydrated through the ETLService the same way the request path does it.
+ *
+ * An incremental sync goes through assembleChanged, which only rebuilds the
+ * documents a ReadModelChanges names and keeps every other one as it was.
+ */
+@Component
+public class ReadModelAssembler {
+
+  private ETLService etlService;
+
+  @Autowired
+  public ReadModelAssembler(ETLService etlService) {
+    this.etlService = etlService;
+  }
+
+  /**
+   * assembleAll method: Fetches everything the raw objects point at in bulk, then builds every document.
+   * An object that cannot be hydrated is left out of the documents and its stack trace is printed.
+   * Must be called with a HydrationContext open, otherwise the bulk fetch is skipped.
+   * @param docs the raw objects, whose documents are replaced
+   * @return the number of objects that could not be hydrated
+   */
+  public int assembleAll(ReadModelDocuments docs) {
+    etlService.prefetch(new HydrationPlan()
+        .addCampuses(docs.getRawCampuses().values())
+        .addBuildings(docs.getRawBuildings().values())
+        .addRooms(docs.getRawRooms().values())
+        .addEmployees(docs.getRawEmployees().values()));
+    int failures = 0;
+    failures += assembleEach(docs.getRawEmployees(), docs.getEmployees(), null, null, emp -> assembleEmployee(emp));
+    failures += assembleEach(docs.getRawBatches(), docs.getBatches(), null, null, batch -> assembleBatch(batch, docs));
+    failures += assembleEach(docs.getRawWorkOrders(), docs.getWorkOrders(), null, null, workOrder -> assembleWorkOrder(workOrder, docs));
+    failures += assembleEach(docs.getRawRooms(), docs.getRooms(), null, null, room -> assembleRoom(room, docs));
+    failures += assembleEach(docs.getRawBuildings(), docs.getBuildings(), null, null, building -> assembleBuilding(building, docs));
+    failures += assembleEach(docs.getRawCampuses(), docs.getCampuses(), null, null, campus -> assembleCampus(campus, docs));
+    return failures;
+  }
+
+  /**
+   * assembleChanged method: Builds the documents of an incremental sync. The documents of objects that did not
+   * change are taken over from the previous documents as they are, and only the changed ones are fetched for and
+   * rebuilt. Must be called with a HydrationContext open, otherwise the bulk fetch is skipped.
+   * @param docs the newly extracted raw objects, whose documents are replaced
+   * @param previous the documents the read model is serving
+   * @param changes what changed, including every document that embeds a change
+   * @return the number of changed objects that could not be hydrated
+   */
+  public int assembleChanged(ReadModelDocuments docs, ReadModelDocuments previous, ReadModelChanges changes) {
+    HydrationPlan plan = new HydrationPlan();
+    changes.getCampuses().forEach(id -> plan.addCampus(docs.getRawCampuses().get(id)));
+    changes.getBuildings().forEach(id -> plan.addBuilding(docs.getRawBuildings().get(id)));
+    changes.getRooms().forEach(id -> plan.addRoom(docs.getRawRooms().get(id)));
+    changes.getEmployees().forEach(id -> plan.addEmployee(docs.getRawEmployees().get(id)));
+    etlService.prefetch(plan);
+    int failures = 0;
+    failures += assembleEach(docs.getRawEmployees(), docs.getEmployees(), previous.getEmployees(),
+        changes.getEmployees(), emp -> assembleEmployee(emp));
+    failures += assembleEach(docs.getRawBatches(), docs.getBatches(), previous.getBatches(),
+        changes.getBatches(), batch -> assembleBatch(batch, docs));
+    failures += assembleEach(docs.getRawWorkOrders(), docs.getWorkOrders(), previous.getWorkOrders(),
+        changes.getWorkOrders(), workOrder -> assembleWorkOrder(workOrder, docs));
+    failures += assembleEach(docs.getRawRooms(), docs.getRooms(), previous.getRooms(),
+        changes.getRooms(), room -> assembleRoom(room, docs));
+    failures += assembleEach(docs.getRawBuildings(), docs.getBuildings(), previous.getBuildings(),
+        changes.getBuildings(), building -> assembleBuilding(building, docs));
+    failures += assembleEach(docs.getRawCampuses(), docs.getCampuses(), previous.getCampuses(),
+        changes.getCampuses(), campus -> assembleCampus(campus, docs));
+    return failures;
+  }
+
+  /**
+   * assembleEmployee method: Returns the EmployeeDto for a raw employee, with its metadata when it has any.
+   * @param employee raw Employee
+   * @return an EmployeeDto object
+   */
+  public EmployeeDto assembleEmployee(Employee employee) {
+    EmployeeDto dto = employee.extractEmployee();
+    if (employee.getResourceMetadata() != null) {
+      dto.setResourceMetadata(etlService.getEmployeeMetadata(employee.getResourceMetadata()));
+    }
+    return dto;
+  }
+
+  /**
+   * assembleBatch method: Returns the BatchDto for a raw batch, embedding the employee documents of its trainers and associates.
+   * @param batch raw Batch
+   * @param docs documents built so far
+   * @return a BatchDto object
+   */
+  public BatchDto assembleBatch(Batch batch, ReadModelDocuments docs) {
+    BatchDto dto = batch.extractBatch();
+    dto.setTrainer(employee(batch.getTrainerId(), docs));
+    if (batch.getCoTrainerId() != 0) {
+      dto.setCoTrainer(employee(batch.getCoTrainerId(), docs));
+    }
+    List<EmployeeDto> associates = new ArrayList<>();
+    if (batch.getAssociates() != null) {
+      for (Integer id : batch.getAssociates()) {
+        EmployeeDto associate = id == null ? null : employee(id, docs);
+        if (associate != null) {
+          associates.add(associate);
+        }
+      }
+    }
+    dto.setAssociates(associates);
+    if (batch.getResourceMetadata() != null) {
+      dto.setResourceMetadata(etlService.campusMetaData(batch.getResourceMetadata()));
+    }
+    return dto;
+  }
+
+  /**
+   * assembleWorkOrder method: Returns the WorkOrderDto for a raw work order, embedding its creator and resolver.
+   * @param workOrder raw WorkOrder
+   * @param docs documents built so far
+   * @return a WorkOrderDto object
+   */
+  public WorkOrderDto assembleWorkOrder(WorkOrder workOrder, ReadModelDocuments docs) {
+    WorkOrderDto dto = workOrder.extractWorkOrder();
+    dto.setCreator(employee(workOrder.getCreatorId(), docs));
+    dto.setResolver(employee(workOrder.getResolverId(), docs));
+    return dto;
+  }
+
+  /**
+   * assembleRoom method: Returns the RoomDto for a raw room, embedding the documents of its batch and work orders.
+   * @param room raw Room
+   * @param docs documents built so far
+   * @return a RoomDto object
+   */
+  public RoomDto assembleRoom(Room room, ReadModelDocuments docs) {
+    RoomDto dto = room.extractRoom();
+    List<RoomStatusDto> statuses = new ArrayList<>();
+    if (room.getCurrentStatus() != null) {
+      for (RoomStatus status : room.getCurrentStatus()) {
+        RoomStatusDto statusDto = status.extractRoomStatus();
+        statusDto.setSubmitter(employee(status.getSubmitterId(), docs));
+        statuses.add(statusDto);
+      }
+    }
+    dto.setCurrentStatus(statuses);
+    if (room.getResourceMetadata() != null) {
+      dto.setResourceMetadata(etlService.campusMetaData(room.getResourceMetadata()));
+    }
+    dto.setBatch(docs.getBatches().get(room.getBatchId()));
+    List<WorkOrderDto> workOrders = new ArrayList<>();
+    if (room.getWorkOrders() != null) {
+      for (Integer id : room.getWorkOrders()) {
+        WorkOrderDto workOrder = docs.getWorkOrders().get(id);
+        if (workOrder != null) {
+          workOrders.add(workOrder);
+        }
+      }
+    }
+    dto.setWorkOrders(workOrders);
+    return dto;
+  }
+
+  /**
+   * assembleBuilding method: Returns the BuildingDto for a raw building, embedding its training lead and the
+   * documents of its rooms. A room that has no document of its own is built from the copy inside the building.
+   * @param building raw Building
+   * @param docs documents built so far
+   * @return a BuildingDto object
+   */
+  public BuildingDto assembleBuilding(Building building, ReadModelDocuments docs) {
+    BuildingDto dto = building.extractBuilding();
+    dto.setTrainingLead(employee(building.getTrainingLead(), docs));
+    List<RoomDto> rooms = new ArrayList<>();
+    if (building.getRooms() != null) {
+      for (Room room : building.getRooms()) {
+        RoomDto roomDto = docs.getRooms().get(room.getId());
+        rooms.add(roomDto != null ? roomDto : assembleRoom(room, docs));
+      }
+    }
+    dto.setRooms(rooms);
+    if (building.getResourceMetadata() != null) {
+      dto.setResourceMetadata(etlService.campusMetaData(building.getResourceMetadata()));
+    }
+    return dto;
+  }
+
+  /**
+   * assembleCampus method: Returns the CampusDto for a raw campus, embedding its managers, corporate employees and
+   * the documents of its buildings. A building that has no document of its own is built from the copy inside the campus.
+   * @param campus raw Campus
+   * @param docs documents built so far
+   * @return a CampusDto object
+   */
+  public CampusDto assembleCampus(Campus campus, ReadModelDocuments docs) {
+    CampusDto dto = campus.extractCampus();
+    dto.setTrainingManager(employee(campus.getTrainingManagerId(), docs));
+    dto.setStagingManager(employee(campus.getStagingManagerId(), docs));
+    dto.setHrLead(employee(campus.getHrLead(), docs));
+    if (campus.getResourceMetadata() != null) {
+      dto.setResourceMetadata(etlService.campusMetaData(campus.getResourceMetadata()));
+    }
+    List<BuildingDto> buildings = new ArrayList<>();
+    if (campus.getBuildings() != null) {
+      for (Building building : campus.getBuildings()) {
+        BuildingDto buildingDto = docs.getBuildings().get(building.getId());
+        buildings.add(buildingDto != null ? buildingDto : assembleBuilding(building, docs));
+      }
+    }
+    dto.setBuildings(buildings);
+    List<EmployeeDto> corporateEmployees = new ArrayList<>();
+    if (campus.getCorporateEmployees() != null) {
+      for (Integer id : campus.getCorporateEmployees()) {
+        EmployeeDto emp = id == null ? null : employee(id, docs);
+        if (emp != null) {
+          corporateEmployees.add(emp);
+        }
+      }
+    }
+    dto.setCorporateEmployees(corporateEmployees);
+    return dto;
+  }
+
+  /**
+   * employee method: Returns the employee document for the id, or hydrates the employee through the ETLService when
+   * the bulk listing did not include it.
+   * @param id employee id
+   * @param docs documents built so far
+   * @return the EmployeeDto, or null when the id is not set or the employee cannot be found
+   */
+  private EmployeeDto employee(int id, ReadModelDocuments docs) {
+    if (id < 1) {
+      return null;
+    }
+    EmployeeDto dto = docs.getEmployees().get(id);
+    if (dto != null) {
+      return dto;
+    }
+    try {
+      return etlService.getEmployeeById(id);
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * assembleEach method: Builds the document of every raw object, reusing the previous document of each one that
+   * is not in changed.
+   * @param raw the raw objects by id
+   * @param built where the documents are put, cleared first
+   * @param previous the previous documents, or null to build every one
+   * @param changed the ids that have to be built, or null to build every one
+   * @param assembler builds one document
+   * @return the number of objects whose document could not be built
+   */
+  private static <T, D> int assembleEach(Map<Integer, T> raw, Map<Integer, D> built, Map<Integer, D> previous,
+      Set<Integer> changed, Function<T, D> assembler) {
+    int failures = 0;
+    built.clear();
+    for (Map.Entry<Integer, T> entry : raw.entrySet()) {
+      D unchanged = previous != null && changed != null && !changed.contains(entry.getKey())
+          ? previous.get(entry.getKey()) : null;
+      if (unchanged != null) {
+        built.put(entry.getKey(), unchanged);
+        continue;
+      }
+      try {
+        D dto = assembler.apply(entry.getValue());
+        if (dto != null) {
+          built.put(entry.getKey(), dto);
+        }
+      } catch (Exception e) {
+        e.printStackTrace();
+        failures++;
+      }
+    }
+    return failures;
+  }
+}
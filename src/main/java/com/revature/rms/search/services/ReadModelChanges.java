@@ -0,0 +1,234 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.campus.RoomStatus;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * The ids of the documents an incremental sync has to rebuild, by kind of
+ * object. An object is changed when it is new, when it is gone, or when the
+ * lastModifiedDateTime in its resource metadata is after the watermark of the
+ * previous sync. Objects modified exactly at the watermark, objects without a
+ * readable date, and work orders, which have no metadata, are compared field by
+ * field with their previous copy instead, since the dates are often only
+ * precise to the day.
+ *
+ * Every document that embeds a changed one is changed as well, since it holds
+ * the old copy: an employee change reaches the batches, work orders, rooms,
+ * buildings and campuses that show that employee, a batch or work order change
+ * reaches its rooms, a room change its buildings and a building change its
+ * campuses.
+ */
+public class ReadModelChanges {
+
+  private final Set<Integer> campuses = new LinkedHashSet<>();
+  private final Set<Integer> buildings = new LinkedHashSet<>();
+  private final Set<Integer> rooms = new LinkedHashSet<>();
+  private final Set<Integer> employees = new LinkedHashSet<>();
+  private final Set<Integer> batches = new LinkedHashSet<>();
+  private final Set<Integer> workOrders = new LinkedHashSet<>();
+
+  public Set<Integer> getCampuses() {
+    return campuses;
+  }
+
+  public Set<Integer> getBuildings() {
+    return buildings;
+  }
+
+  public Set<Integer> getRooms() {
+    return rooms;
+  }
+
+  public Set<Integer> getEmployees() {
+    return employees;
+  }
+
+  public Set<Integer> getBatches() {
+    return batches;
+  }
+
+  public Set<Integer> getWorkOrders() {
+    return workOrders;
+  }
+
+  public boolean isEmpty() {
+    return campuses.isEmpty() && buildings.isEmpty() && rooms.isEmpty()
+        && employees.isEmpty() && batches.isEmpty() && workOrders.isEmpty();
+  }
+
+  /**
+   * between method: Finds everything that changed from the previous documents to the newly extracted raw objects,
+   * along with every document that embeds something that changed.
+   * @param previous the documents the read model is serving
+   * @param current the raw objects that were just extracted
+   * @return the ids of the documents to rebuild
+   */
+  public static ReadModelChanges between(ReadModelDocuments previous, ReadModelDocuments current) {
+    ReadModelChanges changes = new ReadModelChanges();
+    detect(previous.getRawEmployees(), current.getRawEmployees(), previous.getWatermark(ReadModelDocuments.EMPLOYEE),
+        emp -> employeeModified(emp.getResourceMetadata()), changes.employees);
+    detect(previous.getRawBatches(), current.getRawBatches(), previous.getWatermark(ReadModelDocuments.BATCH),
+        batch -> modified(batch.getResourceMetadata()), changes.batches);
+    detect(previous.getRawWorkOrders(), current.getRawWorkOrders(), ResourceDates.UNKNOWN,
+        workOrder -> ResourceDates.UNKNOWN, changes.workOrders);
+    detect(previous.getRawRooms(), current.getRawRooms(), previous.getWatermark(ReadModelDocuments.ROOM),
+        room -> modified(room.getResourceMetadata()), changes.rooms);
+    detect(previous.getRawBuildings(), current.getRawBuildings(), previous.getWatermark(ReadModelDocuments.BUILDING),
+        building -> modified(building.getResourceMetadata()), changes.buildings);
+    detect(previous.getRawCampuses(), current.getRawCampuses(), previous.getWatermark(ReadModelDocuments.CAMPUS),
+        campus -> modified(campus.getResourceMetadata()), changes.campuses);
+    changes.propagate(current);
+    return changes;
+  }
+
+  /**
+   * recordWatermarks method: Sets the watermarks of the new documents to the latest lastModifiedDateTime of each
+   * kind of object, never moving one back from the previous documents.
+   * @param previous the documents the read model was serving, or null for a full load
+   * @param current the documents about to be served
+   */
+  public static void recordWatermarks(ReadModelDocuments previous, ReadModelDocuments current) {
+    record(ReadModelDocuments.EMPLOYEE, current.getRawEmployees().values(), emp -> employeeModified(emp.getResourceMetadata()), previous, current);
+    record(ReadModelDocuments.BATCH, current.getRawBatches().values(), batch -> modified(batch.getResourceMetadata()), previous, current);
+    record(ReadModelDocuments.ROOM, current.getRawRooms().values(), room -> modified(room.getResourceMetadata()), previous, current);
+    record(ReadModelDocuments.BUILDING, current.getRawBuildings().values(), building -> modified(building.getResourceMetadata()), previous, current);
+    record(ReadModelDocuments.CAMPUS, current.getRawCampuses().values(), campus -> modified(campus.getResourceMetadata()), previous, current);
+  }
+
+  private void propagate(ReadModelDocuments current) {
+    if (!employees.isEmpty()) {
+      for (Batch batch : current.getRawBatches().values()) {
+        if (employees.contains(batch.getTrainerId()) || employees.contains(batch.getCoTrainerId())
+            || containsAny(employees, batch.getAssociates())) {
+          batches.add(batch.getId());
+        }
+      }
+      for (WorkOrder workOrder : current.getRawWorkOrders().values()) {
+        if (employees.contains(workOrder.getCreatorId()) || employees.contains(workOrder.getResolverId())) {
+          workOrders.add(workOrder.getId());
+        }
+      }
+    }
+    for (Room room : current.getRawRooms().values()) {
+      if (batches.contains(room.getBatchId()) || containsAny(workOrders, room.getWorkOrders())
+          || submittedByAny(employees, room.getCurrentStatus())) {
+        rooms.add(room.getId());
+      }
+    }
+    for (Building building : current.getRawBuildings().values()) {
+      if (employees.contains(building.getTrainingLead()) || containsAnyRoom(rooms, building.getRooms())) {
+        buildings.add(building.getId());
+      }
+    }
+    for (Campus campus : current.getRawCampuses().values()) {
+      if (employees.contains(campus.getTrainingManagerId()) || employees.contains(campus.getStagingManagerId())
+          || employees.contains(campus.getHrLead()) || containsAny(employees, campus.getCorporateEmployees())
+          || containsAnyBuilding(buildings, campus.getBuildings())) {
+        campuses.add(campus.getId());
+      }
+    }
+  }
+
+  private static <T> void detect(Map<Integer, T> before, Map<Integer, T> after, long watermark,
+      ToLongFunction<T> modified, Set<Integer> changed) {
+    for (Map.Entry<Integer, T> entry : after.entrySet()) {
+      T old = before.get(entry.getKey());
+      if (old == null) {
+        changed.add(entry.getKey());
+        continue;
+      }
+      long modifiedAt = modified.applyAsLong(entry.getValue());
+      if (modifiedAt != ResourceDates.UNKNOWN && watermark != ResourceDates.UNKNOWN && modifiedAt != watermark) {
+        if (modifiedAt > watermark) {
+          changed.add(entry.getKey());
+        }
+      } else if (!old.equals(entry.getValue())) {
+        changed.add(entry.getKey());
+      }
+    }
+    for (Integer id : before.keySet()) {
+      if (!after.containsKey(id)) {
+        changed.add(id);
+      }
+    }
+  }
+
+  private static <T> void record(String type, Collection<T> objects, ToLongFunction<T> modified,
+      ReadModelDocuments previous, ReadModelDocuments current) {
+    long latest = previous != null ? previous.getWatermark(type) : ResourceDates.UNKNOWN;
+    for (T object : objects) {
+      latest = Math.max(latest, modified.applyAsLong(object));
+    }
+    if (latest != ResourceDates.UNKNOWN) {
+      current.getWatermarks().put(type, latest);
+    }
+  }
+
+  private static long modified(ResourceMetadata metadata) {
+    return metadata == null ? ResourceDates.UNKNOWN : ResourceDates.toEpochMillis(metadata.getLastModifiedDateTime());
+  }
+
+  private static long employeeModified(com.revature.rms.search.entites.employee.ResourceMetadata metadata) {
+    return metadata == null ? ResourceDates.UNKNOWN : ResourceDates.toEpochMillis(metadata.getLastModifiedDateTime());
+  }
+
+  private static boolean containsAny(Set<Integer> ids, Collection<Integer> candidates) {
+    if (ids.isEmpty() || candidates == null) {
+      return false;
+    }
+    for (Integer id : candidates) {
+      if (id != null && ids.contains(id)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean submittedByAny(Set<Integer> ids, Collection<RoomStatus> statuses) {
+    if (ids.isEmpty() || statuses == null) {
+      return false;
+    }
+    for (RoomStatus status : statuses) {
+      if (ids.contains(status.getSubmitterId())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean containsAnyRoom(Set<Integer> ids, Collection<Room> candidates) {
+    if (ids.isEmpty() || candidates == null) {
+      return false;
+    }
+    for (Room room : candidates) {
+      if (ids.contains(room.getId())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean containsAnyBuilding(Set<Integer> ids, Collection<Building> candidates) {
+    if (ids.isEmpty() || candidates == null) {
+      return false;
+    }
+    for (Building building : candidates) {
+      if (ids.contains(building.getId())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,116 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.dtos.BatchDto;
+import com.revature.rms.search.dtos.BuildingDto;
+import com.revature.rms.search.dtos.CampusDto;
+import com.revature.rms.search.dtos.EmployeeDto;
+import com.revature.rms.search.dtos.RoomDto;
+import com.revature.rms.search.dtos.WorkOrderDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Everything the search read model holds: the raw objects pulled from the other
+ * services and the Mongo repositories, and the fully hydrated documents built
+ * from them, each kept by id in the order they were extracted. The maps are
+ * IntObjectMaps so the ids are not boxed. The raw objects are kept so that a
+ * document can be rebuilt when something it embeds changes without going back
+ * to the service it came from.
+ *
+ * Each kind of object also has a watermark: the latest lastModifiedDateTime seen
+ * in its resource metadata, which an incremental sync compares against to find
+ * what has changed since. Once a ReadModelDocuments has been handed to the
+ * SearchReadModel it is never changed again; a sync builds a new one.
+ */
+public class ReadModelDocuments {
+
+  public static final String CAMPUS = "campus";
+  public static final String BUILDING = "building";
+  public static final String ROOM = "room";
+  public static final String EMPLOYEE = "employee";
+  public static final String BATCH = "batch";
+
+  private final IntObjectMap<Campus> rawCampuses = new IntObjectMap<>();
+  private final IntObjectMap<Building> rawBuildings = new IntObjectMap<>();
+  private final IntObjectMap<Room> rawRooms = new IntObjectMap<>();
+  private final IntObjectMap<Employee> rawEmployees = new IntObjectMap<>();
+  private final IntObjectMap<Batch> rawBatches = new IntObjectMap<>();
+  private final IntObjectMap<WorkOrder> rawWorkOrders = new IntObjectMap<>();
+
+  private final IntObjectMap<CampusDto> campuses = new IntObjectMap<>();
+  private final IntObjectMap<BuildingDto> buildings = new IntObjectMap<>();
+  private final IntObjectMap<RoomDto> rooms = new IntObjectMap<>();
+  private final IntObjectMap<EmployeeDto> employees = new IntObjectMap<>();
+  private final IntObjectMap<BatchDto> batches = new IntObjectMap<>();
+  private final IntObjectMap<WorkOrderDto> workOrders = new IntObjectMap<>();
+
+  private final Map<String, Long> watermarks = new HashMap<>();
+
+  public IntObjectMap<Campus> getRawCampuses() {
+    return rawCampuses;
+  }
+
+  public IntObjectMap<Building> getRawBuildings() {
+    return rawBuildings;
+  }
+
+  public IntObjectMap<Room> getRawRooms() {
+    return rawRooms;
+  }
+
+  public IntObjectMap<Employee> getRawEmployees() {
+    return rawEmployees;
+  }
+
+  public IntObjectMap<Batch> getRawBatches() {
+    return rawBatches;
+  }
+
+  public IntObjectMap<WorkOrder> getRawWorkOrders() {
+    return rawWorkOrders;
+  }
+
+  public IntObjectMap<CampusDto> getCampuses() {
+    return campuses;
+  }
+
+  public IntObjectMap<BuildingDto> getBuildings() {
+    return buildings;
+  }
+
+  public IntObjectMap<RoomDto> getRooms() {
+    return rooms;
+  }
+
+  public IntObjectMap<EmployeeDto> getEmployees() {
+    return employees;
+  }
+
+  public IntObjectMap<BatchDto> getBatches() {
+    return batches;
+  }
+
+  public IntObjectMap<WorkOrderDto> getWorkOrders() {
+    return workOrders;
+  }
+
+  public Map<String, Long> getWatermarks() {
+    return watermarks;
+  }
+
+  /**
+   * getWatermark method: Returns the latest lastModifiedDateTime seen for one kind of object.
+   * @param type one of CAMPUS, BUILDING, ROOM, EMPLOYEE or BATCH
+   * @return milliseconds since the epoch, or ResourceDates.UNKNOWN when none of them had a date that could be read
+   */
+  public long getWatermark(String type) {
+    return watermarks.getOrDefault(type, ResourceDates.UNKNOWN);
+  }
+}
@@ -0,0 +1,209 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.config.ReadModelProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Fills the SearchReadModel. On a fixed delay it extracts every campus,
+ * building, room and employee from the other services and every batch and work
+ * order from Mongo, fetches everything they point at in bulk, builds the
+ * hydrated documents with the ReadModelAssembler and swaps them into the read
+ * model in one step, then publishes a ReadModelUpdatedEvent for the search
+ * indexes. Requests never wait on a load: they keep being answered
+ * from the previous documents, or by the ETLService before the first load.
+ *
+ * Between full loads an incremental sync runs much more often. It extracts the
+ * raw objects the same way, but only rebuilds the documents whose
+ * lastModifiedDateTime is past the watermark of the previous sync, and the
+ * documents that embed them; everything else is carried over as it is. Full
+ * loads still run now and then to catch anything a sync cannot see, such as
+ * an AppUser that was renamed.
+ *
+ * When search.read-model.snapshot-path is set, every few minutes the
+ * documents are written to a snapshot file there by the ReadModelSnapshot. On
+ * startup the job restores the read model from that file instead of running a
+ * full load, and lets the search indexes rebuild from the restored documents,
+ * then runs a sync to catch up on whatever changed since the snapshot was
+ * taken. A snapshot that is missing or can not be read just means a full load
+ * as before.
+ *
+ * The raw objects are pulled by the ReadModelExtractor. The job is switched off
+ * with search.read-model.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(prefix = "search.read-model", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReadModelEtlJob {
+
+  private ReadModelExtractor extractor;
+  private ReadModelAssembler assembler;
+  private SearchReadModel readModel;
+  private ApplicationEventPublisher events;
+  private ReadModelSnapshot snapshot;
+  private ReadModelProperties properties;
+  private final Object snapshotLock = new Object();
+  private long snapshotOf;
+
+  @Autowired
+  public ReadModelEtlJob(ReadModelExtractor readModelExtractor, ReadModelAssembler readModelAssembler,
+      SearchReadModel searchReadModel, ApplicationEventPublisher eventPublisher, ReadModelSnapshot readModelSnapshot,
+      ReadModelProperties readModelProperties) {
+    this.extractor = readModelExtractor;
+    this.assembler = readModelAssembler;
+    this.readModel = searchReadModel;
+    this.events = eventPublisher;
+    this.snapshot = readModelSnapshot;
+    this.properties = readModelProperties;
+  }
+
+  /**
+   * refresh method: Runs a full load on a fixed delay. The first run restores the read model from the snapshot and
+   * syncs instead when there is one. A load that fails leaves the previous documents in place.
+   */
+  @Scheduled(fixedDelayString = "${search.read-model.refresh-ms:3600000}",
+      initialDelayString = "${search.read-model.initial-delay-ms:0}")
+  public void refresh() {
+    try {
+      if (!readModel.isReady() && restore()) {
+        sync();
+      } else {
+        load();
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * writeSnapshot method: Writes the read model to the snapshot file on a fixed delay. A snapshot that fails to be
+   * written leaves the previous one in place.
+   */
+  @Scheduled(fixedDelayString = "${search.read-model.snapshot-ms:300000}",
+      initialDelayString = "${search.read-model.snapshot-ms:300000}")
+  public void writeSnapshot() {
+    try {
+      snapshot();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * restore method: Replaces the read model with the documents in the snapshot file, watermarks included, so the
+   * next sync only picks up what changed after the snapshot was taken.
+   * @return true if the read model was restored, false if there is no snapshot or it could not be read
+   */
+  public synchronized boolean restore() {
+    Path path = snapshotPath();
+    if (path == null) {
+      return false;
+    }
+    try {
+      ReadModelDocuments docs = snapshot.read(path);
+      if (docs == null) {
+        return false;
+      }
+      readModel.replace(docs);
+      events.publishEvent(new ReadModelUpdatedEvent(docs, null));
+      return true;
+    } catch (Exception e) {
+      e.printStackTrace();
+      return false;
+    }
+  }
+
+  /**
+   * snapshot method: Writes the current documents to the snapshot file, unless nothing has been loaded yet or
+   * nothing was loaded since the last snapshot.
+   * @return true if a snapshot was written
+   * @throws IOException when the snapshot file can not be written
+   */
+  public boolean snapshot() throws IOException {
+    Path path = snapshotPath();
+    if (path == null) {
+      return false;
+    }
+    synchronized (snapshotLock) {
+      long loadedAt = readModel.getLoadedAt();
+      ReadModelDocuments docs = readModel.read(current -> current);
+      if (docs == null || loadedAt == snapshotOf) {
+        return false;
+      }
+      snapshot.write(docs, path);
+      snapshotOf = loadedAt;
+      return true;
+    }
+  }
+
+  private Path snapshotPath() {
+    String path = properties.getSnapshotPath();
+    return path == null || path.trim().isEmpty() ? null : Paths.get(path.trim());
+  }
+
+  /**
+   * syncChanges method: Runs an incremental sync on a fixed delay. A sync that fails leaves the previous documents
+   * in place, and the next one picks its changes up again since the watermarks were not moved.
+   */
+  @Scheduled(fixedDelayString = "${search.read-model.sync-ms:30000}",
+      initialDelayString = "${search.read-model.sync-ms:30000}")
+  public void syncChanges() {
+    try {
+      sync();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * load method: Extracts everything, builds the documents and replaces the read model with them.
+   * @return the documents that were loaded
+   */
+  public synchronized ReadModelDocuments load() {
+    ReadModelDocuments docs = extractor.extract();
+    HydrationContext.open();
+    try {
+      assembler.assembleAll(docs);
+    } finally {
+      HydrationContext.close();
+    }
+    ReadModelChanges.recordWatermarks(null, docs);
+    readModel.replace(docs);
+    events.publishEvent(new ReadModelUpdatedEvent(docs, null));
+    return docs;
+  }
+
+  /**
+   * sync method: Extracts everything and rebuilds only the documents that changed since the last load or sync,
+   * or runs a full load when nothing has been loaded yet.
+   * @return the changes that were applied
+   */
+  public synchronized ReadModelChanges sync() {
+    ReadModelDocuments previous = readModel.read(docs -> docs);
+    if (previous == null) {
+      ReadModelDocuments docs = load();
+      return ReadModelChanges.between(new ReadModelDocuments(), docs);
+    }
+    ReadModelDocuments docs = extractor.extract();
+    ReadModelChanges changes = ReadModelChanges.between(previous, docs);
+    if (changes.isEmpty()) {
+      return changes;
+    }
+    HydrationContext.open();
+    try {
+      assembler.assembleChanged(docs, previous, changes);
+    } finally {
+      HydrationContext.close();
+    }
+    ReadModelChanges.recordWatermarks(previous, docs);
+    readModel.replace(docs);
+    events.publishEvent(new ReadModelUpdatedEvent(docs, changes));
+    return changes;
+  }
+}
@@ -0,0 +1,145 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.clients.CampusClient;
+import com.revature.rms.search.clients.EmployeeClient;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import com.revature.rms.search.repositories.BatchRepository;
+import com.revature.rms.search.repositories.WorkOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Pulls every campus, building, room and employee from the other services and
+ * every batch and work order from Mongo into a new ReadModelDocuments, without
+ * building any documents. The ReadModelEtlJob loads the read model from it, and
+ * the indexes that must also work with the read model switched off use it to
+ * build themselves.
+ *
+ * Rooms and buildings that only show up nested inside a building or campus are
+ * picked up from there, so every room a building embeds is extracted.
+ *
+ * Until the read model has loaded, the indexes and the QueryService all work
+ * from one shared extraction, so the other services are only called once for
+ * all of them and every index answers for the same objects the queries check
+ * it against. The shared extraction is taken again on
+ * search.index.refresh-ms, and dropped once the read model has loaded.
+ */
+@Component
+public class ReadModelExtractor {
+
+  private CampusClient campClient;
+  private EmployeeClient empClient;
+  private BatchRepository batchRepo;
+  private WorkOrderRepository workRepo;
+  private DownstreamLimits limits;
+  private volatile ReadModelDocuments latest;
+
+  @Autowired
+  public ReadModelExtractor(CampusClient campusClient, EmployeeClient employeeClient, BatchRepository batchRepository,
+      WorkOrderRepository workOrderRepository, DownstreamLimits downstreamLimits) {
+    this.campClient = campusClient;
+    this.empClient = employeeClient;
+    this.batchRepo = batchRepository;
+    this.workRepo = workOrderRepository;
+    this.limits = downstreamLimits;
+  }
+
+  /**
+   * extract method: Pulls the raw objects from every source into a new ReadModelDocuments.
+   * @return the raw objects, without any documents yet
+   */
+  public ReadModelDocuments extract() {
+    ReadModelDocuments docs = new ReadModelDocuments();
+    List<Campus> campuses = campClient.getAllCampus();
+    List<Building> buildings = campClient.getAllBuildings();
+    List<Room> rooms = campClient.getAllRooms();
+    List<Employee> employees = limits.callEmployeeService(empClient::getAllEmployee);
+    if (employees != null) {
+      employees.forEach(emp -> docs.getRawEmployees().put(emp.getId(), emp));
+    }
+    for (Batch batch : batchRepo.findAll()) {
+      docs.getRawBatches().put(batch.getId(), batch);
+    }
+    for (WorkOrder workOrder : workRepo.findAll()) {
+      docs.getRawWorkOrders().put(workOrder.getId(), workOrder);
+    }
+    if (rooms != null) {
+      rooms.forEach(room -> docs.getRawRooms().put(room.getId(), room));
+    }
+    if (buildings != null) {
+      buildings.forEach(building -> addBuilding(building, docs));
+    }
+    if (campuses != null) {
+      for (Campus campus : campuses) {
+        docs.getRawCampuses().put(campus.getId(), campus);
+        if (campus.getBuildings() != null) {
+          campus.getBuildings().forEach(building -> addBuilding(building, docs));
+        }
+      }
+    }
+    return docs;
+  }
+
+  /**
+   * latest method: Returns the extraction shared while the read model is not ready, extracting it first if nothing
+   * has yet.
+   * @return the raw objects of the shared extraction
+   */
+  public ReadModelDocuments latest() {
+    ReadModelDocuments current = latest;
+    return current != null ? current : extractIfEmpty();
+  }
+
+  /**
+   * refresh method: Takes the shared extraction again on a fixed delay, while there is one.
+   */
+  @Scheduled(fixedDelayString = "${search.index.refresh-ms:3600000}",
+      initialDelayString = "${search.index.refresh-ms:3600000}")
+  public void refresh() {
+    try {
+      if (latest != null) {
+        replaceLatest(extract());
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * onReadModelUpdated method: Drops the shared extraction once the read model can answer for itself.
+   * @param event the load or sync that just finished
+   */
+  @EventListener
+  public synchronized void onReadModelUpdated(ReadModelUpdatedEvent event) {
+    latest = null;
+  }
+
+  private synchronized void replaceLatest(ReadModelDocuments docs) {
+    if (latest != null) {
+      latest = docs;
+    }
+  }
+
+  private synchronized ReadModelDocuments extractIfEmpty() {
+    if (latest == null) {
+      latest = extract();
+    }
+    return latest;
+  }
+
+  private static void addBuilding(Building building, ReadModelDocuments docs) {
+    docs.getRawBuildings().putIfAbsent(building.getId(), building);
+    if (building.getRooms() != null) {
+      building.getRooms().forEach(room -> docs.getRawRooms().putIfAbsent(room.getId(), room));
+    }
+  }
+}
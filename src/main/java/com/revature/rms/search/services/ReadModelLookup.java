@@ -0,0 +1,58 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.ResourceNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Turns the ids an index matched into the objects to return. They are looked
+ * up in the read model under one read lock, or one at a time through the
+ * ETLService when the read model is not ready. Ids that have nothing to return
+ * are left out, since an index can run slightly ahead of or behind the objects.
+ */
+public final class ReadModelLookup {
+
+  private ReadModelLookup() {
+  }
+
+  /**
+   * documents method: Looks the ids up in the read model, or through the ETLService when it is not ready.
+   * @param readModel the read model
+   * @param ids the ids to look up, in the order to return them
+   * @param fromReadModel picks the objects of one type out of the read model
+   * @param fromEtl looks one id up through the ETLService
+   * @return the objects found, in the order of the ids
+   */
+  public static <T> List<T> documents(SearchReadModel readModel, int[] ids,
+      Function<ReadModelDocuments, IntObjectMap<T>> fromReadModel, IntFunction<T> fromEtl) {
+    List<T> found = readModel.read(docs -> {
+      if (docs == null) {
+        return null;
+      }
+      List<T> documents = new ArrayList<>(ids.length);
+      IntObjectMap<T> byId = fromReadModel.apply(docs);
+      for (int id : ids) {
+        T document = byId.get(id);
+        if (document != null) {
+          documents.add(document);
+        }
+      }
+      return documents;
+    });
+    if (found != null) {
+      return found;
+    }
+    found = new ArrayList<>(ids.length);
+    for (int id : ids) {
+      try {
+        found.add(fromEtl.apply(id));
+      } catch (ResourceNotFoundException rnfe) {
+        // removed since the index was built, so it is left out
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,509 @@
+package com.revature.rms.search.services;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.rms.search.dtos.BatchDto;
+import com.revature.rms.search.dtos.BuildingDto;
+import com.revature.rms.search.dtos.CampusDto;
+import com.revature.rms.search.dtos.EmployeeDto;
+import com.revature.rms.search.dtos.RoomDto;
+import com.revature.rms.search.dtos.RoomStatusDto;
+import com.revature.rms.search.dtos.WorkOrderDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Writes a ReadModelDocuments to a binary snapshot file and reads it back, so
+ * a restarted service can answer from the read model straight away and only
+ * has to catch up on what changed while it was down.
+ *
+ * The file starts with a fixed header: the magic number, the format version,
+ * the length of the payload and a CRC32 of it. The payload holds the
+ * watermarks, then one pool per kind of object and then the maps. A pool holds
+ * every distinct object of its kind once, whether a map or a parent holds it,
+ * as its JSON without the objects it embeds, followed by the places of those
+ * objects in their own pools. The pools are written children first, so on read
+ * each parent is linked back to the very objects its children were read into,
+ * and a batch embedded in a room is the same BatchDto the batch map holds, just
+ * as after a full load. The maps are written as ids and places in the pools.
+ *
+ * A file is written next to the target and moved over it when complete, so a
+ * crash mid-write never leaves a half-written snapshot behind. A file with the
+ * wrong magic number or version, a short payload or a checksum that does not
+ * match is refused with an IOException before any of it is parsed, and a
+ * missing file reads as null.
+ */
+@Component
+public class ReadModelSnapshot {
+
+  static final int MAGIC = 0x524D5353;
+  static final int FORMAT_VERSION = 2;
+  static final int HEADER_BYTES = 24;
+
+  private ObjectMapper mapper;
+
+  @Autowired
+  public ReadModelSnapshot(ObjectMapper objectMapper) {
+    this.mapper = objectMapper.copy()
+        .addMixIn(Building.class, BuildingLinks.class)
+        .addMixIn(Campus.class, CampusLinks.class)
+        .addMixIn(BatchDto.class, BatchDtoLinks.class)
+        .addMixIn(WorkOrderDto.class, WorkOrderDtoLinks.class)
+        .addMixIn(RoomStatusDto.class, RoomStatusDtoLinks.class)
+        .addMixIn(RoomDto.class, RoomDtoLinks.class)
+        .addMixIn(BuildingDto.class, BuildingDtoLinks.class)
+        .addMixIn(CampusDto.class, CampusDtoLinks.class);
+  }
+
+  /**
+   * write method: Writes the documents to a snapshot file, replacing any snapshot already there.
+   * @param docs the documents, which must not change while they are written
+   * @param path the snapshot file
+   * @throws IOException when the file can not be written
+   */
+  public void write(ReadModelDocuments docs, Path path) throws IOException {
+    Path absolute = path.toAbsolutePath();
+    if (absolute.getParent() != null) {
+      Files.createDirectories(absolute.getParent());
+    }
+    Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      channel.position(HEADER_BYTES);
+      CRC32 crc = new CRC32();
+      DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+          new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+      writePayload(docs, new Pools(docs), out);
+      out.flush();
+      long length = channel.position() - HEADER_BYTES;
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(length).putLong(crc.getValue());
+      header.flip();
+      channel.position(0);
+      while (header.hasRemaining()) {
+        channel.write(header);
+      }
+      channel.force(true);
+    }
+    Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * read method: Checks a snapshot file against its header, then reads the documents back out of it.
+   * @param path the snapshot file
+   * @return the documents with their watermarks, or null when there is no snapshot
+   * @throws IOException when the file can not be read, or is not a complete snapshot of this format version
+   */
+  public ReadModelDocuments read(Path path) throws IOException {
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+    if (Files.size(path) < HEADER_BYTES) {
+      throw new IOException("Snapshot is truncated: " + path);
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a read model snapshot: " + path);
+      }
+      int version = in.readInt();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Snapshot format version " + version + " is not supported: " + path);
+      }
+      long length = in.readLong();
+      long checksum = in.readLong();
+      if (length != Files.size(path) - HEADER_BYTES) {
+        throw new IOException("Snapshot is truncated: " + path);
+      }
+      if (checksum(path) != checksum) {
+        throw new IOException("Snapshot checksum does not match: " + path);
+      }
+      ReadModelDocuments docs = readPayload(in);
+      if (in.read() != -1) {
+        throw new IOException("Snapshot has unread bytes: " + path);
+      }
+      return docs;
+    }
+  }
+
+  private void writePayload(ReadModelDocuments docs, Pools pools, DataOutputStream out) throws IOException {
+    out.writeInt(docs.getWatermarks().size());
+    for (Map.Entry<String, Long> watermark : docs.getWatermarks().entrySet()) {
+      byte[] type = watermark.getKey().getBytes(StandardCharsets.UTF_8);
+      out.writeInt(type.length);
+      out.write(type);
+      out.writeLong(watermark.getValue());
+    }
+    writePool(pools.rawEmployees, out, null);
+    writePool(pools.rawBatches, out, null);
+    writePool(pools.rawWorkOrders, out, null);
+    writePool(pools.rawRooms, out, null);
+    writePool(pools.rawBuildings, out, building -> writeRefs(building.getRooms(), pools.rawRooms, out));
+    writePool(pools.rawCampuses, out, campus -> writeRefs(campus.getBuildings(), pools.rawBuildings, out));
+    writePool(pools.employees, out, null);
+    writePool(pools.batches, out, batch -> {
+      out.writeInt(pools.employees.ref(batch.getTrainer()));
+      out.writeInt(pools.employees.ref(batch.getCoTrainer()));
+      writeRefs(batch.getAssociates(), pools.employees, out);
+    });
+    writePool(pools.workOrders, out, workOrder -> {
+      out.writeInt(pools.employees.ref(workOrder.getCreator()));
+      out.writeInt(pools.employees.ref(workOrder.getResolver()));
+    });
+    writePool(pools.rooms, out, room -> {
+      out.writeInt(pools.batches.ref(room.getBatch()));
+      writeRefs(room.getWorkOrders(), pools.workOrders, out);
+      List<EmployeeDto> submitters = null;
+      if (room.getCurrentStatus() != null) {
+        submitters = new ArrayList<>();
+        for (RoomStatusDto status : room.getCurrentStatus()) {
+          submitters.add(status == null ? null : status.getSubmitter());
+        }
+      }
+      writeRefs(submitters, pools.employees, out);
+    });
+    writePool(pools.buildings, out, building -> {
+      out.writeInt(pools.employees.ref(building.getTrainingLead()));
+      writeRefs(building.getRooms(), pools.rooms, out);
+    });
+    writePool(pools.campuses, out, campus -> {
+      out.writeInt(pools.employees.ref(campus.getTrainingManager()));
+      out.writeInt(pools.employees.ref(campus.getStagingManager()));
+      out.writeInt(pools.employees.ref(campus.getHrLead()));
+      writeRefs(campus.getBuildings(), pools.buildings, out);
+      writeRefs(campus.getCorporateEmployees(), pools.employees, out);
+    });
+    writeMap(docs.getRawCampuses(), pools.rawCampuses, out);
+    writeMap(docs.getRawBuildings(), pools.rawBuildings, out);
+    writeMap(docs.getRawRooms(), pools.rawRooms, out);
+    writeMap(docs.getRawEmployees(), pools.rawEmployees, out);
+    writeMap(docs.getRawBatches(), pools.rawBatches, out);
+    writeMap(docs.getRawWorkOrders(), pools.rawWorkOrders, out);
+    writeMap(docs.getCampuses(), pools.campuses, out);
+    writeMap(docs.getBuildings(), pools.buildings, out);
+    writeMap(docs.getRooms(), pools.rooms, out);
+    writeMap(docs.getEmployees(), pools.employees, out);
+    writeMap(docs.getBatches(), pools.batches, out);
+    writeMap(docs.getWorkOrders(), pools.workOrders, out);
+  }
+
+  private ReadModelDocuments readPayload(DataInputStream in) throws IOException {
+    ReadModelDocuments docs = new ReadModelDocuments();
+    int watermarks = in.readInt();
+    for (int i = 0; i < watermarks; i++) {
+      byte[] type = new byte[in.readInt()];
+      in.readFully(type);
+      docs.getWatermarks().put(new String(type, StandardCharsets.UTF_8), in.readLong());
+    }
+    List<Employee> rawEmployees = readPool(in, Employee.class, null);
+    List<Batch> rawBatches = readPool(in, Batch.class, null);
+    List<WorkOrder> rawWorkOrders = readPool(in, WorkOrder.class, null);
+    List<Room> rawRooms = readPool(in, Room.class, null);
+    List<Building> rawBuildings = readPool(in, Building.class,
+        building -> building.setRooms(readRefs(in, rawRooms)));
+    List<Campus> rawCampuses = readPool(in, Campus.class,
+        campus -> campus.setBuildings(readRefs(in, rawBuildings)));
+    List<EmployeeDto> employees = readPool(in, EmployeeDto.class, null);
+    List<BatchDto> batches = readPool(in, BatchDto.class, batch -> {
+      batch.setTrainer(readRef(in, employees));
+      batch.setCoTrainer(readRef(in, employees));
+      batch.setAssociates(readRefs(in, employees));
+    });
+    List<WorkOrderDto> workOrders = readPool(in, WorkOrderDto.class, workOrder -> {
+      workOrder.setCreator(readRef(in, employees));
+      workOrder.setResolver(readRef(in, employees));
+    });
+    List<RoomDto> rooms = readPool(in, RoomDto.class, room -> {
+      room.setBatch(readRef(in, batches));
+      room.setWorkOrders(readRefs(in, workOrders));
+      List<EmployeeDto> submitters = readRefs(in, employees);
+      int statuses = room.getCurrentStatus() == null ? -1 : room.getCurrentStatus().size();
+      if ((submitters == null ? -1 : submitters.size()) != statuses) {
+        throw new IOException("Snapshot room " + room.getId() + " does not match its submitters");
+      }
+      for (int i = 0; i < statuses; i++) {
+        RoomStatusDto status = room.getCurrentStatus().get(i);
+        if (status != null) {
+          status.setSubmitter(submitters.get(i));
+        }
+      }
+    });
+    List<BuildingDto> buildings = readPool(in, BuildingDto.class, building -> {
+      building.setTrainingLead(readRef(in, employees));
+      building.setRooms(readRefs(in, rooms));
+    });
+    List<CampusDto> campuses = readPool(in, CampusDto.class, campus -> {
+      campus.setTrainingManager(readRef(in, employees));
+      campus.setStagingManager(readRef(in, employees));
+      campus.setHrLead(readRef(in, employees));
+      campus.setBuildings(readRefs(in, buildings));
+      campus.setCorporateEmployees(readRefs(in, employees));
+    });
+    readMap(in, docs.getRawCampuses(), rawCampuses);
+    readMap(in, docs.getRawBuildings(), rawBuildings);
+    readMap(in, docs.getRawRooms(), rawRooms);
+    readMap(in, docs.getRawEmployees(), rawEmployees);
+    readMap(in, docs.getRawBatches(), rawBatches);
+    readMap(in, docs.getRawWorkOrders(), rawWorkOrders);
+    readMap(in, docs.getCampuses(), campuses);
+    readMap(in, docs.getBuildings(), buildings);
+    readMap(in, docs.getRooms(), rooms);
+    readMap(in, docs.getEmployees(), employees);
+    readMap(in, docs.getBatches(), batches);
+    readMap(in, docs.getWorkOrders(), workOrders);
+    return docs;
+  }
+
+  private <T> void writePool(Pool<T> pool, DataOutputStream out, Links<T> links) throws IOException {
+    out.writeInt(pool.items.size());
+    for (T item : pool.items) {
+      byte[] json = mapper.writeValueAsBytes(item);
+      out.writeInt(json.length);
+      out.write(json);
+      if (links != null) {
+        links.apply(item);
+      }
+    }
+  }
+
+  private <T> List<T> readPool(DataInputStream in, Class<T> type, Links<T> links) throws IOException {
+    int count = in.readInt();
+    List<T> items = new ArrayList<>(Math.max(count, 0));
+    for (int i = 0; i < count; i++) {
+      byte[] json = new byte[in.readInt()];
+      in.readFully(json);
+      T item = mapper.readValue(json, type);
+      if (links != null) {
+        links.apply(item);
+      }
+      items.add(item);
+    }
+    return items;
+  }
+
+  private static <T> void writeRefs(List<T> children, Pool<T> pool, DataOutputStream out) throws IOException {
+    if (children == null) {
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(children.size());
+    for (T child : children) {
+      out.writeInt(pool.ref(child));
+    }
+  }
+
+  private static <T> List<T> readRefs(DataInputStream in, List<T> pool) throws IOException {
+    int count = in.readInt();
+    if (count < 0) {
+      return null;
+    }
+    List<T> children = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      children.add(readRef(in, pool));
+    }
+    return children;
+  }
+
+  private static <T> T readRef(DataInputStream in, List<T> pool) throws IOException {
+    int ref = in.readInt();
+    if (ref < -1 || ref >= pool.size()) {
+      throw new IOException("Snapshot refers to object " + ref + " of " + pool.size());
+    }
+    return ref == -1 ? null : pool.get(ref);
+  }
+
+  private static <T> void writeMap(IntObjectMap<T> map, Pool<T> pool, DataOutputStream out) throws IOException {
+    out.writeInt(map.size());
+    for (int id : map.keys()) {
+      out.writeInt(id);
+      out.writeInt(pool.ref(map.get(id)));
+    }
+  }
+
+  private static <T> void readMap(DataInputStream in, IntObjectMap<T> map, List<T> pool) throws IOException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      int id = in.readInt();
+      map.put(id, readRef(in, pool));
+    }
+  }
+
+  private static long checksum(Path path) throws IOException {
+    CRC32 crc = new CRC32();
+    byte[] buffer = new byte[1 << 16];
+    try (InputStream in = Files.newInputStream(path)) {
+      long skipped = 0;
+      while (skipped < HEADER_BYTES) {
+        skipped += in.skip(HEADER_BYTES - skipped);
+      }
+      for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+        crc.update(buffer, 0, read);
+      }
+    }
+    return crc.getValue();
+  }
+
+  /**
+   * Writes or reads the places of the objects one pooled object embeds.
+   */
+  private interface Links<T> {
+    void apply(T item) throws IOException;
+  }
+
+  /**
+   * Every distinct object of one kind, each at the place it was first found. Objects are told apart by identity, so
+   * an object shared by a map and its parents is pooled once, and two copies of the same id are pooled as two.
+   */
+  private static class Pool<T> {
+
+    private final Map<T, Integer> places = new IdentityHashMap<>();
+    private final List<T> items = new ArrayList<>();
+
+    private void add(T item) {
+      if (item != null && !places.containsKey(item)) {
+        places.put(item, items.size());
+        items.add(item);
+      }
+    }
+
+    private void addAll(Iterable<? extends T> items) {
+      if (items != null) {
+        items.forEach(this::add);
+      }
+    }
+
+    private int ref(T item) {
+      Integer place = item == null ? null : places.get(item);
+      if (item != null && place == null) {
+        throw new IllegalStateException("Object was not pooled: " + item);
+      }
+      return place == null ? -1 : place;
+    }
+  }
+
+  /**
+   * The pools of one ReadModelDocuments, filled parents first so that every object a parent embeds is pooled even
+   * when no map holds it.
+   */
+  private static class Pools {
+
+    private final Pool<Campus> rawCampuses = new Pool<>();
+    private final Pool<Building> rawBuildings = new Pool<>();
+    private final Pool<Room> rawRooms = new Pool<>();
+    private final Pool<Employee> rawEmployees = new Pool<>();
+    private final Pool<Batch> rawBatches = new Pool<>();
+    private final Pool<WorkOrder> rawWorkOrders = new Pool<>();
+    private final Pool<CampusDto> campuses = new Pool<>();
+    private final Pool<BuildingDto> buildings = new Pool<>();
+    private final Pool<RoomDto> rooms = new Pool<>();
+    private final Pool<EmployeeDto> employees = new Pool<>();
+    private final Pool<BatchDto> batches = new Pool<>();
+    private final Pool<WorkOrderDto> workOrders = new Pool<>();
+
+    private Pools(ReadModelDocuments docs) {
+      rawCampuses.addAll(docs.getRawCampuses().values());
+      rawBuildings.addAll(docs.getRawBuildings().values());
+      rawCampuses.items.forEach(campus -> rawBuildings.addAll(campus.getBuildings()));
+      rawRooms.addAll(docs.getRawRooms().values());
+      rawBuildings.items.forEach(building -> rawRooms.addAll(building.getRooms()));
+      rawEmployees.addAll(docs.getRawEmployees().values());
+      rawBatches.addAll(docs.getRawBatches().values());
+      rawWorkOrders.addAll(docs.getRawWorkOrders().values());
+
+      campuses.addAll(docs.getCampuses().values());
+      buildings.addAll(docs.getBuildings().values());
+      campuses.items.forEach(campus -> buildings.addAll(campus.getBuildings()));
+      rooms.addAll(docs.getRooms().values());
+      buildings.items.forEach(building -> rooms.addAll(building.getRooms()));
+      batches.addAll(docs.getBatches().values());
+      workOrders.addAll(docs.getWorkOrders().values());
+      for (RoomDto room : rooms.items) {
+        batches.add(room.getBatch());
+        workOrders.addAll(room.getWorkOrders());
+      }
+      employees.addAll(docs.getEmployees().values());
+      for (BatchDto batch : batches.items) {
+        employees.add(batch.getTrainer());
+        employees.add(batch.getCoTrainer());
+        employees.addAll(batch.getAssociates());
+      }
+      for (WorkOrderDto workOrder : workOrders.items) {
+        employees.add(workOrder.getCreator());
+        employees.add(workOrder.getResolver());
+      }
+      for (RoomDto room : rooms.items) {
+        if (room.getCurrentStatus() != null) {
+          room.getCurrentStatus().forEach(status -> employees.add(status == null ? null : status.getSubmitter()));
+        }
+      }
+      for (BuildingDto building : buildings.items) {
+        employees.add(building.getTrainingLead());
+      }
+      for (CampusDto campus : campuses.items) {
+        employees.add(campus.getTrainingManager());
+        employees.add(campus.getStagingManager());
+        employees.add(campus.getHrLead());
+        employees.addAll(campus.getCorporateEmployees());
+      }
+    }
+  }
+
+  @JsonIgnoreProperties({"rooms"})
+  private abstract static class BuildingLinks {
+  }
+
+  @JsonIgnoreProperties({"buildings"})
+  private abstract static class CampusLinks {
+  }
+
+  @JsonIgnoreProperties({"trainer", "coTrainer", "associates"})
+  private abstract static class BatchDtoLinks {
+  }
+
+  @JsonIgnoreProperties({"creator", "resolver"})
+  private abstract static class WorkOrderDtoLinks {
+  }
+
+  @JsonIgnoreProperties({"submitter"})
+  private abstract static class RoomStatusDtoLinks {
+  }
+
+  @JsonIgnoreProperties({"batch", "workOrders"})
+  private abstract static class RoomDtoLinks {
+  }
+
+  @JsonIgnoreProperties({"trainingLead", "rooms"})
+  private abstract static class BuildingDtoLinks {
+  }
+
+  @JsonIgnoreProperties({"trainingManager", "stagingManager", "hrLead", "buildings", "corporateEmployees"})
+  private abstract static class CampusDtoLinks {
+  }
+}
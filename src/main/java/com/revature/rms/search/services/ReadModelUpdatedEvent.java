@@ -0,0 +1,31 @@
+package com.revature.rms.search.services;
+
+/**
+ * Published by the ReadModelEtlJob each time it swaps new documents into the
+ * SearchReadModel, so that the search indexes can follow along without going
+ * back to the other services. After a full load the changes are null and a
+ * listener should rebuild from the documents; after an incremental sync they
+ * name exactly what was added, changed or removed.
+ */
+public class ReadModelUpdatedEvent {
+
+  private final ReadModelDocuments documents;
+  private final ReadModelChanges changes;
+
+  public ReadModelUpdatedEvent(ReadModelDocuments documents, ReadModelChanges changes) {
+    this.documents = documents;
+    this.changes = changes;
+  }
+
+  public ReadModelDocuments getDocuments() {
+    return documents;
+  }
+
+  public ReadModelChanges getChanges() {
+    return changes;
+  }
+
+  public boolean isFullLoad() {
+    return changes == null;
+  }
+}
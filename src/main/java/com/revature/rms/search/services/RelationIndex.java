@@ -0,0 +1,116 @@
+package com.revature.rms.search.services;
+
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * The links of one relation between two kinds of object, such as a room and
+ * the work orders raised against it, kept in both directions as arrays of ids
+ * so a semi-join never has to hydrate either side. Given the ids that matched
+ * on one side, sourcesOf and targetsOf return the ids on the other side that
+ * link to at least one of them, by looking each matched id up in the index
+ * instead of scanning every object on the other side.
+ *
+ * An index is filled by add and then frozen, after which it is only read and
+ * can be shared between threads without locking. To change it, build a new one.
+ */
+public class RelationIndex {
+
+  private IntObjectMap<IntArrayList> building = new IntObjectMap<>();
+  private IntObjectMap<IntArrayList> buildingReverse = new IntObjectMap<>();
+  private IntObjectMap<int[]> forward = new IntObjectMap<>();
+  private IntObjectMap<int[]> reverse = new IntObjectMap<>();
+  private int links;
+
+  /**
+   * add method: Links a source to a target.
+   * @param source the id on the owning side, such as the room
+   * @param target the id on the other side, such as the work order
+   */
+  public void add(int source, int target) {
+    if (building == null) {
+      throw new IllegalStateException("The index is frozen");
+    }
+    append(building, source, target);
+    append(buildingReverse, target, source);
+    links++;
+  }
+
+  /**
+   * freeze method: Turns the lists built up by add into arrays. Nothing can be added afterwards.
+   */
+  public void freeze() {
+    if (building != null) {
+      forward = toArrays(building);
+      reverse = toArrays(buildingReverse);
+      building = null;
+      buildingReverse = null;
+    }
+  }
+
+  /**
+   * size method: Returns how many links the index holds.
+   * @return the number of links
+   */
+  public int size() {
+    return links;
+  }
+
+  /**
+   * getTargets method: Returns the targets a source links to.
+   * @param source the source id
+   * @return a copy of the target ids, empty when there are none
+   */
+  public int[] getTargets(int source) {
+    int[] targets = forward.get(source);
+    return targets == null ? new int[0] : targets.clone();
+  }
+
+  /**
+   * sourcesOf method: Returns the sources that link to at least one of the targets.
+   * @param targets the target ids that matched
+   * @return the source ids
+   */
+  public RoaringBitmap sourcesOf(RoaringBitmap targets) {
+    return follow(reverse, targets);
+  }
+
+  /**
+   * targetsOf method: Returns the targets that at least one of the sources links to.
+   * @param sources the source ids that matched
+   * @return the target ids
+   */
+  public RoaringBitmap targetsOf(RoaringBitmap sources) {
+    return follow(forward, sources);
+  }
+
+  private RoaringBitmap follow(IntObjectMap<int[]> links, RoaringBitmap from) {
+    if (building != null) {
+      throw new IllegalStateException("The index must be frozen before it is read");
+    }
+    RoaringBitmap to = new RoaringBitmap();
+    for (int id : from.toArray()) {
+      int[] linked = links.get(id);
+      if (linked != null) {
+        for (int other : linked) {
+          to.add(other);
+        }
+      }
+    }
+    return to;
+  }
+
+  private static void append(IntObjectMap<IntArrayList> lists, int key, int value) {
+    IntArrayList list = lists.get(key);
+    if (list == null) {
+      list = new IntArrayList();
+      lists.put(key, list);
+    }
+    list.add(value);
+  }
+
+  private static IntObjectMap<int[]> toArrays(IntObjectMap<IntArrayList> lists) {
+    IntObjectMap<int[]> arrays = new IntObjectMap<>(lists.size());
+    lists.forEachEntry((key, list) -> arrays.put(key, list.toArray()));
+    return arrays;
+  }
+}
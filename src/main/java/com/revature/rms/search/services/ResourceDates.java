@@ -0,0 +1,100 @@
+package com.revature.rms.search.services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads the date strings the other services put in resource metadata and on
+ * batches. They are plain strings and the services have not agreed on a format,
+ * so ISO dates and date-times, with or without an offset, and US style dates
+ * like 1/1/20 or 2/12/2020 with an optional time are all accepted. Anything
+ * without an offset is taken to be UTC.
+ */
+public final class ResourceDates {
+
+  /**
+   * Returned for a date that is missing or in a format that is not understood.
+   */
+  public static final long UNKNOWN = Long.MIN_VALUE;
+
+  private static final List<DateTimeFormatter> DATE_TIMES = Arrays.asList(
+      DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+      strict("M/d/uuuu H:mm[:ss]"),
+      strict("M/d/uu H:mm[:ss]"),
+      strict("M/d/uuuu h:mm[:ss] a"),
+      strict("M/d/uu h:mm[:ss] a"));
+
+  private static final List<DateTimeFormatter> DATES = Arrays.asList(
+      DateTimeFormatter.ISO_LOCAL_DATE,
+      strict("M/d/uuuu"),
+      strict("M/d/uu"));
+
+  private static final long MILLIS_PER_DAY = 86400000L;
+
+  private ResourceDates() {
+  }
+
+  /**
+   * toEpochDay method: Parses a date or date-time string down to the day it falls on.
+   * @param value the string as the service sent it
+   * @return days since the epoch in UTC, or UNKNOWN when the string is null, blank or not understood
+   */
+  public static long toEpochDay(String value) {
+    long millis = toEpochMillis(value);
+    return millis == UNKNOWN ? UNKNOWN : Math.floorDiv(millis, MILLIS_PER_DAY);
+  }
+
+  /**
+   * toEpochMillis method: Parses a date or date-time string.
+   * @param value the string as the service sent it
+   * @return milliseconds since the epoch, or UNKNOWN when the string is null, blank or not understood
+   */
+  public static long toEpochMillis(String value) {
+    if (value == null || value.trim().isEmpty()) {
+      return UNKNOWN;
+    }
+    String text = value.trim();
+    try {
+      return OffsetDateTime.parse(text).toInstant().toEpochMilli();
+    } catch (DateTimeParseException e) {
+      // not an ISO date-time with an offset, try the formats below
+    }
+    try {
+      return Instant.parse(text).toEpochMilli();
+    } catch (DateTimeParseException e) {
+      // not an ISO instant either
+    }
+    for (DateTimeFormatter format : DATE_TIMES) {
+      try {
+        return LocalDateTime.parse(text, format).toInstant(ZoneOffset.UTC).toEpochMilli();
+      } catch (DateTimeParseException e) {
+        // try the next format
+      }
+    }
+    for (DateTimeFormatter format : DATES) {
+      try {
+        return LocalDate.parse(text, format).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+      } catch (DateTimeParseException e) {
+        // try the next format
+      }
+    }
+    return UNKNOWN;
+  }
+
+  /**
+   * strict method: Builds a US style format that refuses a day the month does not have, such as 2/30/2020, instead
+   * of moving it to the last day of the month.
+   */
+  private static DateTimeFormatter strict(String pattern) {
+    return DateTimeFormatter.ofPattern(pattern, Locale.US).withResolverStyle(ResolverStyle.STRICT);
+  }
+}
@@ -0,0 +1,544 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.core.exceptions.ResourceNotFoundException;
+import com.revature.rms.search.dtos.BuildingDto;
+import com.revature.rms.search.dtos.CampusDto;
+import com.revature.rms.search.dtos.EmployeeDto;
+import com.revature.rms.search.dtos.RoomDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * The materialized read model the search endpoints are served from. It holds the
+ * documents the ReadModelEtlJob builds ahead of time, so a request is answered
+ * with a map lookup instead of a fan-out to the campus, employee and auth
+ * services and the Mongo repositories.
+ *
+ * Each query behaves like the ETLService method of the same name: the same
+ * InvalidRequestException for a bad id and the same ResourceNotFoundException
+ * messages when nothing matches. Until the first load has finished the model is
+ * not ready, and callers are expected to go to the ETLService instead. Documents
+ * are shared between responses and must not be changed.
+ *
+ * Every campus, building, room, employee and batch is also indexed by the
+ * resourceOwner of its metadata, so the owner endpoints are answered without
+ * asking the campus or employee service who owns what.
+ */
+@Component
+public class SearchReadModel {
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private ReadModelDocuments documents;
+  private long loadedAt;
+
+  private IntObjectMap<int[]> campusesByTrainingManager = new IntObjectMap<>();
+  private IntObjectMap<Integer> buildingByTrainingLead = new IntObjectMap<>();
+  private IntObjectMap<Integer> roomByTrainer = new IntObjectMap<>();
+  private IntObjectMap<Integer> roomByCoTrainer = new IntObjectMap<>();
+  private Map<String, IntObjectMap<int[]>> idsByOwner = new HashMap<>();
+
+  /**
+   * isReady method: Returns whether a full load has finished and the model can answer queries.
+   * @return true once documents have been loaded
+   */
+  public boolean isReady() {
+    return read(docs -> docs != null);
+  }
+
+  /**
+   * getLoadedAt method: Returns when the documents were last replaced or updated.
+   * @return epoch milliseconds, or 0 before the first load
+   */
+  public long getLoadedAt() {
+    return read(docs -> loadedAt);
+  }
+
+  /**
+   * replace method: Swaps in a complete new set of documents and rebuilds the lookups over them.
+   * @param docs the documents of a full load
+   */
+  public void replace(ReadModelDocuments docs) {
+    lock.writeLock().lock();
+    try {
+      documents = docs;
+      rebuildLookups();
+      loadedAt = System.currentTimeMillis();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * read method: Runs a query over the current documents while holding the read lock.
+   * @param query what to read, given null when the model is not ready
+   * @return whatever the query returns
+   */
+  public <T> T read(Function<ReadModelDocuments, T> query) {
+    lock.readLock().lock();
+    try {
+      return query.apply(documents);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  //****************************** Campus Queries ********************************************
+
+  /**
+   * getAllCampuses method: Returns every CampusDto document.
+   * @return a list of CampusDto objects
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public List<CampusDto> getAllCampuses() {
+    List<CampusDto> campuses = read(docs -> new ArrayList<>(docs.getCampuses().values()));
+    if (campuses.isEmpty()) {
+      throw new ResourceNotFoundException("No Campuses found");
+    }
+    return campuses;
+  }
+
+  /**
+   * getAllCampusesByTrainingManagerId method: Returns the CampusDto documents of the campuses the given employee is Training Manager of.
+   * @param id
+   * @return a list of CampusDto objects
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public List<CampusDto> getAllCampusesByTrainingManagerId(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id can not be below 1");
+    }
+    List<CampusDto> campuses = read(docs -> {
+      List<CampusDto> found = new ArrayList<>();
+      int[] campusIds = campusesByTrainingManager.get(id);
+      if (campusIds != null) {
+        for (int campusId : campusIds) {
+          CampusDto dto = docs.getCampuses().get(campusId);
+          if (dto != null) {
+            found.add(dto);
+          }
+        }
+      }
+      return found;
+    });
+    if (campuses.isEmpty()) {
+      throw new ResourceNotFoundException("No campuses found with id: " + id);
+    }
+    return campuses;
+  }
+
+  /**
+   * getAllCampusesByOwnerId method: Returns the CampusDto documents of the campuses owned by the given app user.
+   * @param id
+   * @return a list of CampusDto objects
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public List<CampusDto> getAllCampusesByOwnerId(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Owner id can not be below 1");
+    }
+    List<CampusDto> campuses = read(docs -> owned(ReadModelDocuments.CAMPUS, id, docs.getCampuses()));
+    if (campuses.isEmpty()) {
+      throw new ResourceNotFoundException("No campuses found with id: " + id);
+    }
+    return campuses;
+  }
+
+  /**
+   * getCampusDtoById method: Returns the CampusDto document with the given id.
+   * @param id
+   * @return a CampusDto object
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public CampusDto getCampusDtoById(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id can not be below 1");
+    }
+    CampusDto campus = read(docs -> docs.getCampuses().get(id));
+    if (campus == null) {
+      throw new ResourceNotFoundException("Resource not found!");
+    }
+    return campus;
+  }
+
+  //****************************** Building Queries ********************************************
+
+  /**
+   * getAllBuildings method: Returns every BuildingDto document.
+   * @return a list of BuildingDto objects
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public List<BuildingDto> getAllBuildings() {
+    List<BuildingDto> buildings = read(docs -> new ArrayList<>(docs.getBuildings().values()));
+    if (buildings.isEmpty()) {
+      throw new ResourceNotFoundException("No buildings were found");
+    }
+    return buildings;
+  }
+
+  /**
+   * getBuildingDtoById method: Returns the BuildingDto document with the given id.
+   * @param id
+   * @return a BuildingDto object
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public BuildingDto getBuildingDtoById(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    BuildingDto building = read(docs -> docs.getBuildings().get(id));
+    if (building == null) {
+      throw new ResourceNotFoundException("Building not found with id: " + id);
+    }
+    return building;
+  }
+
+  /**
+   * getAllBuildingsByOwner method: Returns the BuildingDto documents of the buildings owned by the given app user.
+   * @param id
+   * @return a list of BuildingDto objects
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public List<BuildingDto> getAllBuildingsByOwner(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    List<BuildingDto> buildings = read(docs -> owned(ReadModelDocuments.BUILDING, id, docs.getBuildings()));
+    if (buildings.isEmpty()) {
+      throw new ResourceNotFoundException("No buildings found with that owner");
+    }
+    return buildings;
+  }
+
+  /**
+   * getBuildingDtoByTrainingLeadId method: Returns the BuildingDto document of the building the given employee is Training Lead of.
+   * @param id
+   * @return a BuildingDto object
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public BuildingDto getBuildingDtoByTrainingLeadId(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    BuildingDto building = read(docs -> {
+      Integer buildingId = buildingByTrainingLead.get(id);
+      return buildingId == null ? null : docs.getBuildings().get(buildingId);
+    });
+    if (building == null) {
+      throw new ResourceNotFoundException("Building not found with id: " + id);
+    }
+    return building;
+  }
+
+  //****************************** Room Queries ********************************************
+
+  /**
+   * getAllRooms method: Returns every RoomDto document.
+   * @return a list of RoomDto objects
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public List<RoomDto> getAllRooms() {
+    List<RoomDto> rooms = read(docs -> new ArrayList<>(docs.getRooms().values()));
+    if (rooms.isEmpty()) {
+      throw new ResourceNotFoundException("No rooms were found");
+    }
+    return rooms;
+  }
+
+  /**
+   * getRoomDtoById method: Returns the RoomDto document with the given id.
+   * @param id
+   * @return a RoomDto object
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public RoomDto getRoomDtoById(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    RoomDto room = read(docs -> docs.getRooms().get(id));
+    if (room == null) {
+      throw new ResourceNotFoundException("No room was found with id: " + id);
+    }
+    return room;
+  }
+
+  /**
+   * getAllRoomByOwner method: Returns the RoomDto documents of the rooms owned by the given app user.
+   * @param id
+   * @return a list of RoomDto objects
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public List<RoomDto> getAllRoomByOwner(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    List<RoomDto> rooms = read(docs -> owned(ReadModelDocuments.ROOM, id, docs.getRooms()));
+    if (rooms.isEmpty()) {
+      throw new ResourceNotFoundException("No rooms found with that owner");
+    }
+    return rooms;
+  }
+
+  /**
+   * getRoomDtoByTrainerId method: Returns the RoomDto document of the room held by the given trainer's batch.
+   * @param id
+   * @return a RoomDto object
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public RoomDto getRoomDtoByTrainerId(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    RoomDto room = read(docs -> {
+      Integer roomId = roomByTrainer.get(id);
+      return roomId == null ? null : docs.getRooms().get(roomId);
+    });
+    if (room == null) {
+      throw new ResourceNotFoundException("No room found with trainer id: " + id);
+    }
+    return room;
+  }
+
+  /**
+   * getRoomDtoByCoTrainerId method: Returns the RoomDto document of the room held by the batch the given employee co-trains.
+   * @param id
+   * @return a RoomDto object
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public RoomDto getRoomDtoByCoTrainerId(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    RoomDto room = read(docs -> {
+      Integer roomId = roomByCoTrainer.get(id);
+      return roomId == null ? null : docs.getRooms().get(roomId);
+    });
+    if (room == null) {
+      throw new ResourceNotFoundException("No room found with co-trainer id: " + id);
+    }
+    return room;
+  }
+
+  //****************************** Employee Queries ********************************************
+
+  /**
+   * getAllEmployees method: Returns every EmployeeDto document.
+   * @return a list of EmployeeDto objects
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public List<EmployeeDto> getAllEmployees() {
+    List<EmployeeDto> employees = read(docs -> new ArrayList<>(docs.getEmployees().values()));
+    if (employees.isEmpty()) {
+      throw new ResourceNotFoundException("No Employees found");
+    }
+    return employees;
+  }
+
+  /**
+   * getEmployeeById method: Returns the EmployeeDto document with the given id.
+   * @param id
+   * @return an EmployeeDto object
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public EmployeeDto getEmployeeById(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    EmployeeDto employee = read(docs -> docs.getEmployees().get(id));
+    if (employee == null) {
+      throw new ResourceNotFoundException("No employee found with id: " + id);
+    }
+    return employee;
+  }
+
+  /**
+   * getAllEmployeeByOwner method: Returns the EmployeeDto documents of the employees owned by the given app user.
+   * @param id
+   * @return a list of EmployeeDto objects
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public List<EmployeeDto> getAllEmployeeByOwner(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    List<EmployeeDto> employees = read(docs -> owned(ReadModelDocuments.EMPLOYEE, id, docs.getEmployees()));
+    if (employees.isEmpty()) {
+      throw new ResourceNotFoundException("No employee found with the owner id: " + id);
+    }
+    return employees;
+  }
+
+  //****************************** Batch and Work Order Queries ********************************************
+
+  /**
+   * getBatchById method: Returns the raw Batch with the given id, as the batch endpoint has always done.
+   * @param id
+   * @return a Batch object
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public Batch getBatchById(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    Batch batch = read(docs -> docs.getRawBatches().get(id));
+    if (batch == null) {
+      throw new ResourceNotFoundException("No batch found with id: " + id);
+    }
+    return batch;
+  }
+
+  /**
+   * getWorkOrderById method: Returns the raw WorkOrder with the given id, as the work order endpoint has always done.
+   * @param id
+   * @return a WorkOrder object
+   * @throws ResourceNotFoundException when there is no matching document
+   */
+  public WorkOrder getWorkOrderById(int id) {
+    if (id < 1) {
+      throw new InvalidRequestException("Id must be 1 or above");
+    }
+    WorkOrder workOrder = read(docs -> docs.getRawWorkOrders().get(id));
+    if (workOrder == null) {
+      throw new ResourceNotFoundException("No work order found with id: " + id);
+    }
+    return workOrder;
+  }
+
+  /**
+   * getOwnedIds method: Returns the ids of the resources of one type that the given app user owns.
+   * @param type campus, building, room, employee or batch
+   * @param ownerId the app user id
+   * @return a copy of the ids in load order, empty when the user owns none or the model is not ready
+   */
+  public int[] getOwnedIds(String type, int ownerId) {
+    return read(docs -> {
+      IntObjectMap<int[]> byOwner = idsByOwner.get(type);
+      int[] ids = byOwner == null ? null : byOwner.get(ownerId);
+      return ids == null ? new int[0] : ids.clone();
+    });
+  }
+
+  /**
+   * owned method: Looks up the documents of one type owned by an app user. Must be called with the read lock held.
+   */
+  private <T> List<T> owned(String type, int ownerId, IntObjectMap<T> documentsById) {
+    List<T> found = new ArrayList<>();
+    IntObjectMap<int[]> byOwner = idsByOwner.get(type);
+    int[] resourceIds = byOwner == null ? null : byOwner.get(ownerId);
+    if (resourceIds != null) {
+      for (int resourceId : resourceIds) {
+        T dto = documentsById.get(resourceId);
+        if (dto != null) {
+          found.add(dto);
+        }
+      }
+    }
+    return found;
+  }
+
+  /**
+   * rebuildLookups method: Rebuilds the secondary lookups from the raw objects. A training lead of several buildings
+   * gets the first one, and a trainer or co-trainer of several rooms gets the last one, which is what the campus
+   * service and the ETLService return for them. Resources without metadata are left out of the owner index. Must
+   * be called with the write lock held.
+   */
+  private void rebuildLookups() {
+    IntObjectMap<IntArrayList> byTrainingManager = new IntObjectMap<>();
+    IntObjectMap<Integer> byTrainingLead = new IntObjectMap<>();
+    IntObjectMap<Integer> byTrainer = new IntObjectMap<>();
+    IntObjectMap<Integer> byCoTrainer = new IntObjectMap<>();
+    Map<String, IntObjectMap<IntArrayList>> byOwner = new HashMap<>();
+    if (documents != null) {
+      for (Campus campus : documents.getRawCampuses().values()) {
+        append(byTrainingManager, campus.getTrainingManagerId(), campus.getId());
+        indexOwner(byOwner, ReadModelDocuments.CAMPUS, campus.getId(), owner(campus.getResourceMetadata()));
+      }
+      for (Building building : documents.getRawBuildings().values()) {
+        if (!byTrainingLead.containsKey(building.getTrainingLead())) {
+          byTrainingLead.put(building.getTrainingLead(), Integer.valueOf(building.getId()));
+        }
+        indexOwner(byOwner, ReadModelDocuments.BUILDING, building.getId(), owner(building.getResourceMetadata()));
+      }
+      for (Employee employee : documents.getRawEmployees().values()) {
+        com.revature.rms.search.entites.employee.ResourceMetadata metadata = employee.getResourceMetadata();
+        indexOwner(byOwner, ReadModelDocuments.EMPLOYEE, employee.getId(), metadata == null ? null : metadata.getResourceOwner());
+      }
+      for (Batch batch : documents.getRawBatches().values()) {
+        indexOwner(byOwner, ReadModelDocuments.BATCH, batch.getId(), owner(batch.getResourceMetadata()));
+      }
+      for (Room room : documents.getRawRooms().values()) {
+        indexOwner(byOwner, ReadModelDocuments.ROOM, room.getId(), owner(room.getResourceMetadata()));
+        int trainer = trainerOf(documents, room, false);
+        if (trainer > 0) {
+          byTrainer.put(trainer, Integer.valueOf(room.getId()));
+        }
+        int coTrainer = trainerOf(documents, room, true);
+        if (coTrainer > 0) {
+          byCoTrainer.put(coTrainer, Integer.valueOf(room.getId()));
+        }
+      }
+    }
+    campusesByTrainingManager = freeze(byTrainingManager);
+    buildingByTrainingLead = byTrainingLead;
+    roomByTrainer = byTrainer;
+    roomByCoTrainer = byCoTrainer;
+    Map<String, IntObjectMap<int[]>> frozenByOwner = new HashMap<>();
+    byOwner.forEach((type, lists) -> frozenByOwner.put(type, freeze(lists)));
+    idsByOwner = frozenByOwner;
+  }
+
+  /**
+   * trainerOf method: Returns who trains the batch held in a room, by the rule the trainer lookups are built with.
+   * The TrainerRoomIndex uses the same rule, so it picks the same room as the read model.
+   * @param documents the raw objects
+   * @param room the raw room
+   * @param coTrainer true for the co-trainer instead of the trainer
+   * @return the employee id, or 0 when the room holds no known batch or the batch has nobody in that role
+   */
+  static int trainerOf(ReadModelDocuments documents, Room room, boolean coTrainer) {
+    Batch batch = documents.getRawBatches().get(room.getBatchId());
+    if (batch == null) {
+      return 0;
+    }
+    return coTrainer ? batch.getCoTrainerId() : batch.getTrainerId();
+  }
+
+  private static Integer owner(ResourceMetadata metadata) {
+    return metadata == null ? null : metadata.getResourceOwner();
+  }
+
+  private static void indexOwner(Map<String, IntObjectMap<IntArrayList>> byOwner, String type, int id, Integer ownerId) {
+    if (ownerId != null) {
+      append(byOwner.computeIfAbsent(type, key -> new IntObjectMap<>()), ownerId, id);
+    }
+  }
+
+  private static void append(IntObjectMap<IntArrayList> lists, int key, int id) {
+    IntArrayList list = lists.get(key);
+    if (list == null) {
+      list = new IntArrayList(1);
+      lists.put(key, list);
+    }
+    list.add(id);
+  }
+
+  private static IntObjectMap<int[]> freeze(IntObjectMap<IntArrayList> lists) {
+    IntObjectMap<int[]> frozen = new IntObjectMap<>(lists.size());
+    lists.forEachEntry((key, list) -> frozen.put(key, list.toArray()));
+    return frozen;
+  }
+}
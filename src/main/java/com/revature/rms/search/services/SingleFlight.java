@@ -0,0 +1,77 @@
+package com.revature.rms.search.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent callers that ask for the same thing share one computation.
+ * The first caller for a key runs it, and every caller that asks for the same
+ * key while it is still running waits for that result instead of starting its
+ * own. They all get the same result, or the same exception. Nothing is kept
+ * once the computation finishes, so the next caller after that runs it again.
+ *
+ * A computation must not ask for its own key again on the same thread, since
+ * it would wait on itself.
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong calls = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  /**
+   * execute method: Runs the computation for the key, or waits for the one that is already running for it.
+   * @param key identifies the computation
+   * @param computation what to run when nothing is running for the key yet
+   * @return the result of the computation that was run for the key
+   */
+  public V execute(K key, Supplier<V> computation) {
+    calls.incrementAndGet();
+    CompletableFuture<V> created = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+    if (existing != null) {
+      coalesced.incrementAndGet();
+      try {
+        return existing.join();
+      } catch (CompletionException ce) {
+        if (ce.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) ce.getCause();
+        }
+        if (ce.getCause() instanceof Error) {
+          throw (Error) ce.getCause();
+        }
+        throw ce;
+      }
+    }
+    try {
+      V value = computation.get();
+      created.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      created.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, created);
+    }
+  }
+
+  /**
+   * getCalls method: Returns how many times execute was called.
+   * @return the number of calls
+   */
+  public long getCalls() {
+    return calls.get();
+  }
+
+  /**
+   * getCoalesced method: Returns how many calls waited on a computation that another caller had started.
+   * @return the number of calls that did not run their own computation
+   */
+  public long getCoalesced() {
+    return coalesced.get();
+  }
+}
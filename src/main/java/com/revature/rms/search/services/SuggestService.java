@@ -0,0 +1,187 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.search.config.SearchIndexProperties;
+import com.revature.rms.search.dtos.Suggestion;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.employee.Employee;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Autocomplete for the front-end pickers. There is one PrefixIndex per type of
+ * resource: employees by first name, last name, full name and email, and
+ * campuses and buildings by name and abbreviation. Suggestions are answered
+ * from the tries alone, without calling any other service.
+ *
+ * The tries are rebuilt from the raw objects of every read model load, and the
+ * ones whose type an incremental sync touched are rebuilt after it. They are
+ * also rebuilt on search.index.refresh-ms, or on the first request if nothing
+ * has built them yet, from the read model when it is ready and otherwise from
+ * the extraction the ReadModelExtractor shares. Rebuilds and syncs are
+ * serialized, so an older rebuild never puts its tries over a newer sync's.
+ */
+@Service
+public class SuggestService {
+
+  public static final List<String> TYPES = Collections.unmodifiableList(Arrays.asList(
+      ReadModelDocuments.EMPLOYEE, ReadModelDocuments.CAMPUS, ReadModelDocuments.BUILDING));
+
+  private ReadModelExtractor extractor;
+  private SearchReadModel readModel;
+  private SearchIndexProperties indexProps;
+  private Map<String, PrefixIndex> tries = new ConcurrentHashMap<>();
+
+  @Autowired
+  public SuggestService(ReadModelExtractor readModelExtractor, SearchReadModel searchReadModel,
+      SearchIndexProperties searchIndexProperties) {
+    this.extractor = readModelExtractor;
+    this.readModel = searchReadModel;
+    this.indexProps = searchIndexProperties;
+  }
+
+  /**
+   * suggest method: Returns the best employees, campuses or buildings whose names start with the prefix.
+   * @param prefix what has been typed so far
+   * @param type employee, campus or building, or null for all three
+   * @param limit the most suggestions to return, or null for search.index.suggest-top-k
+   * @return the suggestions, best first
+   * @throws InvalidRequestException when the prefix is empty, the type is unknown or the limit is out of range
+   */
+  public List<Suggestion> suggest(String prefix, String type, Integer limit) {
+    if (PrefixIndex.normalize(prefix).isEmpty()) {
+      throw new InvalidRequestException("Prefix can not be empty");
+    }
+    if (type != null && !TYPES.contains(type)) {
+      throw new InvalidRequestException("Type must be one of " + TYPES);
+    }
+    int size = limit == null ? indexProps.getSuggestTopK() : limit;
+    if (size < 1 || size > indexProps.getSuggestTopK()) {
+      throw new InvalidRequestException("Limit must be between 1 and " + indexProps.getSuggestTopK());
+    }
+    List<String> types = type == null ? TYPES : Collections.singletonList(type);
+    if (!tries.keySet().containsAll(types)) {
+      rebuildIfEmpty();
+    }
+    List<List<Suggestion>> found = new ArrayList<>();
+    for (String each : types) {
+      PrefixIndex trie = tries.get(each);
+      if (trie != null) {
+        found.add(trie.suggest(prefix, size));
+      }
+    }
+    return found.size() == 1 ? found.get(0) : PrefixIndex.merge(found, size);
+  }
+
+  /**
+   * refresh method: Rebuilds the tries on a fixed delay.
+   */
+  @Scheduled(fixedDelayString = "${search.index.refresh-ms:3600000}",
+      initialDelayString = "${search.index.refresh-ms:3600000}")
+  public void refresh() {
+    try {
+      rebuild();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * rebuild method: Rebuilds every trie from the read model when it is ready, or from the shared extraction.
+   */
+  public synchronized void rebuild() {
+    ReadModelDocuments docs = readModel.read(current -> current);
+    build(docs != null ? docs : extractor.latest());
+  }
+
+  /**
+   * onReadModelUpdated method: Rebuilds every trie after a full read model load, or only the tries whose type an
+   * incremental sync added, changed or removed something of.
+   * @param event the load or sync that just finished
+   */
+  @EventListener
+  public synchronized void onReadModelUpdated(ReadModelUpdatedEvent event) {
+    ReadModelDocuments docs = event.getDocuments();
+    if (event.isFullLoad()) {
+      build(docs);
+      return;
+    }
+    ReadModelChanges changes = event.getChanges();
+    if (!changes.getEmployees().isEmpty()) {
+      tries.put(ReadModelDocuments.EMPLOYEE, employeeTrie(docs.getRawEmployees().values()));
+    }
+    if (!changes.getCampuses().isEmpty()) {
+      tries.put(ReadModelDocuments.CAMPUS, campusTrie(docs.getRawCampuses().values()));
+    }
+    if (!changes.getBuildings().isEmpty()) {
+      tries.put(ReadModelDocuments.BUILDING, buildingTrie(docs.getRawBuildings().values()));
+    }
+  }
+
+  /**
+   * build method: Rebuilds every trie from the raw objects.
+   * @param docs the raw objects
+   */
+  private void build(ReadModelDocuments docs) {
+    tries.put(ReadModelDocuments.EMPLOYEE, employeeTrie(docs.getRawEmployees().values()));
+    tries.put(ReadModelDocuments.CAMPUS, campusTrie(docs.getRawCampuses().values()));
+    tries.put(ReadModelDocuments.BUILDING, buildingTrie(docs.getRawBuildings().values()));
+  }
+
+  private synchronized void rebuildIfEmpty() {
+    if (!tries.keySet().containsAll(TYPES)) {
+      rebuild();
+    }
+  }
+
+  private PrefixIndex employeeTrie(Collection<Employee> employees) {
+    Map<Suggestion, Set<String>> keys = new LinkedHashMap<>();
+    for (Employee employee : employees) {
+      String name = PrefixIndex.normalize(
+          (employee.getFirstName() == null ? "" : employee.getFirstName()) + " "
+          + (employee.getLastName() == null ? "" : employee.getLastName()));
+      Set<String> words = new LinkedHashSet<>(PrefixIndex.keysFor(name));
+      words.addAll(PrefixIndex.keysFor(employee.getEmail()));
+      keys.put(new Suggestion(ReadModelDocuments.EMPLOYEE, employee.getId(), label(employee.getFirstName(), employee.getLastName())), words);
+    }
+    return PrefixIndex.build(keys, indexProps.getSuggestTopK());
+  }
+
+  private PrefixIndex campusTrie(Collection<Campus> campuses) {
+    Map<Suggestion, Set<String>> keys = new LinkedHashMap<>();
+    for (Campus campus : campuses) {
+      Set<String> words = new LinkedHashSet<>(PrefixIndex.keysFor(campus.getName()));
+      words.addAll(PrefixIndex.keysFor(campus.getAbbrName()));
+      keys.put(new Suggestion(ReadModelDocuments.CAMPUS, campus.getId(), campus.getName()), words);
+    }
+    return PrefixIndex.build(keys, indexProps.getSuggestTopK());
+  }
+
+  private PrefixIndex buildingTrie(Collection<Building> buildings) {
+    Map<Suggestion, Set<String>> keys = new LinkedHashMap<>();
+    for (Building building : buildings) {
+      Set<String> words = new LinkedHashSet<>(PrefixIndex.keysFor(building.getName()));
+      words.addAll(PrefixIndex.keysFor(building.getAbbrName()));
+      keys.put(new Suggestion(ReadModelDocuments.BUILDING, building.getId(), building.getName()), words);
+    }
+    return PrefixIndex.build(keys, indexProps.getSuggestTopK());
+  }
+
+  private static String label(String first, String last) {
+    return ((first == null ? "" : first) + " " + (last == null ? "" : last)).trim();
+  }
+}
@@ -0,0 +1,201 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.clients.CampusClient;
+import com.revature.rms.search.config.HydrationProperties;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.repositories.BatchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Maps each trainer and co-trainer id to the rooms their batches are held in,
+ * so the ETLService can fetch and hydrate only the room a trainer is in
+ * instead of every room. Who trains a room is decided by the same rule the
+ * SearchReadModel builds its trainer lookups with, and the rooms of a trainer
+ * are kept in the order the read model goes through them, so the last room
+ * of a trainer here is the one the read model answers with.
+ *
+ * The index is built again from every read model load and sync, which needs
+ * no calls. Without read model documents it pulls only the rooms and batches:
+ * on the first lookup, on search.hydration.trainer-index-refresh-ms, and when
+ * a lookup finds it out of date. Those last rebuilds are throttled by
+ * search.hydration.trainer-index-min-rebuild-ms, so asking for a trainer who
+ * has no room does not pull every room each time.
+ */
+@Component
+public class TrainerRoomIndex {
+
+  private CampusClient campClient;
+  private BatchRepository batchRepo;
+  private SearchReadModel readModel;
+  private HydrationProperties hydrationProps;
+  private volatile Snapshot snapshot;
+
+  @Autowired
+  public TrainerRoomIndex(CampusClient campusClient, BatchRepository batchRepository, SearchReadModel searchReadModel,
+      HydrationProperties hydrationProperties) {
+    this.campClient = campusClient;
+    this.batchRepo = batchRepository;
+    this.readModel = searchReadModel;
+    this.hydrationProps = hydrationProperties;
+  }
+
+  /**
+   * findRoomIdsByTrainerId method: Returns the ids of the rooms whose batch is led by the given trainer, building
+   * the index first if it has not been built yet.
+   * @param trainerId the trainer's employee id
+   * @return the room ids, the one the read model would pick last, empty if there are none
+   */
+  public int[] findRoomIdsByTrainerId(int trainerId) {
+    return lookup(current().byTrainer, trainerId);
+  }
+
+  /**
+   * findRoomIdsByCoTrainerId method: Returns the ids of the rooms whose batch has the given co-trainer, building
+   * the index first if it has not been built yet.
+   * @param coTrainerId the co-trainer's employee id
+   * @return the room ids, the one the read model would pick last, empty if there are none
+   */
+  public int[] findRoomIdsByCoTrainerId(int coTrainerId) {
+    return lookup(current().byCoTrainer, coTrainerId);
+  }
+
+  /**
+   * refresh method: Rebuilds the index on a fixed delay so that new batches and room moves are picked up without a
+   * lookup having to miss first.
+   */
+  @Scheduled(fixedDelayString = "${search.hydration.trainer-index-refresh-ms:300000}",
+      initialDelayString = "${search.hydration.trainer-index-refresh-ms:300000}")
+  public void refresh() {
+    try {
+      rebuild();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * rebuildIfStale method: Rebuilds the index after a lookup found it out of date, unless it was rebuilt within the
+   * last search.hydration.trainer-index-min-rebuild-ms milliseconds.
+   * @return true if the index was rebuilt since the lookup read it
+   */
+  public boolean rebuildIfStale() {
+    Snapshot seen = snapshot;
+    synchronized (this) {
+      if (snapshot != seen) {
+        return true;
+      }
+      if (seen != null && System.currentTimeMillis() - seen.builtAt < hydrationProps.getTrainerIndexMinRebuildMs()) {
+        return false;
+      }
+      rebuild();
+      return true;
+    }
+  }
+
+  /**
+   * rebuild method: Builds the index from the read model when it is ready, or from the rooms and batches pulled
+   * from the campus service and Mongo.
+   */
+  public synchronized void rebuild() {
+    ReadModelDocuments docs = readModel.read(current -> current);
+    build(docs != null ? docs : pull());
+  }
+
+  /**
+   * onReadModelUpdated method: Builds the index again from the documents of a load or sync.
+   * @param event the load or sync that just finished
+   */
+  @EventListener
+  public synchronized void onReadModelUpdated(ReadModelUpdatedEvent event) {
+    build(event.getDocuments());
+  }
+
+  /**
+   * build method: Maps every trainer and co-trainer to their rooms and swaps the new mapping in.
+   * @param docs the raw rooms and batches
+   */
+  void build(ReadModelDocuments docs) {
+    IntObjectMap<IntArrayList> byTrainer = new IntObjectMap<>();
+    IntObjectMap<IntArrayList> byCoTrainer = new IntObjectMap<>();
+    for (Room room : docs.getRawRooms().values()) {
+      append(byTrainer, SearchReadModel.trainerOf(docs, room, false), room.getId());
+      append(byCoTrainer, SearchReadModel.trainerOf(docs, room, true), room.getId());
+    }
+    snapshot = new Snapshot(freeze(byTrainer), freeze(byCoTrainer), System.currentTimeMillis());
+  }
+
+  /**
+   * pull method: Reads every room and every batch, and nothing else.
+   * @return the raw rooms and batches
+   */
+  ReadModelDocuments pull() {
+    ReadModelDocuments docs = new ReadModelDocuments();
+    for (Batch batch : batchRepo.findAll()) {
+      docs.getRawBatches().put(batch.getId(), batch);
+    }
+    List<Room> rooms = campClient.getAllRooms();
+    if (rooms != null) {
+      rooms.forEach(room -> docs.getRawRooms().put(room.getId(), room));
+    }
+    return docs;
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        if (snapshot == null) {
+          rebuild();
+        }
+        current = snapshot;
+      }
+    }
+    return current;
+  }
+
+  private static int[] lookup(IntObjectMap<int[]> index, int id) {
+    int[] roomIds = index.get(id);
+    return roomIds == null ? new int[0] : roomIds.clone();
+  }
+
+  private static void append(IntObjectMap<IntArrayList> lists, int trainer, int room) {
+    if (trainer < 1) {
+      return;
+    }
+    IntArrayList list = lists.get(trainer);
+    if (list == null) {
+      list = new IntArrayList();
+      lists.put(trainer, list);
+    }
+    list.add(room);
+  }
+
+  private static IntObjectMap<int[]> freeze(IntObjectMap<IntArrayList> lists) {
+    IntObjectMap<int[]> frozen = new IntObjectMap<>(lists.size());
+    lists.forEachEntry((id, list) -> frozen.put(id, list.toArray()));
+    return frozen;
+  }
+
+  /**
+   * One complete build of the index. A snapshot is never changed after it is built, so lookups can read it without
+   * locking while a rebuild replaces it.
+   */
+  private static class Snapshot {
+
+    private final IntObjectMap<int[]> byTrainer;
+    private final IntObjectMap<int[]> byCoTrainer;
+    private final long builtAt;
+
+    private Snapshot(IntObjectMap<int[]> byTrainer, IntObjectMap<int[]> byCoTrainer, long builtAt) {
+      this.byTrainer = byTrainer;
+      this.byCoTrainer = byCoTrainer;
+      this.builtAt = builtAt;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package com.revature.rms.search.benchmarks;
+
+import com.revature.rms.search.entites.employee.Department;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.services.IntArrayList;
+import com.revature.rms.search.services.IntObjectMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the boxed maps the read model used to keep its documents and owner
+ * index in with the IntObjectMap and int arrays it keeps them in now, at the
+ * size of a large employee directory.
+ *
+ * Not a unit test, so Surefire leaves it alone. Run it after mvn test-compile with
+ *
+ *   mvn exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.revature.rms.search.benchmarks.ReadModelMapBenchmark
+ *
+ * which adds the GC profiler. The gc.alloc.rate.norm of the build benchmarks
+ * divided by employees is the heap each employee costs the structure, and
+ * gc.count and gc.time show the collections it caused.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ReadModelMapBenchmark {
+
+  @Param({"100000"})
+  int employees;
+
+  Employee[] directory;
+  int[] owners;
+  int[] lookups;
+  Map<Integer, Employee> boxedDocuments;
+  IntObjectMap<Employee> primitiveDocuments;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    directory = new Employee[employees];
+    owners = new int[employees];
+    for (int i = 0; i < employees; i++) {
+      directory[i] = new Employee(i + 1, "first" + i, "last" + i, "e" + i + "@revature.com", "Trainer", Department.TRAINING, null);
+      owners[i] = 1 + random.nextInt(employees / 50);
+    }
+    lookups = new int[1024];
+    for (int i = 0; i < lookups.length; i++) {
+      lookups[i] = 1 + random.nextInt(employees);
+    }
+    boxedDocuments = buildBoxedDocuments();
+    primitiveDocuments = buildPrimitiveDocuments();
+  }
+
+  @Benchmark
+  public Map<Integer, Employee> buildBoxedDocuments() {
+    Map<Integer, Employee> documents = new LinkedHashMap<>();
+    for (Employee employee : directory) {
+      documents.put(employee.getId(), employee);
+    }
+    return documents;
+  }
+
+  @Benchmark
+  public IntObjectMap<Employee> buildPrimitiveDocuments() {
+    IntObjectMap<Employee> documents = new IntObjectMap<>();
+    for (Employee employee : directory) {
+      documents.put(employee.getId(), employee);
+    }
+    return documents;
+  }
+
+  @Benchmark
+  public Map<Integer, List<Integer>> buildBoxedOwnerIndex() {
+    Map<Integer, List<Integer>> byOwner = new HashMap<>();
+    for (int i = 0; i < directory.length; i++) {
+      byOwner.computeIfAbsent(owners[i], key -> new ArrayList<>()).add(directory[i].getId());
+    }
+    return byOwner;
+  }
+
+  @Benchmark
+  public IntObjectMap<int[]> buildPrimitiveOwnerIndex() {
+    IntObjectMap<IntArrayList> lists = new IntObjectMap<>();
+    for (int i = 0; i < directory.length; i++) {
+      IntArrayList list = lists.get(owners[i]);
+      if (list == null) {
+        list = new IntArrayList(1);
+        lists.put(owners[i], list);
+      }
+      list.add(directory[i].getId());
+    }
+    IntObjectMap<int[]> byOwner = new IntObjectMap<>(lists.size());
+    lists.forEachEntry((owner, list) -> byOwner.put(owner, list.toArray()));
+    return byOwner;
+  }
+
+  @Benchmark
+  public void lookupBoxedDocuments(Blackhole blackhole) {
+    for (int id : lookups) {
+      blackhole.consume(boxedDocuments.get(id));
+    }
+  }
+
+  @Benchmark
+  public void lookupPrimitiveDocuments(Blackhole blackhole) {
+    for (int id : lookups) {
+      blackhole.consume(primitiveDocuments.get(id));
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    org.openjdk.jmh.Main.main(args.length > 0 ? args
+        : new String[] {ReadModelMapBenchmark.class.getSimpleName(), "-prof", "gc"});
+  }
+}
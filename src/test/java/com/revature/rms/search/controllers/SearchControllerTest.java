@@ -13,20 +13,32 @@ import com.revature.rms.search.entites.employee.Department;
 import com.revature.rms.search.entites.workorder.Category;
 import com.revature.rms.search.entites.workorder.WorkOrder;
 import com.revature.rms.core.exceptions.*;
+import com.revature.rms.search.services.DateRangeService;
 import com.revature.rms.search.services.ETLService;
+import com.revature.rms.search.services.EmployeeSearchService;
+import com.revature.rms.search.services.FacetService;
+import com.revature.rms.search.services.FilterService;
+import com.revature.rms.search.services.OccupancyService;
+import com.revature.rms.search.services.QueryService;
+import com.revature.rms.search.services.SearchReadModel;
+import com.revature.rms.search.services.SuggestService;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -42,6 +54,30 @@ public class SearchControllerTest {
     @Mock
     private ETLService etlService;
 
+    @Mock
+    private SearchReadModel readModel;
+
+    @Mock
+    private EmployeeSearchService employeeSearchService;
+
+    @Mock
+    private SuggestService suggestService;
+
+    @Mock
+    private FacetService facetService;
+
+    @Mock
+    private FilterService filterService;
+
+    @Mock
+    private DateRangeService dateRangeService;
+
+    @Mock
+    private QueryService queryService;
+
+    @Mock
+    private OccupancyService occupancyService;
+
     List<EmployeeDto> testEmployeeList;
     List<Integer> testAssociates;
     Batch testBatch;
@@ -165,6 +201,17 @@ public class SearchControllerTest {
         assertEquals(testCampuses.get(1), searchController.getCampusDtoById(testCampuses.get(1).getId()));
     }
 
+    /**
+     * Tests that a CampusDto is served from the read model once it is ready, without hydrating it again
+     */
+    @Test
+    public void testGetCampusDtoByIdFromReadModel() {
+        when(readModel.isReady()).thenReturn(true);
+        when(readModel.getCampusDtoById(testCampuses.get(1).getId())).thenReturn(testCampuses.get(1));
+        assertEquals(testCampuses.get(1), searchController.getCampusDtoById(testCampuses.get(1).getId()));
+        verify(etlService, never()).getCampusDtoById(anyInt());
+    }
+
     /**
      * Tests that all Campuses belonging to a single user can be retrieved.
      */
@@ -241,6 +288,15 @@ public class SearchControllerTest {
         assertEquals(testRooms.get(1), searchController.getRoomDtoByTrainerId(testEmployeeList.get(1).getId()));
     }
 
+    /**
+     * Tests that a specific RoomDto can be retrieved by an assigned co-trainer.
+     */
+    @Test
+    public void testGetRoomDtoByCoTrainerId() {
+        when(etlService.getRoomDtoByCoTrainerId(testEmployeeList.get(2).getId())).thenReturn(testRooms.get(1));
+        assertEquals(testRooms.get(1), searchController.getRoomDtoByCoTrainerId(testEmployeeList.get(2).getId()));
+    }
+
     /**
      * Tests that all RoomDtos belonging a specific owner can be retrieved.
      */
@@ -271,6 +327,28 @@ public class SearchControllerTest {
         assertEquals(testEmployeeList.get(1), searchController.getEmployeeById(testEmployeeList.get(1).getId()));
     }
 
+    /**
+     * Tests that the EmployeeDtos are served from the read model once it is ready
+     */
+    @Test
+    public void testGetAllEmployeeDtosFromReadModel() {
+        when(readModel.isReady()).thenReturn(true);
+        when(readModel.getAllEmployees()).thenReturn(testEmployeeList);
+        assertEquals(testEmployeeList, searchController.getAllEmployees());
+        verify(etlService, never()).getAllEmployees();
+    }
+
+    /**
+     * Tests that an employee search is answered by the EmployeeSearchService
+     */
+    @Test
+    public void testSearchEmployees() {
+        SearchResponse<EmployeeDto> response = new SearchResponse<>("bruce", 2,
+                Arrays.asList(new SearchHit<>(1.5, testEmployeeList.get(0)), new SearchHit<>(1.5, testEmployeeList.get(4))));
+        when(employeeSearchService.searchEmployees("bruce", null)).thenReturn(response);
+        assertEquals(response, searchController.searchEmployees("bruce", null));
+    }
+
     /**
      * Tests that all EmployeeDtos can be retrieved by an owner id.
      */
@@ -280,6 +358,95 @@ public class SearchControllerTest {
         assertEquals(testEmployeeList, searchController.getAllEmployeeByOwner(testEmployeeList.get(1).getId()));
     }
 
+    /**
+     * Tests that the employees of an owner are served from the read model once it is ready, without asking the employee service
+     */
+    @Test
+    public void testGetAllEmployeesByOwnerFromReadModel() {
+        when(readModel.isReady()).thenReturn(true);
+        when(readModel.getAllEmployeeByOwner(testEmployeeList.get(1).getId())).thenReturn(testEmployeeList);
+        assertEquals(testEmployeeList, searchController.getAllEmployeeByOwner(testEmployeeList.get(1).getId()));
+        verify(etlService, never()).getAllEmployeeByOwner(anyInt());
+    }
+
+    /**
+     * Tests that employee filters are answered by the FilterService
+     */
+    @Test
+    public void testFilterEmployees() {
+        LinkedMultiValueMap<String, String> filters = new LinkedMultiValueMap<>();
+        filters.add("department", "TRAINING");
+        filters.add("active", "true");
+        when(filterService.filterEmployees(filters)).thenReturn(testEmployeeList);
+        assertEquals(testEmployeeList, searchController.filterEmployees(filters));
+    }
+
+    /**
+     * Tests that batches active on a day are answered by the DateRangeService
+     */
+    @Test
+    public void testGetBatchesActiveOn() {
+        List<Batch> batches = Arrays.asList(testBatch);
+        when(dateRangeService.getBatchesActiveOn("3/1/2020")).thenReturn(batches);
+        assertEquals(batches, searchController.getBatchesActiveOn("3/1/2020"));
+    }
+
+    /**
+     * Tests that work orders in a date range are answered by the DateRangeService
+     */
+    @Test
+    public void testGetWorkOrdersBetween() {
+        when(dateRangeService.getWorkOrdersBetween("created", "1/1/19", null)).thenReturn(testWorkOrders);
+        assertEquals(testWorkOrders, searchController.getWorkOrdersBetween("created", "1/1/19", null));
+    }
+
+    /**
+     * Tests that queries are answered by the QueryService
+     */
+    @Test
+    public void testQuery() {
+        QueryRequest request = new QueryRequest();
+        request.setEntity("employee");
+        QueryResponse response = new QueryResponse();
+        response.setEntity("employee");
+        when(queryService.query(request)).thenReturn(response);
+        assertEquals(response, searchController.query(request));
+    }
+
+    /**
+     * Tests that occupancy is answered by the OccupancyService
+     */
+    @Test
+    public void testOccupancy() {
+        OccupancyDto building = new OccupancyDto("building", 16, 2, 45, 30, 30.0 / 45, 0);
+        when(occupancyService.getBuildingOccupancy(16)).thenReturn(building);
+        when(occupancyService.getOverCapacityRooms()).thenReturn(new ArrayList<>());
+        assertEquals(building, searchController.getBuildingOccupancy(16));
+        assertEquals(new ArrayList<>(), searchController.getOverCapacityRooms());
+    }
+
+    /**
+     * Tests that suggestions are answered by the SuggestService
+     */
+    @Test
+    public void testSuggest() {
+        List<Suggestion> suggestions = Arrays.asList(new Suggestion("employee", 1, "Bruce Wayne"));
+        when(suggestService.suggest("bru", "employee", 5)).thenReturn(suggestions);
+        assertEquals(suggestions, searchController.suggest("bru", "employee", 5));
+    }
+
+    /**
+     * Tests that facet counts are answered by the FacetService
+     */
+    @Test
+    public void testGetFacets() {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        facets.put(FacetService.EMPLOYEE_DEPARTMENT, Collections.singletonMap("HR", 2L));
+        List<String> dimensions = Arrays.asList(FacetService.EMPLOYEE_DEPARTMENT);
+        when(facetService.getFacets(dimensions)).thenReturn(facets);
+        assertEquals(facets, searchController.getFacets(dimensions));
+    }
+
     //****************************** Batch Testing ************************************************************
 
     /**
@@ -8,7 +8,15 @@ import com.revature.rms.search.entites.campus.*;
 import com.revature.rms.search.entites.workorder.WorkOrder;
 import com.revature.rms.search.repositories.BatchRepository;
 import com.revature.rms.search.repositories.WorkOrderRepository;
+import com.revature.rms.search.services.DateRangeService;
 import com.revature.rms.search.services.ETLService;
+import com.revature.rms.search.services.EmployeeSearchService;
+import com.revature.rms.search.services.FacetService;
+import com.revature.rms.search.services.FilterService;
+import com.revature.rms.search.services.OccupancyService;
+import com.revature.rms.search.services.QueryService;
+import com.revature.rms.search.services.SearchReadModel;
+import com.revature.rms.search.services.SuggestService;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -39,6 +47,22 @@ public class SearchControllerIntegrationTesting {
     @MockBean
     private ETLService etlService;
     @MockBean
+    private SearchReadModel searchReadModel;
+    @MockBean
+    private EmployeeSearchService employeeSearchService;
+    @MockBean
+    private SuggestService suggestService;
+    @MockBean
+    private FacetService facetService;
+    @MockBean
+    private FilterService filterService;
+    @MockBean
+    private DateRangeService dateRangeService;
+    @MockBean
+    private QueryService queryService;
+    @MockBean
+    private OccupancyService occupancyService;
+    @MockBean
     private BatchRepository batchRepository;
     @MockBean
     private WorkOrderRepository workOrderRepository;
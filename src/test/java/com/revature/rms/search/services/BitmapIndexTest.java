@@ -0,0 +1,78 @@
+package com.revature.rms.search.services;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BitmapIndexTest {
+
+  BitmapIndex sut;
+
+  @Before
+  public void setup() {
+    sut = new BitmapIndex(Arrays.asList("department", "active", "campus"));
+    sut.add("department", "TRAINING", 1);
+    sut.add("department", "TRAINING", 2);
+    sut.add("department", "HR", 3);
+    sut.add("department", "STAGING", 4);
+    sut.add("active", "true", 1);
+    sut.add("active", "true", 3);
+    sut.add("active", "false", 2);
+    sut.add("campus", "7", 1);
+    sut.add("campus", "8", 1);
+    sut.add("campus", "8", 4);
+    sut.add(5);
+    sut.optimize();
+  }
+
+  /**
+   * tests that the values of one field are ORed and different fields are ANDed
+   */
+  @Test
+  public void testOrWithinFieldAndAcrossFields() {
+    Map<String, List<String>> include = new HashMap<>();
+    include.put("department", Arrays.asList("TRAINING", "HR"));
+    include.put("active", Arrays.asList("true"));
+    Assert.assertArrayEquals(new int[] {1, 3}, sut.filter(include, Collections.emptyMap()).toArray());
+  }
+
+  /**
+   * tests that excluded values are taken away, starting from every id when nothing is included
+   */
+  @Test
+  public void testExcludeFromEverything() {
+    Map<String, List<String>> exclude = new HashMap<>();
+    exclude.put("campus", Arrays.asList("8"));
+    Assert.assertArrayEquals(new int[] {2, 3, 5}, sut.filter(Collections.emptyMap(), exclude).toArray());
+    Assert.assertEquals(5, sut.size());
+  }
+
+  /**
+   * tests that an id can have several values of one field and that a value no id has matches nothing
+   */
+  @Test
+  public void testMultiValuedFieldAndUnknownValue() {
+    Assert.assertArrayEquals(new int[] {1}, sut.get("campus", "7").toArray());
+    Assert.assertArrayEquals(new int[] {1, 4}, sut.get("campus", "8").toArray());
+    Map<String, List<String>> include = new HashMap<>();
+    include.put("department", Arrays.asList("MARKETING"));
+    Assert.assertTrue(sut.filter(include, Collections.emptyMap()).isEmpty());
+  }
+
+  /**
+   * tests that a bitmap handed out can be changed without changing the index
+   */
+  @Test
+  public void testBitmapsAreCopies() {
+    sut.get("department", "HR").add(1);
+    sut.all().add(99);
+    Assert.assertArrayEquals(new int[] {3}, sut.get("department", "HR").toArray());
+    Assert.assertEquals(5, sut.size());
+  }
+}
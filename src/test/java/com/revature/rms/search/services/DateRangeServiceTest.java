@@ -0,0 +1,104 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.core.exceptions.ResourceNotFoundException;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.batch.Curriculum;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import com.revature.rms.search.entites.workorder.Category;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class DateRangeServiceTest {
+
+  SearchReadModel readModel;
+  DateRangeService sut;
+
+  @Before
+  public void setup() {
+    readModel = new SearchReadModel();
+    sut = new DateRangeService(null, readModel, null);
+    ReadModelDocuments docs = new ReadModelDocuments();
+    ResourceMetadata metadata = new ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 1, true);
+    docs.getRawBatches().put(24, new Batch(24, "ABatch", "2/12/2020", "4/10/2020", 1, 0, new ArrayList<>(), Curriculum.AI, metadata));
+    docs.getRawBatches().put(25, new Batch(25, "BBatch", "12/16/2019", "2/28/2020", 2, 0, new ArrayList<>(), Curriculum.AI, metadata));
+    docs.getRawBatches().put(26, new Batch(26, "CBatch", "2020-03-02", "2020-05-08", 3, 0, new ArrayList<>(), Curriculum.AI, metadata));
+    docs.getRawWorkOrders().put(7, new WorkOrder(7, "01/02/20", null, Category.LIGHTING, "Flickering", "a@b.com", 1, 1));
+    docs.getRawWorkOrders().put(8, new WorkOrder(8, "1/9/2020 14:30", "1/10/20", Category.DOORS, "Stuck", "a@b.com", 1, 1));
+    docs.getRawWorkOrders().put(9, new WorkOrder(9, "12/20/19", "1/3/20", Category.DOORS, "Stuck", "a@b.com", 1, 1));
+    readModel.replace(docs);
+    sut.onReadModelUpdated(new ReadModelUpdatedEvent(docs, null));
+  }
+
+  /**
+   * tests that a batch is active from its start date to its end date, both included
+   */
+  @Test
+  public void testBatchesActiveOn() {
+    Assert.assertEquals(Arrays.asList(24, 25), batchIds(sut.getBatchesActiveOn("2/28/2020")));
+    Assert.assertEquals(Arrays.asList(24, 26), batchIds(sut.getBatchesActiveOn("2020-03-02")));
+  }
+
+  /**
+   * tests that batches are found by start or end date in date order, and that an open end has no bound
+   */
+  @Test
+  public void testBatchesBetween() {
+    Assert.assertEquals(Arrays.asList(25, 24), batchIds(sut.getBatchesBetween("start", null, "2/29/2020")));
+    Assert.assertEquals(Arrays.asList(24, 26), batchIds(sut.getBatchesBetween("END", "4/1/2020", null)));
+  }
+
+  /**
+   * tests that work orders are found by the day they were opened, whatever format the date was sent in,
+   * and that a work order that is still open has no resolved date
+   */
+  @Test
+  public void testWorkOrdersBetween() {
+    List<WorkOrder> opened = sut.getWorkOrdersBetween("created", "1/2/2020", "1/9/2020");
+    Assert.assertEquals(Arrays.asList(7, 8), opened.stream().map(WorkOrder::getId).collect(Collectors.toList()));
+    Assert.assertEquals(2, sut.getWorkOrderIndex("resolved").size());
+  }
+
+  /**
+   * tests that a field that has no index is refused
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testUnknownFieldIsRefused() {
+    sut.getBatchesBetween("created", null, null);
+  }
+
+  /**
+   * tests that a range that ends before it starts is refused
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testBackwardsRangeIsRefused() {
+    sut.getWorkOrdersBetween("created", "2/1/20", "1/1/20");
+  }
+
+  /**
+   * tests that a date that is not understood is refused
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testUnknownDateIsRefused() {
+    sut.getBatchesActiveOn("someday");
+  }
+
+  /**
+   * tests that a day with no batch running is not found
+   */
+  @Test(expected = ResourceNotFoundException.class)
+  public void testNoBatchActive() {
+    sut.getBatchesActiveOn("1/1/2021");
+  }
+
+  private static List<Integer> batchIds(List<Batch> batches) {
+    return batches.stream().map(Batch::getId).collect(Collectors.toList());
+  }
+}
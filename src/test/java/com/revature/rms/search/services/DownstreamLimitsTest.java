@@ -0,0 +1,96 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.config.HydrationProperties;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class DownstreamLimitsTest {
+
+  DownstreamLimits sut;
+  ExecutorService pool;
+  AtomicInteger open = new AtomicInteger();
+  AtomicInteger mostOpen = new AtomicInteger();
+
+  @Before
+  public void setup() {
+    HydrationProperties hydrationProperties = new HydrationProperties();
+    hydrationProperties.setEmployeeServiceConcurrency(2);
+    hydrationProperties.setAuthServiceConcurrency(1);
+    sut = new DownstreamLimits(hydrationProperties);
+    pool = Executors.newFixedThreadPool(6);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * tests that no more calls are open against the employee service at once than its cap, and that every call
+   * still gets its answer
+   */
+  @Test
+  public void testEmployeeServiceCap() throws Exception {
+    Assert.assertEquals(21, callAll(sut::callEmployeeService));
+    Assert.assertEquals(2, mostOpen.get());
+  }
+
+  /**
+   * tests that the auth service has a cap of its own
+   */
+  @Test
+  public void testAuthServiceCap() throws Exception {
+    Assert.assertEquals(21, callAll(sut::callAuthService));
+    Assert.assertEquals(1, mostOpen.get());
+  }
+
+  /**
+   * tests that a permit is given back when the call fails
+   */
+  @Test
+  public void testPermitReleasedOnFailure() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      try {
+        sut.callAuthService(() -> {
+          throw new IllegalStateException("down");
+        });
+      } catch (IllegalStateException expected) {
+        // the next call must still get the only permit
+      }
+    }
+    Assert.assertEquals(Integer.valueOf(1), sut.callAuthService(() -> 1));
+  }
+
+  private int callAll(Function<Supplier<Integer>, Integer> limited) throws Exception {
+    List<Future<Integer>> calls = new ArrayList<>();
+    for (int i = 1; i <= 6; i++) {
+      int value = i;
+      calls.add(pool.submit(() -> limited.apply(() -> {
+        mostOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(50);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        open.decrementAndGet();
+        return value;
+      })));
+    }
+    int sum = 0;
+    for (Future<Integer> call : calls) {
+      sum += call.get();
+    }
+    return sum;
+  }
+}
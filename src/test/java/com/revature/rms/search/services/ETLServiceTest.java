@@ -3,6 +3,7 @@ package com.revature.rms.search.services;
 import com.revature.rms.search.clients.AuthClient;
 import com.revature.rms.search.clients.CampusClient;
 import com.revature.rms.search.clients.EmployeeClient;
+import com.revature.rms.search.config.HydrationProperties;
 
 import com.revature.rms.search.dtos.*;
 import com.revature.rms.search.entites.batch.Batch;
@@ -17,6 +18,7 @@ import com.revature.rms.search.entites.workorder.WorkOrder;
 import com.revature.rms.core.exceptions.*;
 import com.revature.rms.search.repositories.BatchRepository;
 import com.revature.rms.search.repositories.WorkOrderRepository;
+import feign.FeignException;
 import org.junit.Assert;
 import org.junit.After;
 import org.junit.Before;
@@ -27,13 +29,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.Mock;
+import org.springframework.core.task.SyncTaskExecutor;
 
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 ;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -55,7 +62,10 @@ public class ETLServiceTest {
   @Mock AuthClient mockAuthClient;
   @Mock WorkOrderRepository mockWorkOrderRepo;
   @Mock BatchRepository mockBatchRepo;
+  @Mock TrainerRoomIndex mockTrainerRoomIndex;
   ETLService spyService;
+  AppUserCache appUserCache;
+  EmployeeBatchLoader batchLoader;
 
   Address address;
   ResourceMetadata resourceMetadata;
@@ -88,9 +98,12 @@ public class ETLServiceTest {
 
   @Before
   public void setup() {
-    sut = new ETLService(mockEmployeeClient, mockCampusClient, mockWorkOrderRepo, mockBatchRepo,  mockAuthClient);
+    HydrationProperties hydrationProperties = new HydrationProperties();
+    appUserCache = new AppUserCache(mockAuthClient, new DownstreamLimits(hydrationProperties), hydrationProperties, new SyncTaskExecutor());
+    batchLoader = new EmployeeBatchLoader(mockEmployeeClient, new DownstreamLimits(hydrationProperties), hydrationProperties, new SyncTaskExecutor());
+    sut = new ETLService(mockEmployeeClient, mockCampusClient, mockWorkOrderRepo, mockBatchRepo, mockAuthClient, hydrationProperties, new SyncTaskExecutor(), new DownstreamLimits(hydrationProperties), mockTrainerRoomIndex, appUserCache, batchLoader);
 
-    spyService = Mockito.spy(new ETLService(mockEmployeeClient, mockCampusClient, mockWorkOrderRepo, mockBatchRepo, mockAuthClient));
+    spyService = Mockito.spy(new ETLService(mockEmployeeClient, mockCampusClient, mockWorkOrderRepo, mockBatchRepo, mockAuthClient, hydrationProperties, new SyncTaskExecutor(), new DownstreamLimits(hydrationProperties), mockTrainerRoomIndex, appUserCache, batchLoader));
 
     campus = new Campus(17, "USF", "USF", address, 1, 1, 1, buildings, employeesIds, resourceMetadata);
 
@@ -152,6 +165,7 @@ public class ETLServiceTest {
   }
   @After
   public void tearDown() {
+    batchLoader.shutdown();
     sut = null;
   }
 
@@ -257,7 +271,7 @@ public class ETLServiceTest {
   public void testGetCampusDto(){
     Mockito.doReturn(campusDto).when(spyService).getCampusObjects(campus);
     Mockito.doReturn(buildingDtos).when(spyService).getListOfBuildingsData(campus.getBuildings());
-    when(mockEmployeeClient.getEmployeesByIds(campus.getCorporateEmployees())).thenReturn(employees);
+    Mockito.doReturn(employees).when(spyService).fetchEmployeesByIds(campus.getCorporateEmployees());
     Mockito.doReturn(employeeDtos).when(spyService).getEachEmployeeMeta(employees);
     Assert.assertEquals(campusDto, spyService.getCampusDto(campus));
   }
@@ -288,7 +302,7 @@ public class ETLServiceTest {
   public void testGetCampusDtoById(){
     Mockito.doReturn(campusDto).when(spyService).getCampusObjects(campus);
     Mockito.doReturn(buildingDtos).when(spyService).getListOfBuildingsData(campus.getBuildings());
-    when(mockEmployeeClient.getEmployeesByIds(campus.getCorporateEmployees())).thenReturn(employees);
+    Mockito.doReturn(employees).when(spyService).fetchEmployeesByIds(campus.getCorporateEmployees());
     Mockito.doReturn(employeeDtos).when(spyService).getEachEmployeeMeta(employees);
     Assert.assertEquals(campusDto, spyService.getCampusDto(campus));
   }
@@ -535,34 +549,85 @@ public class ETLServiceTest {
   }
 
   /**
-   *  tests Resource Not Found exception in get room Dto by trainer id by having mock campus client return an empty list
+   *  tests Resource Not Found exception in get room Dto by trainer id by having the trainer room index return no rooms
+   *  and refuse to rebuild
    */
   @Test(expected = ResourceNotFoundException.class)
   public void testGetRoomDtoByTrainerIdResourceNotFound(){
-    List<Room> rooms = new ArrayList<>();
-    when(mockCampusClient.getAllRooms()).thenReturn(rooms);
-    sut.getRoomDtoByTrainerId(1);
+    when(mockTrainerRoomIndex.findRoomIdsByTrainerId(1)).thenReturn(new int[0]);
+    try {
+      sut.getRoomDtoByTrainerId(1);
+    } finally {
+      Mockito.verify(mockTrainerRoomIndex).rebuildIfStale();
+      Mockito.verify(mockCampusClient, Mockito.never()).getAllRooms();
+    }
   }
 
   /**
-   * tests for exception catching in room dto by trainer id
-   * by spying the ETLService and mocking get emps from room status, get batch by id, get batch info,
-   * get each work order info and campus meta data and having it throw a null pointer
+   * tests get room dto by trainer id by having the trainer room index return a single room
+   * and spying the ETLService to mock the nested hydration, only that room should be fetched
    */
-  @Test(expected = Exception.class)
-  public void testGetRoomDtoByTrainerIdException(){
-    when(mockCampusClient.getAllRooms()).thenReturn(rooms);
+  @Test
+  public void testGetRoomDtoByTrainerId(){
     List<RoomStatusDto> roomStatusDtos = new ArrayList<>();
     roomStatusDtos.add(new RoomStatusDto(14, true, true, "1/1/19", employeeDto, "Good"));
+    roomDtos.get(0).setCurrentStatus(roomStatusDtos);
+    roomDtos.get(0).setBatch(batchDto);
     List<WorkOrderDto> workOrderDtos = Arrays.asList(workOrder.extractWorkOrder());
+    roomDtos.get(0).setWorkOrders(workOrderDtos);
+    roomDtos.get(0).setResourceMetadata(resourceMetadataDto);
+    when(mockTrainerRoomIndex.findRoomIdsByTrainerId(20)).thenReturn(new int[] {15});
+    when(mockCampusClient.getRoomById(15)).thenReturn(rooms.get(0));
     Mockito.doReturn(roomStatusDtos).when(spyService).getEmpsFromRoomStatus(rooms.get(0).getCurrentStatus());
     Mockito.doReturn(batch).when(spyService).getBatchById(rooms.get(0).getBatchId());
     Mockito.doReturn(batchDto).when(spyService).getBatchInfo(batch);
     Mockito.doReturn(workOrderDtos).when(spyService).getEachWorkOrderInfo(rooms.get(0).getWorkOrders());
     Mockito.doReturn(resourceMetadataDto).when(spyService).campusMetaData(rooms.get(0).getResourceMetadata());
-    spyService.getRoomDtoByTrainerId(1);
+    Assert.assertEquals(roomDtos.get(0), spyService.getRoomDtoByTrainerId(20));
+    Mockito.verify(mockCampusClient, Mockito.never()).getAllRooms();
+  }
+
+  /**
+   * tests that get room dto by trainer id rebuilds the trainer room index once when the indexed room's batch
+   * no longer belongs to that trainer, and throws Resource Not Found when the rebuilt index has nothing either
+   */
+  @Test(expected = ResourceNotFoundException.class)
+  public void testGetRoomDtoByTrainerIdStaleIndex(){
+    when(mockTrainerRoomIndex.findRoomIdsByTrainerId(21)).thenReturn(new int[] {15}, new int[0]);
+    when(mockTrainerRoomIndex.rebuildIfStale()).thenReturn(true);
+    when(mockCampusClient.getRoomById(15)).thenReturn(rooms.get(0));
+    Mockito.doReturn(batch).when(spyService).getBatchById(rooms.get(0).getBatchId());
+    try {
+      spyService.getRoomDtoByTrainerId(21);
+    } finally {
+      Mockito.verify(mockTrainerRoomIndex, Mockito.times(2)).findRoomIdsByTrainerId(21);
+    }
+  }
+
+  /**
+   * tests get room dto by co-trainer id by having the trainer room index return the room of a batch co-trained
+   * by the given employee
+   */
+  @Test
+  public void testGetRoomDtoByCoTrainerId(){
+    List<WorkOrderDto> workOrderDtos = Arrays.asList(workOrder.extractWorkOrder());
+    when(mockTrainerRoomIndex.findRoomIdsByCoTrainerId(22)).thenReturn(new int[] {15});
+    when(mockCampusClient.getRoomById(15)).thenReturn(rooms.get(0));
+    Mockito.doReturn(new ArrayList<RoomStatusDto>()).when(spyService).getEmpsFromRoomStatus(rooms.get(0).getCurrentStatus());
+    Mockito.doReturn(batch).when(spyService).getBatchById(rooms.get(0).getBatchId());
+    Mockito.doReturn(batchDto).when(spyService).getBatchInfo(batch);
+    Mockito.doReturn(workOrderDtos).when(spyService).getEachWorkOrderInfo(rooms.get(0).getWorkOrders());
+    Mockito.doReturn(resourceMetadataDto).when(spyService).campusMetaData(rooms.get(0).getResourceMetadata());
+    Assert.assertEquals(15, spyService.getRoomDtoByCoTrainerId(22).getId());
+  }
+
+  /**
+   * tests Invalid Request exception in get room dto by co-trainer id by inputting an invalid id number
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testGetRoomDtoByCoTrainerIdInvalid(){
+    sut.getRoomDtoByCoTrainerId(0);
   }
-  //TODO GET ROOM DTO BY TRAINER ID
 
   /**
    * tests Invalid Request exception in get all room by owner by inputting an invalid id number
@@ -619,11 +684,51 @@ public class ETLServiceTest {
     roomDtos.get(0).setWorkOrders(workOrderDtos);
     roomDtos.get(0).setResourceMetadata(resourceMetadataDto);
     Mockito.doReturn(roomStatusDtos).when(spyService).getEmpsFromRoomStatus(rooms.get(0).getCurrentStatus());
-    Mockito.doReturn(batch).when(spyService).getBatchById(rooms.get(0).getBatchId());
-    Mockito.doReturn(batchDto).when(spyService).getBatchInfo(batch);
+    Mockito.doReturn(Collections.singletonMap(1, batchDto)).when(spyService).getBatchDtosByIds(Arrays.asList(1));
     Mockito.doReturn(workOrderDtos).when(spyService).getEachWorkOrderInfo(rooms.get(0).getWorkOrders());
     Mockito.doReturn(resourceMetadataDto).when(spyService).campusMetaData(rooms.get(0).getResourceMetadata());
     Assert.assertEquals(roomDtos, spyService.getEachRoomMeta(rooms));
+    Mockito.verify(spyService, Mockito.never()).getBatchById(anyInt());
+  }
+
+  /**
+   * tests that get batch dtos by ids loads every batch with one query and only hydrates a batch once
+   * when more than one room points at it
+   */
+  @Test
+  public void testGetBatchDtosByIds(){
+    when(mockBatchRepo.findAllById(Arrays.asList(24))).thenReturn(Arrays.asList(batch));
+    Mockito.doReturn(batchDto).when(spyService).getBatchInfo(batch);
+    Assert.assertEquals(Collections.singletonMap(24, batchDto), spyService.getBatchDtosByIds(Arrays.asList(24, 24, 24)));
+    Mockito.verify(spyService, Mockito.times(1)).getBatchInfo(batch);
+  }
+
+  /**
+   * tests that get batch dtos by ids reuses the hydrated batch from the open hydration context
+   * across separate calls in the same response
+   */
+  @Test
+  public void testGetBatchDtosByIdsWithHydrationContext(){
+    when(mockBatchRepo.findAllById(Arrays.asList(24))).thenReturn(Arrays.asList(batch));
+    Mockito.doReturn(batchDto).when(spyService).getBatchInfo(batch);
+    HydrationContext.open();
+    try {
+      spyService.getBatchDtosByIds(Arrays.asList(24));
+      Assert.assertEquals(batchDto, spyService.getBatchDtosByIds(Arrays.asList(24)).get(24));
+    } finally {
+      HydrationContext.close();
+    }
+    Mockito.verify(mockBatchRepo, Mockito.times(1)).findAllById(any());
+    Mockito.verify(spyService, Mockito.times(1)).getBatchInfo(batch);
+  }
+
+  /**
+   * tests resource not found exception in get batch dtos by ids by having the repository return no batches
+   */
+  @Test(expected = ResourceNotFoundException.class)
+  public void testGetBatchDtosByIdsResourceNotFound(){
+    when(mockBatchRepo.findAllById(Arrays.asList(24))).thenReturn(new ArrayList<>());
+    sut.getBatchDtosByIds(Arrays.asList(24));
   }
 
   /**
@@ -672,11 +777,11 @@ public class ETLServiceTest {
   }
 
   /**
-   * tests Resource Not Found exception in get employee dto by id by having employee client return null
+   * tests Resource Not Found exception in get employee dto by id by having employee client leave the employee out
    */
   @Test(expected = ResourceNotFoundException.class)
   public void testGetEmployeeDtoByIdResourceNotFound(){
-    when(mockEmployeeClient.getEmployeeById(1)).thenReturn(null);
+    when(mockEmployeeClient.getEmployeesByIds(Arrays.asList(1))).thenReturn(new ArrayList<>());
     sut.getEmployeeDtoById(1);
   }
 
@@ -686,7 +791,7 @@ public class ETLServiceTest {
    */
   @Test
   public void testGetEmployeeDtoById(){
-    when(mockEmployeeClient.getEmployeeById(1)).thenReturn(employee);
+    when(mockEmployeeClient.getEmployeesByIds(Arrays.asList(1))).thenReturn(Arrays.asList(employee));
     Assert.assertEquals(employee.extractEmployee(), sut.getEmployeeDtoById(1));
   }
 
@@ -699,11 +804,11 @@ public class ETLServiceTest {
   }
 
   /**
-   * tests Resource Not Found exception in get employee by id by having employee client return null
+   * tests Resource Not Found exception in get employee by id by having employee client leave the employee out
    */
   @Test(expected = ResourceNotFoundException.class)
   public void testGetEmployeeByIdResourceNotFound(){
-    when(mockEmployeeClient.getEmployeeById(1)).thenReturn(null);
+    when(mockEmployeeClient.getEmployeesByIds(Arrays.asList(1))).thenReturn(new ArrayList<>());
     sut.getEmployeeById(1);
   }
 
@@ -715,11 +820,25 @@ public class ETLServiceTest {
   @Test
   public void testGetEmployeeByID(){
     employeeDto.setResourceMetadata(resourceMetadataDto);
-    when(mockEmployeeClient.getEmployeeById(1)).thenReturn(employee);
+    when(mockEmployeeClient.getEmployeesByIds(Arrays.asList(1))).thenReturn(Arrays.asList(employee));
     Mockito.doReturn(resourceMetadataDto).when(spyService).getEmployeeMetadata(employee.getResourceMetadata());
     Assert.assertEquals(employeeDto, spyService.getEmployeeById(1));
   }
 
+  /**
+   * tests that get employee by id serves a repeated lookup from the employee cache
+   * without calling the employee client or hydrating the metadata again
+   */
+  @Test
+  public void testGetEmployeeByIdIsCached(){
+    when(mockEmployeeClient.getEmployeesByIds(Arrays.asList(1))).thenReturn(Arrays.asList(employee));
+    Mockito.doReturn(resourceMetadataDto).when(spyService).getEmployeeMetadata(employee.getResourceMetadata());
+    EmployeeDto first = spyService.getEmployeeById(1);
+    Assert.assertSame(first, spyService.getEmployeeById(1));
+    Mockito.verify(mockEmployeeClient, Mockito.times(1)).getEmployeesByIds(Arrays.asList(1));
+    Mockito.verify(spyService, Mockito.times(1)).getEmployeeMetadata(employee.getResourceMetadata());
+  }
+
   /**
    * tests invalid request exception in get all employee by owner by giving it an invalid id number
    */
@@ -786,6 +905,138 @@ public class ETLServiceTest {
     Assert.assertEquals(empAppUser, sut.getAppUserById(1));
   }
 
+  /**
+   * tests that get app user by id serves a user from the app user cache on later requests
+   */
+  @Test
+  public void testGetAppUserByIdIsCached(){
+    when(mockAuthClient.getUserById(1)).thenReturn(empAppUser);
+    Assert.assertEquals(empAppUser, sut.getAppUserById(1));
+    Assert.assertEquals(empAppUser, sut.getAppUserById(1));
+    Mockito.verify(mockAuthClient, Mockito.times(1)).getUserById(1);
+  }
+
+  /**
+   * tests that get app user by id remembers that a user was not found instead of asking the auth client again
+   */
+  @Test
+  public void testGetAppUserByIdCachesNotFound(){
+    when(mockAuthClient.getUserById(1)).thenReturn(null);
+    for (int i = 0; i < 2; i++) {
+      try {
+        sut.getAppUserById(1);
+        Assert.fail("expected a ResourceNotFoundException");
+      } catch (ResourceNotFoundException expected) {
+      }
+    }
+    Mockito.verify(mockAuthClient, Mockito.times(1)).getUserById(1);
+  }
+
+  /**
+   * tests that get app user by id takes a 404 from the auth client as the user not being found, and remembers it
+   */
+  @Test
+  public void testGetAppUserByIdCachesNotFoundResponse(){
+    FeignException notFound = Mockito.mock(FeignException.class);
+    when(notFound.status()).thenReturn(404);
+    when(mockAuthClient.getUserById(1)).thenThrow(notFound);
+    for (int i = 0; i < 2; i++) {
+      try {
+        sut.getAppUserById(1);
+        Assert.fail("expected a ResourceNotFoundException");
+      } catch (ResourceNotFoundException expected) {
+      }
+    }
+    Mockito.verify(mockAuthClient, Mockito.times(1)).getUserById(1);
+  }
+
+  /**
+   * tests that a failed bulk request of app users only leaves out the users of its own chunk, and that those are
+   * fetched one at a time when they are next asked for
+   */
+  @Test
+  public void testGetAllAppUsersKeepsChunksThatDidNotFail(){
+    HydrationProperties hydrationProperties = new HydrationProperties();
+    hydrationProperties.setUserBatchSize(1);
+    AppUserCache chunked = new AppUserCache(mockAuthClient, new DownstreamLimits(hydrationProperties), hydrationProperties, new SyncTaskExecutor());
+    AppUser other = new AppUser(2, "Other@email.com", "Other", roles);
+    when(mockAuthClient.getUsersByIds(Arrays.asList(1))).thenReturn(Arrays.asList(empAppUser));
+    when(mockAuthClient.getUsersByIds(Arrays.asList(2))).thenThrow(NullPointerException.class);
+    when(mockAuthClient.getUserById(2)).thenReturn(other);
+    Map<Integer, Optional<AppUser>> users = chunked.getAll(Arrays.asList(1, 2));
+    Assert.assertEquals(Collections.singletonMap(1, Optional.of(empAppUser)), users);
+    Assert.assertEquals(Optional.of(other), chunked.get(2));
+  }
+
+  /**
+   * tests that get app user by id only calls the auth client once per user while a hydration context is open
+   */
+  @Test
+  public void testGetAppUserByIdWithHydrationContext(){
+    HydrationContext context = HydrationContext.open();
+    try {
+      when(mockAuthClient.getUserById(1)).thenReturn(empAppUser);
+      Assert.assertEquals(empAppUser, sut.getAppUserById(1));
+      Assert.assertEquals(empAppUser, sut.getAppUserById(1));
+      Assert.assertEquals(empAppUser, sut.getAppUserById(1));
+      Mockito.verify(mockAuthClient, Mockito.times(1)).getUserById(1);
+      Assert.assertEquals(2, context.getSavedUserCalls());
+    } finally {
+      HydrationContext.close();
+    }
+  }
+
+  /**
+   * tests that prefetch app users fetches every distinct user in one bulk call and that get app user by id
+   * then answers from the hydration context, including a not found user that the bulk call did not return
+   */
+  @Test
+  public void testPrefetchAppUsers(){
+    HydrationContext context = HydrationContext.open();
+    try {
+      when(mockAuthClient.getUsersByIds(Arrays.asList(1, 2))).thenReturn(Arrays.asList(empAppUser));
+      sut.prefetchAppUsers(Arrays.asList(1, 2, 1, 0));
+      Assert.assertEquals(empAppUser, sut.getAppUserById(1));
+      try {
+        sut.getAppUserById(2);
+        Assert.fail("expected a ResourceNotFoundException");
+      } catch (ResourceNotFoundException expected) {
+        Mockito.verify(mockAuthClient, Mockito.never()).getUserById(anyInt());
+      }
+      Assert.assertEquals(1, context.getUserBulkCalls());
+    } finally {
+      HydrationContext.close();
+    }
+  }
+
+  /**
+   * tests that prefetch resolves a room's batch, work orders, employees and app users with one bulk call each
+   * and that the single lookups afterwards are answered from the hydration context
+   */
+  @Test
+  public void testPrefetchHydrationPlan(){
+    Room room = new Room(15, "123", 25, Arrays.asList(new RoomStatus(14, true, true, "1/1/19", 1, "Good")), 24, Arrays.asList(1), resourceMetadata);
+    Batch plannedBatch = new Batch(24, "ABatch", "2/12/2020", "4/10/2020", 20, 0, Arrays.asList(3), Curriculum.AI, resourceMetadata);
+    HydrationContext.open();
+    try {
+      when(mockBatchRepo.findAllById(Arrays.asList(24))).thenReturn(Arrays.asList(plannedBatch));
+      when(mockWorkOrderRepo.findAllById(Arrays.asList(1))).thenReturn(Arrays.asList(workOrder));
+      when(mockEmployeeClient.getEmployeesByIds(Arrays.asList(1, 20, 3))).thenReturn(Arrays.asList(employee));
+      when(mockAuthClient.getUsersByIds(Arrays.asList(15, 1))).thenReturn(Arrays.asList(empAppUser));
+      sut.prefetch(new HydrationPlan().addRoom(room));
+      Assert.assertEquals(plannedBatch, sut.getBatchById(24));
+      Assert.assertEquals(workOrder, sut.getWorkOrderById(1));
+      Assert.assertEquals(employee.extractEmployee(), sut.getEmployeeDtoById(1));
+      Assert.assertEquals(empAppUser, sut.getAppUserById(15));
+      Mockito.verify(mockBatchRepo, Mockito.never()).findById(anyInt());
+      Mockito.verify(mockWorkOrderRepo, Mockito.never()).findById(anyInt());
+      Mockito.verify(mockEmployeeClient, Mockito.times(1)).getEmployeesByIds(any());
+      Mockito.verify(mockAuthClient, Mockito.never()).getUserById(anyInt());
+    } finally {
+      HydrationContext.close();
+    }
+  }
+
   /**
    * tests invalid request exception in get work order by id by giving it a bad id number
    */
@@ -834,8 +1085,9 @@ public class ETLServiceTest {
 
   /**
    * tests the entire get each work order info by spying the ETLService
-   * and mocking the get work order by id and get employee by id
-   * and then comparing a pre made list of work order dtos and the return list
+   * and mocking the work order repository's find all by id and get employee by id
+   * and then comparing a pre made list of work order dtos and the return list,
+   * the creator and resolver are the same employee so it should only be grabbed once
    */
   @Test
   public void testGetEachWorkOrderInfo(){
@@ -844,9 +1096,47 @@ public class ETLServiceTest {
     workOrderDto.setResolver(employeeDto);
     List<WorkOrderDto> workOrderDtos = Arrays.asList(workOrderDto);
     List<Integer> ids = Arrays.asList(1);
-    Mockito.doReturn(workOrder).when(spyService).getWorkOrderById(1);
+    when(mockWorkOrderRepo.findAllById(Arrays.asList(1))).thenReturn(Arrays.asList(workOrder));
     Mockito.doReturn(employeeDto).when(spyService).getEmployeeById(workOrder.getResolverId());
     Assert.assertEquals(workOrderDtos, spyService.getEachWorkOrderInfo(ids));
+    Mockito.verify(spyService, Mockito.times(1)).getEmployeeById(1);
+    Mockito.verify(mockWorkOrderRepo, Mockito.never()).findById(anyInt());
+  }
+
+  /**
+   * tests that get work orders by ids makes one query for every distinct id and
+   * returns the work orders in the order of the ids even when the repository does not
+   */
+  @Test
+  public void testGetWorkOrdersByIdsKeepsOrder(){
+    WorkOrder other = new WorkOrder(2, "testTime", "testTime", Category.LIGHTING, "test", "test", 1, 1);
+    when(mockWorkOrderRepo.findAllById(Arrays.asList(2, 1))).thenReturn(Arrays.asList(workOrder, other));
+    Assert.assertEquals(Arrays.asList(other, workOrder, other), sut.getWorkOrdersByIds(Arrays.asList(2, 1, 2)));
+  }
+
+  /**
+   * tests resource not found exception in get each work order info by having the repository leave out one of the ids
+   */
+  @Test(expected = ResourceNotFoundException.class)
+  public void testGetEachWorkOrderInfoMissingWorkOrder(){
+    when(mockWorkOrderRepo.findAllById(Arrays.asList(1, 2))).thenReturn(Arrays.asList(workOrder));
+    sut.getEachWorkOrderInfo(Arrays.asList(1, 2));
+  }
+
+  /**
+   * tests that fetch employees by ids splits the ids into chunks of the configured size,
+   * drops duplicates and invalid ids and puts the employees back in the order of the ids
+   */
+  @Test
+  public void testFetchEmployeesByIdsInChunks(){
+    HydrationProperties hydrationProperties = new HydrationProperties();
+    hydrationProperties.setEmployeeBatchSize(2);
+    ETLService chunked = new ETLService(mockEmployeeClient, mockCampusClient, mockWorkOrderRepo, mockBatchRepo, mockAuthClient, hydrationProperties, new SyncTaskExecutor(), new DownstreamLimits(hydrationProperties), mockTrainerRoomIndex, appUserCache, batchLoader);
+    Employee two = new Employee(2, "two", "two", "two", "two", Department.HR, null);
+    Employee three = new Employee(3, "three", "three", "three", "three", Department.HR, null);
+    when(mockEmployeeClient.getEmployeesByIds(Arrays.asList(3, 1))).thenReturn(Arrays.asList(employee, three));
+    when(mockEmployeeClient.getEmployeesByIds(Arrays.asList(2))).thenReturn(Arrays.asList(two));
+    Assert.assertEquals(Arrays.asList(three, employee, two), chunked.fetchEmployeesByIds(Arrays.asList(3, 1, 0, 3, 2)));
   }
 
   /**
@@ -894,4 +1184,49 @@ public class ETLServiceTest {
     sut.getCampusObjects(null);
   }
 
+  /**
+   * tests that siblings hydrated on a real pool come back in the order they were given, even when the first ones
+   * finish last
+   */
+  @Test
+  public void testHydrateInParallelKeepsOrder() {
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Integer> results = pooled(pool).hydrateInParallel(Arrays.asList(40, 30, 20, 10), delay -> {
+        try {
+          Thread.sleep(delay);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return delay / 10;
+      });
+      Assert.assertEquals(Arrays.asList(4, 3, 2, 1), results);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * tests that a sibling that fails on a real pool rethrows its own exception rather than the wrapper around it
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testHydrateInParallelRethrowsCause() {
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      pooled(pool).hydrateInParallel(Arrays.asList(1, 0, 2), id -> {
+        if (id < 1) {
+          throw new InvalidRequestException("Id must be 1 or above");
+        }
+        return id;
+      });
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private ETLService pooled(ExecutorService pool) {
+    HydrationProperties hydrationProperties = new HydrationProperties();
+    return new ETLService(mockEmployeeClient, mockCampusClient, mockWorkOrderRepo, mockBatchRepo, mockAuthClient,
+        hydrationProperties, pool, new DownstreamLimits(hydrationProperties), mockTrainerRoomIndex, appUserCache, null);
+  }
 }
@@ -0,0 +1,116 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.clients.EmployeeClient;
+import com.revature.rms.search.config.HydrationProperties;
+import com.revature.rms.search.entites.employee.Department;
+import com.revature.rms.search.entites.employee.Employee;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class EmployeeBatchLoaderTest {
+
+  EmployeeClient mockEmployeeClient;
+  HydrationProperties hydrationProperties;
+  EmployeeBatchLoader sut;
+  Employee one;
+  Employee two;
+  Employee three;
+
+  @Before
+  public void setup() {
+    mockEmployeeClient = Mockito.mock(EmployeeClient.class);
+    hydrationProperties = new HydrationProperties();
+    hydrationProperties.setEmployeeBatchSize(3);
+    hydrationProperties.setEmployeeBatchWindow(Duration.ofSeconds(5));
+    sut = new EmployeeBatchLoader(mockEmployeeClient, new DownstreamLimits(hydrationProperties), hydrationProperties, new SyncTaskExecutor());
+    one = new Employee(1, "one", "one", "one", "one", Department.HR, null);
+    two = new Employee(2, "two", "two", "two", "two", Department.HR, null);
+    three = new Employee(3, "three", "three", "three", "three", Department.HR, null);
+  }
+
+  @After
+  public void tearDown() {
+    sut.shutdown();
+  }
+
+  /**
+   * tests that lookups from different threads are sent together as soon as the batch is full,
+   * without waiting for the window to end, and that each thread gets its own employee back
+   */
+  @Test
+  public void testLookupsFromManyThreadsShareOneRequest() throws Exception {
+    when(mockEmployeeClient.getEmployeesByIds(any())).thenReturn(Arrays.asList(one, two, three));
+    ExecutorService pool = Executors.newFixedThreadPool(3);
+    try {
+      Future<Employee> first = pool.submit(() -> sut.get(1));
+      Future<Employee> second = pool.submit(() -> sut.get(2));
+      Future<Employee> third = pool.submit(() -> sut.get(3));
+      Assert.assertEquals(one, first.get(1, TimeUnit.SECONDS));
+      Assert.assertEquals(two, second.get(1, TimeUnit.SECONDS));
+      Assert.assertEquals(three, third.get(1, TimeUnit.SECONDS));
+    } finally {
+      pool.shutdownNow();
+    }
+    Mockito.verify(mockEmployeeClient, Mockito.times(1)).getEmployeesByIds(any());
+  }
+
+  /**
+   * tests that the same id asked for twice in one window is only sent once, that a batch that is not full is
+   * sent when the window ends, and that an employee the service leaves out comes back as null
+   */
+  @Test
+  public void testWindowFlushesDuplicatesOnce() {
+    hydrationProperties.setEmployeeBatchWindow(Duration.ofMillis(20));
+    when(mockEmployeeClient.getEmployeesByIds(Arrays.asList(1, 4))).thenReturn(Arrays.asList(one));
+    CompletableFuture<Employee> first = sut.load(1);
+    Assert.assertSame(first, sut.load(1));
+    CompletableFuture<Employee> missing = sut.load(4);
+    Assert.assertEquals(one, first.join());
+    Assert.assertNull(missing.join());
+    Mockito.verify(mockEmployeeClient, Mockito.times(1)).getEmployeesByIds(any());
+  }
+
+  /**
+   * tests that a window that runs out while every flush thread is still waiting on the employee service waits for
+   * a free thread instead of failing its lookups or being sent from the timer thread
+   */
+  @Test
+  public void testWindowWaitsWhenFlushPoolIsBusy() throws Exception {
+    sut.shutdown();
+    hydrationProperties.setParallelism(1);
+    hydrationProperties.setEmployeeBatchWindow(Duration.ofMillis(20));
+    sut = new EmployeeBatchLoader(mockEmployeeClient, new DownstreamLimits(hydrationProperties), hydrationProperties, new SyncTaskExecutor());
+    CountDownLatch sending = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(mockEmployeeClient.getEmployeesByIds(Arrays.asList(1))).thenAnswer(invocation -> {
+      sending.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return Arrays.asList(one);
+    });
+    when(mockEmployeeClient.getEmployeesByIds(Arrays.asList(2))).thenReturn(Arrays.asList(two));
+    CompletableFuture<Employee> first = sut.load(1);
+    Assert.assertTrue(sending.await(1, TimeUnit.SECONDS));
+    CompletableFuture<Employee> second = sut.load(2);
+    Thread.sleep(100);
+    Assert.assertFalse(second.isDone());
+    release.countDown();
+    Assert.assertEquals(one, first.get(1, TimeUnit.SECONDS));
+    Assert.assertEquals(two, second.get(1, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,71 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.entites.employee.Department;
+import com.revature.rms.search.entites.employee.Employee;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class EmployeeSearchIndexTest {
+
+  EmployeeSearchIndex sut;
+
+  @Before
+  public void setup() {
+    sut = new EmployeeSearchIndex(1.2, 0.75);
+    sut.rebuild(Arrays.asList(
+        new Employee(1, "Bruce", "Wayne", "imbatman@bw.com", "Batman", Department.TRAINING, null),
+        new Employee(2, "Peter", "Parker", "webslinger@spidey.com", "Spider Man", Department.QC, null),
+        new Employee(5, "Bruce", "Banner", "hulksmash@smash.net", "Hulk", Department.RETENTION, null),
+        new Employee(7, "Hawk", "Eye", "nevermiss@aim.com", "HawkEye", Department.STAGING, null)));
+  }
+
+  /**
+   * tests that every word must match, and that case and punctuation do not matter
+   */
+  @Test
+  public void testWordsAreCombinedWithAnd() {
+    EmployeeSearchIndex.Result result = sut.search("BRUCE banner", 10);
+    Assert.assertEquals(new HashSet<>(Arrays.asList(5)), result.getMatches());
+    Assert.assertEquals(1, sut.search("imbatman@bw.com", 10).getMatches().size());
+  }
+
+  /**
+   * tests that OR groups are unioned and that an employee matching more of the query ranks first
+   */
+  @Test
+  public void testOrGroupsRankByBm25() {
+    EmployeeSearchIndex.Result result = sut.search("bruce OR wayne", 10);
+    Assert.assertEquals(new HashSet<>(Arrays.asList(1, 5)), result.getMatches());
+    Assert.assertEquals(1, result.getHits().get(0).getId());
+    Assert.assertTrue(result.getHits().get(0).getScore() > result.getHits().get(1).getScore());
+  }
+
+  /**
+   * tests that departments can be found by name or label and that only the requested number of hits is returned
+   */
+  @Test
+  public void testDepartmentAndLimit() {
+    Assert.assertEquals(new HashSet<>(Arrays.asList(7)), sut.search("dev", 10).getMatches());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(7)), sut.search("staging", 10).getMatches());
+    EmployeeSearchIndex.Result result = sut.search("bruce", 1);
+    Assert.assertEquals(2, result.getMatches().size());
+    Assert.assertEquals(1, result.getHits().size());
+  }
+
+  /**
+   * tests that a changed employee is found by its new words and not its old ones, and that a removed one is gone
+   */
+  @Test
+  public void testIncrementalUpdates() {
+    sut.put(new Employee(2, "Miles", "Morales", "miles@spidey.com", "Spider Man", Department.QC, null));
+    Assert.assertTrue(sut.search("peter", 10).getMatches().isEmpty());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(2)), sut.search("miles spider", 10).getMatches());
+    sut.remove(2);
+    Assert.assertTrue(sut.search("spider", 10).getMatches().isEmpty());
+    Assert.assertEquals(3, sut.size());
+  }
+}
@@ -0,0 +1,137 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.batch.Curriculum;
+import com.revature.rms.search.entites.campus.Address;
+import com.revature.rms.search.entites.campus.Amenity;
+import com.revature.rms.search.entites.campus.AmenityStatus;
+import com.revature.rms.search.entites.campus.AmenityType;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.employee.Department;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.Category;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class FacetServiceTest {
+
+  FacetService sut;
+  ReadModelDocuments docs;
+
+  @Before
+  public void setup() {
+    sut = new FacetService(null, null);
+    docs = new ReadModelDocuments();
+    docs.getRawEmployees().put(1, new Employee(1, "one", "one", "one", "one", Department.HR, null));
+    docs.getRawEmployees().put(2, new Employee(2, "two", "two", "two", "two", Department.TRAINING, null));
+    docs.getRawEmployees().put(3, new Employee(3, "three", "three", "three", "three", Department.TRAINING, null));
+    docs.getRawBatches().put(24, new Batch(24, "ABatch", "2/12/2020", "4/10/2020", 2, 0, new ArrayList<>(), Curriculum.AI, null));
+    docs.getRawWorkOrders().put(7, new WorkOrder(7, "1/1/19", null, Category.LIGHTING, "Flickering", "a@b.com", 1, 1));
+    docs.getRawWorkOrders().put(8, new WorkOrder(8, "1/1/19", "1/2/19", Category.DOORS, "Stuck", "a@b.com", 1, 1));
+    docs.getRawBuildings().put(16, new Building(16, "Muma", "BSN", new Address(), 1, Arrays.asList(
+        new Amenity(AmenityType.COFFEE, AmenityStatus.LOW), new Amenity(AmenityType.COFFEE, AmenityStatus.OK),
+        new Amenity(AmenityType.TEA, AmenityStatus.OK)), new ArrayList<>(), null));
+    sut.onReadModelUpdated(new ReadModelUpdatedEvent(docs, null));
+  }
+
+  /**
+   * tests that a full load counts every dimension, highest count first, and only counts open work orders
+   */
+  @Test
+  public void testFullLoadCountsEveryDimension() {
+    Map<String, Map<String, Long>> facets = sut.getFacets(null);
+    Assert.assertEquals(FacetService.DIMENSIONS, new ArrayList<>(facets.keySet()));
+    Assert.assertEquals(Arrays.asList("TRAINING", "HR"), new ArrayList<>(facets.get(FacetService.EMPLOYEE_DEPARTMENT).keySet()));
+    Assert.assertEquals(Long.valueOf(2), facets.get(FacetService.EMPLOYEE_DEPARTMENT).get("TRAINING"));
+    Assert.assertEquals(Collections.singletonMap("AI", 1L), facets.get(FacetService.BATCH_CURRICULUM));
+    Assert.assertEquals(Collections.singletonMap("LIGHTING", 1L), facets.get(FacetService.OPEN_WORK_ORDER_CATEGORY));
+    Assert.assertEquals(Long.valueOf(2), facets.get(FacetService.AMENITY_TYPE).get("COFFEE"));
+    Assert.assertEquals(Long.valueOf(2), facets.get(FacetService.AMENITY_STATUS).get("OK"));
+  }
+
+  /**
+   * tests that a second full load replaces every count rather than adding to the first
+   */
+  @Test
+  public void testFullLoadReplacesCounts() {
+    ReadModelDocuments current = new ReadModelDocuments();
+    current.getRawEmployees().put(1, docs.getRawEmployees().get(1));
+    sut.onReadModelUpdated(new ReadModelUpdatedEvent(current, null));
+    Map<String, Map<String, Long>> facets = sut.getFacets(null);
+    Assert.assertEquals(Collections.singletonMap("HR", 1L), facets.get(FacetService.EMPLOYEE_DEPARTMENT));
+    Assert.assertTrue(facets.get(FacetService.BATCH_CURRICULUM).isEmpty());
+    Assert.assertTrue(facets.get(FacetService.AMENITY_TYPE).isEmpty());
+  }
+
+  /**
+   * tests that a rebuild counts the shared extraction until the read model is ready, and the read model after that
+   */
+  @Test
+  public void testRebuildReadsReadModelOrSharedExtraction() {
+    SearchReadModel readModel = new SearchReadModel();
+    ReadModelExtractor extractor = new ReadModelExtractor(null, null, null, null, null) {
+      @Override
+      public ReadModelDocuments latest() {
+        return docs;
+      }
+    };
+    sut = new FacetService(extractor, readModel);
+    Assert.assertEquals(Long.valueOf(2), sut.getFacets(null).get(FacetService.AMENITY_TYPE).get("COFFEE"));
+
+    ReadModelDocuments loaded = new ReadModelDocuments();
+    loaded.getRawEmployees().put(1, docs.getRawEmployees().get(1));
+    readModel.replace(loaded);
+    sut.rebuild();
+    Assert.assertEquals(Collections.singletonMap("HR", 1L), sut.getFacets(null).get(FacetService.EMPLOYEE_DEPARTMENT));
+    Assert.assertTrue(sut.getFacets(null).get(FacetService.AMENITY_TYPE).isEmpty());
+  }
+
+  /**
+   * tests that a sync only moves the counts of the resources it changed or removed
+   */
+  @Test
+  public void testSyncAdjustsChangedResources() {
+    ReadModelDocuments current = new ReadModelDocuments();
+    current.getRawEmployees().putAll(docs.getRawEmployees());
+    current.getRawEmployees().put(1, new Employee(1, "one", "one", "one", "one", Department.TRAINING, null));
+    current.getRawEmployees().remove(3);
+    current.getRawWorkOrders().put(7, new WorkOrder(7, "1/1/19", "1/3/19", Category.LIGHTING, "Flickering", "a@b.com", 1, 1));
+    ReadModelChanges changes = new ReadModelChanges();
+    changes.getEmployees().addAll(Arrays.asList(1, 3));
+    changes.getWorkOrders().add(7);
+    sut.onReadModelUpdated(new ReadModelUpdatedEvent(current, changes));
+
+    Map<String, Map<String, Long>> facets = sut.getFacets(Arrays.asList(FacetService.EMPLOYEE_DEPARTMENT,
+        FacetService.OPEN_WORK_ORDER_CATEGORY));
+    Assert.assertEquals(Collections.singletonMap("TRAINING", 2L), facets.get(FacetService.EMPLOYEE_DEPARTMENT));
+    Assert.assertTrue(facets.get(FacetService.OPEN_WORK_ORDER_CATEGORY).isEmpty());
+  }
+
+  /**
+   * tests that counts can be taken over a filtered set of ids
+   */
+  @Test
+  public void testCountOverFilteredIds() {
+    Map<String, Long> expected = new LinkedHashMap<>();
+    expected.put("HR", 1L);
+    expected.put("TRAINING", 1L);
+    Assert.assertEquals(expected, sut.count(FacetService.EMPLOYEE_DEPARTMENT, Arrays.asList(1, 2, 99)));
+  }
+
+  /**
+   * tests that asking for a dimension that does not exist is rejected
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testUnknownDimension() {
+    sut.getFacets(Arrays.asList("employee.title"));
+  }
+}
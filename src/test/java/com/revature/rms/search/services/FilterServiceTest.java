@@ -0,0 +1,117 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.core.exceptions.ResourceNotFoundException;
+import com.revature.rms.search.dtos.EmployeeDto;
+import com.revature.rms.search.dtos.RoomDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.batch.Curriculum;
+import com.revature.rms.search.entites.campus.Address;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import com.revature.rms.search.entites.employee.Department;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.Category;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FilterServiceTest {
+
+  SearchReadModel readModel;
+  FilterService sut;
+  ReadModelDocuments docs;
+
+  @Before
+  public void setup() {
+    readModel = new SearchReadModel();
+    sut = new FilterService(null, readModel, null);
+    docs = new ReadModelDocuments();
+    ResourceMetadata metadata = new ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 3, true);
+    Room open = new Room(15, "123", 25, new ArrayList<>(), 24, Arrays.asList(7, 8), metadata);
+    Room empty = new Room(16, "124", 25, new ArrayList<>(), 0, new ArrayList<>(), metadata);
+    Building building = new Building(16, "Muma", "BSN", new Address(), 2, new ArrayList<>(), Arrays.asList(open, empty), metadata);
+    Campus campus = new Campus(9, "USF", "USF", new Address(), 1, 0, 0, Arrays.asList(building), new ArrayList<>(), metadata);
+    docs.getRawCampuses().put(9, campus);
+    docs.getRawBuildings().put(16, building);
+    docs.getRawRooms().put(15, open);
+    docs.getRawRooms().put(16, empty);
+    docs.getRawBatches().put(24, new Batch(24, "ABatch", "2/12/2020", "4/10/2020", 4, 0, new ArrayList<>(), Curriculum.JAVA_MSA, metadata));
+    docs.getRawWorkOrders().put(7, new WorkOrder(7, "1/1/19", null, Category.LIGHTING, "Flickering", "a@b.com", 1, 1));
+    docs.getRawWorkOrders().put(8, new WorkOrder(8, "1/1/19", "1/2/19", Category.DOORS, "Stuck", "a@b.com", 1, 1));
+    employee(1, Department.TRAINING, true);
+    employee(2, Department.TRAINING, false);
+    employee(4, Department.TRAINING, true);
+    employee(5, Department.HR, true);
+    docs.getRooms().put(15, new RoomDto(15, "123", 25));
+    docs.getRooms().put(16, new RoomDto(16, "124", 25));
+    readModel.replace(docs);
+    sut.onReadModelUpdated(new ReadModelUpdatedEvent(docs, null));
+  }
+
+  /**
+   * tests that an employee is on a campus they manage, through a building they lead or through a batch they train,
+   * and that the other filters narrow that down
+   */
+  @Test
+  public void testEmployeesOnCampus() {
+    Map<String, List<String>> filters = new LinkedHashMap<>();
+    filters.put("campus", Arrays.asList("9"));
+    Assert.assertEquals(Arrays.asList(1, 2, 4), ids(sut.filterEmployees(filters)));
+    filters.put("active", Arrays.asList("true"));
+    filters.put("not.department", Arrays.asList("HR,STAGING"));
+    Assert.assertEquals(Arrays.asList(1, 4), ids(sut.filterEmployees(filters)));
+  }
+
+  /**
+   * tests that rooms are filtered on the curriculum of their batch and the category of their open work orders only
+   */
+  @Test
+  public void testRoomsByCurriculumAndOpenWorkOrders() {
+    Map<String, List<String>> filters = new LinkedHashMap<>();
+    filters.put("building", Arrays.asList("16"));
+    filters.put("curriculum", Arrays.asList("JAVA_MSA"));
+    filters.put("category", Arrays.asList("LIGHTING"));
+    List<RoomDto> rooms = sut.filterRooms(filters);
+    Assert.assertEquals(1, rooms.size());
+    Assert.assertEquals(15, rooms.get(0).getId());
+    try {
+      sut.filterRooms(Collections.singletonMap("category", Arrays.asList("DOORS")));
+      Assert.fail("expected a ResourceNotFoundException");
+    } catch (ResourceNotFoundException expected) {
+      Assert.assertEquals("No rooms match the filters", expected.getMessage());
+    }
+  }
+
+  /**
+   * tests that a field the type can not be filtered on is rejected
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testUnknownField() {
+    sut.filterEmployees(Collections.singletonMap("curriculum", Arrays.asList("JAVA_MSA")));
+  }
+
+  private void employee(int id, Department department, boolean active) {
+    com.revature.rms.search.entites.employee.ResourceMetadata metadata = new com.revature.rms.search.entites.employee.ResourceMetadata();
+    metadata.setCurrentlyActive(active);
+    metadata.setResourceOwner(3);
+    docs.getRawEmployees().put(id, new Employee(id, "e" + id, "e" + id, "e" + id + "@revature.com", "Trainer", department, metadata));
+    docs.getEmployees().put(id, new EmployeeDto(id, "e" + id, "e" + id, "e" + id + "@revature.com", "Trainer", department));
+  }
+
+  private static List<Integer> ids(List<EmployeeDto> employees) {
+    List<Integer> ids = new ArrayList<>();
+    employees.forEach(employee -> ids.add(employee.getId()));
+    return ids;
+  }
+}
@@ -0,0 +1,97 @@
+package com.revature.rms.search.services;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class IntObjectMapTest {
+
+  /**
+   * tests that ids come back in the order they were first put, and that putting an id again keeps its place
+   */
+  @Test
+  public void testInsertionOrder() {
+    IntObjectMap<String> map = new IntObjectMap<>();
+    map.put(30, "thirty");
+    map.put(10, "ten");
+    map.put(20, "twenty");
+    Assert.assertEquals("ten", map.put(10, "TEN"));
+    Assert.assertArrayEquals(new int[] {30, 10, 20}, map.keys());
+    Assert.assertEquals(Arrays.asList("thirty", "TEN", "twenty"), new ArrayList<>(map.values()));
+  }
+
+  /**
+   * tests that a removed id is gone, that the ids probed past it can still be found, and that it goes to the end
+   * when it is put again
+   */
+  @Test
+  public void testRemoveAndPutAgain() {
+    IntObjectMap<String> map = new IntObjectMap<>(4);
+    for (int id = 1; id <= 100; id++) {
+      map.put(id, "v" + id);
+    }
+    Assert.assertEquals("v50", map.remove(50));
+    Assert.assertNull(map.remove(50));
+    Assert.assertFalse(map.containsKey(50));
+    Assert.assertEquals(99, map.size());
+    for (int id = 1; id <= 100; id++) {
+      Assert.assertEquals(id == 50 ? null : "v" + id, map.get(id));
+    }
+    map.put(50, "back");
+    int[] keys = map.keys();
+    Assert.assertEquals(50, keys[keys.length - 1]);
+  }
+
+  /**
+   * tests that the map behaves like a LinkedHashMap through a long run of random puts and removes, including
+   * through the Map methods that take Integer keys and the entry iterator
+   */
+  @Test
+  public void testMatchesLinkedHashMap() {
+    Random random = new Random(17);
+    IntObjectMap<Integer> map = new IntObjectMap<>();
+    Map<Integer, Integer> expected = new LinkedHashMap<>();
+    for (int i = 0; i < 20000; i++) {
+      int key = random.nextInt(500) - 250;
+      if (random.nextInt(3) == 0) {
+        Assert.assertEquals(expected.remove(key), map.remove(key));
+      } else {
+        Assert.assertEquals(expected.put(key, i), map.put(key, Integer.valueOf(i)));
+      }
+    }
+    Assert.assertEquals(expected, map);
+    Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+    Assert.assertEquals(expected.get(Integer.valueOf(3)), map.get(Integer.valueOf(3)));
+    Assert.assertNull(map.get("3"));
+
+    Iterator<Map.Entry<Integer, Integer>> entries = map.entrySet().iterator();
+    while (entries.hasNext()) {
+      if (entries.next().getKey() % 2 == 0) {
+        entries.remove();
+      }
+    }
+    expected.keySet().removeIf(key -> key % 2 == 0);
+    Assert.assertEquals(expected, map);
+  }
+
+  /**
+   * tests that a null value is kept apart from a missing id
+   */
+  @Test
+  public void testNullValue() {
+    IntObjectMap<String> map = new IntObjectMap<>();
+    map.put(0, null);
+    Assert.assertTrue(map.containsKey(0));
+    Assert.assertFalse(map.containsKey(1));
+    Assert.assertEquals(1, map.size());
+    map.clear();
+    Assert.assertTrue(map.isEmpty());
+    Assert.assertFalse(map.containsKey(0));
+  }
+}
@@ -0,0 +1,146 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.ResourceNotFoundException;
+import com.revature.rms.search.dtos.OccupancyDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.batch.Curriculum;
+import com.revature.rms.search.entites.campus.Address;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class OccupancyServiceTest {
+
+  ResourceMetadata metadata = new ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 3, true);
+  ReadModelDocuments previous;
+  OccupancyService sut;
+
+  @Before
+  public void setup() {
+    sut = new OccupancyService(null, null);
+    previous = extracted(Arrays.asList(15, 17), Arrays.asList(18), Arrays.asList(16, 19), 3);
+    sut.onReadModelUpdated(new ReadModelUpdatedEvent(previous, null));
+  }
+
+  /**
+   * tests that the occupancy of a room is the associates of its batch against its max occupancy
+   */
+  @Test
+  public void testRoomOccupancy() {
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.ROOM, 15, 1, 2, 3, 1.5, 1), sut.getRoomOccupancy(15));
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.ROOM, 17, 1, 20, 0, 0.0, 0), sut.getRoomOccupancy(17));
+  }
+
+  /**
+   * tests that buildings and campuses sum the rooms they hold, and that the rooms over capacity are listed
+   */
+  @Test
+  public void testBuildingAndCampusTotals() {
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.BUILDING, 16, 2, 22, 3, 3.0 / 22, 1),
+        sut.getBuildingOccupancy(16));
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.CAMPUS, 9, 3, 32, 8, 0.25, 1), sut.getCampusOccupancy(9));
+    Assert.assertEquals(2, sut.getBuildingsOccupancy().size());
+    Assert.assertEquals(Arrays.asList(sut.getRoomOccupancy(15)), sut.getOverCapacityRooms());
+  }
+
+  /**
+   * tests that a sync adjusts the totals for a batch that changed and a room that moved between buildings
+   */
+  @Test
+  public void testSyncAdjustsTotals() {
+    sync(extracted(Arrays.asList(15), Arrays.asList(18, 17), Arrays.asList(16, 19), 1));
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.BUILDING, 16, 1, 2, 1, 0.5, 0), sut.getBuildingOccupancy(16));
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.BUILDING, 19, 2, 30, 5, 5.0 / 30, 0),
+        sut.getBuildingOccupancy(19));
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.CAMPUS, 9, 3, 32, 6, 6.0 / 32, 0), sut.getCampusOccupancy(9));
+  }
+
+  /**
+   * tests that a room taken out of its building, without going into another one, leaves the totals of the building
+   * and the campus
+   */
+  @Test
+  public void testSyncTakesRoomOutOfBuilding() {
+    sync(extracted(Arrays.asList(15, 17), new ArrayList<>(), Arrays.asList(16, 19), 3));
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.ROOM, 18, 1, 10, 5, 0.5, 0), sut.getRoomOccupancy(18));
+    Assert.assertEquals(1, sut.getBuildingsOccupancy().size());
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.CAMPUS, 9, 2, 22, 3, 3.0 / 22, 1), sut.getCampusOccupancy(9));
+  }
+
+  /**
+   * tests that a building taken off its campus keeps its rooms but leaves the totals of the campus
+   */
+  @Test
+  public void testSyncTakesBuildingOffCampus() {
+    sync(extracted(Arrays.asList(15, 17), Arrays.asList(18), Arrays.asList(16), 3));
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.BUILDING, 19, 1, 10, 5, 0.5, 0), sut.getBuildingOccupancy(19));
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.CAMPUS, 9, 2, 22, 3, 3.0 / 22, 1), sut.getCampusOccupancy(9));
+  }
+
+  /**
+   * tests that a room removed by a sync leaves the totals of its building
+   */
+  @Test
+  public void testSyncRemovesRoom() {
+    ReadModelDocuments current = extracted(Arrays.asList(15, 17), new ArrayList<>(), Arrays.asList(16, 19), 3);
+    current.getRawRooms().remove(18);
+    sync(current);
+    Assert.assertEquals(1, sut.getBuildingsOccupancy().size());
+    Assert.assertEquals(new OccupancyDto(OccupancyIndex.CAMPUS, 9, 2, 22, 3, 3.0 / 22, 1), sut.getCampusOccupancy(9));
+  }
+
+  /**
+   * tests that a room that does not exist is not found
+   */
+  @Test(expected = ResourceNotFoundException.class)
+  public void testUnknownRoom() {
+    sut.getRoomOccupancy(42);
+  }
+
+  private void sync(ReadModelDocuments current) {
+    sut.onReadModelUpdated(new ReadModelUpdatedEvent(current, ReadModelChanges.between(previous, current)));
+  }
+
+  /**
+   * extracted method: Builds the raw objects of campus 9, with buildings 16 and 19 holding the given rooms. Room 15
+   * has batch 24 with the given number of associates, room 18 has batch 25 with five, and room 17 has no batch.
+   */
+  private ReadModelDocuments extracted(List<Integer> mumaRooms, List<Integer> libraryRooms,
+      List<Integer> campusBuildings, int associates) {
+    ReadModelDocuments docs = new ReadModelDocuments();
+    docs.getRawRooms().put(15, new Room(15, "123", 2, new ArrayList<>(), 24, new ArrayList<>(), metadata));
+    docs.getRawRooms().put(17, new Room(17, "124", 20, new ArrayList<>(), 0, new ArrayList<>(), metadata));
+    docs.getRawRooms().put(18, new Room(18, "125", 10, new ArrayList<>(), 25, new ArrayList<>(), metadata));
+    docs.getRawBuildings().put(16, building(docs, 16, "Muma", mumaRooms));
+    docs.getRawBuildings().put(19, building(docs, 19, "Library", libraryRooms));
+    List<Building> buildings = new ArrayList<>();
+    campusBuildings.forEach(id -> buildings.add(docs.getRawBuildings().get(id)));
+    docs.getRawCampuses().put(9, new Campus(9, "USF", "USF", new Address(), 1, 0, 0, buildings, new ArrayList<>(),
+        metadata));
+    List<Integer> people = new ArrayList<>();
+    for (int i = 1; i <= associates; i++) {
+      people.add(i);
+    }
+    docs.getRawBatches().put(24, batch(24, people));
+    docs.getRawBatches().put(25, batch(25, Arrays.asList(4, 5, 6, 7, 8)));
+    return docs;
+  }
+
+  private Building building(ReadModelDocuments docs, int id, String name, List<Integer> rooms) {
+    List<Room> held = new ArrayList<>();
+    rooms.forEach(room -> held.add(docs.getRawRooms().get(room)));
+    return new Building(id, name, name, new Address(), 2, new ArrayList<>(), held, metadata);
+  }
+
+  private Batch batch(int id, List<Integer> associates) {
+    return new Batch(id, "Batch" + id, "2/12/2020", "4/10/2020", 1, 0, associates, Curriculum.JAVA_MSA, metadata);
+  }
+}
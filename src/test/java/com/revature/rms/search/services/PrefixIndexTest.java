@@ -0,0 +1,57 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.dtos.Suggestion;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PrefixIndexTest {
+
+  Suggestion usf;
+  Suggestion unf;
+  Suggestion southern;
+  PrefixIndex sut;
+
+  @Before
+  public void setup() {
+    usf = new Suggestion("campus", 32, "University of South Florida");
+    unf = new Suggestion("campus", 33, "University of North Florida");
+    southern = new Suggestion("campus", 34, "Southern");
+    Map<Suggestion, List<String>> keys = new LinkedHashMap<>();
+    keys.put(usf, concat(PrefixIndex.keysFor(usf.getLabel()), PrefixIndex.keysFor("USF")));
+    keys.put(unf, concat(PrefixIndex.keysFor(unf.getLabel()), PrefixIndex.keysFor("UNF")));
+    keys.put(southern, PrefixIndex.keysFor(southern.getLabel()));
+    sut = PrefixIndex.build(keys, 2);
+  }
+
+  /**
+   * tests that the best suggestions are the shortest labels, and that a suggestion reached through
+   * several of its keys is only listed once
+   */
+  @Test
+  public void testShortestLabelsFirstWithoutRepeats() {
+    Assert.assertEquals(Arrays.asList(unf, usf), sut.suggest("U", 5));
+    Assert.assertEquals(Arrays.asList(southern, usf), sut.suggest("sou", 5));
+    Assert.assertEquals(Arrays.asList(southern), sut.suggest("sou", 1));
+  }
+
+  /**
+   * tests that any word of a label and the abbreviation can be used, and that an unknown prefix finds nothing
+   */
+  @Test
+  public void testWordsAndAbbreviations() {
+    Assert.assertEquals(Arrays.asList(unf), sut.suggest("north  fl", 5));
+    Assert.assertEquals(Arrays.asList(unf), sut.suggest("unf", 5));
+    Assert.assertTrue(sut.suggest("xyz", 5).isEmpty());
+  }
+
+  private static List<String> concat(List<String> first, List<String> second) {
+    first.addAll(second);
+    return first;
+  }
+}
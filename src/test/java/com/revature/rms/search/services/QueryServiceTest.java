@@ -0,0 +1,333 @@
+package com.revature.rms.search.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.search.config.SearchIndexProperties;
+import com.revature.rms.search.dtos.BatchDto;
+import com.revature.rms.search.dtos.QueryFilter;
+import com.revature.rms.search.dtos.QueryPlanStep;
+import com.revature.rms.search.dtos.QueryRequest;
+import com.revature.rms.search.dtos.QueryResponse;
+import com.revature.rms.search.dtos.QuerySort;
+import com.revature.rms.search.dtos.RoomDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.batch.Curriculum;
+import com.revature.rms.search.entites.campus.Address;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import com.revature.rms.search.entites.employee.Department;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.Category;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class QueryServiceTest {
+
+  SearchReadModel readModel;
+  QueryService sut;
+
+  @Before
+  public void setup() {
+    readModel = new SearchReadModel();
+    FilterService filterService = new FilterService(null, readModel, null);
+    DateRangeService dateRangeService = new DateRangeService(null, readModel, null);
+    FacetService facetService = new FacetService(null, null);
+    sut = new QueryService(null, readModel, filterService, dateRangeService, facetService,
+        new SearchIndexProperties(), new ObjectMapper());
+
+    ReadModelDocuments docs = new ReadModelDocuments();
+    ResourceMetadata metadata = new ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 3, true);
+    Room room = new Room(15, "123", 25, new ArrayList<>(), 24, Arrays.asList(7, 8), metadata);
+    Room other = new Room(17, "124", 20, new ArrayList<>(), 0, Arrays.asList(9), metadata);
+    Building building = new Building(16, "Muma", "BSN", new Address(), 2, new ArrayList<>(), Arrays.asList(room, other),
+        metadata);
+    docs.getRawCampuses().put(9, new Campus(9, "USF", "USF", new Address(), 1, 0, 0, Arrays.asList(building), new ArrayList<>(), metadata));
+    docs.getRawCampuses().put(10, new Campus(10, "UTA", "UTA", new Address(), 1, 0, 0, new ArrayList<>(), new ArrayList<>(),
+        new ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 4, true)));
+    docs.getRawBuildings().put(16, building);
+    docs.getRawRooms().put(15, room);
+    docs.getRawRooms().put(17, other);
+    List<Integer> associates = new ArrayList<>();
+    for (int i = 100; i < 115; i++) {
+      associates.add(i);
+    }
+    docs.getRawBatches().put(24, new Batch(24, "ABatch", "2/12/2020", "4/10/2020", 1, 0, associates, Curriculum.JAVA_MSA, metadata));
+    docs.getRawWorkOrders().put(7, new WorkOrder(7, "1/2/20", null, Category.LIGHTING, "Flickering", "a@b.com", 1, 1));
+    docs.getRawWorkOrders().put(8, new WorkOrder(8, "1/9/20", "1/10/20", Category.DOORS, "Stuck", "a@b.com", 1, 1));
+    docs.getRawWorkOrders().put(9, new WorkOrder(9, "3/9/20", null, Category.DOORS, "Stuck", "a@b.com", 1, 1));
+    employee(docs, 1, "Bruce", "Wayne", Department.TRAINING);
+    employee(docs, 2, "Peter", "Parker", Department.TRAINING);
+    employee(docs, 3, "Diana", "Prince", Department.HR);
+    employee(docs, 4, "Clark", "Kent", Department.TRAINING);
+    RoomDto roomDto = new RoomDto(15, "123", 25);
+    roomDto.setBatch(new BatchDto(24, "ABatch", "2/12/2020", "4/10/2020", Curriculum.JAVA_MSA));
+    docs.getRooms().put(15, roomDto);
+    readModel.replace(docs);
+    ReadModelUpdatedEvent event = new ReadModelUpdatedEvent(docs, null);
+    filterService.onReadModelUpdated(event);
+    dateRangeService.onReadModelUpdated(event);
+    facetService.onReadModelUpdated(event);
+  }
+
+  /**
+   * tests that a filter on a bitmap field drives the query when it is the most selective, that the other filters
+   * are applied to its rows, and that the plan reports the estimated and actual rows of each step
+   */
+  @Test
+  public void testBitmapPathDrivesQuery() {
+    QueryRequest request = request("employee",
+        new QueryFilter("lastName", "not_in", Arrays.asList("Kent"), null, null),
+        new QueryFilter("department", "in", Arrays.asList("HR"), null, null));
+    request.setExplain(true);
+    QueryResponse response = sut.query(request);
+    Assert.assertEquals(Arrays.asList(3), ids(response));
+    Assert.assertEquals(QueryService.BITMAP_PATH, response.getPlan().getPath());
+    Assert.assertEquals("department", response.getPlan().getField());
+    Assert.assertEquals(2, response.getPlan().getConsidered().size());
+    List<QueryPlanStep> steps = response.getPlan().getSteps();
+    Assert.assertEquals(new QueryPlanStep(QueryService.BITMAP_PATH, "department", "in", 1, 1L), steps.get(0));
+    Assert.assertEquals(QueryService.FILTER_STEP, steps.get(1).getPath());
+    Assert.assertEquals(Long.valueOf(1), steps.get(1).getActualRows());
+  }
+
+  /**
+   * tests that a query no index can answer scans, and gives the same matches the bitmap path would
+   */
+  @Test
+  public void testScanMatchesIndexPath() {
+    QueryResponse scanned = sut.query(request("employee",
+        new QueryFilter("firstName", "in", Arrays.asList("Bruce,Peter,Clark"), null, null)));
+    QueryRequest indexed = request("employee", new QueryFilter("department", "not_in", Arrays.asList("HR"), null, null));
+    indexed.setExplain(true);
+    QueryResponse response = sut.query(indexed);
+    Assert.assertEquals(Arrays.asList(1, 2, 4), ids(scanned));
+    Assert.assertEquals(ids(scanned), ids(response));
+    Assert.assertEquals(QueryService.BITMAP_PATH, response.getPlan().getPath());
+    Assert.assertNull(scanned.getPlan());
+  }
+
+  /**
+   * tests that a date range is answered by the range index and the owner filter by the owner lookups
+   */
+  @Test
+  public void testRangeAndOwnerPaths() {
+    QueryRequest workOrders = request("workorder",
+        new QueryFilter("created", "between", null, "1/1/20", "1/31/20"),
+        new QueryFilter("category", "in", Arrays.asList("LIGHTING", "DOORS"), null, null));
+    workOrders.setExplain(true);
+    QueryResponse response = sut.query(workOrders);
+    Assert.assertEquals(Arrays.asList(7, 8), ids(response));
+    Assert.assertEquals(QueryService.RANGE_PATH, response.getPlan().getPath());
+
+    QueryRequest campuses = request("campus", new QueryFilter("owner", "in", Arrays.asList("4"), null, null));
+    campuses.setExplain(true);
+    response = sut.query(campuses);
+    Assert.assertEquals(Arrays.asList(10), ids(response));
+    Assert.assertEquals(QueryService.OWNER_PATH, response.getPlan().getPath());
+  }
+
+  /**
+   * tests that the matches are sorted, paged and counted into facets before paging
+   */
+  @Test
+  public void testSortPageAndFacets() {
+    QueryRequest request = request("employee");
+    request.setSort(Arrays.asList(new QuerySort("lastName", "desc")));
+    request.setPage(1);
+    request.setSize(2);
+    request.setFacets(Arrays.asList(FacetService.EMPLOYEE_DEPARTMENT));
+    QueryResponse response = sut.query(request);
+    Assert.assertEquals(4, response.getTotal());
+    Assert.assertEquals(Arrays.asList(2, 4), ids(response));
+    Assert.assertEquals(Long.valueOf(3), response.getFacets().get(FacetService.EMPLOYEE_DEPARTMENT).get("TRAINING"));
+  }
+
+  /**
+   * tests that nested objects with an id are cut down to the id unless their path is expanded
+   */
+  @Test
+  public void testExpand() {
+    QueryRequest request = request("room");
+    JsonNode collapsed = (JsonNode) sut.query(request).getResults().get(0);
+    Assert.assertEquals(24, collapsed.get("batch").asInt());
+    request.setExpand(Arrays.asList("batch"));
+    JsonNode expanded = (JsonNode) sut.query(request).getResults().get(0);
+    Assert.assertEquals("ABatch", expanded.get("batch").get("name").asText());
+  }
+
+  /**
+   * tests that a field the entity does not have is refused
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testUnknownFieldIsRefused() {
+    sut.query(request("room", new QueryFilter("name", "in", Arrays.asList("123"), null, null)));
+  }
+
+  /**
+   * tests that a keyword can not be compared by range
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testBetweenOnKeywordIsRefused() {
+    sut.query(request("employee", new QueryFilter("lastName", "between", null, "A", "M")));
+  }
+
+  /**
+   * tests that a facet of another entity is refused
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testFacetOfOtherEntityIsRefused() {
+    QueryRequest request = request("room");
+    request.setFacets(Collections.singletonList(FacetService.EMPLOYEE_DEPARTMENT));
+    sut.query(request);
+  }
+
+  /**
+   * tests that the rooms whose batch and work orders match filters of their own are found by semi-joins, and that
+   * the plans of the joins are explained
+   */
+  @Test
+  public void testJoinDrivesQuery() {
+    QueryRequest request = request("room",
+        join("batch", "in", new QueryFilter("curriculum", "in", Arrays.asList("JAVA_MSA"), null, null)),
+        join("workOrders", "in", new QueryFilter("category", "in", Arrays.asList("LIGHTING"), null, null)));
+    request.setExplain(true);
+    QueryResponse response = sut.query(request);
+    Assert.assertEquals(Arrays.asList(15), ids(response));
+    Assert.assertEquals(QueryService.JOIN_PATH, response.getPlan().getPath());
+    Assert.assertEquals("batch", response.getPlan().getField());
+    Assert.assertEquals(2, response.getPlan().getJoins().size());
+    Assert.assertEquals(QueryService.SCAN_PATH, response.getPlan().getJoins().get(0).getPath());
+  }
+
+  /**
+   * tests that not_in keeps the rows that link to none of the matches of the join
+   */
+  @Test
+  public void testAntiJoin() {
+    QueryResponse response = sut.query(request("room",
+        join("workOrders", "not_in", new QueryFilter("category", "in", Arrays.asList("LIGHTING"), null, null))));
+    Assert.assertEquals(Arrays.asList(17), ids(response));
+  }
+
+  /**
+   * tests that joins nest, and that they are followed from either side of a relation
+   */
+  @Test
+  public void testNestedJoins() {
+    QueryResponse response = sut.query(request("campus",
+        join("buildings", "in", join("rooms", "in",
+            join("batch", "in", new QueryFilter("curriculum", "in", Arrays.asList("JAVA_MSA"), null, null))))));
+    Assert.assertEquals(Arrays.asList(9), ids(response));
+
+    response = sut.query(request("workorder",
+        join("room", "in", new QueryFilter("roomNumber", "in", Arrays.asList("124"), null, null))));
+    Assert.assertEquals(Arrays.asList(9), ids(response));
+  }
+
+  /**
+   * tests that rooms can be filtered and sorted on how full they are, and that the buildings led by someone with a
+   * room below half full are found through a join on it
+   */
+  @Test
+  public void testRoomOccupancy() {
+    QueryResponse response = sut.query(request("room",
+        new QueryFilter(QuerySchema.OCCUPANCY_PERCENT, "between", null, null, "49")));
+    Assert.assertEquals(Arrays.asList(17), ids(response));
+
+    QueryRequest sorted = request("room");
+    sorted.setSort(Arrays.asList(new QuerySort(QuerySchema.OCCUPANTS, "desc")));
+    Assert.assertEquals(Arrays.asList(15, 17), ids(sut.query(sorted)));
+
+    QueryFilter belowHalf = new QueryFilter(QuerySchema.OCCUPANCY_PERCENT, "between", null, null, "49");
+    response = sut.query(request("building",
+        new QueryFilter("trainingLead", "in", Arrays.asList("2"), null, null), join("rooms", "in", belowHalf)));
+    Assert.assertEquals(Arrays.asList(16), ids(response));
+    response = sut.query(request("building",
+        join("rooms", "in", new QueryFilter(QuerySchema.OCCUPANCY_PERCENT, "between", null, "61", null))));
+    Assert.assertTrue(ids(response).isEmpty());
+  }
+
+  /**
+   * tests that a relation the entity does not have is refused
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testUnknownJoinIsRefused() {
+    sut.query(request("employee", join("batch", "in")));
+  }
+
+  /**
+   * tests that before the read model is ready the query and the indexes it uses share one extraction, and that an
+   * index built from an older extraction is not used against a newer one
+   */
+  @Test
+  public void testFallbackSharesOneExtraction() {
+    ReadModelDocuments stale = new ReadModelDocuments();
+    employee(stale, 1, "Bruce", "Wayne", Department.HR);
+    ReadModelDocuments fresh = new ReadModelDocuments();
+    employee(fresh, 1, "Bruce", "Wayne", Department.HR);
+    employee(fresh, 3, "Diana", "Prince", Department.HR);
+    fresh.getRawWorkOrders().put(7, new WorkOrder(7, "1/2/20", null, Category.LIGHTING, "Flickering", "a@b.com", 1, 1));
+    int[] extractions = new int[1];
+    ReadModelExtractor extractor = new ReadModelExtractor(null, null, null, null, null) {
+      @Override
+      public ReadModelDocuments extract() {
+        extractions[0]++;
+        return fresh;
+      }
+    };
+    SearchReadModel notReady = new SearchReadModel();
+    FilterService filterService = new FilterService(extractor, notReady, null);
+    DateRangeService dateRangeService = new DateRangeService(extractor, notReady, null);
+    filterService.build(stale);
+    QueryService fallback = new QueryService(extractor, notReady, filterService, dateRangeService,
+        new FacetService(null, null), new SearchIndexProperties(), new ObjectMapper());
+
+    QueryRequest request = request("employee", new QueryFilter("department", "in", Arrays.asList("HR"), null, null));
+    request.setExplain(true);
+    QueryResponse response = fallback.query(request);
+    Assert.assertEquals(Arrays.asList(1, 3), ids(response));
+    Assert.assertEquals(QueryService.BITMAP_PATH, response.getPlan().getPath());
+    response = fallback.query(request("workorder", new QueryFilter("created", "between", null, "1/1/20", "1/31/20")));
+    Assert.assertEquals(Arrays.asList(7), ids(response));
+    filterService.rebuild();
+    dateRangeService.rebuild();
+    Assert.assertEquals(1, extractions[0]);
+    Assert.assertSame(filterService.getEmployeeIndex(fresh), filterService.getEmployeeIndex());
+  }
+
+  private static QueryFilter join(String relation, String op, QueryFilter... filters) {
+    QueryFilter join = new QueryFilter();
+    join.setJoin(relation);
+    join.setOp(op);
+    join.setFilters(new ArrayList<>(Arrays.asList(filters)));
+    return join;
+  }
+
+  private static QueryRequest request(String entity, QueryFilter... filters) {
+    QueryRequest request = new QueryRequest();
+    request.setEntity(entity);
+    request.setFilters(new ArrayList<>(Arrays.asList(filters)));
+    return request;
+  }
+
+  private static List<Integer> ids(QueryResponse response) {
+    List<Integer> ids = new ArrayList<>();
+    response.getResults().forEach(result -> ids.add(((JsonNode) result).get("id").asInt()));
+    return ids;
+  }
+
+  private static void employee(ReadModelDocuments docs, int id, String first, String last, Department department) {
+    docs.getRawEmployees().put(id, new Employee(id, first, last, first + "@revature.com", "Trainer", department,
+        new com.revature.rms.search.entites.employee.ResourceMetadata(id, 1, "1/1/20", 1, "1/1/20", 1)));
+  }
+}
@@ -0,0 +1,51 @@
+package com.revature.rms.search.services;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RangeIndexTest {
+
+  RangeIndex sut;
+
+  @Before
+  public void setup() {
+    sut = new RangeIndex(2);
+    sut.add("3/1/2020", 4);
+    sut.add("2020-02-12", 9);
+    sut.add("2/12/20", 2);
+    sut.add("12/16/2019", 7);
+    sut.add("not a date", 5);
+    sut.add(null, 6);
+    sut.freeze();
+  }
+
+  /**
+   * tests that ids come back in order of their day, then of their id, with both ends of the range included
+   */
+  @Test
+  public void testBetweenIncludesBothEnds() {
+    Assert.assertArrayEquals(new int[] {2, 9, 4},
+        sut.between(ResourceDates.toEpochDay("2/12/2020"), ResourceDates.toEpochDay("3/1/2020")));
+    Assert.assertArrayEquals(new int[] {7}, sut.between(Long.MIN_VALUE, ResourceDates.toEpochDay("2/11/2020")));
+    Assert.assertEquals(3, sut.count(ResourceDates.toEpochDay("2/12/2020"), Long.MAX_VALUE));
+  }
+
+  /**
+   * tests that ids whose date is missing or not understood are left out, and that an empty range matches nothing
+   */
+  @Test
+  public void testUnknownDatesAndEmptyRange() {
+    Assert.assertEquals(4, sut.size());
+    Assert.assertArrayEquals(new int[] {7, 2, 9, 4}, sut.between(Long.MIN_VALUE, Long.MAX_VALUE));
+    Assert.assertEquals(0, sut.between(ResourceDates.toEpochDay("1/1/2021"), Long.MAX_VALUE).length);
+  }
+
+  /**
+   * tests that nothing can be added once the index is frozen
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testFrozenIndexRefusesAdds() {
+    sut.add("1/1/2021", 8);
+  }
+}
@@ -0,0 +1,69 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.dtos.RoomDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.batch.Curriculum;
+import com.revature.rms.search.entites.campus.Address;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.campus.RoomStatus;
+import com.revature.rms.search.entites.employee.Department;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.Category;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+
+public class ReadModelAssemblerTest {
+
+  ETLService mockEtlService;
+  ReadModelAssembler sut;
+  ReadModelDocuments docs;
+
+  @Before
+  public void setup() {
+    mockEtlService = Mockito.mock(ETLService.class);
+    sut = new ReadModelAssembler(mockEtlService);
+    docs = new ReadModelDocuments();
+    docs.getRawEmployees().put(1, new Employee(1, "Bruce", "Wayne", "imbatman@bw.com", "Batman", Department.TRAINING, null));
+    docs.getRawEmployees().put(2, new Employee(2, "Peter", "Parker", "webslinger@spidey.com", "Spider Man", Department.QC, null));
+    docs.getRawBatches().put(24, new Batch(24, "ABatch", "2/12/2020", "4/10/2020", 1, 0, Arrays.asList(2), Curriculum.AI, null));
+    docs.getRawWorkOrders().put(7, new WorkOrder(7, "1/1/19", "1/2/19", Category.LIGHTING, "Flickering", "a@b.com", 2, 1));
+    Room room = new Room(15, "123", 25, Arrays.asList(new RoomStatus(14, true, true, "1/1/19", 2, "Good")), 24, Arrays.asList(7), null);
+    docs.getRawRooms().put(15, room);
+    docs.getRawBuildings().put(16, new Building(16, "Muma", "BSN", new Address(), 1, new ArrayList<>(), Arrays.asList(room), null));
+  }
+
+  /**
+   * tests that every document embeds the documents already built for what it points at, so each
+   * employee and batch is hydrated once no matter how many documents show it
+   */
+  @Test
+  public void testDocumentsShareEmbeddedDocuments() {
+    Assert.assertEquals(0, sut.assembleAll(docs));
+    RoomDto room = docs.getRooms().get(15);
+    Assert.assertSame(docs.getBatches().get(24), room.getBatch());
+    Assert.assertSame(docs.getWorkOrders().get(7), room.getWorkOrders().get(0));
+    Assert.assertSame(docs.getEmployees().get(2), room.getCurrentStatus().get(0).getSubmitter());
+    Assert.assertSame(docs.getEmployees().get(1), docs.getBatches().get(24).getTrainer());
+    Assert.assertSame(room, docs.getBuildings().get(16).getRooms().get(0));
+    Mockito.verify(mockEtlService, Mockito.never()).getEmployeeById(anyInt());
+  }
+
+  /**
+   * tests that an employee the bulk listing left out is hydrated through the ETLService
+   */
+  @Test
+  public void testMissingEmployeeIsHydratedThroughEtlService() {
+    docs.getRawEmployees().remove(1);
+    sut.assembleAll(docs);
+    Mockito.verify(mockEtlService, Mockito.atLeastOnce()).getEmployeeById(1);
+  }
+}
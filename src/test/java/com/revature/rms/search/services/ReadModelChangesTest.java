@@ -0,0 +1,93 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.batch.Curriculum;
+import com.revature.rms.search.entites.campus.Address;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import com.revature.rms.search.entites.employee.Department;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.Category;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ReadModelChangesTest {
+
+  ReadModelDocuments previous;
+  ResourceMetadata oldMetadata;
+
+  @Before
+  public void setup() {
+    oldMetadata = new ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 1, true);
+    previous = extracted("1/1/20", Category.LIGHTING);
+    ReadModelChanges.recordWatermarks(null, previous);
+  }
+
+  /**
+   * tests that an employee modified after the watermark is rebuilt together with the batch, room, building
+   * and campus that embed it, and that nothing else is
+   */
+  @Test
+  public void testEmployeeChangeReachesEveryParent() {
+    ReadModelDocuments current = extracted("3/1/20", Category.LIGHTING);
+    ReadModelChanges changes = ReadModelChanges.between(previous, current);
+    Assert.assertEquals(Collections.singleton(2), changes.getEmployees());
+    Assert.assertEquals(Collections.singleton(24), changes.getBatches());
+    Assert.assertEquals(Collections.singleton(15), changes.getRooms());
+    Assert.assertEquals(Collections.singleton(16), changes.getBuildings());
+    Assert.assertEquals(Collections.singleton(17), changes.getCampuses());
+    Assert.assertTrue(changes.getWorkOrders().isEmpty());
+  }
+
+  /**
+   * tests that a work order, which has no metadata, is compared field by field and only reaches its room's parents
+   */
+  @Test
+  public void testWorkOrderIsComparedByFields() {
+    ReadModelDocuments current = extracted("1/1/20", Category.DOORS);
+    ReadModelChanges changes = ReadModelChanges.between(previous, current);
+    Assert.assertEquals(Collections.singleton(7), changes.getWorkOrders());
+    Assert.assertTrue(changes.getEmployees().isEmpty());
+    Assert.assertTrue(changes.getBatches().isEmpty());
+    Assert.assertEquals(Collections.singleton(15), changes.getRooms());
+    Assert.assertEquals(Collections.singleton(17), changes.getCampuses());
+  }
+
+  /**
+   * tests that the watermark never moves back
+   */
+  @Test
+  public void testWatermarkNeverMovesBack() {
+    ReadModelDocuments current = extracted("12/1/19", Category.LIGHTING);
+    ReadModelChanges.recordWatermarks(previous, current);
+    Assert.assertEquals(ResourceDates.toEpochMillis("1/1/20"), current.getWatermark(ReadModelDocuments.EMPLOYEE));
+  }
+
+  private ReadModelDocuments extracted(String employeeModified, Category category) {
+    ReadModelDocuments docs = new ReadModelDocuments();
+    docs.getRawEmployees().put(1, new Employee(1, "Bruce", "Wayne", "imbatman@bw.com", "Batman", Department.TRAINING,
+        new com.revature.rms.search.entites.employee.ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 1)));
+    docs.getRawEmployees().put(2, new Employee(2, "Peter", "Parker", "webslinger@spidey.com", "Spider Man", Department.QC,
+        new com.revature.rms.search.entites.employee.ResourceMetadata(2, 1, "1/1/20", 1, employeeModified, 1)));
+    docs.getRawBatches().put(24, new Batch(24, "ABatch", "2/12/2020", "4/10/2020", 2, 0, new ArrayList<>(), Curriculum.AI, oldMetadata));
+    docs.getRawBatches().put(25, new Batch(25, "BBatch", "2/12/2020", "4/10/2020", 1, 0, new ArrayList<>(), Curriculum.AI, oldMetadata));
+    docs.getRawWorkOrders().put(7, new WorkOrder(7, "1/1/19", "1/2/19", category, "Flickering", "a@b.com", 1, 1));
+    Room room = new Room(15, "123", 25, new ArrayList<>(), 24, Arrays.asList(7), oldMetadata);
+    Room other = new Room(18, "124", 25, new ArrayList<>(), 25, new ArrayList<>(), oldMetadata);
+    docs.getRawRooms().put(15, room);
+    docs.getRawRooms().put(18, other);
+    Building building = new Building(16, "Muma", "BSN", new Address(), 1, new ArrayList<>(), Arrays.asList(room), oldMetadata);
+    docs.getRawBuildings().put(16, building);
+    docs.getRawBuildings().put(19, new Building(19, "Other", "OTH", new Address(), 1, new ArrayList<>(), Arrays.asList(other), oldMetadata));
+    docs.getRawCampuses().put(17, new Campus(17, "USF", "USF", new Address(), 1, 1, 1, Arrays.asList(building), new ArrayList<>(), oldMetadata));
+    return docs;
+  }
+}
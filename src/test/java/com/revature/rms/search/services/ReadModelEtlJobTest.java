@@ -0,0 +1,162 @@
+package com.revature.rms.search.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.rms.search.config.ReadModelProperties;
+import com.revature.rms.search.dtos.EmployeeDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.batch.Curriculum;
+import com.revature.rms.search.entites.campus.Address;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import com.revature.rms.search.entites.employee.Department;
+import com.revature.rms.search.entites.employee.Employee;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ReadModelEtlJobTest {
+
+  ResourceMetadata metadata = new ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 1, true);
+  ETLService mockEtlService;
+  ReadModelProperties properties;
+  SearchReadModel readModel;
+  List<ReadModelUpdatedEvent> events;
+  String modified;
+  Path path;
+  ReadModelEtlJob sut;
+
+  @Before
+  public void setup() throws IOException {
+    mockEtlService = Mockito.mock(ETLService.class);
+    path = Files.createTempFile("read-model", ".snapshot");
+    properties = new ReadModelProperties();
+    properties.setSnapshotPath(path.toString());
+    modified = "1/1/20";
+    sut = job(new SearchReadModel());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  /**
+   * tests that a sync carries over the documents of everything that did not change, rebuilds the changed employee
+   * and every document that embeds it, and moves the watermark forward, and that a sync with nothing new in it
+   * leaves the read model alone
+   */
+  @Test
+  public void testSyncRebuildsOnlyChangedDocuments() {
+    ReadModelDocuments loaded = sut.load();
+    Assert.assertEquals(ResourceDates.toEpochMillis("1/1/20"), loaded.getWatermark(ReadModelDocuments.EMPLOYEE));
+
+    modified = "3/1/20";
+    ReadModelChanges changes = sut.sync();
+    ReadModelDocuments synced = readModel.read(docs -> docs);
+    Assert.assertEquals(Collections.singleton(2), changes.getEmployees());
+    Assert.assertEquals(Collections.singleton(24), changes.getBatches());
+    Assert.assertEquals(Collections.singleton(15), changes.getRooms());
+    Assert.assertEquals(Collections.singleton(16), changes.getBuildings());
+    Assert.assertEquals(Collections.singleton(17), changes.getCampuses());
+    Assert.assertSame(loaded.getEmployees().get(1), synced.getEmployees().get(1));
+    Assert.assertSame(loaded.getBatches().get(25), synced.getBatches().get(25));
+    Assert.assertSame(loaded.getRooms().get(18), synced.getRooms().get(18));
+    Assert.assertSame(loaded.getBuildings().get(19), synced.getBuildings().get(19));
+    Assert.assertNotSame(loaded.getEmployees().get(2), synced.getEmployees().get(2));
+    Assert.assertNotSame(loaded.getRooms().get(15), synced.getRooms().get(15));
+    Assert.assertSame(synced.getBatches().get(24), synced.getRooms().get(15).getBatch());
+    Assert.assertEquals(ResourceDates.toEpochMillis("3/1/20"), synced.getWatermark(ReadModelDocuments.EMPLOYEE));
+
+    Assert.assertTrue(sut.sync().isEmpty());
+    Assert.assertSame(synced, readModel.read(docs -> docs));
+    Assert.assertEquals(2, events.size());
+  }
+
+  /**
+   * tests that a job restored from a snapshot answers from the restored documents straight away, and that the sync
+   * after it only rebuilds what changed since the snapshot was taken
+   */
+  @Test
+  public void testRestoreThenSync() throws IOException {
+    sut.load();
+    Assert.assertTrue(sut.snapshot());
+
+    sut = job(new SearchReadModel());
+    Assert.assertTrue(sut.restore());
+    Assert.assertTrue(readModel.isReady());
+    Assert.assertTrue(events.get(0).isFullLoad());
+    EmployeeDto restored = readModel.read(docs -> docs.getEmployees().get(1));
+    Assert.assertNotNull(restored);
+
+    modified = "3/1/20";
+    ReadModelChanges changes = sut.sync();
+    Assert.assertEquals(Collections.singleton(2), changes.getEmployees());
+    Assert.assertEquals(Collections.singleton(24), changes.getBatches());
+    Assert.assertFalse(events.get(1).isFullLoad());
+    Assert.assertSame(restored, readModel.read(docs -> docs.getEmployees().get(1)));
+    Assert.assertEquals(ResourceDates.toEpochMillis("3/1/20"),
+        (long) readModel.read(docs -> docs.getWatermark(ReadModelDocuments.EMPLOYEE)));
+  }
+
+  /**
+   * tests that no snapshot is written or read unless a snapshot path is set
+   */
+  @Test
+  public void testSnapshotIsOffByDefault() throws IOException {
+    properties = new ReadModelProperties();
+    sut = job(new SearchReadModel());
+    sut.load();
+    Assert.assertEquals("", properties.getSnapshotPath());
+    Assert.assertFalse(sut.snapshot());
+    Assert.assertFalse(sut.restore());
+  }
+
+  private ReadModelEtlJob job(SearchReadModel searchReadModel) {
+    readModel = searchReadModel;
+    events = new ArrayList<>();
+    ReadModelExtractor extractor = new ReadModelExtractor(null, null, null, null, null) {
+      @Override
+      public ReadModelDocuments extract() {
+        return extracted(modified);
+      }
+    };
+    return new ReadModelEtlJob(extractor, new ReadModelAssembler(mockEtlService), readModel,
+        event -> events.add((ReadModelUpdatedEvent) event), new ReadModelSnapshot(new ObjectMapper()), properties);
+  }
+
+  /**
+   * extracted method: Builds the raw objects of campus 17 with building 16, room 15 and batch 24 trained by employee
+   * 2, and of building 19 with room 18 and batch 25 trained by employee 1. Employee 2 was last modified on the given
+   * day.
+   */
+  private ReadModelDocuments extracted(String employeeModified) {
+    ReadModelDocuments docs = new ReadModelDocuments();
+    docs.getRawEmployees().put(1, new Employee(1, "Bruce", "Wayne", "imbatman@bw.com", "Batman", Department.TRAINING,
+        new com.revature.rms.search.entites.employee.ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 1)));
+    docs.getRawEmployees().put(2, new Employee(2, "Peter", "Parker", "webslinger@spidey.com", "Spider Man", Department.QC,
+        new com.revature.rms.search.entites.employee.ResourceMetadata(2, 1, "1/1/20", 1, employeeModified, 1)));
+    docs.getRawBatches().put(24, new Batch(24, "ABatch", "2/12/2020", "4/10/2020", 2, 0, new ArrayList<>(), Curriculum.AI, metadata));
+    docs.getRawBatches().put(25, new Batch(25, "BBatch", "2/12/2020", "4/10/2020", 1, 0, new ArrayList<>(), Curriculum.AI, metadata));
+    Room room = new Room(15, "123", 25, new ArrayList<>(), 24, new ArrayList<>(), metadata);
+    Room other = new Room(18, "124", 25, new ArrayList<>(), 25, new ArrayList<>(), metadata);
+    docs.getRawRooms().put(15, room);
+    docs.getRawRooms().put(18, other);
+    Building building = new Building(16, "Muma", "BSN", new Address(), 1, new ArrayList<>(), Arrays.asList(room), metadata);
+    docs.getRawBuildings().put(16, building);
+    docs.getRawBuildings().put(19, new Building(19, "Other", "OTH", new Address(), 1, new ArrayList<>(), Arrays.asList(other), metadata));
+    docs.getRawCampuses().put(17, new Campus(17, "USF", "USF", new Address(), 1, 1, 1, Arrays.asList(building), new ArrayList<>(), metadata));
+    return docs;
+  }
+}
@@ -0,0 +1,159 @@
+package com.revature.rms.search.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.revature.rms.search.dtos.BatchDto;
+import com.revature.rms.search.dtos.BuildingDto;
+import com.revature.rms.search.dtos.CampusDto;
+import com.revature.rms.search.dtos.EmployeeDto;
+import com.revature.rms.search.dtos.RoomDto;
+import com.revature.rms.search.dtos.RoomStatusDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.batch.Curriculum;
+import com.revature.rms.search.entites.campus.Address;
+import com.revature.rms.search.entites.campus.Building;
+import com.revature.rms.search.entites.campus.Campus;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import com.revature.rms.search.entites.employee.Department;
+import com.revature.rms.search.entites.employee.Employee;
+import com.revature.rms.search.entites.workorder.Category;
+import com.revature.rms.search.entites.workorder.WorkOrder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class ReadModelSnapshotTest {
+
+  ReadModelSnapshot sut;
+  ReadModelDocuments docs;
+  Path path;
+
+  @Before
+  public void setup() throws IOException {
+    sut = new ReadModelSnapshot(new ObjectMapper());
+    path = Files.createTempFile("read-model", ".snapshot");
+    ResourceMetadata metadata = new ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 1, true);
+    docs = new ReadModelDocuments();
+    docs.getRawEmployees().put(1, new Employee(1, "Bruce", "Wayne", "imbatman@bw.com", "Batman", Department.TRAINING,
+        new com.revature.rms.search.entites.employee.ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 1)));
+    docs.getRawBatches().put(24, new Batch(24, "ABatch", "2/12/2020", "4/10/2020", 1, 0, new ArrayList<>(), Curriculum.AI, metadata));
+    docs.getRawWorkOrders().put(7, new WorkOrder(7, "1/1/19", "1/2/19", Category.LIGHTING, "Flickering", "a@b.com", 1, 1));
+    Room room = new Room(15, "123", 25, new ArrayList<>(), 24, Arrays.asList(7), metadata);
+    docs.getRawRooms().put(15, room);
+    Building building = new Building(16, "Muma", "BSN", new Address(), 1, new ArrayList<>(), Arrays.asList(room), metadata);
+    docs.getRawBuildings().put(16, building);
+    docs.getRawCampuses().put(17, new Campus(17, "USF", "USF", new Address(), 1, 1, 1, Arrays.asList(building), new ArrayList<>(), metadata));
+    EmployeeDto employee = new EmployeeDto(1, "Bruce", "Wayne", "imbatman@bw.com", "Batman", Department.TRAINING);
+    docs.getEmployees().put(1, employee);
+    BatchDto batch = new BatchDto(24, "ABatch", "2/12/2020", "4/10/2020", Curriculum.AI);
+    batch.setTrainer(employee);
+    batch.setAssociates(Arrays.asList(employee));
+    docs.getBatches().put(24, batch);
+    RoomDto roomDto = new RoomDto(15, "123", 25);
+    roomDto.setBatch(batch);
+    roomDto.setCurrentStatus(Arrays.asList(new RoomStatusDto(3, true, false, "1/1/20", employee, "Clean")));
+    docs.getRooms().put(15, roomDto);
+    BuildingDto buildingDto = new BuildingDto(16, "Muma", "BSN");
+    buildingDto.setTrainingLead(employee);
+    buildingDto.setRooms(Arrays.asList(roomDto, new RoomDto(18, "Extra", 10)));
+    docs.getBuildings().put(16, buildingDto);
+    CampusDto campus = new CampusDto(17, "USF", "USF", null);
+    campus.setBuildings(Arrays.asList(buildingDto));
+    docs.getCampuses().put(17, campus);
+    ReadModelChanges.recordWatermarks(null, docs);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  /**
+   * tests that every raw object, document and watermark written to a snapshot is read back unchanged and in order
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    sut.write(docs, path);
+    ReadModelDocuments restored = sut.read(path);
+    Assert.assertEquals(docs.getRawEmployees(), restored.getRawEmployees());
+    Assert.assertEquals(docs.getRawBatches(), restored.getRawBatches());
+    Assert.assertEquals(docs.getRawWorkOrders(), restored.getRawWorkOrders());
+    Assert.assertEquals(docs.getRawRooms(), restored.getRawRooms());
+    Assert.assertEquals(docs.getRawBuildings(), restored.getRawBuildings());
+    Assert.assertEquals(docs.getRawCampuses(), restored.getRawCampuses());
+    Assert.assertEquals(docs.getEmployees(), restored.getEmployees());
+    Assert.assertEquals(docs.getRooms(), restored.getRooms());
+    Assert.assertEquals(docs.getCampuses(), restored.getCampuses());
+    Assert.assertEquals(docs.getBuildings(), restored.getBuildings());
+    Assert.assertEquals(docs.getBatches(), restored.getBatches());
+    Assert.assertTrue(restored.getWorkOrders().isEmpty());
+    Assert.assertEquals(docs.getWatermarks(), restored.getWatermarks());
+    Assert.assertArrayEquals(docs.getRawEmployees().keys(), restored.getRawEmployees().keys());
+  }
+
+  /**
+   * tests that an object held by a map and embedded in its parents is read back as one object, and that an embedded
+   * object no map holds is still read back inside its parent
+   */
+  @Test
+  public void testSharedObjectsAreReadBackOnce() throws IOException {
+    sut.write(docs, path);
+    ReadModelDocuments restored = sut.read(path);
+    EmployeeDto employee = restored.getEmployees().get(1);
+    RoomDto room = restored.getRooms().get(15);
+    Assert.assertSame(restored.getBatches().get(24), room.getBatch());
+    Assert.assertSame(employee, room.getBatch().getTrainer());
+    Assert.assertSame(employee, room.getBatch().getAssociates().get(0));
+    Assert.assertSame(employee, room.getCurrentStatus().get(0).getSubmitter());
+    Assert.assertSame(room, restored.getBuildings().get(16).getRooms().get(0));
+    Assert.assertEquals(18, restored.getBuildings().get(16).getRooms().get(1).getId());
+    Assert.assertSame(restored.getBuildings().get(16), restored.getCampuses().get(17).getBuildings().get(0));
+    Assert.assertSame(restored.getRawRooms().get(15), restored.getRawBuildings().get(16).getRooms().get(0));
+    Assert.assertSame(restored.getRawBuildings().get(16), restored.getRawCampuses().get(17).getBuildings().get(0));
+  }
+
+  /**
+   * tests that a missing snapshot reads as null
+   */
+  @Test
+  public void testMissingSnapshotIsNull() throws IOException {
+    Files.delete(path);
+    Assert.assertNull(sut.read(path));
+  }
+
+  /**
+   * tests that a snapshot with a byte changed in its payload is refused
+   */
+  @Test(expected = IOException.class)
+  public void testCorruptSnapshotIsRefused() throws IOException {
+    sut.write(docs, path);
+    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+      file.seek(file.length() - 2);
+      int last = file.read();
+      file.seek(file.length() - 2);
+      file.write(last ^ 0xFF);
+    }
+    sut.read(path);
+  }
+
+  /**
+   * tests that a snapshot written by another format version is refused
+   */
+  @Test(expected = IOException.class)
+  public void testOtherVersionIsRefused() throws IOException {
+    sut.write(docs, path);
+    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+      file.seek(4);
+      file.writeInt(ReadModelSnapshot.FORMAT_VERSION + 1);
+    }
+    sut.read(path);
+  }
+}
@@ -0,0 +1,48 @@
+package com.revature.rms.search.services;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+public class RelationIndexTest {
+
+  RelationIndex sut;
+
+  @Before
+  public void setup() {
+    sut = new RelationIndex();
+    sut.add(15, 7);
+    sut.add(15, 8);
+    sut.add(17, 9);
+    sut.add(18, 8);
+    sut.freeze();
+  }
+
+  /**
+   * tests that the sources of the matched targets are found through the reverse links, each once
+   */
+  @Test
+  public void testSourcesOf() {
+    Assert.assertEquals(RoaringBitmap.bitmapOf(15, 18), sut.sourcesOf(RoaringBitmap.bitmapOf(7, 8, 42)));
+    Assert.assertTrue(sut.sourcesOf(new RoaringBitmap()).isEmpty());
+  }
+
+  /**
+   * tests that the targets of the matched sources are found through the forward links
+   */
+  @Test
+  public void testTargetsOf() {
+    Assert.assertEquals(RoaringBitmap.bitmapOf(7, 8, 9), sut.targetsOf(RoaringBitmap.bitmapOf(15, 17)));
+    Assert.assertArrayEquals(new int[] {7, 8}, sut.getTargets(15));
+    Assert.assertEquals(4, sut.size());
+  }
+
+  /**
+   * tests that nothing can be added once the index is frozen
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testFrozenIndexRefusesLinks() {
+    sut.add(19, 1);
+  }
+}
@@ -0,0 +1,46 @@
+package com.revature.rms.search.services;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResourceDatesTest {
+
+  static final long NEW_YEAR_2020 = 1577836800000L;
+
+  /**
+   * tests that US style dates with a two or four digit year, ISO dates and date-times all read as UTC
+   */
+  @Test
+  public void testToEpochMillis() {
+    Assert.assertEquals(NEW_YEAR_2020, ResourceDates.toEpochMillis("1/1/20"));
+    Assert.assertEquals(NEW_YEAR_2020, ResourceDates.toEpochMillis("1/1/2020"));
+    Assert.assertEquals(NEW_YEAR_2020, ResourceDates.toEpochMillis(" 2020-01-01 "));
+    Assert.assertEquals(NEW_YEAR_2020 + 49500000L, ResourceDates.toEpochMillis("1/1/20 13:45"));
+    Assert.assertEquals(NEW_YEAR_2020 + 49500000L, ResourceDates.toEpochMillis("1/1/2020 1:45 PM"));
+    Assert.assertEquals(NEW_YEAR_2020 + 49500000L, ResourceDates.toEpochMillis("2020-01-01T13:45:00"));
+    Assert.assertEquals(NEW_YEAR_2020, ResourceDates.toEpochMillis("2020-01-01T05:00:00+05:00"));
+    Assert.assertEquals(NEW_YEAR_2020, ResourceDates.toEpochMillis("2020-01-01T00:00:00Z"));
+  }
+
+  /**
+   * tests that a missing, blank or unreadable date is unknown instead of failing
+   */
+  @Test
+  public void testBadInputIsUnknown() {
+    Assert.assertEquals(ResourceDates.UNKNOWN, ResourceDates.toEpochMillis(null));
+    Assert.assertEquals(ResourceDates.UNKNOWN, ResourceDates.toEpochMillis("  "));
+    Assert.assertEquals(ResourceDates.UNKNOWN, ResourceDates.toEpochMillis("testTime"));
+    Assert.assertEquals(ResourceDates.UNKNOWN, ResourceDates.toEpochMillis("13/1/20"));
+    Assert.assertEquals(ResourceDates.UNKNOWN, ResourceDates.toEpochMillis("2/30/2020"));
+    Assert.assertEquals(ResourceDates.UNKNOWN, ResourceDates.toEpochDay("testTime"));
+  }
+
+  /**
+   * tests that a date-time is cut down to the day it falls on, also before the epoch
+   */
+  @Test
+  public void testToEpochDay() {
+    Assert.assertEquals(18262, ResourceDates.toEpochDay("1/1/20 23:59"));
+    Assert.assertEquals(-1, ResourceDates.toEpochDay("1969-12-31T12:00:00"));
+  }
+}
@@ -0,0 +1,105 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.core.exceptions.InvalidRequestException;
+import com.revature.rms.core.exceptions.ResourceNotFoundException;
+import com.revature.rms.search.dtos.RoomDto;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.batch.Curriculum;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class SearchReadModelTest {
+
+  SearchReadModel sut;
+  ReadModelDocuments docs;
+  RoomDto firstRoom;
+  RoomDto secondRoom;
+
+  @Before
+  public void setup() {
+    sut = new SearchReadModel();
+    docs = new ReadModelDocuments();
+    docs.getRawBatches().put(24, new Batch(24, "ABatch", "2/12/2020", "4/10/2020", 20, 22, new ArrayList<>(), Curriculum.AI, null));
+    docs.getRawRooms().put(15, new Room(15, "123", 25, new ArrayList<>(), 24, new ArrayList<>(), null));
+    docs.getRawRooms().put(16, new Room(16, "124", 25, new ArrayList<>(), 24, new ArrayList<>(), null));
+    firstRoom = new RoomDto(15, "123", 25);
+    secondRoom = new RoomDto(16, "124", 25);
+    docs.getRooms().put(15, firstRoom);
+    docs.getRooms().put(16, secondRoom);
+  }
+
+  /**
+   * tests that the model is not ready before the first load and answers from the documents afterwards
+   */
+  @Test
+  public void testReadyAfterReplace() {
+    Assert.assertFalse(sut.isReady());
+    sut.replace(docs);
+    Assert.assertTrue(sut.isReady());
+    Assert.assertSame(firstRoom, sut.getRoomDtoById(15));
+    Assert.assertEquals(2, sut.getAllRooms().size());
+  }
+
+  /**
+   * tests that a trainer or co-trainer of several rooms gets the last one, as when every room was scanned
+   */
+  @Test
+  public void testTrainerLookupPicksLastRoom() {
+    sut.replace(docs);
+    Assert.assertSame(secondRoom, sut.getRoomDtoByTrainerId(20));
+    Assert.assertSame(secondRoom, sut.getRoomDtoByCoTrainerId(22));
+  }
+
+  /**
+   * tests that a missing document throws the same ResourceNotFoundException as the ETLService
+   */
+  @Test
+  public void testMissingRoomThrowsResourceNotFound() {
+    sut.replace(docs);
+    try {
+      sut.getRoomDtoByTrainerId(21);
+      Assert.fail("expected a ResourceNotFoundException");
+    } catch (ResourceNotFoundException expected) {
+      Assert.assertEquals("No room found with trainer id: 21", expected.getMessage());
+    }
+  }
+
+  /**
+   * tests that owner lookups return only the resources of that type whose metadata names the owner, in load order
+   */
+  @Test
+  public void testOwnerLookups() {
+    docs.getRawRooms().put(15, new Room(15, "123", 25, new ArrayList<>(), 24, new ArrayList<>(), owned(3)));
+    docs.getRawRooms().put(16, new Room(16, "124", 25, new ArrayList<>(), 24, new ArrayList<>(), owned(3)));
+    docs.getRawBatches().put(24, new Batch(24, "ABatch", "2/12/2020", "4/10/2020", 20, 22, new ArrayList<>(), Curriculum.AI, owned(4)));
+    sut.replace(docs);
+    Assert.assertEquals(Arrays.asList(firstRoom, secondRoom), sut.getAllRoomByOwner(3));
+    Assert.assertArrayEquals(new int[] {24}, sut.getOwnedIds(ReadModelDocuments.BATCH, 4));
+    Assert.assertEquals(0, sut.getOwnedIds(ReadModelDocuments.ROOM, 4).length);
+    try {
+      sut.getAllBuildingsByOwner(3);
+      Assert.fail("expected a ResourceNotFoundException");
+    } catch (ResourceNotFoundException expected) {
+      Assert.assertEquals("No buildings found with that owner", expected.getMessage());
+    }
+  }
+
+  /**
+   * tests that an id below 1 is rejected before the documents are looked at
+   */
+  @Test(expected = InvalidRequestException.class)
+  public void testBadIdThrowsInvalidRequest() {
+    sut.replace(docs);
+    sut.getRoomDtoById(0);
+  }
+
+  private static ResourceMetadata owned(int owner) {
+    return new ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", owner, true);
+  }
+}
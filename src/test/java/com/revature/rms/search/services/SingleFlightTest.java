@@ -0,0 +1,77 @@
+package com.revature.rms.search.services;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+  /**
+   * tests that a caller asking for a key while it is being computed waits for and gets the same result
+   * instead of running the computation again
+   */
+  @Test
+  public void testConcurrentCallersShareOneComputation() throws Exception {
+    SingleFlight<Integer, String> flight = new SingleFlight<>();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger runs = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> leader = pool.submit(() -> flight.execute(1, () -> {
+        runs.incrementAndGet();
+        started.countDown();
+        await(release);
+        return "campus";
+      }));
+      Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+      Future<String> follower = pool.submit(() -> flight.execute(1, () -> {
+        runs.incrementAndGet();
+        return "other";
+      }));
+      while (flight.getCoalesced() < 1) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+      Assert.assertEquals("campus", leader.get(5, TimeUnit.SECONDS));
+      Assert.assertEquals("campus", follower.get(5, TimeUnit.SECONDS));
+      Assert.assertEquals(1, runs.get());
+      Assert.assertEquals(1, flight.getCoalesced());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * tests that an exception thrown by the computation is thrown to the caller and that the key
+   * is computed again on the next call
+   */
+  @Test
+  public void testExceptionIsNotRemembered() {
+    SingleFlight<Integer, String> flight = new SingleFlight<>();
+    try {
+      flight.execute(1, () -> {
+        throw new IllegalStateException("down");
+      });
+      Assert.fail("expected an IllegalStateException");
+    } catch (IllegalStateException expected) {
+      Assert.assertEquals("down", expected.getMessage());
+    }
+    Assert.assertEquals("campus", flight.execute(1, () -> "campus"));
+    Assert.assertEquals(0, flight.getCoalesced());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
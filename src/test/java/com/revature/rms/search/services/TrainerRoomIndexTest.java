@@ -0,0 +1,101 @@
+package com.revature.rms.search.services;
+
+import com.revature.rms.search.config.HydrationProperties;
+import com.revature.rms.search.entites.batch.Batch;
+import com.revature.rms.search.entites.batch.Curriculum;
+import com.revature.rms.search.entites.campus.Room;
+import com.revature.rms.search.entites.common.ResourceMetadata;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class TrainerRoomIndexTest {
+
+  ResourceMetadata metadata = new ResourceMetadata(1, 1, "1/1/20", 1, "1/1/20", 1, true);
+  HydrationProperties hydrationProperties;
+  SearchReadModel readModel;
+  ReadModelDocuments pulled;
+  int pulls;
+  TrainerRoomIndex sut;
+
+  @Before
+  public void setup() {
+    hydrationProperties = new HydrationProperties();
+    readModel = new SearchReadModel();
+    pulled = extracted(20);
+    pulls = 0;
+    sut = new TrainerRoomIndex(null, null, readModel, hydrationProperties) {
+      @Override
+      ReadModelDocuments pull() {
+        pulls++;
+        return pulled;
+      }
+    };
+  }
+
+  /**
+   * tests that the last room of a trainer or co-trainer is the one the read model picks from the same raw objects
+   */
+  @Test
+  public void testAgreesWithReadModel() {
+    int[] rooms = sut.findRoomIdsByTrainerId(20);
+    readModel.replace(pulled);
+    Assert.assertEquals(2, rooms.length);
+    Assert.assertEquals(readModel.getRoomDtoByTrainerId(20).getId(), rooms[rooms.length - 1]);
+    int[] coRooms = sut.findRoomIdsByCoTrainerId(22);
+    Assert.assertEquals(readModel.getRoomDtoByCoTrainerId(22).getId(), coRooms[coRooms.length - 1]);
+    Assert.assertEquals(0, sut.findRoomIdsByTrainerId(21).length);
+    Assert.assertEquals(1, pulls);
+  }
+
+  /**
+   * tests that a lookup that finds the index out of date only pulls the rooms and batches again once the shortest
+   * time between rebuilds has passed
+   */
+  @Test
+  public void testRebuildIfStaleIsThrottled() {
+    sut.findRoomIdsByTrainerId(21);
+    pulled = extracted(21);
+    Assert.assertFalse(sut.rebuildIfStale());
+    Assert.assertEquals(0, sut.findRoomIdsByTrainerId(21).length);
+
+    hydrationProperties.setTrainerIndexMinRebuildMs(0);
+    Assert.assertTrue(sut.rebuildIfStale());
+    Assert.assertEquals(2, sut.findRoomIdsByTrainerId(21).length);
+    Assert.assertEquals(2, pulls);
+  }
+
+  /**
+   * tests that a read model load or sync rebuilds the index from its documents without pulling anything, and that
+   * a rebuild after it reads the read model instead of the services
+   */
+  @Test
+  public void testBuildsFromReadModel() {
+    ReadModelDocuments docs = extracted(21);
+    sut.onReadModelUpdated(new ReadModelUpdatedEvent(docs, null));
+    Assert.assertEquals(2, sut.findRoomIdsByTrainerId(21).length);
+
+    readModel.replace(docs);
+    sut.rebuild();
+    Assert.assertEquals(2, sut.findRoomIdsByTrainerId(21).length);
+    Assert.assertEquals(0, pulls);
+  }
+
+  /**
+   * extracted method: Builds rooms 15 and 18 holding batch 24, led by the given trainer and co-trained by
+   * employee 22, and room 17 holding a batch nobody knows.
+   */
+  private ReadModelDocuments extracted(int trainer) {
+    ReadModelDocuments docs = new ReadModelDocuments();
+    docs.getRawBatches().put(24, new Batch(24, "ABatch", "2/12/2020", "4/10/2020", trainer, 22, new ArrayList<>(),
+        Curriculum.AI, metadata));
+    for (int id : new int[] {15, 17, 18}) {
+      Room room = new Room(id, "1" + id, 25, new ArrayList<>(), id == 17 ? 9 : 24, new ArrayList<>(), metadata);
+      docs.getRawRooms().put(id, room);
+      docs.getRooms().put(id, room.extractRoom());
+    }
+    return docs;
+  }
+}